@@ -0,0 +1,82 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import dao.DatabaseConnection;
+import dao.RegistreDAO;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * BaseDeTest : prépare une base embarquée remplie pour les benchmarks DAO
+ *
+ * 💡 EXPLICATION :
+ * Les benchmarks ne doivent dépendre d'aucun serveur : par défaut on utilise
+ * H2 en mémoire en mode MySQL (jar H2 à placer dans lib/).
+ * Une autre base peut être visée avec -Dbloodplus.db.url (ex: un MySQL de test,
+ * dont le schéma a été créé avec database/bloodplus.sql).
+ *
+ * 1. Création des tables par DatabaseConnection (base embarquée)
+ * 2. Remplissage par GenerateurDonnees (graine fixe) : deux lancements
+ *    mesurent exactement les mêmes données, les résultats sont comparables
+ * 3. Reconstruction de l'index d'éligibilité
+ *
+ * @author dteach
+ */
+public class BaseDeTest {
+
+    // Base embarquée par défaut (la base reste en mémoire tant que la JVM vit)
+    public static final String URL_EMBARQUEE =
+        "jdbc:h2:mem:bloodplus_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private BaseDeTest() {
+    }
+
+    /**
+     * Ouvre une connexion sur la base de test, créée et remplie si besoin
+     *
+     * @param nbDonneurs Nombre de donneurs voulu (les autres tables suivent
+     *                   les proportions de GenerateurDonnees.Volumes)
+     */
+    public static Connection preparer(int nbDonneurs) throws SQLException {
+        Connection connection = ouvrir();
+        if (compter(connection, "donneurs") < nbDonneurs) {
+            new GenerateurDonnees(connection).completer(GenerateurDonnees.Volumes.pourDonneurs(nbDonneurs));
+            reconstruireIndex(connection);
+        }
+        return connection;
+    }
+
+    /**
+     * Ouvre une connexion sur la base configurée (base embarquée par défaut)
+     * 💡 Sur une base embarquée, DatabaseConnection crée les tables si besoin
+     */
+    public static Connection ouvrir() throws SQLException {
+        if (System.getProperty("bloodplus.db.url") == null) {
+            System.setProperty("bloodplus.db.url", URL_EMBARQUEE);
+        }
+        try {
+            return DatabaseConnection.ouvrirConnexion();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver JDBC introuvable pour " + DatabaseConnection.getUrl(), e);
+        }
+    }
+
+    /**
+     * Recalcule les tables dérivées (index d'éligibilité) après un remplissage
+     */
+    public static void reconstruireIndex(Connection connection) {
+        RegistreDAO.sur(connection).getEligibiliteDAO().reconstruire();
+    }
+
+    private static int compter(Connection connection, String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ComparaisonJmh : compare deux résultats JMH et signale les régressions
+ *
+ * 💡 EXPLICATION :
+ * "ant bench" écrit ses résultats en JSON (build/bench/jmh-resultats.json).
+ * Avant une livraison, on compare ces résultats à une RÉFÉRENCE gardée
+ * (ex: les résultats de la version précédente) :
+ * - mode "avgt" / "sample" / "ss" (temps par opération) : plus haut = plus lent
+ * - mode "thrpt" (opérations par unité de temps) : plus bas = plus lent
+ * Au-delà de la tolérance, le benchmark est signalé et le programme se termine
+ * en erreur : la cible Ant échoue, la livraison est bloquée.
+ *
+ * Lecture volontairement simple (expressions régulières sur le format JSON
+ * de JMH) : aucune dépendance en plus.
+ *
+ * Usage : java bench.ComparaisonJmh reference.json resultats.json [tolerance %]
+ *
+ * @author dteach
+ */
+public class ComparaisonJmh {
+
+    private static final Pattern BENCHMARK = Pattern.compile("\"benchmark\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern MODE = Pattern.compile("\"mode\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern PARAMS = Pattern.compile("\"params\"\\s*:\\s*\\{([^}]*)\\}");
+    private static final Pattern SCORE = Pattern.compile("\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([-0-9.eE+]+|\"NaN\")");
+    private static final Pattern UNITE = Pattern.compile("\"scoreUnit\"\\s*:\\s*\"([^\"]+)\"");
+
+    /**
+     * Un résultat : score, unité et sens ("plus grand = mieux" pour thrpt)
+     */
+    private static class Mesure {
+        final double score;
+        final String unite;
+        final boolean debit;
+
+        Mesure(double score, String unite, boolean debit) {
+            this.score = score;
+            this.unite = unite;
+            this.debit = debit;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage : ComparaisonJmh reference.json resultats.json [tolerance %]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Mesure> reference = lire(Paths.get(args[0]));
+        Map<String, Mesure> actuel = lire(Paths.get(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %12s %12s %8s%n", "Benchmark", "Référence", "Actuel", "Écart");
+        for (Map.Entry<String, Mesure> e : actuel.entrySet()) {
+            Mesure avant = reference.get(e.getKey());
+            Mesure apres = e.getValue();
+            if (avant == null || !avant.unite.equals(apres.unite)) {
+                System.out.printf("%-70s %12s %12.3f %8s  (nouveau)%n", e.getKey(), "-", apres.score, "");
+                continue;
+            }
+            // Écart en % dans le sens "positif = plus lent"
+            double ecart = apres.debit
+                ? (avant.score - apres.score) / avant.score * 100.0
+                : (apres.score - avant.score) / avant.score * 100.0;
+            boolean regression = ecart > tolerance;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-70s %12.3f %12.3f %+7.1f%% %s%n", e.getKey(), avant.score, apres.score,
+                ecart, regression ? "❌ RÉGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.err.println("❌ " + regressions + " benchmark(s) plus lents de plus de " + tolerance + " %");
+            System.exit(1);
+        }
+        System.out.println("✅ Aucune régression au-delà de " + tolerance + " %");
+    }
+
+    /**
+     * Lit un fichier JSON produit par JMH (-rf json)
+     * 💡 Chaque résultat commence par "jmhVersion" : on découpe le fichier sur ce mot
+     */
+    private static Map<String, Mesure> lire(Path fichier) throws IOException {
+        String json = new String(Files.readAllBytes(fichier), StandardCharsets.UTF_8);
+        Map<String, Mesure> mesures = new LinkedHashMap<>();
+        for (String bloc : json.split("\"jmhVersion\"")) {
+            Matcher benchmark = BENCHMARK.matcher(bloc);
+            Matcher mode = MODE.matcher(bloc);
+            Matcher score = SCORE.matcher(bloc);
+            Matcher unite = UNITE.matcher(bloc);
+            if (!benchmark.find() || !mode.find() || !score.find() || !unite.find()) {
+                continue;
+            }
+            Matcher params = PARAMS.matcher(bloc);
+            String cle = benchmark.group(1).replaceFirst("^.*\\.(\\w+\\.\\w+)$", "$1")
+                + (params.find() ? " {" + params.group(1).replaceAll("[\\s\"]", "") + "}" : "");
+            double valeur = score.group(1).startsWith("\"") ? Double.NaN : Double.parseDouble(score.group(1));
+            mesures.put(cle, new Mesure(valeur, unite.group(1), "thrpt".equals(mode.group(1))));
+        }
+        return mesures;
+    }
+}
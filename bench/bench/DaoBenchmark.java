@@ -0,0 +1,161 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import dao.DistributionDAO;
+import dao.DonDAO;
+import dao.DonneurDAO;
+import dao.EligibiliteDAO;
+import dao.RegistreDAO;
+import dao.StockSanguinDAO;
+import model.Don;
+import model.Distribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DaoBenchmark : requêtes principales des DAO sur une base embarquée
+ *
+ * 💡 EXPLICATION :
+ * Ce sont les requêtes jouées à l'ouverture de chaque écran (listes,
+ * recherches, résumé du stock) et par l'API. La base est préparée une
+ * seule fois par BaseDeTest (données déterministes) ; la taille est un
+ * paramètre JMH : -p nbDonneurs=10000,100000
+ *
+ * Seules des LECTURES sont mesurées : la base reste identique d'une
+ * itération à l'autre, les résultats restent comparables.
+ *
+ * @author dteach
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DaoBenchmark {
+
+    @Param({"10000"})
+    public int nbDonneurs;
+
+    private Connection connection;
+    private DonneurDAO donneurDAO;
+    private DonDAO donDAO;
+    private StockSanguinDAO stockDAO;
+    private DistributionDAO distributionDAO;
+    private EligibiliteDAO eligibiliteDAO;
+    private int idMilieu;
+
+    @Setup(Level.Trial)
+    public void preparer() throws SQLException {
+        connection = BaseDeTest.preparer(nbDonneurs);
+        RegistreDAO registre = RegistreDAO.sur(connection);
+        donneurDAO = registre.getDonneurDAO();
+        donDAO = registre.getDonDAO();
+        stockDAO = registre.getStockSanguinDAO();
+        distributionDAO = registre.getDistributionDAO();
+        eligibiliteDAO = registre.getEligibiliteDAO();
+        idMilieu = donneurDAO.getIdMax() / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() throws SQLException {
+        connection.close();
+    }
+
+    // ================================================================
+    // DONNEURS
+    // ================================================================
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<?> donneursListerTous() {
+        return donneurDAO.listerTous();
+    }
+
+    @Benchmark
+    public Object donneurTrouverParId() {
+        return donneurDAO.trouverParId(idMilieu);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<?> donneursParGroupe() {
+        return donneurDAO.trouverParGroupeSanguin("O-");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<?> donneursRechercher() {
+        return donneurDAO.rechercher("Nom12");
+    }
+
+    @Benchmark
+    public int donneursCompter() {
+        return donneurDAO.compter();
+    }
+
+    // ================================================================
+    // DONS, STOCKS, DISTRIBUTIONS
+    // ================================================================
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<?> donsListerTous() {
+        return donDAO.listerTous();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<?> donsEnAttente() {
+        return donDAO.trouverParStatut(Don.STATUT_EN_ATTENTE);
+    }
+
+    @Benchmark
+    public List<?> donsParDonneur() {
+        return donDAO.trouverParDonneur(idMilieu);
+    }
+
+    @Benchmark
+    public List<?> stockResume() {
+        return stockDAO.getResumeStock();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<?> stockDisponible() {
+        return stockDAO.listerDisponible();
+    }
+
+    @Benchmark
+    public List<?> distributionsEnCours() {
+        return distributionDAO.trouverParStatut(Distribution.STATUT_EN_COURS);
+    }
+
+    // ================================================================
+    // ÉLIGIBILITÉ
+    // ================================================================
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<?> eligiblesONegatif() {
+        return eligibiliteDAO.listerEligibles("O-", LocalDate.now());
+    }
+
+    @Benchmark
+    public int eligiblesCompter() {
+        return eligibiliteDAO.compterEligibles("O-", LocalDate.now());
+    }
+}
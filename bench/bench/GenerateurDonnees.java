@@ -0,0 +1,443 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import dao.DonneurDAO;
+import dao.RegistreDAO;
+import model.Donneur;
+import model.StockSanguin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * GenerateurDonnees : remplit une base avec des volumes réalistes
+ *
+ * 💡 EXPLICATION :
+ * Le script database/bloodplus.sql contient 5 donneurs : à cette taille,
+ * tous les écrans sont instantanés et personne ne voit qu'ils ralentissent
+ * avec le volume. Ce générateur produit des tables de taille réelle :
+ * - donneurs : répartition réelle des groupes (O+ 38 %, A+ 34 %... AB- 1 %),
+ *   âges de 18 à 65 ans, inscriptions étalées sur 10 ans, 5 % inaptes
+ * - dons : 85 % validés, 10 % en attente, 5 % rejetés, sur 5 ans
+ * - stocks : poches de 450 ml des 60 derniers jours (certaines périmées)
+ * - distributions : surtout livrées, vers quelques gros hôpitaux
+ * - journal d'audit : connexions, consultations et modifications
+ *
+ * Le remplissage est INCRÉMENTAL : seules les lignes manquantes pour
+ * atteindre les volumes demandés sont ajoutées (passage de 10k à 100k
+ * sans tout régénérer). Graine fixe : mêmes volumes = mêmes données.
+ *
+ * Insertion par lots JDBC, validation toutes les TAILLE_TRANSACTION lignes.
+ * 💡 Avec MySQL, ajouter rewriteBatchedStatements=true à l'URL.
+ *
+ * Lancement : ant bench-generer -Dbench.donneurs=1000000
+ *
+ * @author dteach
+ */
+public class GenerateurDonnees {
+
+    private static final long GRAINE = 42L;
+    private static final int TAILLE_LOT = 1000;
+    private static final int TAILLE_TRANSACTION = 20_000;
+    private static final long JOUR_MS = 86_400_000L;
+
+    // Répartition courante des groupes sanguins (en %) : O+ et A+ dominent, AB- est rare
+    private static final String[] GROUPES = {"O+", "A+", "B+", "O-", "A-", "AB+", "B-", "AB-"};
+    private static final int[] POURCENTAGES = {38, 34, 9, 7, 6, 3, 2, 1};
+
+    private static final String[] NOMS = {
+        "Martin", "Bernard", "Thomas", "Petit", "Robert", "Richard", "Durand", "Dubois", "Moreau",
+        "Laurent", "Simon", "Michel", "Lefebvre", "Leroy", "Roux", "David", "Bertrand", "Morel",
+        "Fournier", "Girard", "Bonnet", "Dupont", "Lambert", "Fontaine", "Rousseau", "Vincent",
+        "Muller", "Lefevre", "Faure", "Andre", "Mercier", "Blanc", "Guerin", "Boyer", "Garnier",
+        "Chevalier", "Francois", "Legrand", "Gauthier", "Garcia", "Perrin", "Robin", "Clement",
+        "Morin", "Nicolas", "Henry", "Roussel", "Mathieu", "Gautier", "Masson", "Diallo", "Traore",
+        "Nguyen", "Benali", "Mendy", "Kone", "Camara", "Diop", "Sarr", "Ndiaye"
+    };
+    private static final String[] PRENOMS_H = {
+        "Jean", "Pierre", "Michel", "Andre", "Philippe", "Louis", "Nicolas", "Thomas", "Julien",
+        "Lucas", "Hugo", "Mamadou", "Moussa", "Karim", "Paul", "Antoine", "Mathieu", "David"
+    };
+    private static final String[] PRENOMS_F = {
+        "Marie", "Nathalie", "Isabelle", "Sophie", "Julie", "Camille", "Emma", "Lea", "Chloe",
+        "Fatou", "Aminata", "Helene", "Claire", "Sarah", "Manon", "Ines", "Aicha", "Laura"
+    };
+    private static final String[] VILLES = {
+        "Paris", "Lyon", "Marseille", "Toulouse", "Lille", "Bordeaux", "Nantes", "Dakar", "Abidjan", "Bamako"
+    };
+    private static final String[] MOTIFS = {
+        "Chirurgie programmée", "Urgence", "Accouchement", "Hématologie", "Traumatologie", "Réserve de service"
+    };
+    private static final String[] ACTIONS = {"CONNEXION", "CONSULTER", "AJOUTER", "MODIFIER", "VALIDER", "SUPPRIMER"};
+    private static final int[] POIDS_ACTIONS = {25, 40, 20, 10, 4, 1};
+    private static final String[] ENTITES = {"DONNEUR", "DON", "STOCK", "DISTRIBUTION", "HOPITAL", "UTILISATEUR"};
+
+    /**
+     * Nombre de lignes visées par table
+     */
+    public static class Volumes {
+        final long donneurs;
+        final long dons;
+        final long stocks;
+        final long distributions;
+        final long actions;
+
+        public Volumes(long donneurs, long dons, long stocks, long distributions, long actions) {
+            this.donneurs = donneurs;
+            this.dons = dons;
+            this.stocks = stocks;
+            this.distributions = distributions;
+            this.actions = actions;
+        }
+
+        /**
+         * Proportions d'un centre en activité depuis quelques années :
+         * par donneur, 5 dons, 0,5 poche en stock, 2 distributions et 20 lignes d'audit
+         * (1M donneurs = 5M dons, 500k poches, 2M distributions, 20M lignes d'audit)
+         */
+        public static Volumes pourDonneurs(long donneurs) {
+            return new Volumes(donneurs, donneurs * 5, donneurs / 2, donneurs * 2, donneurs * 20);
+        }
+
+        @Override
+        public String toString() {
+            return donneurs + " donneurs, " + dons + " dons, " + stocks + " poches, "
+                + distributions + " distributions, " + actions + " lignes d'audit";
+        }
+    }
+
+    private final Connection connection;
+    private final long maintenant = System.currentTimeMillis();
+
+    public GenerateurDonnees(Connection connection) {
+        this.connection = connection;
+    }
+
+    // ================================================================
+    // POINT D'ENTRÉE
+    // ================================================================
+
+    /**
+     * Ajoute les lignes manquantes pour atteindre les volumes demandés
+     */
+    public void completer(Volumes volumes) throws SQLException {
+        long debut = System.currentTimeMillis();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            completerHopitaux();
+            completerUtilisateurs();
+            completerDonneurs(volumes.donneurs);
+            completerDons(volumes.dons);
+            completerStocks(volumes.stocks);
+            completerDistributions(volumes.distributions);
+            completerActions(volumes.actions);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        System.out.println("✅ Données générées : " + volumes + " ("
+            + (System.currentTimeMillis() - debut) / 1000 + " s)");
+    }
+
+    // ================================================================
+    // TABLES DE RÉFÉRENCE
+    // ================================================================
+
+    private void completerHopitaux() throws SQLException {
+        if (compter("hopitaux") > 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO hopitaux (nom, ville, telephone, responsable, actif) VALUES (?, ?, ?, ?, TRUE)")) {
+            for (int i = 0; i < 40; i++) {
+                String ville = VILLES[i % VILLES.length];
+                pstmt.setString(1, (i < VILLES.length ? "CHU de " : "Clinique " + (i / VILLES.length) + " de ") + ville);
+                pstmt.setString(2, ville);
+                pstmt.setString(3, "01" + String.format("%08d", i));
+                pstmt.setString(4, "Dr " + NOMS[i % NOMS.length]);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void completerUtilisateurs() throws SQLException {
+        if (compter("utilisateurs") > 0) {
+            return;
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO utilisateurs (username, password, nom_complet, role) VALUES " +
+                "('admin', 'admin123', 'Administrateur', 'ADMIN'), " +
+                "('operateur', 'operateur123', 'Opérateur Test', 'OPERATEUR'), " +
+                "('lecteur', 'lecteur123', 'Lecteur Test', 'LECTEUR')");
+        }
+    }
+
+    // ================================================================
+    // DONNEURS
+    // ================================================================
+
+    private void completerDonneurs(long cible) throws SQLException {
+        long existants = compter("donneurs");
+        Random random = new Random(GRAINE + existants);
+        DonneurDAO donneurDAO = RegistreDAO.sur(connection).getDonneurDAO();
+        int idAvant = donneurDAO.getIdMax();
+        List<Donneur> lot = new ArrayList<>(500);
+        for (long i = existants; i < cible; i++) {
+            lot.add(donneur(i, random));
+            if (lot.size() == 500) {
+                donneurDAO.ajouterEnLot(lot);
+                lot.clear();
+                if ((i + 1) % TAILLE_TRANSACTION == 0) {
+                    connection.commit();
+                }
+            }
+        }
+        donneurDAO.ajouterEnLot(lot);
+        connection.commit();
+
+        // 💡 ajouterEnLot ne renseigne pas la date d'inscription : on l'étale sur 10 ans
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "UPDATE donneurs SET date_inscription = ? WHERE id = ?")) {
+            int n = 0;
+            for (int id = idAvant + 1, idMax = donneurDAO.getIdMax(); id <= idMax; id++) {
+                pstmt.setTimestamp(1, new Timestamp(maintenant - (long) random.nextInt(3650) * JOUR_MS));
+                pstmt.setInt(2, id);
+                pstmt.addBatch();
+                n = executerSiPlein(pstmt, n);
+            }
+            pstmt.executeBatch();
+        }
+        connection.commit();
+        afficher("donneurs", existants, cible);
+    }
+
+    private static Donneur donneur(long i, Random random) {
+        boolean femme = random.nextBoolean();
+        String nom = NOMS[random.nextInt(NOMS.length)];
+        String prenom = femme ? PRENOMS_F[random.nextInt(PRENOMS_F.length)] : PRENOMS_H[random.nextInt(PRENOMS_H.length)];
+        Donneur d = new Donneur(nom, prenom, tirerGroupe(random),
+            (random.nextBoolean() ? "06" : "07") + String.format("%08d", i % 100_000_000L));
+        d.setSexe(femme ? "F" : "M");
+        // 30 % des donneurs n'ont pas d'email
+        if (random.nextInt(100) >= 30) {
+            d.setEmail(prenom.toLowerCase() + "." + nom.toLowerCase() + i + "@exemple.fr");
+        }
+        d.setAdresse((1 + random.nextInt(200)) + " rue " + NOMS[random.nextInt(NOMS.length)]
+            + ", " + VILLES[random.nextInt(VILLES.length)]);
+        // Âge de 18 à 65 ans
+        long age = 18L * 365 + random.nextInt(47 * 365);
+        d.setDateNaissance(LocalDate.now().minusDays(age));
+        d.setApte(random.nextInt(100) >= 5);
+        return d;
+    }
+
+    static String tirerGroupe(Random random) {
+        int tirage = random.nextInt(100);
+        for (int i = 0; i < GROUPES.length; i++) {
+            tirage -= POURCENTAGES[i];
+            if (tirage < 0) {
+                return GROUPES[i];
+            }
+        }
+        return GROUPES[0];
+    }
+
+    // ================================================================
+    // DONS, STOCKS, DISTRIBUTIONS, AUDIT
+    // ================================================================
+
+    private void completerDons(long cible) throws SQLException {
+        long existants = compter("dons");
+        int nbDonneurs = RegistreDAO.sur(connection).getDonneurDAO().getIdMax();
+        if (nbDonneurs == 0) {
+            return;
+        }
+        Random random = new Random(GRAINE + 1 + existants);
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO dons (donneur_id, date_don, quantite, statut, notes) VALUES (?, ?, ?, ?, ?)")) {
+            int n = 0;
+            for (long i = existants; i < cible; i++) {
+                int tirage = random.nextInt(100);
+                // 💡 Les dons les plus récents sont plus souvent encore en attente de validation
+                long age = (long) random.nextInt(5 * 365);
+                String statut = tirage < 5 ? "REJETE"
+                    : (tirage < 15 && age < 30) || tirage < 7 ? "EN_ATTENTE" : "VALIDE";
+                pstmt.setInt(1, 1 + random.nextInt(nbDonneurs));
+                pstmt.setTimestamp(2, new Timestamp(maintenant - age * JOUR_MS - random.nextInt(36_000_000)));
+                pstmt.setInt(3, random.nextInt(10) == 0 ? 350 : 450);
+                pstmt.setString(4, statut);
+                pstmt.setString(5, "REJETE".equals(statut) ? "Hémoglobine insuffisante" : null);
+                pstmt.addBatch();
+                n = executerSiPlein(pstmt, n);
+            }
+            pstmt.executeBatch();
+        }
+        connection.commit();
+        afficher("dons", existants, cible);
+    }
+
+    private void completerStocks(long cible) throws SQLException {
+        long existants = compter("stocks_sanguins");
+        Random random = new Random(GRAINE + 2 + existants);
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO stocks_sanguins (groupe_sanguin, quantite, date_prelevement, date_peremption, statut) " +
+                "VALUES (?, ?, ?, ?, ?)")) {
+            int n = 0;
+            for (long i = existants; i < cible; i++) {
+                LocalDate prelevement = LocalDate.now().minusDays(random.nextInt(60));
+                LocalDate peremption = StockSanguin.calculerPeremption(prelevement);
+                int tirage = random.nextInt(100);
+                String statut = peremption.isBefore(LocalDate.now()) ? (tirage < 70 ? "UTILISE" : "PERIME")
+                    : tirage < 65 ? "DISPONIBLE" : tirage < 75 ? "RESERVE" : "UTILISE";
+                pstmt.setString(1, tirerGroupe(random));
+                pstmt.setInt(2, 450);
+                pstmt.setObject(3, prelevement);
+                pstmt.setObject(4, peremption);
+                pstmt.setString(5, statut);
+                pstmt.addBatch();
+                n = executerSiPlein(pstmt, n);
+            }
+            pstmt.executeBatch();
+        }
+        connection.commit();
+        afficher("stocks_sanguins", existants, cible);
+    }
+
+    private void completerDistributions(long cible) throws SQLException {
+        long existants = compter("distributions");
+        int nbHopitaux = (int) compter("hopitaux");
+        Random random = new Random(GRAINE + 3 + existants);
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO distributions (hopital_id, groupe_sanguin, quantite, date_distribution, statut, motif) " +
+                "VALUES (?, ?, ?, ?, ?, ?)")) {
+            int n = 0;
+            for (long i = existants; i < cible; i++) {
+                long age = (long) random.nextInt(3 * 365);
+                int tirage = random.nextInt(100);
+                String statut = age < 2 && tirage < 50 ? "EN_COURS" : tirage < 95 ? "LIVREE" : "ANNULEE";
+                // 💡 Les premiers hôpitaux (CHU) reçoivent la majorité des poches
+                int hopital = 1 + (int) (nbHopitaux * Math.pow(random.nextDouble(), 2));
+                pstmt.setInt(1, Math.min(hopital, nbHopitaux));
+                pstmt.setString(2, tirerGroupe(random));
+                pstmt.setInt(3, 450 * (1 + random.nextInt(4)));
+                pstmt.setTimestamp(4, new Timestamp(maintenant - age * JOUR_MS - random.nextInt(36_000_000)));
+                pstmt.setString(5, statut);
+                pstmt.setString(6, MOTIFS[random.nextInt(MOTIFS.length)]);
+                pstmt.addBatch();
+                n = executerSiPlein(pstmt, n);
+            }
+            pstmt.executeBatch();
+        }
+        connection.commit();
+        afficher("distributions", existants, cible);
+    }
+
+    private void completerActions(long cible) throws SQLException {
+        long existants = compter("actions_log");
+        Random random = new Random(GRAINE + 4 + existants);
+        String[] utilisateurs = {"Administrateur", "Opérateur Test", "Lecteur Test"};
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO actions_log (utilisateur_id, utilisateur_nom, action, entite, description, date_action) " +
+                "VALUES (?, ?, ?, ?, ?, ?)")) {
+            int n = 0;
+            for (long i = existants; i < cible; i++) {
+                int utilisateur = random.nextInt(100) < 70 ? 1 : 1 + random.nextInt(3);
+                String action = tirerAction(random);
+                String entite = "CONNEXION".equals(action) ? "UTILISATEUR" : ENTITES[random.nextInt(ENTITES.length)];
+                pstmt.setInt(1, utilisateur);
+                pstmt.setString(2, utilisateurs[utilisateur - 1]);
+                pstmt.setString(3, action);
+                pstmt.setString(4, entite);
+                pstmt.setString(5, action.charAt(0) + action.substring(1).toLowerCase() + " " + entite.toLowerCase()
+                    + " #" + (1 + random.nextInt(100_000)));
+                pstmt.setTimestamp(6, new Timestamp(maintenant - (long) random.nextInt(2 * 365) * JOUR_MS
+                    - random.nextInt(86_400_000)));
+                pstmt.addBatch();
+                n = executerSiPlein(pstmt, n);
+            }
+            pstmt.executeBatch();
+        }
+        connection.commit();
+        afficher("actions_log", existants, cible);
+    }
+
+    private static String tirerAction(Random random) {
+        int tirage = random.nextInt(100);
+        for (int i = 0; i < ACTIONS.length; i++) {
+            tirage -= POIDS_ACTIONS[i];
+            if (tirage < 0) {
+                return ACTIONS[i];
+            }
+        }
+        return ACTIONS[0];
+    }
+
+    // ================================================================
+    // OUTILS
+    // ================================================================
+
+    /**
+     * Envoie le lot quand il est plein, valide la transaction de temps en temps
+     * 💡 Évite de garder des millions de lignes non validées en mémoire
+     */
+    private int executerSiPlein(PreparedStatement pstmt, int n) throws SQLException {
+        n++;
+        if (n % TAILLE_LOT == 0) {
+            pstmt.executeBatch();
+        }
+        if (n % TAILLE_TRANSACTION == 0) {
+            connection.commit();
+        }
+        return n;
+    }
+
+    private long compter(String table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void afficher(String table, long existants, long cible) {
+        if (cible > existants) {
+            System.out.println("   " + table + " : +" + (cible - existants) + " lignes");
+        }
+    }
+
+    /**
+     * Génère les volumes demandés dans la base configurée (-Dbloodplus.db.url)
+     *
+     * Paramètres : -Dbench.donneurs=1000000 (les autres tables suivent les
+     * proportions de Volumes.pourDonneurs) ou chaque table séparément :
+     * -Dbench.dons, -Dbench.stocks, -Dbench.distributions, -Dbench.actions
+     */
+    public static void main(String[] args) throws Exception {
+        long donneurs = Long.getLong("bench.donneurs", 100_000L);
+        Volumes defaut = Volumes.pourDonneurs(donneurs);
+        Volumes volumes = new Volumes(donneurs,
+            Long.getLong("bench.dons", defaut.dons),
+            Long.getLong("bench.stocks", defaut.stocks),
+            Long.getLong("bench.distributions", defaut.distributions),
+            Long.getLong("bench.actions", defaut.actions));
+
+        try (Connection connection = BaseDeTest.ouvrir()) {
+            new GenerateurDonnees(connection).completer(volumes);
+            BaseDeTest.reconstruireIndex(connection);
+        }
+    }
+}
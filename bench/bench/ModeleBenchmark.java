@@ -0,0 +1,56 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import model.GroupeSanguin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ModeleBenchmark : règles de compatibilité sanguine (GroupeSanguin)
+ *
+ * 💡 EXPLICATION :
+ * estCompatible est appelé pour chaque poche lors d'une distribution et
+ * getDonneursCompatibles à chaque campagne de rappel.
+ * Chaque mesure parcourt les 64 couples (donneur, receveur) ou les 8 groupes :
+ * le résultat ne dépend pas d'un groupe "facile" (O- répond tout de suite).
+ *
+ * Les groupes sont lus depuis un tableau de l'état (et non des constantes) :
+ * le JIT ne peut pas précalculer le résultat.
+ *
+ * @author dteach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModeleBenchmark {
+
+    private final String[] groupes = GroupeSanguin.TOUS_LES_GROUPES.clone();
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void estCompatible(Blackhole bh) {
+        for (String donneur : groupes) {
+            for (String receveur : groupes) {
+                bh.consume(GroupeSanguin.estCompatible(donneur, receveur));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void getDonneursCompatibles(Blackhole bh) {
+        for (String receveur : groupes) {
+            bh.consume(GroupeSanguin.getDonneursCompatibles(receveur));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ResultSetMemoire : un ResultSet d'UNE ligne, entièrement en mémoire
+ *
+ * 💡 EXPLICATION :
+ * Pour mesurer les méthodes extraire* des DAO (ResultSet -> objet), il ne faut
+ * ni base ni réseau : seulement le coût de la lecture des colonnes et de la
+ * construction de l'objet.
+ * On fabrique donc un ResultSet avec un Proxy : seules les méthodes utilisées
+ * par les mappeurs (getInt, getString, getDate, getTimestamp, getBoolean,
+ * getObject, wasNull) sont implémentées.
+ *
+ * Une colonne absente lève une SQLException, comme un vrai driver JDBC :
+ * un mappeur qui lit une colonne inexistante est repéré tout de suite.
+ *
+ * Usage :
+ *   ResultSet rs = new ResultSetMemoire().avec("id", 1).avec("nom", "Dupont").creer();
+ *
+ * @author dteach
+ */
+public class ResultSetMemoire {
+
+    private final Map<String, Object> colonnes = new LinkedHashMap<>();
+
+    public ResultSetMemoire avec(String colonne, Object valeur) {
+        colonnes.put(colonne, valeur);
+        return this;
+    }
+
+    public ResultSet creer() {
+        Object[] dernierLu = {null};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class}, (proxy, methode, args) -> {
+                String nom = methode.getName();
+                if (nom.equals("wasNull")) {
+                    return dernierLu[0] == null;
+                }
+                if (nom.equals("next") || nom.equals("close") || nom.equals("isClosed")) {
+                    return nom.equals("close") ? null : Boolean.FALSE;
+                }
+                if (!nom.startsWith("get") || args == null || !(args[0] instanceof String)) {
+                    throw new UnsupportedOperationException("ResultSetMemoire." + nom);
+                }
+                String colonne = (String) args[0];
+                if (!colonnes.containsKey(colonne)) {
+                    throw new SQLException("Colonne inconnue : " + colonne);
+                }
+                Object valeur = colonnes.get(colonne);
+                dernierLu[0] = valeur;
+                switch (nom) {
+                    case "getInt":
+                        return valeur == null ? 0 : ((Number) valeur).intValue();
+                    case "getLong":
+                        return valeur == null ? 0L : ((Number) valeur).longValue();
+                    case "getBoolean":
+                        return valeur != null && (Boolean) valeur;
+                    default:
+                        // getString, getDate, getTimestamp, getObject : valeur telle quelle
+                        return valeur;
+                }
+            });
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import api.ServeurApi;
+import dao.PoolConnexions;
+import dao.RegistreDAO;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TestChargeApi : test de charge de l'API HTTP (mode serveur)
+ *
+ * 💡 EXPLICATION :
+ * - Démarre l'API dans la même JVM (sur un port libre) OU vise un serveur existant
+ * - Lance plusieurs "clients" qui enchaînent les requêtes pendant une durée fixe
+ * - Mesure chaque temps de réponse, puis affiche :
+ *   requêtes/seconde, latence médiane (p50), p99 et maximum
+ *
+ * La base utilisée est celle de -Dbloodplus.db.url ; sans cette propriété,
+ * une base embarquée en mémoire est créée et remplie (BaseDeTest) : aucun
+ * serveur MySQL n'est nécessaire.
+ *
+ * Paramètres (propriétés système) :
+ *   -Dbench.url=http://hote:8080  viser un serveur déjà démarré (sinon serveur local)
+ *   -Dbench.clients=50            nombre de clients simultanés
+ *   -Dbench.duree=20              durée de la mesure en secondes
+ *   -Dbench.echauffement=5        durée d'échauffement (non mesurée) en secondes
+ *   -Dbench.utilisateur=admin     compte BloodPlus utilisé (authentification Basic)
+ *   -Dbench.motdepasse=admin123
+ *   -Dbench.donneurs=10000        taille de la base embarquée
+ *
+ * Lancement : ant bench-http
+ *
+ * @author dteach
+ */
+public class TestChargeApi {
+
+    // Requêtes jouées en boucle par chaque client
+    private static final String[] CHEMINS = {
+        "/api/stocks/resume",
+        "/api/stocks",
+        "/api/alertes",
+        "/api/donneurs?groupe=O-",
+        "/api/dons?statut=EN_ATTENTE",
+        "/api/distributions?statut=EN_COURS"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("bench.clients", 50);
+        int duree = Integer.getInteger("bench.duree", 20);
+        int echauffement = Integer.getInteger("bench.echauffement", 5);
+        String url = System.getProperty("bench.url");
+        String authorization = "Basic " + Base64.getEncoder().encodeToString(
+            (System.getProperty("bench.utilisateur", "admin") + ":"
+                + System.getProperty("bench.motdepasse", "admin123")).getBytes(StandardCharsets.UTF_8));
+
+        ServeurApi serveur = null;
+        if (url == null) {
+            // 💡 Sans base configurée : base embarquée en mémoire, remplie une fois
+            if (System.getProperty("bloodplus.db.url") == null) {
+                BaseDeTest.preparer(Integer.getInteger("bench.donneurs", 10_000)).close();
+            }
+            serveur = new ServeurApi(0, new RegistreDAO(new PoolConnexions(Integer.getInteger("bloodplus.api.pool",
+                ServeurApi.TAILLE_POOL_DEFAUT), 5000)));
+            serveur.demarrer();
+            url = "http://localhost:" + serveur.getPort();
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        try {
+            System.out.println("🔥 Échauffement (" + echauffement + " s)...");
+            executer(client, url, authorization, clients, echauffement);
+
+            System.out.println("⏱️ Mesure : " + clients + " clients pendant " + duree + " s...");
+            Resultat r = executer(client, url, authorization, clients, duree);
+            afficher(r, duree);
+        } finally {
+            if (serveur != null) {
+                serveur.arreter();
+            }
+        }
+    }
+
+    // ================================================================
+    // EXÉCUTION
+    // ================================================================
+
+    private static class Resultat {
+        long[] latencesNs;
+        long erreurs;
+    }
+
+    private static Resultat executer(HttpClient client, String url, String authorization,
+            int clients, int dureeSecondes)
+            throws Exception {
+        long fin = System.nanoTime() + dureeSecondes * 1_000_000_000L;
+        AtomicLong erreurs = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> futurs = new ArrayList<>();
+
+        for (int i = 0; i < clients; i++) {
+            final int decalage = i;
+            futurs.add(pool.submit(() -> {
+                long[] latences = new long[1024];
+                int n = 0;
+                int k = decalage;
+                while (System.nanoTime() < fin) {
+                    HttpRequest requete = HttpRequest.newBuilder(
+                        URI.create(url + CHEMINS[k++ % CHEMINS.length]))
+                        .header("Authorization", authorization).GET().build();
+                    long debut = System.nanoTime();
+                    try {
+                        HttpResponse<Void> rep = client.send(requete, HttpResponse.BodyHandlers.discarding());
+                        if (rep.statusCode() != 200) {
+                            erreurs.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        erreurs.incrementAndGet();
+                    }
+                    if (n == latences.length) {
+                        latences = Arrays.copyOf(latences, n * 2);
+                    }
+                    latences[n++] = System.nanoTime() - debut;
+                }
+                return Arrays.copyOf(latences, n);
+            }));
+        }
+
+        List<long[]> parClient = new ArrayList<>();
+        int total = 0;
+        for (Future<long[]> f : futurs) {
+            long[] l = f.get();
+            parClient.add(l);
+            total += l.length;
+        }
+        pool.shutdown();
+
+        Resultat r = new Resultat();
+        r.latencesNs = new long[total];
+        int pos = 0;
+        for (long[] l : parClient) {
+            System.arraycopy(l, 0, r.latencesNs, pos, l.length);
+            pos += l.length;
+        }
+        r.erreurs = erreurs.get();
+        return r;
+    }
+
+    // ================================================================
+    // RAPPORT
+    // ================================================================
+
+    private static void afficher(Resultat r, int dureeSecondes) {
+        long[] l = r.latencesNs;
+        Arrays.sort(l);
+        System.out.println();
+        System.out.println("========== RÉSULTATS ==========");
+        System.out.println("Requêtes      : " + l.length + " (" + r.erreurs + " en erreur)");
+        System.out.printf("Débit         : %.1f requêtes/s%n", l.length / (double) dureeSecondes);
+        System.out.printf("Latence p50   : %.2f ms%n", centile(l, 0.50) / 1e6);
+        System.out.printf("Latence p99   : %.2f ms%n", centile(l, 0.99) / 1e6);
+        System.out.printf("Latence max   : %.2f ms%n", (l.length > 0 ? l[l.length - 1] : 0) / 1e6);
+        System.out.println("===============================");
+    }
+
+    private static long centile(long[] triees, double p) {
+        if (triees.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * triees.length) - 1;
+        return triees[Math.max(0, Math.min(index, triees.length - 1))];
+    }
+}
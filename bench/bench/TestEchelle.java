@@ -0,0 +1,233 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import dao.ActionLogDAO;
+import dao.AlerteDAO;
+import dao.DatabaseConnection;
+import dao.DistributionDAO;
+import dao.DonDAO;
+import dao.DonneurDAO;
+import dao.EligibiliteDAO;
+import dao.RegistreDAO;
+import dao.HopitalDAO;
+import dao.StockSanguinDAO;
+import model.Distribution;
+import model.Don;
+import ui.DashboardPanel;
+import ui.DistributionPanel;
+import ui.DonPanel;
+import ui.DonneurPanel;
+import ui.HistoriquePanel;
+import ui.HopitalPanel;
+import ui.StockPanel;
+import ui.UtilisateurPanel;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * TestEchelle : temps de chargement des écrans et des DAO selon le volume
+ *
+ * 💡 EXPLICATION :
+ * Pour chaque échelle (10k, 100k, 1M donneurs par défaut) :
+ * 1. GenerateurDonnees complète la base jusqu'au volume voulu
+ *    (les autres tables suivent : 5 dons, 2 distributions, 20 lignes d'audit par donneur)
+ * 2. Chaque méthode DAO et chaque écran (construction du panneau = son
+ *    chargement) est chronométré plusieurs fois : on garde la médiane
+ * 3. Le rapport indique, pour chaque opération, le facteur de croissance
+ *    entre deux échelles : ×10 de données et ×10 de temps = chargement linéaire
+ *
+ * Par défaut la base est un fichier H2 (build/bench/echelle) : un million de
+ * donneurs ne tient pas confortablement en mémoire, et la base générée est
+ * réutilisée au lancement suivant.
+ *
+ * Paramètres (propriétés système) :
+ *   -Dbench.echelles=10000,100000,1000000   nombres de donneurs
+ *   -Dbench.repetitions=3                   mesures par opération (médiane)
+ *   -Dbench.rapport=build/bench/echelle.md  rapport Markdown
+ *
+ * Lancement : ant bench-echelle
+ *
+ * @author dteach
+ */
+public class TestEchelle {
+
+    private static final String URL_FICHIER =
+        "jdbc:h2:file:./build/bench/echelle;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+    // Opération -> (nombre de donneurs -> médiane en ms)
+    private final Map<String, Map<Integer, Double>> resultats = new LinkedHashMap<>();
+    private final int repetitions;
+
+    private TestEchelle(int repetitions) {
+        this.repetitions = repetitions;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if (System.getProperty("bloodplus.db.url") == null) {
+            System.setProperty("bloodplus.db.url", URL_FICHIER);
+        }
+        int[] echelles = Arrays.stream(System.getProperty("bench.echelles", "10000,100000,1000000").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).sorted().toArray();
+        int repetitions = Integer.getInteger("bench.repetitions", 3);
+        Path rapport = Paths.get(System.getProperty("bench.rapport", "build/bench/echelle.md"));
+
+        TestEchelle test = new TestEchelle(repetitions);
+        for (int echelle : echelles) {
+            System.out.println("\n📏 Échelle : " + echelle + " donneurs");
+            try (Connection connection = BaseDeTest.preparer(echelle)) {
+                test.mesurerDao(echelle, connection);
+                test.mesurerEcrans(echelle);
+            }
+        }
+        test.ecrireRapport(rapport, echelles);
+        DatabaseConnection.closeConnection();
+        System.out.println("✅ Rapport : " + rapport.toAbsolutePath());
+    }
+
+    // ================================================================
+    // MESURES
+    // ================================================================
+
+    private void mesurerDao(int echelle, Connection connection) {
+        RegistreDAO registre = RegistreDAO.sur(connection);
+        DonneurDAO donneurDAO = registre.getDonneurDAO();
+        DonDAO donDAO = registre.getDonDAO();
+        StockSanguinDAO stockDAO = registre.getStockSanguinDAO();
+        DistributionDAO distributionDAO = registre.getDistributionDAO();
+        HopitalDAO hopitalDAO = registre.getHopitalDAO();
+        AlerteDAO alerteDAO = registre.getAlerteDAO();
+        ActionLogDAO actionLogDAO = registre.getActionLogDAO();
+        EligibiliteDAO eligibiliteDAO = registre.getEligibiliteDAO();
+        int idMilieu = donneurDAO.getIdMax() / 2;
+
+        mesurer(echelle, "DonneurDAO.listerTous", donneurDAO::listerTous);
+        mesurer(echelle, "DonneurDAO.trouverParId", () -> donneurDAO.trouverParId(idMilieu));
+        mesurer(echelle, "DonneurDAO.trouverParGroupeSanguin(O-)", () -> donneurDAO.trouverParGroupeSanguin("O-"));
+        mesurer(echelle, "DonneurDAO.rechercher(Martin)", () -> donneurDAO.rechercher("Martin"));
+        mesurer(echelle, "DonneurDAO.compter", donneurDAO::compter);
+        mesurer(echelle, "DonDAO.listerTous", donDAO::listerTous);
+        mesurer(echelle, "DonDAO.trouverParStatut(EN_ATTENTE)", () -> donDAO.trouverParStatut(Don.STATUT_EN_ATTENTE));
+        mesurer(echelle, "DonDAO.trouverParDonneur", () -> donDAO.trouverParDonneur(idMilieu));
+        mesurer(echelle, "DonDAO.compter", donDAO::compter);
+        mesurer(echelle, "StockSanguinDAO.listerTous", stockDAO::listerTous);
+        mesurer(echelle, "StockSanguinDAO.listerDisponible", stockDAO::listerDisponible);
+        mesurer(echelle, "StockSanguinDAO.getResumeStock", stockDAO::getResumeStock);
+        mesurer(echelle, "StockSanguinDAO.getStocksProchesPeremption(7)", () -> stockDAO.getStocksProchesPeremption(7));
+        mesurer(echelle, "DistributionDAO.listerTous", distributionDAO::listerTous);
+        mesurer(echelle, "DistributionDAO.trouverParStatut(EN_COURS)",
+            () -> distributionDAO.trouverParStatut(Distribution.STATUT_EN_COURS));
+        mesurer(echelle, "HopitalDAO.listerTous", hopitalDAO::listerTous);
+        mesurer(echelle, "AlerteDAO.listerNonLues", alerteDAO::listerNonLues);
+        mesurer(echelle, "ActionLogDAO.listerTout(500)", () -> actionLogDAO.listerTout(500));
+        mesurer(echelle, "ActionLogDAO.rechercher(donneur)", () -> actionLogDAO.rechercher("donneur", 500));
+        mesurer(echelle, "ActionLogDAO.compterTotal", actionLogDAO::compterTotal);
+        mesurer(echelle, "EligibiliteDAO.listerEligibles(O-)", () -> eligibiliteDAO.listerEligibles("O-", LocalDate.now()));
+    }
+
+    /**
+     * Un écran = la construction de son panneau (les panneaux chargent leurs
+     * données dans le constructeur, via la connexion partagée de l'application)
+     */
+    private void mesurerEcrans(int echelle) {
+        mesurer(echelle, "Écran Tableau de bord", DashboardPanel::new);
+        mesurer(echelle, "Écran Donneurs", DonneurPanel::new);
+        mesurer(echelle, "Écran Dons", DonPanel::new);
+        mesurer(echelle, "Écran Stocks", StockPanel::new);
+        mesurer(echelle, "Écran Distributions", DistributionPanel::new);
+        mesurer(echelle, "Écran Hôpitaux", HopitalPanel::new);
+        mesurer(echelle, "Écran Historique", HistoriquePanel::new);
+        mesurer(echelle, "Écran Utilisateurs", UtilisateurPanel::new);
+    }
+
+    /**
+     * Exécute une opération (1 passage d'échauffement + N mesures) et garde la médiane
+     */
+    private void mesurer(int echelle, String operation, Supplier<?> action) {
+        try {
+            action.get();
+            double[] durees = new double[repetitions];
+            int lignes = 0;
+            for (int i = 0; i < repetitions; i++) {
+                long debut = System.nanoTime();
+                Object resultat = action.get();
+                durees[i] = (System.nanoTime() - debut) / 1_000_000.0;
+                if (resultat instanceof List) {
+                    lignes = ((List<?>) resultat).size();
+                }
+            }
+            Arrays.sort(durees);
+            double mediane = durees[repetitions / 2];
+            resultats.computeIfAbsent(operation, k -> new LinkedHashMap<>()).put(echelle, mediane);
+            System.out.printf("   %-50s %10.1f ms%s%n", operation, mediane, lignes > 0 ? "  (" + lignes + " lignes)" : "");
+        } catch (RuntimeException | OutOfMemoryError e) {
+            System.err.println("❌ " + operation + " : " + e);
+        }
+    }
+
+    // ================================================================
+    // RAPPORT
+    // ================================================================
+
+    /**
+     * Tableau Markdown : une ligne par opération, une colonne par échelle,
+     * et le facteur de croissance entre la plus petite et la plus grande échelle
+     */
+    private void ecrireRapport(Path fichier, int[] echelles) throws IOException {
+        if (fichier.getParent() != null) {
+            Files.createDirectories(fichier.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(fichier, StandardCharsets.UTF_8))) {
+            out.println("# Test d'échelle BloodPlus");
+            out.println();
+            out.println("Base : `" + DatabaseConnection.getUrl() + "`, médiane de " + repetitions
+                + " mesures (ms), " + LocalDateTime.now().withNano(0));
+            out.println();
+
+            List<String> entete = new ArrayList<>();
+            entete.add("Opération");
+            for (int e : echelles) {
+                entete.add(e + " donneurs");
+            }
+            if (echelles.length > 1) {
+                entete.add("Croissance (données ×" + echelles[echelles.length - 1] / echelles[0] + ")");
+            }
+            out.println("| " + String.join(" | ", entete) + " |");
+            out.println("|" + " --- |".repeat(entete.size()));
+
+            for (Map.Entry<String, Map<Integer, Double>> ligne : resultats.entrySet()) {
+                StringBuilder sb = new StringBuilder("| ").append(ligne.getKey()).append(" |");
+                for (int e : echelles) {
+                    Double ms = ligne.getValue().get(e);
+                    sb.append(ms == null ? " échec |" : String.format(" %.1f |", ms));
+                }
+                if (echelles.length > 1) {
+                    Double premier = ligne.getValue().get(echelles[0]);
+                    Double dernier = ligne.getValue().get(echelles[echelles.length - 1]);
+                    sb.append(premier == null || dernier == null || premier < 0.05 ? " - |"
+                        : String.format(" ×%.1f |", dernier / premier));
+                }
+                out.println(sb);
+            }
+            out.println();
+            out.println("Une croissance proche de celle des données signale un chargement linéaire "
+                + "(lecture complète de table) : à paginer ou à indexer.");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Package BENCH : outils de mesure de performance (hors application)
+ */
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import utils.DateUtils;
+import utils.PasswordUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UtilsBenchmark : fonctions utilitaires appelées sur chaque ligne affichée
+ *
+ * 💡 EXPLICATION :
+ * - DateUtils : chaque cellule de date des tableaux passe par dateToString,
+ *   chaque saisie de formulaire par stringToDate
+ * - PasswordUtils : hashPassword / verifyPassword à chaque connexion
+ *   (et à chaque requête de l'API, authentifiée en Basic)
+ *
+ * Les benchmarks de mot de passe ont leur propre échelle (microsecondes) :
+ * un hachage volontairement plus lent fera ressortir le changement.
+ *
+ * @author dteach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilsBenchmark {
+
+    private LocalDate date;
+    private LocalDateTime dateHeure;
+    private String dateTexte;
+    private String motDePasse;
+    private String sel;
+    private String hashStocke;
+
+    @Setup
+    public void preparer() {
+        date = LocalDate.of(2023, 11, 14);
+        dateHeure = LocalDateTime.of(2023, 11, 14, 22, 13, 20);
+        dateTexte = "14/11/2023";
+        motDePasse = "admin123";
+        sel = PasswordUtils.generateSalt();
+        hashStocke = PasswordUtils.hashPassword(motDePasse);
+    }
+
+    // ================================================================
+    // DATES
+    // ================================================================
+
+    @Benchmark
+    public String dateToString() {
+        return DateUtils.dateToString(date);
+    }
+
+    @Benchmark
+    public String dateHeureToString() {
+        return DateUtils.dateHeureToString(dateHeure);
+    }
+
+    @Benchmark
+    public LocalDate stringToDate() {
+        return DateUtils.stringToDate(dateTexte);
+    }
+
+    // ================================================================
+    // MOTS DE PASSE
+    // ================================================================
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String hashPasswordAvecSel() {
+        return PasswordUtils.hashPassword(motDePasse, sel);
+    }
+
+    /**
+     * Inclut la génération du sel (SecureRandom) : le coût d'une création de compte
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String hashPassword() {
+        return PasswordUtils.hashPassword(motDePasse);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean verifyPassword() {
+        return PasswordUtils.verifyPassword(motDePasse, hashStocke);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Package DAO : benchmarks placés dans le même package que les DAO
+ * pour atteindre les méthodes extraire* (visibles dans le package)
+ */
+package dao;
+
+import bench.ResultSetMemoire;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MappeursBenchmark : coût de la transformation d'une ligne SQL en objet
+ *
+ * 💡 EXPLICATION :
+ * Chaque liste affichée appelle extraire* une fois par ligne : à 100 000
+ * lignes, quelques centaines de nanosecondes par ligne se voient à l'écran.
+ * Les lignes viennent d'un ResultSetMemoire (pas de base) : on ne mesure
+ * que la lecture des colonnes et la construction de l'objet.
+ *
+ * @author dteach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappeursBenchmark {
+
+    private ResultSet ligneDonneur;
+    private ResultSet ligneDon;
+    private ResultSet ligneStock;
+    private ResultSet ligneDistribution;
+    private ResultSet ligneHopital;
+    private ResultSet ligneAlerte;
+    private ResultSet ligneUtilisateur;
+    private ResultSet ligneActionLog;
+
+    @Setup
+    public void preparer() {
+        // 💡 Les mappeurs lisent les dates avec getObject(colonne, LocalDate/LocalDateTime.class)
+        LocalDateTime maintenant = LocalDateTime.of(2023, 11, 14, 22, 13, 20);
+        LocalDate jour = maintenant.toLocalDate();
+
+        ligneDonneur = new ResultSetMemoire()
+            .avec("id", 42).avec("nom", "Dupont").avec("prenom", "Hélène")
+            .avec("date_naissance", LocalDate.of(1982, 9, 4)).avec("sexe", "F")
+            .avec("groupe_sanguin", "O-").avec("telephone", "0612345678")
+            .avec("email", "helene.dupont@email.com").avec("adresse", "12 rue des Lilas, Lyon")
+            .avec("date_inscription", maintenant).avec("apte", true)
+            .creer();
+        ligneDon = new ResultSetMemoire()
+            .avec("id", 7).avec("donneur_id", 42).avec("date_don", maintenant)
+            .avec("quantite", 450).avec("statut", "VALIDE").avec("notes", null)
+            .creer();
+        ligneStock = new ResultSetMemoire()
+            .avec("id", 3).avec("groupe_sanguin", "A+").avec("quantite", 450)
+            .avec("date_prelevement", jour).avec("date_peremption", jour)
+            .avec("don_id", 7).avec("statut", "DISPONIBLE")
+            .creer();
+        ligneDistribution = new ResultSetMemoire()
+            .avec("id", 5).avec("hopital_id", 1).avec("groupe_sanguin", "B+")
+            .avec("quantite", 900).avec("date_distribution", maintenant)
+            .avec("statut", "LIVREE").avec("motif", "Chirurgie programmée")
+            .creer();
+        ligneHopital = new ResultSetMemoire()
+            .avec("id", 1).avec("nom", "CHU Central").avec("adresse", "1 place de l'Hôpital")
+            .avec("ville", "Lyon").avec("telephone", "0472000000").avec("email", "contact@chu.fr")
+            .avec("responsable", "Dr Martin").avec("actif", true)
+            .creer();
+        ligneAlerte = new ResultSetMemoire()
+            .avec("id", 9).avec("type", "STOCK_BAS").avec("message", "Stock O- sous le seuil")
+            .avec("groupe_sanguin", "O-").avec("date_creation", maintenant)
+            .avec("lue", false).avec("priorite", "HAUTE")
+            .creer();
+        ligneUtilisateur = new ResultSetMemoire()
+            .avec("id", 1).avec("username", "admin").avec("password", "sel:hash")
+            .avec("nom_complet", "Administrateur").avec("role", "ADMIN").avec("actif", true)
+            .avec("date_creation", maintenant).avec("derniere_connexion", maintenant)
+            .creer();
+        ligneActionLog = new ResultSetMemoire()
+            .avec("id", 100).avec("utilisateur_id", 1).avec("utilisateur_nom", "Administrateur")
+            .avec("action", "AJOUTER").avec("entite", "DONNEUR")
+            .avec("description", "Ajout du donneur Dupont Hélène").avec("date_action", maintenant)
+            .creer();
+    }
+
+    @Benchmark
+    public Object extraireDonneur() throws SQLException {
+        return DonneurDAO.extraireDonneur(ligneDonneur);
+    }
+
+    @Benchmark
+    public Object extraireDon() throws SQLException {
+        return DonDAO.extraireDon(ligneDon);
+    }
+
+    @Benchmark
+    public Object extraireStock() throws SQLException {
+        return StockSanguinDAO.extraireStock(ligneStock);
+    }
+
+    @Benchmark
+    public Object extraireDistribution() throws SQLException {
+        return DistributionDAO.extraireDistribution(ligneDistribution);
+    }
+
+    @Benchmark
+    public Object extraireHopital() throws SQLException {
+        return HopitalDAO.extraireHopital(ligneHopital);
+    }
+
+    @Benchmark
+    public Object extraireAlerte() throws SQLException {
+        return AlerteDAO.extraireAlerte(ligneAlerte);
+    }
+
+    @Benchmark
+    public Object extraireUtilisateur() throws SQLException {
+        return UtilisateurDAO.extraireUtilisateur(ligneUtilisateur);
+    }
+
+    @Benchmark
+    public Object extraireActionLog() throws SQLException {
+        return ActionLogDAO.extraireActionLog(ligneActionLog);
+    }
+}
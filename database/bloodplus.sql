@@ -37,9 +37,22 @@ CREATE TABLE donneurs (
     date_inscription DATETIME DEFAULT CURRENT_TIMESTAMP,  -- Date d'inscription
     apte BOOLEAN DEFAULT TRUE,              -- Apte à donner ?
     
+    -- Clés de dédoublonnage, calculées par l'application (DonneurDAO)
+    telephone_normalise VARCHAR(20),        -- 9 derniers chiffres du téléphone
+    email_normalise VARCHAR(150),           -- Email en minuscules
+    nom_phonetique VARCHAR(100),            -- Clé phonétique du nom (Dupont / Dupond -> DPNT)
+    
     -- Index pour recherches rapides
     INDEX idx_groupe (groupe_sanguin),
-    INDEX idx_nom (nom, prenom)
+    INDEX idx_nom (nom, prenom),
+    
+    -- Index pour la détection des doublons (recherches par identité)
+    INDEX idx_telephone (telephone),
+    INDEX idx_email (email),
+    INDEX idx_naissance (date_naissance),
+    INDEX idx_telephone_normalise (telephone_normalise),
+    INDEX idx_email_normalise (email_normalise),
+    INDEX idx_nom_phonetique (nom_phonetique)
 );
 
 -- ============================================================
@@ -58,7 +71,30 @@ CREATE TABLE dons (
     FOREIGN KEY (donneur_id) REFERENCES donneurs(id) ON DELETE CASCADE,
     
     INDEX idx_date (date_don),
-    INDEX idx_statut (statut)
+    INDEX idx_statut (statut),
+    INDEX idx_donneur_statut (donneur_id, statut, date_don)  -- dernier don validé d'un donneur
+);
+
+-- ============================================================
+-- TABLE : eligibilite_donneurs
+-- Index tenu à jour par l'application : quand chaque donneur peut redonner
+-- (dernier don VALIDE + 56 jours, voir Don.INTERVALLE_MIN_JOURS)
+-- ============================================================
+CREATE TABLE eligibilite_donneurs (
+    donneur_id INT PRIMARY KEY,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    apte BOOLEAN NOT NULL DEFAULT TRUE,
+    derniere_date_don DATETIME,             -- NULL = n'a jamais donné
+    prochaine_date_eligible DATE NOT NULL,  -- Peut donner à partir de cette date
+    nb_dons INT NOT NULL DEFAULT 0,
+    
+    FOREIGN KEY (donneur_id) REFERENCES donneurs(id) ON DELETE CASCADE,
+    
+    -- "Donneurs O- éligibles aujourd'hui" = une lecture de cet index
+    INDEX idx_eligibles (apte, groupe_sanguin, prochaine_date_eligible),
+    INDEX idx_prochaine (prochaine_date_eligible),
+    -- Campagne de rappel : les plus fidèles d'abord, sans tri (lu à l'envers)
+    INDEX idx_rappel (apte, groupe_sanguin, nb_dons, derniere_date_don)
 );
 
 -- ============================================================
@@ -81,6 +117,46 @@ CREATE TABLE stocks_sanguins (
     INDEX idx_statut (statut)
 );
 
+-- ============================================================
+-- TABLE : mouvements_stock
+-- Journal des mouvements de chaque poche (voir dao.MouvementStockDAO)
+-- On n'y fait que des INSERT : stocks_sanguins est le dernier état
+-- de chaque poche et peut être reconstruite à partir de ce journal
+-- ============================================================
+CREATE TABLE mouvements_stock (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    stock_id INT NOT NULL,                  -- Poche concernée (sans clé étrangère : le journal survit à la poche)
+    type VARCHAR(20) NOT NULL,              -- ENTREE, PRELEVEMENT, RESERVATION, PEREMPTION, AJUSTEMENT, SUPPRESSION
+    variation INT NOT NULL,                 -- Variation du volume en ml (négative = sortie)
+    quantite INT NOT NULL,                  -- État de la poche APRÈS le mouvement :
+    statut VARCHAR(20) NOT NULL,            --   volume restant, statut,
+    groupe_sanguin VARCHAR(5) NOT NULL,     --   groupe, dates et don d'origine
+    date_prelevement DATE NOT NULL,
+    date_peremption DATE NOT NULL,
+    don_id INT,
+    date_mouvement DATETIME DEFAULT CURRENT_TIMESTAMP,
+    
+    INDEX idx_mouvement_stock (stock_id),
+    INDEX idx_mouvement_date (date_mouvement),
+    INDEX idx_mouvement_groupe_date (groupe_sanguin, date_mouvement)
+);
+
+-- ============================================================
+-- TABLE : instantanes_stock
+-- Photo quotidienne du stock disponible (voir dao.InstantaneStockDAO)
+-- Une ligne par jour, groupe et date de péremption : le stock à une
+-- date se lit dans la photo la plus proche + les mouvements depuis
+-- ============================================================
+CREATE TABLE instantanes_stock (
+    jour DATE NOT NULL,                     -- Stock à la FIN de ce jour
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    date_peremption DATE NOT NULL,
+    quantite INT NOT NULL,                  -- Volume disponible en ml
+    poches INT NOT NULL,                    -- Nombre de poches disponibles
+    
+    PRIMARY KEY (jour, groupe_sanguin, date_peremption)
+);
+
 -- ============================================================
 -- TABLE : hopitaux
 -- Liste des hôpitaux partenaires
@@ -117,6 +193,112 @@ CREATE TABLE distributions (
     INDEX idx_hopital (hopital_id)
 );
 
+-- ============================================================
+-- TABLES : cumuls mensuels (voir dao.CumulMensuelDAO)
+-- Totaux par mois (aaaamm) pour les rapports, tenus à jour par les
+-- écritures : un mois modifié est marqué dans cumuls_a_recalculer et
+-- recalculé à la lecture suivante
+-- ============================================================
+CREATE TABLE cumuls_dons_mensuels (
+    mois INT NOT NULL,                      -- aaaamm
+    groupe_sanguin VARCHAR(5) NOT NULL,     -- Groupe du donneur
+    dons INT NOT NULL,                      -- Tous les dons du mois
+    volume_collecte INT NOT NULL,           -- ml des dons validés
+    valides INT NOT NULL,
+    rejetes INT NOT NULL,
+    
+    PRIMARY KEY (mois, groupe_sanguin)
+);
+
+CREATE TABLE cumuls_distributions_mensuels (
+    mois INT NOT NULL,
+    hopital_id INT NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    distributions INT NOT NULL,             -- Hors annulées
+    volume INT NOT NULL,                    -- ml hors annulées
+    annulees INT NOT NULL,
+    
+    PRIMARY KEY (mois, hopital_id, groupe_sanguin)
+);
+
+CREATE TABLE cumuls_stock_mensuels (
+    mois INT NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    volume_entre INT NOT NULL,              -- Variations positives du journal
+    volume_sorti INT NOT NULL,              -- Variations négatives hors péremption
+    volume_perime INT NOT NULL,             -- Poches périmées
+    
+    PRIMARY KEY (mois, groupe_sanguin)
+);
+
+CREATE TABLE cumuls_a_recalculer (
+    mois INT PRIMARY KEY,
+    marque_a DATETIME NOT NULL              -- Dernière écriture touchant ce mois
+);
+
+-- ============================================================
+-- TABLES : archives (voir dao.ArchiveDAO)
+-- Les lignes CLOSES plus anciennes que l'horizon d'archivage quittent
+-- les tables de travail : mêmes colonnes + date d'archivage, sans clé
+-- étrangère (l'historique survit au donneur, à l'hôpital ou au don)
+-- ============================================================
+CREATE TABLE dons_archives (
+    id INT PRIMARY KEY,                     -- Même id que dans dons
+    donneur_id INT NOT NULL,
+    date_don DATETIME NOT NULL,
+    quantite INT,
+    statut VARCHAR(20),                     -- VALIDE ou REJETE
+    notes TEXT,
+    archive_le DATETIME NOT NULL,
+    
+    INDEX idx_archive_donneur (donneur_id, statut, date_don),
+    INDEX idx_archive_date (date_don)
+);
+
+CREATE TABLE stocks_sanguins_archives (
+    id INT PRIMARY KEY,                     -- Même id que dans stocks_sanguins
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    quantite INT NOT NULL,
+    date_prelevement DATE NOT NULL,
+    date_peremption DATE NOT NULL,
+    don_id INT,
+    statut VARCHAR(20),                     -- UTILISE ou PERIME
+    archive_le DATETIME NOT NULL,
+    
+    INDEX idx_archive_don (don_id),
+    INDEX idx_archive_peremption (date_peremption)
+);
+
+CREATE TABLE distributions_archives (
+    id INT PRIMARY KEY,                     -- Même id que dans distributions
+    hopital_id INT NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    quantite INT NOT NULL,
+    date_distribution DATETIME,
+    statut VARCHAR(20),                     -- LIVREE ou ANNULEE
+    motif VARCHAR(255),
+    archive_le DATETIME NOT NULL,
+    
+    INDEX idx_archive_hopital (hopital_id),
+    INDEX idx_archive_date (date_distribution)
+);
+
+-- ============================================================
+-- TABLE : journal_modifications (voir dao.JournalModificationsDAO)
+-- Les lignes modifiées depuis une date, pour les sauvegardes
+-- incrémentales : chaque écriture note la table et la clé touchées
+-- ============================================================
+CREATE TABLE journal_modifications (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    table_nom VARCHAR(64) NOT NULL,
+    colonne VARCHAR(64),                    -- NULL = toute la table
+    operateur VARCHAR(2) NOT NULL DEFAULT '=', -- '=' ou '>' (ex: id > dernier avant un import)
+    valeur VARCHAR(64),
+    note_le DATETIME DEFAULT CURRENT_TIMESTAMP,
+    
+    INDEX idx_note_le (note_le)
+);
+
 -- ============================================================
 -- TABLE : alertes
 -- Système de notifications/alertes
@@ -182,6 +364,13 @@ INSERT INTO stocks_sanguins (groupe_sanguin, quantite, date_prelevement, date_pe
 ('B+', 450, '2026-01-17', '2026-02-28', 3, 'DISPONIBLE'),
 ('O+', 450, '2026-01-19', '2026-03-02', 5, 'DISPONIBLE');
 
+-- Entrée en stock des poches initiales (journal des mouvements)
+INSERT INTO mouvements_stock (stock_id, type, variation, quantite, statut, groupe_sanguin,
+                              date_prelevement, date_peremption, don_id, date_mouvement)
+SELECT id, 'ENTREE', quantite, quantite, statut, groupe_sanguin,
+       date_prelevement, date_peremption, don_id, date_prelevement
+FROM stocks_sanguins;
+
 -- ============================================================
 -- UTILISATEURS DE TEST (3 rôles différents)
 -- ============================================================
@@ -223,6 +412,30 @@ INSERT INTO actions_log (utilisateur_id, utilisateur_nom, action, entite, descri
 (2, 'Jean Opérateur', 'MODIFIER', 'DONNEUR', 'Modification du donneur: Marie Martin'),
 (2, 'Jean Opérateur', 'VALIDER', 'DON', 'Validation du don #1');
 
+-- Calcul initial de l'éligibilité (même calcul que EligibiliteDAO.reconstruire)
+INSERT INTO eligibilite_donneurs (donneur_id, groupe_sanguin, apte, derniere_date_don, prochaine_date_eligible, nb_dons)
+SELECT dn.id, dn.groupe_sanguin, dn.apte, MAX(d.date_don),
+       COALESCE(DATE_ADD(DATE(MAX(d.date_don)), INTERVAL 56 DAY), DATE(dn.date_inscription), CURRENT_DATE),
+       COUNT(d.id)
+FROM donneurs dn
+LEFT JOIN dons d ON d.donneur_id = dn.id AND d.statut = 'VALIDE'
+GROUP BY dn.id, dn.groupe_sanguin, dn.apte, dn.date_inscription;
+
+-- ============================================================
+-- TABLE : versions_donnees
+-- Numéro de version des tables de référence gardées en cache par
+-- l'application (voir dao.CacheReference) : chaque écriture l'augmente,
+-- les autres postes relisent la table quand il change
+-- ============================================================
+CREATE TABLE versions_donnees (
+    nom VARCHAR(50) PRIMARY KEY,            -- Nom de la table en cache
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO versions_donnees (nom, version) VALUES
+('hopitaux', 0),
+('utilisateurs', 0);
+
 -- ============================================================
 -- COMPTES DE CONNEXION DISPONIBLES :
 -- ============================================================
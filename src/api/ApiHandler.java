@@ -0,0 +1,255 @@
+/*
+ * Package API : service HTTP sans interface graphique
+ */
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import dao.RegistreDAO;
+import service.ContexteAppel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ApiHandler : traite les requêtes HTTP d'une ressource (/api/donneurs, /api/dons...)
+ *
+ * 💡 EXPLICATION :
+ * Pour chaque requête :
+ * 1. On emprunte une connexion au pool (une connexion PAR requête) et on la
+ *    lie au thread : les DAO partagés du registre l'utilisent jusqu'à la fin
+ * 2. On identifie l'appelant (en-tête Authorization) => ContexteAppel
+ * 3. On appelle la Route de la ressource SOUS ce contexte : les DAO habituels
+ *    enregistrent donc le journal d'audit au nom du bon utilisateur
+ * 4. On renvoie le JSON produit (ou une erreur 401 / 403 / 404 / 500)
+ * 5. La connexion est rendue au pool (try-with-resources)
+ *
+ * @author dteach
+ */
+public class ApiHandler implements HttpHandler {
+
+    /**
+     * Une route : reçoit la requête, renvoie du JSON
+     * (null = ressource introuvable => 404)
+     */
+    @FunctionalInterface
+    public interface Route {
+        String executer(Requete requete) throws SQLException;
+    }
+
+    /**
+     * Erreur "métier" renvoyée au client avec un code HTTP précis
+     */
+    public static class ApiException extends RuntimeException {
+        private final int code;
+
+        public ApiException(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    /**
+     * Informations utiles de la requête HTTP
+     */
+    public static class Requete {
+        private final String methode;
+        private final String[] segments;
+        private final Map<String, String> parametres;
+        private ContexteAppel contexte;
+
+        Requete(String methode, String[] segments, Map<String, String> parametres) {
+            this.methode = methode;
+            this.segments = segments;
+            this.parametres = parametres;
+        }
+        
+        /**
+         * L'utilisateur authentifié qui a envoyé la requête
+         */
+        public ContexteAppel getContexte() {
+            return contexte;
+        }
+        
+        /**
+         * Refuse la requête si l'appelant n'a pas le droit de modifier les données
+         */
+        public void exigerModification() {
+            if (!contexte.peutModifier()) {
+                throw new ApiException(403, "Droits insuffisants");
+            }
+        }
+
+        public String getMethode() {
+            return methode;
+        }
+
+        /**
+         * Segments du chemin APRÈS la ressource
+         * Ex: /api/dons/12 => ["12"]
+         */
+        public String[] getSegments() {
+            return segments;
+        }
+
+        /**
+         * Paramètre de l'URL (?nom=valeur) ou du formulaire envoyé en POST
+         */
+        public String getParametre(String nom) {
+            return parametres.get(nom);
+        }
+        
+        /**
+         * Paramètre obligatoire (erreur 400 s'il manque)
+         */
+        public String getParametreObligatoire(String nom) {
+            String valeur = parametres.get(nom);
+            if (valeur == null || valeur.trim().isEmpty()) {
+                throw new ApiException(400, "Paramètre manquant: " + nom);
+            }
+            return valeur.trim();
+        }
+        
+        /**
+         * Paramètre numérique obligatoire
+         */
+        public int getParametreEntier(String nom) {
+            try {
+                return Integer.parseInt(getParametreObligatoire(nom));
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Paramètre numérique invalide: " + nom);
+            }
+        }
+
+        /**
+         * Lit le segment n comme un identifiant numérique
+         */
+        public int getId(int index) {
+            try {
+                return Integer.parseInt(segments[index]);
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Identifiant invalide: " + segments[index]);
+            }
+        }
+    }
+
+    private final String prefixe;
+    private final RegistreDAO registre;
+    private final AuthentificationApi authentification;
+    private final Route route;
+
+    public ApiHandler(String prefixe, RegistreDAO registre, AuthentificationApi authentification, Route route) {
+        this.prefixe = prefixe;
+        this.registre = registre;
+        this.authentification = authentification;
+        this.route = route;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        int code;
+        String corps;
+
+        try {
+            Requete requete = lireRequete(exchange);
+            try (Connection connection = registre.getSource().getConnection()) {
+                RegistreDAO.Liaison liaison = registre.lier(connection);
+                try {
+                    requete.contexte = authentification.authentifier(
+                        exchange.getRequestHeaders().getFirst("Authorization"));
+                    if (requete.contexte == null) {
+                        exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"BloodPlus\"");
+                        throw new ApiException(401, "Authentification requise");
+                    }
+                    corps = ContexteAppel.executer(requete.contexte, () -> route.executer(requete));
+                } finally {
+                    liaison.close();
+                }
+            }
+            if (corps == null) {
+                code = 404;
+                corps = erreur("Ressource introuvable");
+            } else {
+                code = 200;
+            }
+        } catch (ApiException e) {
+            code = e.getCode();
+            corps = erreur(e.getMessage());
+        } catch (SQLException e) {
+            // Pool épuisé ou base indisponible
+            code = 503;
+            corps = erreur("Base de données indisponible");
+            System.err.println("❌ API " + exchange.getRequestURI() + " : " + e.getMessage());
+        } catch (RuntimeException e) {
+            code = 500;
+            corps = erreur("Erreur interne");
+            e.printStackTrace();
+        }
+
+        envoyer(exchange, code, corps);
+    }
+
+    // ================================================================
+    // MÉTHODES UTILITAIRES
+    // ================================================================
+
+    private Requete lireRequete(HttpExchange exchange) throws IOException {
+        String chemin = exchange.getRequestURI().getPath();
+        String reste = chemin.length() > prefixe.length() ? chemin.substring(prefixe.length()) : "";
+        if (reste.startsWith("/")) {
+            reste = reste.substring(1);
+        }
+        String[] segments = reste.isEmpty() ? new String[0] : reste.split("/");
+
+        Map<String, String> parametres = new HashMap<>();
+        lireParametres(exchange.getRequestURI().getRawQuery(), parametres);
+        
+        // Formulaire envoyé en POST (application/x-www-form-urlencoded)
+        if ("POST".equals(exchange.getRequestMethod())) {
+            try (InputStream is = exchange.getRequestBody()) {
+                lireParametres(new String(is.readAllBytes(), StandardCharsets.UTF_8), parametres);
+            }
+        }
+        return new Requete(exchange.getRequestMethod(), segments, parametres);
+    }
+    
+    private static void lireParametres(String texte, Map<String, String> parametres) {
+        if (texte == null || texte.isEmpty()) {
+            return;
+        }
+        for (String paire : texte.split("&")) {
+            int egal = paire.indexOf('=');
+            if (egal > 0) {
+                parametres.put(decoder(paire.substring(0, egal)), decoder(paire.substring(egal + 1)));
+            }
+        }
+    }
+
+    private static String decoder(String texte) {
+        return URLDecoder.decode(texte, StandardCharsets.UTF_8);
+    }
+
+    private static String erreur(String message) {
+        return new Json().debutObjet().champ("erreur", message).finObjet().toString();
+    }
+
+    private static void envoyer(HttpExchange exchange, int code, String corps) throws IOException {
+        byte[] octets = corps.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, octets.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(octets);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Package API : service HTTP sans interface graphique
+ */
+package api;
+
+import dao.UtilisateurDAO;
+import diagnostic.Metriques;
+import model.Utilisateur;
+import service.ContexteAppel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AuthentificationApi : identifie l'appelant d'une requête HTTP
+ *
+ * 💡 EXPLICATION :
+ * Le client envoie ses identifiants BloodPlus avec l'en-tête standard
+ * "Authorization: Basic base64(utilisateur:motdepasse)".
+ *
+ * On les vérifie avec UtilisateurDAO puis on garde le ContexteAppel obtenu
+ * en mémoire DUREE_CACHE_MS (10 s par défaut, -Dbloodplus.api.cacheAuthMs=...) :
+ * inutile de relire la base à chaque requête. Un utilisateur désactivé perd
+ * donc l'accès au plus tard après DUREE_CACHE_MS.
+ *
+ * ⚠️ En production, placer le serveur derrière HTTPS (les identifiants circulent en Base64)
+ *
+ * @author dteach
+ */
+public class AuthentificationApi {
+
+    private static final long DUREE_CACHE_MS = Math.max(0, Long.getLong("bloodplus.api.cacheAuthMs", 10_000));
+
+    private static class Entree {
+        final ContexteAppel contexte;
+        final long expiration;
+
+        Entree(ContexteAppel contexte, long expiration) {
+            this.contexte = contexte;
+            this.expiration = expiration;
+        }
+    }
+
+    private final Map<String, Entree> cache = new ConcurrentHashMap<>();
+    private final UtilisateurDAO utilisateurDAO;
+
+    public AuthentificationApi(UtilisateurDAO utilisateurDAO) {
+        this.utilisateurDAO = utilisateurDAO;
+    }
+
+    /**
+     * Retourne le contexte de l'appelant, ou null si les identifiants sont absents ou faux
+     *
+     * 💡 Une vérification en base passe par la connexion liée au thread (ApiHandler)
+     *
+     * @param entete valeur de l'en-tête Authorization (peut être null)
+     */
+    public ContexteAppel authentifier(String entete) {
+        if (entete == null || !entete.startsWith("Basic ")) {
+            return null;
+        }
+
+        long maintenant = System.currentTimeMillis();
+        Entree entree = cache.get(entete);
+        if (entree != null && entree.expiration > maintenant) {
+            Metriques.acces("authentification", true);
+            return entree.contexte;
+        }
+        Metriques.acces("authentification", false);
+
+        String identifiants;
+        try {
+            identifiants = new String(Base64.getDecoder().decode(entete.substring(6)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int separateur = identifiants.indexOf(':');
+        if (separateur < 0) {
+            return null;
+        }
+
+        Utilisateur user = utilisateurDAO.verifierIdentifiants(
+            identifiants.substring(0, separateur), identifiants.substring(separateur + 1));
+        if (user == null) {
+            cache.remove(entete);
+            return null;
+        }
+
+        ContexteAppel contexte = ContexteAppel.depuis(user);
+        cache.put(entete, new Entree(contexte, maintenant + DUREE_CACHE_MS));
+        return contexte;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Package API : service HTTP sans interface graphique
+ */
+package api;
+
+import model.Alerte;
+import model.Distribution;
+import model.Don;
+import model.Donneur;
+import model.StockSanguin;
+import service.CubeDistributions;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+/**
+ * ConvertisseurJson : transforme les objets métier en JSON
+ *
+ * 💡 Une méthode par type d'objet, toutes sur le même modèle :
+ *    on ouvre un objet, on écrit chaque attribut, on ferme l'objet
+ *
+ * @author dteach
+ */
+public class ConvertisseurJson {
+
+    private ConvertisseurJson() {
+    }
+
+    /**
+     * Écrit une liste d'objets sous forme de tableau JSON
+     */
+    public static <T> String liste(List<T> elements, BiConsumer<Json, T> convertisseur) {
+        Json json = new Json().debutTableau();
+        for (T element : elements) {
+            convertisseur.accept(json, element);
+        }
+        return json.finTableau().toString();
+    }
+
+    /**
+     * Écrit un seul objet (ou null s'il n'existe pas)
+     */
+    public static <T> String objet(T element, BiConsumer<Json, T> convertisseur) {
+        if (element == null) {
+            return null;
+        }
+        Json json = new Json();
+        convertisseur.accept(json, element);
+        return json.toString();
+    }
+
+    // ================================================================
+    // CONVERTISSEURS PAR TYPE
+    // ================================================================
+
+    public static void donneur(Json json, Donneur d) {
+        json.debutObjet()
+            .champ("id", d.getId())
+            .champ("nom", d.getNom())
+            .champ("prenom", d.getPrenom())
+            .champ("dateNaissance", d.getDateNaissance())
+            .champ("sexe", d.getSexe())
+            .champ("groupeSanguin", d.getGroupeSanguin())
+            .champ("telephone", d.getTelephone())
+            .champ("email", d.getEmail())
+            .champ("adresse", d.getAdresse())
+            .champ("dateInscription", d.getDateInscription())
+            .champ("apte", d.isApte())
+            .finObjet();
+    }
+
+    public static void don(Json json, Don d) {
+        json.debutObjet()
+            .champ("id", d.getId())
+            .champ("donneurId", d.getDonneurId())
+            .champ("dateDon", d.getDateDon())
+            .champ("quantite", d.getQuantite())
+            .champ("statut", d.getStatut())
+            .champ("notes", d.getNotes());
+        if (d.getDonneur() != null) {
+            json.champ("donneur", d.getDonneur().getNomComplet())
+                .champ("groupeSanguin", d.getDonneur().getGroupeSanguin());
+        }
+        json.finObjet();
+    }
+
+    public static void stock(Json json, StockSanguin s) {
+        json.debutObjet()
+            .champ("id", s.getId())
+            .champ("groupeSanguin", s.getGroupeSanguin())
+            .champ("quantite", s.getQuantite())
+            .champ("datePrelevement", s.getDatePrelevement())
+            .champ("datePeremption", s.getDatePeremption())
+            .champ("donId", s.getDonId())
+            .champ("statut", s.getStatut())
+            .finObjet();
+    }
+
+    /**
+     * Ligne du résumé de stock : [groupe, quantité totale]
+     */
+    public static void resumeStock(Json json, Object[] ligne) {
+        json.debutObjet()
+            .champ("groupeSanguin", (String) ligne[0])
+            .champ("quantite", ((Number) ligne[1]).longValue())
+            .finObjet();
+    }
+
+    /**
+     * Jours de stock d'un groupe : [groupe, stock, consommation prévue sur 7 jours, jours de stock]
+     */
+    public static void joursDeStock(Json json, Object[] ligne) {
+        json.debutObjet()
+            .champ("groupeSanguin", (String) ligne[0])
+            .champ("quantite", ((Number) ligne[1]).longValue())
+            .champ("consommationPrevue7Jours", ((Number) ligne[2]).longValue())
+            .champ("joursDeStock", Math.round(((Number) ligne[3]).doubleValue() * 10) / 10.0)
+            .finObjet();
+    }
+
+    public static void distribution(Json json, Distribution d) {
+        json.debutObjet()
+            .champ("id", d.getId())
+            .champ("hopitalId", d.getHopitalId())
+            .champ("groupeSanguin", d.getGroupeSanguin())
+            .champ("quantite", d.getQuantite())
+            .champ("dateDistribution", d.getDateDistribution())
+            .champ("statut", d.getStatut())
+            .champ("motif", d.getMotif());
+        if (d.getHopital() != null) {
+            json.champ("hopital", d.getHopital().getNom());
+        }
+        json.finObjet();
+    }
+
+    /**
+     * Case du cube des distributions : [libellé de chaque axe..., quantité, nombre]
+     * 💡 Un champ par axe, au nom de l'axe (groupe, ville, mois...)
+     */
+    public static BiConsumer<Json, Object[]> caseCube(CubeDistributions.Dimension[] axes) {
+        return (json, ligne) -> {
+            json.debutObjet();
+            for (int a = 0; a < axes.length; a++) {
+                json.champ(axes[a].name().toLowerCase(Locale.ROOT), (String) ligne[a]);
+            }
+            json.champ("quantite", ((Number) ligne[axes.length]).longValue())
+                .champ("nombre", ((Number) ligne[axes.length + 1]).longValue())
+                .finObjet();
+        };
+    }
+
+    public static void alerte(Json json, Alerte a) {
+        json.debutObjet()
+            .champ("id", a.getId())
+            .champ("type", a.getType())
+            .champ("message", a.getMessage())
+            .champ("groupeSanguin", a.getGroupeSanguin())
+            .champ("dateCreation", a.getDateCreation())
+            .champ("lue", a.isLue())
+            .champ("priorite", a.getPriorite())
+            .finObjet();
+    }
+}
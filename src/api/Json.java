@@ -0,0 +1,211 @@
+/*
+ * Package API : service HTTP sans interface graphique
+ */
+package api;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Json : petit écrivain JSON (sans bibliothèque externe)
+ *
+ * 💡 EXPLICATION :
+ * On construit le texte JSON au fur et à mesure :
+ *   new Json().debutObjet().champ("id", 1).champ("nom", "Dupont").finObjet()
+ * donne {"id":1,"nom":"Dupont"}
+ *
+ * La classe gère toute seule les virgules entre les éléments
+ * et l'échappement des caractères spéciaux dans les textes.
+ *
+ * ⚠️ Un objet Json n'est PAS partagé entre threads : chaque requête crée le sien
+ *
+ * @author dteach
+ */
+public class Json {
+
+    private final StringBuilder sb = new StringBuilder(256);
+
+    // Pour chaque niveau ouvert : true si on a déjà écrit un élément (=> virgule)
+    private final Deque<Boolean> niveaux = new ArrayDeque<>();
+
+    // Vrai juste après nom(...) : la valeur suit directement les deux-points
+    private boolean apresNom = false;
+
+    // Format ISO pour les dates : immuable, donc partagé par toutes les requêtes
+    private static final DateTimeFormatter FORMAT_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    // ================================================================
+    // STRUCTURE
+    // ================================================================
+
+    public Json debutObjet() {
+        separateur();
+        sb.append('{');
+        niveaux.push(false);
+        return this;
+    }
+
+    public Json finObjet() {
+        niveaux.pop();
+        sb.append('}');
+        return this;
+    }
+
+    public Json debutTableau() {
+        separateur();
+        sb.append('[');
+        niveaux.push(false);
+        return this;
+    }
+
+    public Json finTableau() {
+        niveaux.pop();
+        sb.append(']');
+        return this;
+    }
+
+    /**
+     * Écrit le nom d'un champ ; la valeur suivante sera sa valeur
+     */
+    public Json nom(String nom) {
+        separateur();
+        ecrireTexte(nom);
+        sb.append(':');
+        // La valeur qui suit ne doit pas être précédée d'une virgule
+        apresNom = true;
+        return this;
+    }
+
+    // ================================================================
+    // CHAMPS (nom + valeur)
+    // ================================================================
+
+    public Json champ(String nom, String valeur) {
+        return nom(nom).valeur(valeur);
+    }
+
+    public Json champ(String nom, long valeur) {
+        return nom(nom).valeur(valeur);
+    }
+
+    public Json champ(String nom, double valeur) {
+        return nom(nom).valeur(valeur);
+    }
+
+    public Json champ(String nom, boolean valeur) {
+        return nom(nom).valeur(valeur);
+    }
+
+    public Json champ(String nom, LocalDate valeur) {
+        return nom(nom).valeur(valeur);
+    }
+
+    public Json champ(String nom, LocalDateTime valeur) {
+        return nom(nom).valeur(valeur);
+    }
+
+    // ================================================================
+    // VALEURS
+    // ================================================================
+
+    public Json valeur(String valeur) {
+        separateur();
+        if (valeur == null) {
+            sb.append("null");
+        } else {
+            ecrireTexte(valeur);
+        }
+        return this;
+    }
+
+    public Json valeur(long valeur) {
+        separateur();
+        sb.append(valeur);
+        return this;
+    }
+
+    public Json valeur(double valeur) {
+        separateur();
+        sb.append(valeur);
+        return this;
+    }
+
+    public Json valeur(boolean valeur) {
+        separateur();
+        sb.append(valeur);
+        return this;
+    }
+
+    public Json valeur(LocalDateTime valeur) {
+        if (valeur == null) {
+            return valeur((String) null);
+        }
+        return valeur(FORMAT_DATE.format(valeur));
+    }
+
+    /**
+     * 💡 Une date seule est écrite à minuit ("1990-05-12T00:00:00") :
+     *    même format que les dates avec heure pour les clients de l'API
+     */
+    public Json valeur(LocalDate valeur) {
+        return valeur(valeur == null ? null : valeur.atStartOfDay());
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    // ================================================================
+    // MÉTHODES INTERNES
+    // ================================================================
+
+    private void separateur() {
+        if (apresNom) {
+            apresNom = false;
+            return;
+        }
+        if (!niveaux.isEmpty()) {
+            if (niveaux.peek()) {
+                sb.append(',');
+            } else {
+                niveaux.pop();
+                niveaux.push(true);
+            }
+        }
+    }
+
+    private void ecrireTexte(String texte) {
+        sb.append('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * Package API : service HTTP sans interface graphique
+ */
+package api;
+
+import com.sun.net.httpserver.HttpServer;
+import dao.DatabaseConnection;
+import dao.DistributionDAO;
+import dao.DonDAO;
+import dao.DonneurDAO;
+import dao.PoolConnexions;
+import dao.RegistreDAO;
+import dao.StockSanguinDAO;
+import diagnostic.Metriques;
+import model.Don;
+import model.Donneur;
+import service.CubeDistributions;
+import service.DedoublonnageService;
+import service.ArchivageService;
+import service.InstantanesStockService;
+import service.PrevisionDemandeService;
+import utils.ValidationUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ServeurApi : mode "serveur" de BloodPlus, sans interface graphique
+ *
+ * 💡 EXPLICATION :
+ * Au lieu que chaque poste parle directement à MySQL, ce serveur expose
+ * les données en JSON via HTTP. Les hôpitaux peuvent consulter le stock
+ * sans téléphoner.
+ *
+ * - Serveur HTTP : celui fourni par le JDK (com.sun.net.httpserver)
+ * - Un thread virtuel PAR requête (Java 21+), sinon un pool de threads classique
+ * - Un pool de connexions JDBC partagé (PoolConnexions) : il limite le nombre
+ *   de requêtes SQL simultanées, même si les threads virtuels sont très nombreux
+ * - Un seul exemplaire de chaque DAO (RegistreDAO, sur ce pool) pour tous les threads
+ *
+ * Chaque requête doit être authentifiée (compte BloodPlus, voir AuthentificationApi).
+ * Les modifications sont auditées au nom de l'appelant (ContexteAppel).
+ *
+ * ENDPOINTS (GET) :
+ *   /api/donneurs            ?groupe=O-  ou  ?q=texte  ou  ?eligible=O- (peuvent donner aujourd'hui)
+ *   /api/donneurs/{id}
+ *   /api/dons                ?statut=EN_ATTENTE
+ *   /api/dons/{id}
+ *   /api/stocks              stock disponible
+ *   /api/stocks/resume       quantité totale par groupe
+ *   /api/stocks/jours        jours de stock restants par groupe (prévision de la demande)
+ *   /api/distributions       ?statut=EN_COURS
+ *   /api/distributions/{id}
+ *   /api/distributions/cube  ?axes=groupe,ville,mois  filtres : groupe, hopital, ville, statut, du, au
+ *   /api/alertes             alertes non lues
+ *
+ * ENDPOINTS (POST, formulaire, rôles ADMIN / OPERATEUR) :
+ *   /api/donneurs            nom, prenom, groupeSanguin, telephone, email, sexe, adresse
+ *   /api/dons                donneurId, quantite, notes
+ *   /api/dons/{id}/valider
+ *
+ * Lancement : java -cp ... bloodplus.BloodPlus --serveur
+ *   -Dbloodplus.api.port=8080   port d'écoute
+ *   -Dbloodplus.api.pool=10     taille du pool de connexions
+ *
+ * @author dteach
+ */
+public class ServeurApi {
+
+    public static final int PORT_DEFAUT = 8080;
+    public static final int TAILLE_POOL_DEFAUT = 10;
+
+    private final int port;
+    private final RegistreDAO registre;
+    private final AuthentificationApi authentification;
+    private final InstantanesStockService instantanes;
+    private final ArchivageService archivage;
+    private final CubeDistributions cube;
+    private final PrevisionDemandeService prevision;
+    private HttpServer serveur;
+    private ExecutorService executeur;
+
+    public ServeurApi(int port, RegistreDAO registre) {
+        this.port = port;
+        this.registre = registre;
+        this.authentification = new AuthentificationApi(registre.getUtilisateurDAO());
+        this.instantanes = new InstantanesStockService(registre);
+        this.archivage = new ArchivageService(registre);
+        this.cube = new CubeDistributions(registre.getDistributionDAO());
+        this.prevision = new PrevisionDemandeService(registre.getDistributionDAO(), registre.getStockSanguinDAO());
+    }
+
+    // ================================================================
+    // DÉMARRAGE / ARRÊT
+    // ================================================================
+
+    public void demarrer() throws IOException {
+        serveur = HttpServer.create(new InetSocketAddress(port), 0);
+        executeur = creerExecuteur();
+        serveur.setExecutor(executeur);
+
+        enregistrerRoutes();
+
+        serveur.start();
+        instantanes.demarrer();
+        archivage.demarrer();
+        DedoublonnageService.completerClesEnFond(registre);
+        System.out.println("✅ API BloodPlus démarrée sur le port " + getPort()
+            + " (base: " + DatabaseConnection.getUrl() + ")");
+    }
+
+    public void arreter() {
+        if (serveur != null) {
+            serveur.stop(1);
+            executeur.shutdown();
+            instantanes.arreter();
+            archivage.arreter();
+            registre.fermer();
+            System.out.println("👋 API BloodPlus arrêtée");
+        }
+    }
+
+    /**
+     * Port réellement utilisé (utile si on a demandé le port 0 = port libre)
+     */
+    public int getPort() {
+        return serveur != null ? serveur.getAddress().getPort() : port;
+    }
+
+    /**
+     * 💡 Un thread virtuel par requête si la JVM le permet (Java 21+).
+     *    On passe par la réflexion pour que le projet compile encore en Java 17.
+     */
+    static ExecutorService creerExecuteur() {
+        try {
+            return (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("ℹ️ Threads virtuels indisponibles, utilisation d'un pool classique");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // ================================================================
+    // ROUTES
+    // ================================================================
+
+    private void enregistrerRoutes() {
+        ajouter("/api/donneurs", req -> {
+            DonneurDAO dao = registre.getDonneurDAO();
+            if ("POST".equals(req.getMethode())) {
+                return creerDonneur(req, dao);
+            }
+            if (req.getSegments().length == 1) {
+                return ConvertisseurJson.objet(dao.trouverParId(req.getId(0)), ConvertisseurJson::donneur);
+            }
+            // Sous-ressource inconnue (ex: /api/donneurs/5/dons) : 404, pas toute la table
+            if (req.getSegments().length > 0) {
+                return null;
+            }
+            if (req.getParametre("eligible") != null) {
+                return ConvertisseurJson.liste(registre.getEligibiliteDAO().listerEligibles(req.getParametre("eligible"),
+                    LocalDate.now()), ConvertisseurJson::donneur);
+            }
+            if (req.getParametre("groupe") != null) {
+                return ConvertisseurJson.liste(dao.trouverParGroupeSanguin(req.getParametre("groupe")),
+                    ConvertisseurJson::donneur);
+            }
+            if (req.getParametre("q") != null) {
+                return ConvertisseurJson.liste(dao.rechercher(req.getParametre("q")), ConvertisseurJson::donneur);
+            }
+            return ConvertisseurJson.liste(dao.listerTous(), ConvertisseurJson::donneur);
+        });
+
+        ajouter("/api/dons", req -> {
+            DonDAO dao = registre.getDonDAO();
+            if ("POST".equals(req.getMethode())) {
+                return creerOuValiderDon(req, dao);
+            }
+            if (req.getSegments().length == 1) {
+                return ConvertisseurJson.objet(dao.trouverParId(req.getId(0)), ConvertisseurJson::don);
+            }
+            if (req.getSegments().length > 0) {
+                return null;
+            }
+            if (req.getParametre("statut") != null) {
+                return ConvertisseurJson.liste(dao.trouverParStatut(req.getParametre("statut")),
+                    ConvertisseurJson::don);
+            }
+            // Historique complet d'un donneur, dons archivés compris
+            if (req.getParametre("donneur") != null) {
+                return ConvertisseurJson.liste(registre.getArchiveDAO().getHistoriqueDons(
+                    req.getParametreEntier("donneur")), ConvertisseurJson::don);
+            }
+            return ConvertisseurJson.liste(dao.listerTous(), ConvertisseurJson::don);
+        });
+
+        ajouter("/api/stocks", req -> {
+            lectureSeule(req);
+            StockSanguinDAO dao = registre.getStockSanguinDAO();
+            if (req.getSegments().length == 1 && "resume".equals(req.getSegments()[0])) {
+                return ConvertisseurJson.liste(dao.getResumeStock(), ConvertisseurJson::resumeStock);
+            }
+            if (req.getSegments().length == 1 && "jours".equals(req.getSegments()[0])) {
+                return ConvertisseurJson.liste(prevision.getJoursDeStock(), ConvertisseurJson::joursDeStock);
+            }
+            if (req.getSegments().length == 1) {
+                // Une poche, même archivée (traçabilité)
+                return ConvertisseurJson.objet(registre.getArchiveDAO().trouverPoche(req.getId(0)),
+                    ConvertisseurJson::stock);
+            }
+            if (req.getSegments().length > 0) {
+                return null;
+            }
+            return ConvertisseurJson.liste(dao.listerDisponible(), ConvertisseurJson::stock);
+        });
+
+        ajouter("/api/distributions", req -> {
+            lectureSeule(req);
+            DistributionDAO dao = registre.getDistributionDAO();
+            if (req.getSegments().length == 1 && "cube".equals(req.getSegments()[0])) {
+                return interrogerCube(req);
+            }
+            if (req.getSegments().length == 1) {
+                return ConvertisseurJson.objet(dao.trouverParId(req.getId(0)), ConvertisseurJson::distribution);
+            }
+            if (req.getSegments().length > 0) {
+                return null;
+            }
+            if (req.getParametre("statut") != null) {
+                return ConvertisseurJson.liste(dao.trouverParStatut(req.getParametre("statut")),
+                    ConvertisseurJson::distribution);
+            }
+            // Historique complet d'un hôpital, distributions archivées comprises
+            if (req.getParametre("hopital") != null) {
+                return ConvertisseurJson.liste(registre.getArchiveDAO().getHistoriqueDistributions(
+                    req.getParametreEntier("hopital")), ConvertisseurJson::distribution);
+            }
+            return ConvertisseurJson.liste(dao.listerTous(), ConvertisseurJson::distribution);
+        });
+
+        ajouter("/api/alertes", req -> {
+            lectureSeule(req);
+            return ConvertisseurJson.liste(registre.getAlerteDAO().listerNonLues(), ConvertisseurJson::alerte);
+        });
+    }
+
+    /**
+     * POST /api/donneurs : inscrit un nouveau donneur
+     */
+    private static String creerDonneur(ApiHandler.Requete req, DonneurDAO dao) {
+        req.exigerModification();
+        if (req.getSegments().length > 0) {
+            return null;
+        }
+
+        String groupe = req.getParametreObligatoire("groupeSanguin");
+        if (!ValidationUtils.estGroupeSanguinValide(groupe)) {
+            throw new ApiHandler.ApiException(400, "Groupe sanguin invalide: " + groupe);
+        }
+        Donneur donneur = new Donneur(req.getParametreObligatoire("nom"), req.getParametreObligatoire("prenom"),
+            groupe, req.getParametre("telephone"));
+        donneur.setEmail(req.getParametre("email"));
+        donneur.setSexe(req.getParametre("sexe") != null ? req.getParametre("sexe") : "M");
+        donneur.setAdresse(req.getParametre("adresse"));
+
+        if (!dao.ajouter(donneur)) {
+            throw new ApiHandler.ApiException(500, "Inscription du donneur impossible");
+        }
+        return ConvertisseurJson.objet(donneur, ConvertisseurJson::donneur);
+    }
+
+    /**
+     * POST /api/dons : enregistre un don
+     * POST /api/dons/{id}/valider : valide un don (et crée le stock)
+     */
+    private static String creerOuValiderDon(ApiHandler.Requete req, DonDAO dao) {
+        req.exigerModification();
+
+        if (req.getSegments().length == 2 && "valider".equals(req.getSegments()[1])) {
+            int id = req.getId(0);
+            Don don = dao.trouverParId(id);
+            if (don == null) {
+                return null;
+            }
+            if (!Don.STATUT_EN_ATTENTE.equals(don.getStatut())) {
+                throw new ApiHandler.ApiException(409, "Ce don a déjà été traité");
+            }
+            if (!dao.valider(id)) {
+                // 💡 Validé entre-temps par un autre appel : valider() n'a rien changé
+                Don actuel = dao.trouverParId(id);
+                if (actuel != null && !Don.STATUT_EN_ATTENTE.equals(actuel.getStatut())) {
+                    throw new ApiHandler.ApiException(409, "Ce don a déjà été traité");
+                }
+                throw new ApiHandler.ApiException(500, "Validation du don impossible");
+            }
+            return ConvertisseurJson.objet(dao.trouverParId(id), ConvertisseurJson::don);
+        }
+        if (req.getSegments().length > 0) {
+            return null;
+        }
+
+        int quantite = req.getParametre("quantite") != null
+            ? req.getParametreEntier("quantite") : Don.QUANTITE_STANDARD;
+        if (!ValidationUtils.estQuantiteDonValide(quantite)) {
+            throw new ApiHandler.ApiException(400, "Quantité invalide (200 à 500 ml)");
+        }
+        Don don = new Don(req.getParametreEntier("donneurId"), LocalDateTime.now(), quantite);
+        don.setNotes(req.getParametre("notes"));
+
+        if (!dao.ajouter(don)) {
+            throw new ApiHandler.ApiException(500, "Enregistrement du don impossible");
+        }
+        return ConvertisseurJson.objet(don, ConvertisseurJson::don);
+    }
+
+    /**
+     * GET /api/distributions/cube?axes=groupe,mois&ville=Douala&statut=LIVREE&du=2026-01-01&au=2026-06-30
+     * 💡 Totaux lus dans le cube en mémoire (aucune requête SQL par découpage)
+     */
+    private String interrogerCube(ApiHandler.Requete req) {
+        List<CubeDistributions.Dimension> axes = new ArrayList<>();
+        CubeDistributions.Filtre filtre = new CubeDistributions.Filtre();
+        try {
+            if (req.getParametre("axes") != null && !req.getParametre("axes").isBlank()) {
+                for (String axe : req.getParametre("axes").split(",")) {
+                    axes.add(CubeDistributions.Dimension.valueOf(axe.trim().toUpperCase(Locale.ROOT)));
+                }
+            }
+            for (CubeDistributions.Dimension axe : new CubeDistributions.Dimension[] {
+                    CubeDistributions.Dimension.GROUPE, CubeDistributions.Dimension.HOPITAL,
+                    CubeDistributions.Dimension.VILLE, CubeDistributions.Dimension.STATUT}) {
+                String valeurs = req.getParametre(axe.name().toLowerCase(Locale.ROOT));
+                if (valeurs != null) {
+                    filtre.avec(axe, valeurs.split(","));
+                }
+            }
+            filtre.entre(req.getParametre("du") != null ? LocalDate.parse(req.getParametre("du")) : null,
+                req.getParametre("au") != null ? LocalDate.parse(req.getParametre("au")) : null);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ApiHandler.ApiException(400, "Paramètre du cube invalide: " + e.getMessage());
+        }
+
+        CubeDistributions.Dimension[] tableau = axes.toArray(new CubeDistributions.Dimension[0]);
+        return ConvertisseurJson.liste(cube.agreger(filtre, tableau), ConvertisseurJson.caseCube(tableau));
+    }
+
+    private static void lectureSeule(ApiHandler.Requete req) {
+        if (!"GET".equals(req.getMethode())) {
+            throw new ApiHandler.ApiException(405, "Méthode non autorisée");
+        }
+    }
+
+    /**
+     * Enregistre une ressource (GET, et POST si la route le gère)
+     */
+    private void ajouter(String prefixe, ApiHandler.Route route) {
+        serveur.createContext(prefixe, new ApiHandler(prefixe, registre, authentification, req -> {
+            if (!"GET".equals(req.getMethode()) && !"POST".equals(req.getMethode())) {
+                throw new ApiHandler.ApiException(405, "Méthode non autorisée");
+            }
+            if (req.getSegments().length > 2) {
+                return null;
+            }
+            return route.executer(req);
+        }));
+    }
+
+    // ================================================================
+    // POINT D'ENTRÉE
+    // ================================================================
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger("bloodplus.api.port", PORT_DEFAUT);
+        int taillePool = Integer.getInteger("bloodplus.api.pool", TAILLE_POOL_DEFAUT);
+
+        Metriques.exposerJmx();
+        RegistreDAO registre = new RegistreDAO(new PoolConnexions(taillePool, 5000));
+        RegistreDAO.installer(registre);
+        ServeurApi api = new ServeurApi(port, registre);
+        api.demarrer();
+
+        // Arrêt propre quand on fait Ctrl+C
+        Runtime.getRuntime().addShutdownHook(new Thread(api::arreter));
+    }
+}
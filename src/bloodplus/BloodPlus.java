@@ -4,8 +4,16 @@
  */
 package bloodplus;
 
+import api.ServeurApi;
+import diagnostic.FileEvenementsInstrumentee;
+import diagnostic.Metriques;
+import service.SauvegardeService;
 import ui.LoginFrame;
 import javax.swing.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Classe principale de l'application BloodPlus
@@ -16,15 +24,47 @@ import javax.swing.*;
  * 2. Après authentification, il accède à l'application principale (MainFrame)
  * 3. Les permissions sont appliquées selon son rôle (ADMIN, OPERATEUR, LECTEUR)
  * 
+ * 💡 MODE SERVEUR : avec l'argument --serveur, aucune fenêtre n'est ouverte :
+ *    l'application démarre l'API HTTP (voir api.ServeurApi)
+ * 
+ * 💡 SAUVEGARDE : "--sauvegarder fichier" et "--restaurer fichier" copient
+ *    toute la base dans un fichier / l'y remettent, sans fenêtre
+ *    (voir service.SauvegardeService : à lancer depuis une tâche planifiée).
+ *    "--sauvegarder-increment precedente fichier" ne copie que les
+ *    modifications, "--restaurer complete increment1 increment2..." rejoue la chaîne
+ * 
  * @author dteach
  */
 public class BloodPlus {
 
     /**
      * Méthode main : c'est ici que l'application démarre
-     * @param args les arguments de la ligne de commande (on ne les utilise pas ici)
+     * @param args les arguments de la ligne de commande ("--serveur" pour le mode API,
+     *             "--sauvegarder fichier" / "--sauvegarder-increment precedente fichier" /
+     *             "--restaurer fichier [increments...]")
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--serveur".equals(args[0])) {
+            ServeurApi.main(args);
+            return;
+        }
+        if (args.length == 2 && "--sauvegarder".equals(args[0])) {
+            new SauvegardeService().sauvegarder(Paths.get(args[1]));
+            return;
+        }
+        if (args.length == 3 && "--sauvegarder-increment".equals(args[0])) {
+            new SauvegardeService().sauvegarderIncrement(Paths.get(args[1]), Paths.get(args[2]));
+            return;
+        }
+        if (args.length >= 2 && "--restaurer".equals(args[0])) {
+            List<Path> fichiers = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                fichiers.add(Paths.get(args[i]));
+            }
+            new SauvegardeService().restaurer(fichiers);
+            return;
+        }
+        
         System.out.println("=================================");
         System.out.println("   🩸 Bienvenue dans BloodPlus   ");
         System.out.println("   Banque de Sang Numérique      ");
@@ -40,6 +80,10 @@ public class BloodPlus {
             System.err.println("Impossible de charger le look and feel système");
         }
         
+        // 💡 Mesures de performance : JMX + chronométrage des événements Swing
+        Metriques.exposerJmx();
+        FileEvenementsInstrumentee.installer();
+        
         // Lancer l'écran de connexion sur le thread EDT
         // 💡 Swing doit être exécuté sur l'Event Dispatch Thread (EDT)
         SwingUtilities.invokeLater(() -> {
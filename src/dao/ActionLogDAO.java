@@ -4,8 +4,9 @@
 package dao;
 
 import model.ActionLog;
-import service.Session;
+import service.ContexteAppel;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,10 +21,13 @@ import java.util.List;
  */
 public class ActionLogDAO {
     
-    private Connection connection;
+    private final RegistreDAO registre;
     
-    public ActionLogDAO() {
-        this.connection = DatabaseConnection.getConnection();
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getActionLogDAO())
+     */
+    ActionLogDAO(RegistreDAO registre) {
+        this.registre = registre;
     }
     
     // ================================================================
@@ -34,6 +38,7 @@ public class ActionLogDAO {
      * Enregistre une action dans le journal
      */
     public boolean enregistrer(ActionLog log) {
+        Connection connection = registre.connexion();
         String sql = "INSERT INTO actions_log (utilisateur_id, utilisateur_nom, action, entite, description) VALUES (?, ?, ?, ?, ?)";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -61,14 +66,22 @@ public class ActionLogDAO {
     
     /**
      * Méthode raccourcie pour enregistrer une action
-     * Utilise automatiquement l'utilisateur connecté
+     * Utilise automatiquement le contexte de l'opération en cours
+     * (l'utilisateur connecté sur le poste, ou celui de la requête en mode serveur)
      */
     public void log(String action, String entite, String description) {
-        Session session = Session.getInstance();
-        if (session.estConnecte()) {
+        log(ContexteAppel.courant(), action, entite, description);
+    }
+    
+    /**
+     * Enregistre une action au nom d'un contexte explicite
+     * (rien n'est enregistré si personne n'est identifié)
+     */
+    public void log(ContexteAppel contexte, String action, String entite, String description) {
+        if (contexte != null) {
             ActionLog log = new ActionLog(
-                session.getUtilisateurConnecte().getId(),
-                session.getUtilisateurConnecte().getNomComplet(),
+                contexte.getUtilisateurId(),
+                contexte.getUtilisateurNom(),
                 action,
                 entite,
                 description
@@ -109,6 +122,7 @@ public class ActionLogDAO {
      * Liste toutes les actions (les plus récentes en premier)
      */
     public List<ActionLog> listerTout(int limite) {
+        Connection connection = registre.connexion();
         List<ActionLog> actions = new ArrayList<>();
         String sql = "SELECT * FROM actions_log ORDER BY date_action DESC LIMIT ?";
         
@@ -130,6 +144,7 @@ public class ActionLogDAO {
      * Liste les actions d'un utilisateur spécifique
      */
     public List<ActionLog> listerParUtilisateur(int utilisateurId, int limite) {
+        Connection connection = registre.connexion();
         List<ActionLog> actions = new ArrayList<>();
         String sql = "SELECT * FROM actions_log WHERE utilisateur_id = ? ORDER BY date_action DESC LIMIT ?";
         
@@ -152,11 +167,15 @@ public class ActionLogDAO {
      * Liste les actions d'aujourd'hui
      */
     public List<ActionLog> listerAujourdhui() {
+        Connection connection = registre.connexion();
         List<ActionLog> actions = new ArrayList<>();
-        String sql = "SELECT * FROM actions_log WHERE DATE(date_action) = CURDATE() ORDER BY date_action DESC";
+        // 💡 Intervalle [minuit, minuit du lendemain[ : l'index sur date_action est utilisé
+        String sql = "SELECT * FROM actions_log WHERE date_action >= ? AND date_action < ? ORDER BY date_action DESC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, Dialecte.debutDuJour(0));
+            pstmt.setObject(2, Dialecte.debutDuJour(1));
+            ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
                 actions.add(extraireActionLog(rs));
@@ -172,6 +191,7 @@ public class ActionLogDAO {
      * Liste les actions par type d'entité
      */
     public List<ActionLog> listerParEntite(String entite, int limite) {
+        Connection connection = registre.connexion();
         List<ActionLog> actions = new ArrayList<>();
         String sql = "SELECT * FROM actions_log WHERE entite = ? ORDER BY date_action DESC LIMIT ?";
         
@@ -194,6 +214,7 @@ public class ActionLogDAO {
      * Recherche dans les actions
      */
     public List<ActionLog> rechercher(String terme, int limite) {
+        Connection connection = registre.connexion();
         List<ActionLog> actions = new ArrayList<>();
         String sql = "SELECT * FROM actions_log WHERE " +
                      "utilisateur_nom LIKE ? OR action LIKE ? OR entite LIKE ? OR description LIKE ? " +
@@ -223,6 +244,7 @@ public class ActionLogDAO {
      * Compte le nombre total d'actions
      */
     public int compterTotal() {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM actions_log";
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -237,9 +259,12 @@ public class ActionLogDAO {
      * Compte les actions d'aujourd'hui
      */
     public int compterAujourdhui() {
-        String sql = "SELECT COUNT(*) FROM actions_log WHERE DATE(date_action) = CURDATE()";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        Connection connection = registre.connexion();
+        String sql = "SELECT COUNT(*) FROM actions_log WHERE date_action >= ? AND date_action < ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, Dialecte.debutDuJour(0));
+            pstmt.setObject(2, Dialecte.debutDuJour(1));
+            ResultSet rs = pstmt.executeQuery();
             if (rs.next()) return rs.getInt(1);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -251,10 +276,11 @@ public class ActionLogDAO {
      * Supprime les anciennes actions (nettoyage)
      */
     public int supprimerAnciennes(int joursConservation) {
-        String sql = "DELETE FROM actions_log WHERE date_action < DATE_SUB(NOW(), INTERVAL ? DAY)";
+        Connection connection = registre.connexion();
+        String sql = "DELETE FROM actions_log WHERE date_action < ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, joursConservation);
+            pstmt.setObject(1, Dialecte.ilYA(joursConservation));
             return pstmt.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -262,7 +288,7 @@ public class ActionLogDAO {
         return 0;
     }
     
-    private ActionLog extraireActionLog(ResultSet rs) throws SQLException {
+    static ActionLog extraireActionLog(ResultSet rs) throws SQLException {
         ActionLog log = new ActionLog();
         log.setId(rs.getInt("id"));
         log.setUtilisateurId(rs.getInt("utilisateur_id"));
@@ -270,7 +296,7 @@ public class ActionLogDAO {
         log.setAction(rs.getString("action"));
         log.setEntite(rs.getString("entite"));
         log.setDescription(rs.getString("description"));
-        log.setDateAction(rs.getTimestamp("date_action"));
+        log.setDateAction(rs.getObject("date_action", LocalDateTime.class));
         return log;
     }
 }
@@ -5,6 +5,7 @@ package dao;
 
 import model.Alerte;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,10 +16,13 @@ import java.util.List;
  */
 public class AlerteDAO {
     
-    private Connection connection;
+    private final RegistreDAO registre;
     
-    public AlerteDAO() {
-        this.connection = DatabaseConnection.getConnection();
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getAlerteDAO())
+     */
+    AlerteDAO(RegistreDAO registre) {
+        this.registre = registre;
     }
     
     // ================================================================
@@ -26,6 +30,7 @@ public class AlerteDAO {
     // ================================================================
     
     public boolean ajouter(Alerte alerte) {
+        Connection connection = registre.connexion();
         String sql = "INSERT INTO alertes (type, message, groupe_sanguin, priorite, lue) VALUES (?, ?, ?, ?, ?)";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -59,9 +64,10 @@ public class AlerteDAO {
      * Récupère toutes les alertes non lues
      */
     public List<Alerte> listerNonLues() {
+        Connection connection = registre.connexion();
         List<Alerte> alertes = new ArrayList<>();
         String sql = "SELECT * FROM alertes WHERE lue = false ORDER BY " +
-                     "FIELD(priorite, 'CRITIQUE', 'HAUTE', 'MOYENNE', 'BASSE'), date_creation DESC";
+                     Dialecte.ordreValeurs("priorite", "CRITIQUE", "HAUTE", "MOYENNE", "BASSE") + ", date_creation DESC";
         
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -80,6 +86,7 @@ public class AlerteDAO {
      * Récupère toutes les alertes
      */
     public List<Alerte> listerTous() {
+        Connection connection = registre.connexion();
         List<Alerte> alertes = new ArrayList<>();
         String sql = "SELECT * FROM alertes ORDER BY date_creation DESC";
         
@@ -100,6 +107,7 @@ public class AlerteDAO {
      * Récupère les alertes par priorité
      */
     public List<Alerte> listerParPriorite(String priorite) {
+        Connection connection = registre.connexion();
         List<Alerte> alertes = new ArrayList<>();
         String sql = "SELECT * FROM alertes WHERE priorite = ? AND lue = false ORDER BY date_creation DESC";
         
@@ -121,6 +129,7 @@ public class AlerteDAO {
      * Compte les alertes non lues
      */
     public int compterNonLues() {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM alertes WHERE lue = false";
         
         try (Statement stmt = connection.createStatement();
@@ -138,6 +147,7 @@ public class AlerteDAO {
      * Compte les alertes critiques non lues
      */
     public int compterCritiques() {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM alertes WHERE priorite = 'CRITIQUE' AND lue = false";
         
         try (Statement stmt = connection.createStatement();
@@ -159,6 +169,7 @@ public class AlerteDAO {
      * Marquer une alerte comme lue
      */
     public boolean marquerCommeLue(int alerteId) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE alertes SET lue = true WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -174,6 +185,7 @@ public class AlerteDAO {
      * Marquer toutes les alertes comme lues
      */
     public int marquerToutesCommeLues() {
+        Connection connection = registre.connexion();
         String sql = "UPDATE alertes SET lue = true WHERE lue = false";
         
         try (Statement stmt = connection.createStatement()) {
@@ -189,6 +201,7 @@ public class AlerteDAO {
     // ================================================================
     
     public boolean supprimer(int id) {
+        Connection connection = registre.connexion();
         String sql = "DELETE FROM alertes WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -204,10 +217,11 @@ public class AlerteDAO {
      * Supprimer les alertes lues de plus de X jours
      */
     public int supprimerAnciennes(int joursAvant) {
-        String sql = "DELETE FROM alertes WHERE lue = true AND date_creation < DATE_SUB(NOW(), INTERVAL ? DAY)";
+        Connection connection = registre.connexion();
+        String sql = "DELETE FROM alertes WHERE lue = true AND date_creation < ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, joursAvant);
+            pstmt.setObject(1, Dialecte.ilYA(joursAvant));
             return pstmt.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -215,13 +229,13 @@ public class AlerteDAO {
         return 0;
     }
     
-    private Alerte extraireAlerte(ResultSet rs) throws SQLException {
+    static Alerte extraireAlerte(ResultSet rs) throws SQLException {
         Alerte alerte = new Alerte();
         alerte.setId(rs.getInt("id"));
         alerte.setType(rs.getString("type"));
         alerte.setMessage(rs.getString("message"));
         alerte.setGroupeSanguin(rs.getString("groupe_sanguin"));
-        alerte.setDateCreation(rs.getTimestamp("date_creation"));
+        alerte.setDateCreation(rs.getObject("date_creation", LocalDateTime.class));
         alerte.setLue(rs.getBoolean("lue"));
         alerte.setPriorite(rs.getString("priorite"));
         return alerte;
@@ -0,0 +1,293 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import model.ActionLog;
+import model.Distribution;
+import model.Don;
+import model.StockSanguin;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * ArchiveDAO : déplace les lignes closes et anciennes vers les tables *_archives
+ *
+ * 💡 EXPLICATION :
+ * stocks_sanguins garde toutes les poches UTILISE / PERIME depuis toujours,
+ * distributions toutes les livraisons, dons tous les dons traités : les
+ * écrans qui listent "tout" relisent des années d'historique, et les index
+ * de ces tables ne tiennent plus en mémoire.
+ *
+ * Les lignes CLOSES (elles ne changeront plus) plus anciennes que l'horizon
+ * partent dans une table d'archive de mêmes colonnes :
+ * - poches UTILISE / PERIME périmées avant l'horizon
+ * - distributions LIVREE / ANNULEE faites avant l'horizon
+ * - dons VALIDE / REJETE faits avant l'horizon, dont aucune poche n'est
+ *   encore dans stocks_sanguins (la clé étrangère mettrait don_id à NULL)
+ *
+ * Par LOTS (tailleLot lignes, une transaction par lot) : les verrous ne sont
+ * gardés que quelques millisecondes, les écrans continuent de travailler.
+ * La ligne d'id le plus élevé n'est jamais archivée : MySQL 5.7 recalcule
+ * l'AUTO_INCREMENT à partir du MAX(id) au redémarrage, un id archivé serait
+ * sinon redonné à une nouvelle ligne.
+ *
+ * Les calculs sur l'historique lisent les deux tables (EligibiliteDAO,
+ * CumulMensuelDAO, le cube des distributions), et les méthodes "historique"
+ * ci-dessous répondent pour une poche, un donneur ou un hôpital.
+ *
+ * @author dteach
+ */
+public class ArchiveDAO {
+
+    public static final String DONS = "dons";
+    public static final String STOCKS = "stocks_sanguins";
+    public static final String DISTRIBUTIONS = "distributions";
+
+    private static final String COLONNES_DONS = "id, donneur_id, date_don, quantite, statut, notes";
+    private static final String COLONNES_STOCKS =
+        "id, groupe_sanguin, quantite, date_prelevement, date_peremption, don_id, statut";
+    private static final String COLONNES_DISTRIBUTIONS =
+        "id, hopital_id, groupe_sanguin, quantite, date_distribution, statut, motif";
+
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    private final JournalModificationsDAO journalDAO;
+
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getArchiveDAO())
+     */
+    ArchiveDAO(RegistreDAO registre, ActionLogDAO actionLogDAO, JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
+        this.journalDAO = journalDAO;
+    }
+
+    // ================================================================
+    // ARCHIVAGE
+    // ================================================================
+
+    /**
+     * Archive toutes les lignes closes d'avant une date, lot par lot
+     * 💡 Les poches d'abord : les dons qu'elles retenaient deviennent archivables
+     *
+     * @param limite Les lignes antérieures à cette date sont archivées
+     * @param tailleLot Nombre de lignes déplacées par transaction
+     * @return Le nombre de lignes archivées [dons, poches, distributions]
+     */
+    public int[] archiver(LocalDate limite, int tailleLot) throws SQLException {
+        long chrono = System.currentTimeMillis();
+        int poches = archiverTout(STOCKS, limite, tailleLot);
+        int distributions = archiverTout(DISTRIBUTIONS, limite, tailleLot);
+        int dons = archiverTout(DONS, limite, tailleLot);
+
+        if (dons + poches + distributions > 0) {
+            actionLogDAO.log(ActionLog.ACTION_MODIFIER, ActionLog.ENTITE_SYSTEME,
+                "Archivage avant le " + limite + " : " + dons + " dons, " + poches + " poches, "
+                + distributions + " distributions");
+            System.out.println("✅ Archivage avant le " + limite + " : " + dons + " dons, " + poches
+                + " poches, " + distributions + " distributions (" + (System.currentTimeMillis() - chrono) + " ms)");
+        }
+        return new int[] {dons, poches, distributions};
+    }
+
+    private int archiverTout(String table, LocalDate limite, int tailleLot) throws SQLException {
+        int total = 0;
+        int lot;
+        do {
+            lot = archiverLot(table, limite, tailleLot);
+            total += lot;
+        } while (lot == tailleLot);
+        return total;
+    }
+
+    /**
+     * Déplace UN lot de lignes d'une table vers son archive (une transaction)
+     *
+     * @return Le nombre de lignes déplacées (moins que tailleLot : plus rien à archiver)
+     */
+    public int archiverLot(String table, LocalDate limite, int tailleLot) throws SQLException {
+        List<Integer> ids = candidats(table, limite, tailleLot);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        StringJoiner marques = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < ids.size(); i++) {
+            marques.add("?");
+        }
+        String colonnes = colonnes(table);
+        LocalDateTime maintenant = Dialecte.maintenant().truncatedTo(ChronoUnit.SECONDS);
+
+        return registre.enTransaction(connection -> {
+            try (PreparedStatement copie = connection.prepareStatement(
+                    "INSERT INTO " + table + "_archives (" + colonnes + ", archive_le) "
+                    + "SELECT " + colonnes + ", ? FROM " + table + " WHERE id IN " + marques);
+                 PreparedStatement suppression = connection.prepareStatement(
+                    "DELETE FROM " + table + " WHERE id IN " + marques)) {
+                copie.setObject(1, maintenant);
+                for (int i = 0; i < ids.size(); i++) {
+                    copie.setInt(i + 2, ids.get(i));
+                    suppression.setInt(i + 1, ids.get(i));
+                }
+                int copiees = copie.executeUpdate();
+                int supprimees = suppression.executeUpdate();
+                // 💡 Garde-fou : jamais une ligne supprimée sans sa copie (le lot est annulé)
+                if (copiees != supprimees) {
+                    throw new SQLException("Archivage de " + table + " incohérent : "
+                        + copiees + " copiées, " + supprimees + " supprimées");
+                }
+                journalDAO.noter(connection, table, "id", ids);
+                journalDAO.noter(connection, table + "_archives", "id", ids);
+                return supprimees;
+            }
+        });
+    }
+
+    /**
+     * Les ids du prochain lot à archiver (les plus anciens d'abord)
+     */
+    private List<Integer> candidats(String table, LocalDate limite, int tailleLot) throws SQLException {
+        String filtre;
+        switch (table) {
+            case STOCKS:
+                filtre = "statut IN ('UTILISE', 'PERIME') AND date_peremption < ?";
+                break;
+            case DISTRIBUTIONS:
+                filtre = "statut IN ('LIVREE', 'ANNULEE') AND date_distribution < ?";
+                break;
+            case DONS:
+                filtre = "statut IN ('VALIDE', 'REJETE') AND date_don < ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM stocks_sanguins s WHERE s.don_id = dons.id)";
+                break;
+            default:
+                throw new IllegalArgumentException("Table non archivable : " + table);
+        }
+        String sql = "SELECT id FROM " + table + " WHERE " + filtre
+            + " AND id < (SELECT MAX(id) FROM " + table + ") ORDER BY id LIMIT ?";
+
+        Connection connection = registre.connexion();
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            // date_peremption est une DATE, les autres des DATETIME
+            pstmt.setObject(1, STOCKS.equals(table) ? limite : limite.atStartOfDay());
+            pstmt.setInt(2, tailleLot);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private static String colonnes(String table) {
+        switch (table) {
+            case DONS:
+                return COLONNES_DONS;
+            case STOCKS:
+                return COLONNES_STOCKS;
+            default:
+                return COLONNES_DISTRIBUTIONS;
+        }
+    }
+
+    // ================================================================
+    // HISTORIQUE (tables de travail + archives)
+    // ================================================================
+
+    /**
+     * Tous les dons d'un donneur, archivés compris, du plus récent au plus ancien
+     */
+    public List<Don> getHistoriqueDons(int donneurId) {
+        Connection connection = registre.connexion();
+        List<Don> dons = new ArrayList<>();
+        String sql = "SELECT " + COLONNES_DONS + " FROM dons WHERE donneur_id = ? "
+            + "UNION ALL SELECT " + COLONNES_DONS + " FROM dons_archives WHERE donneur_id = ? "
+            + "ORDER BY date_don DESC";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, donneurId);
+            pstmt.setInt(2, donneurId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                dons.add(DonDAO.extraireDon(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return dons;
+    }
+
+    /**
+     * Toutes les distributions d'un hôpital, archivées comprises, de la plus récente à la plus ancienne
+     */
+    public List<Distribution> getHistoriqueDistributions(int hopitalId) {
+        Connection connection = registre.connexion();
+        List<Distribution> distributions = new ArrayList<>();
+        String sql = "SELECT " + COLONNES_DISTRIBUTIONS + " FROM distributions WHERE hopital_id = ? "
+            + "UNION ALL SELECT " + COLONNES_DISTRIBUTIONS + " FROM distributions_archives WHERE hopital_id = ? "
+            + "ORDER BY date_distribution DESC";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, hopitalId);
+            pstmt.setInt(2, hopitalId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                distributions.add(DistributionDAO.extraireDistribution(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return distributions;
+    }
+
+    /**
+     * Une poche par son id, même archivée (traçabilité d'une transfusion)
+     */
+    public StockSanguin trouverPoche(int id) {
+        Connection connection = registre.connexion();
+        String sql = "SELECT " + COLONNES_STOCKS + " FROM stocks_sanguins WHERE id = ? "
+            + "UNION ALL SELECT " + COLONNES_STOCKS + " FROM stocks_sanguins_archives WHERE id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            pstmt.setInt(2, id);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return StockSanguinDAO.extraireStock(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Nombre de lignes archivées par table : [dons, poches, distributions]
+     */
+    public int[] compterArchives() {
+        Connection connection = registre.connexion();
+        int[] nombres = new int[3];
+        String[] tables = {DONS, STOCKS, DISTRIBUTIONS};
+        try (Statement stmt = connection.createStatement()) {
+            for (int i = 0; i < tables.length; i++) {
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + tables[i] + "_archives")) {
+                    if (rs.next()) {
+                        nombres[i] = rs.getInt(1);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return nombres;
+    }
+}
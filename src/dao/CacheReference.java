@@ -0,0 +1,186 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import diagnostic.Metriques;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * CacheReference : garde en mémoire une table de référence (hôpitaux, utilisateurs)
+ *
+ * 💡 EXPLICATION :
+ * Ces tables changent quelques fois par mois, mais chaque ouverture de
+ * formulaire les relisait en entier (liste déroulante des hôpitaux, filtre
+ * des utilisateurs...). Le cache les lit une fois, puis :
+ * 1. Une écriture faite par un DAO de CE poste vide le cache (invalider)
+ *    et augmente le numéro de version de la table dans versions_donnees
+ * 2. Pour voir les écritures des AUTRES postes, le cache relit ce numéro
+ *    au plus toutes les N secondes (-Dbloodplus.cache.verificationMs,
+ *    10 000 par défaut) : une lecture de clé primaire, rien de plus.
+ *    Version changée → la table est relue.
+ *
+ * Les objets rendus sont des COPIES : un écran peut les modifier sans
+ * toucher au cache (si l'enregistrement échoue, le cache reste juste).
+ *
+ * ⚠️ Sans la table versions_donnees (ancienne base), le cache est simplement
+ *    relu à chaque vérification.
+ *
+ * @author dteach
+ */
+final class CacheReference<T> {
+
+    private static final long DELAI_VERIFICATION_NANOS =
+        TimeUnit.MILLISECONDS.toNanos(Long.getLong("bloodplus.cache.verificationMs", 10_000));
+
+    /**
+     * Lecture complète de la table (requête du DAO)
+     */
+    interface Chargeur<T> {
+        List<T> charger() throws SQLException;
+    }
+
+    /**
+     * Contenu en mémoire, avec la version de la table au moment de la lecture
+     */
+    private static final class Entree<T> {
+        final List<T> elements;
+        final Map<Integer, T> parId;
+        final long version;                 // -1 = version inconnue
+        volatile long verifieA;             // System.nanoTime() de la dernière vérification
+
+        Entree(List<T> elements, Map<Integer, T> parId, long version, long verifieA) {
+            this.elements = elements;
+            this.parId = parId;
+            this.version = version;
+            this.verifieA = verifieA;
+        }
+    }
+
+    private final String table;
+    private final ToIntFunction<T> id;
+    private final UnaryOperator<T> copie;
+    private volatile Entree<T> entree;
+
+    /**
+     * @param table Nom de la table (et de sa ligne dans versions_donnees)
+     * @param id L'identifiant d'un élément
+     * @param copie Copie d'un élément (rendue aux appelants)
+     */
+    CacheReference(String table, ToIntFunction<T> id, UnaryOperator<T> copie) {
+        this.table = table;
+        this.id = id;
+        this.copie = copie;
+    }
+
+    // ================================================================
+    // LECTURE
+    // ================================================================
+
+    /**
+     * Tous les éléments, dans l'ordre de la requête du chargeur
+     */
+    List<T> lister(Connection connection, Chargeur<T> chargeur) {
+        Entree<T> e = obtenir(connection, chargeur);
+        List<T> liste = new ArrayList<>(e.elements.size());
+        for (T element : e.elements) {
+            liste.add(copie.apply(element));
+        }
+        return liste;
+    }
+
+    /**
+     * Un élément par son identifiant (null s'il n'existe pas)
+     */
+    T trouver(Connection connection, int cle, Chargeur<T> chargeur) {
+        T element = obtenir(connection, chargeur).parId.get(cle);
+        return element == null ? null : copie.apply(element);
+    }
+
+    private Entree<T> obtenir(Connection connection, Chargeur<T> chargeur) {
+        long maintenant = System.nanoTime();
+        Entree<T> e = entree;
+        if (e != null && maintenant - e.verifieA < DELAI_VERIFICATION_NANOS) {
+            Metriques.acces(table, true);
+            return e;
+        }
+
+        // 💡 Version lue AVANT les données : une écriture faite entre les deux
+        //    sera vue à la vérification suivante
+        long version = lireVersion(connection);
+        if (e != null && version >= 0 && version == e.version) {
+            e.verifieA = maintenant;
+            Metriques.acces(table, true);
+            return e;
+        }
+        Metriques.acces(table, false);
+
+        List<T> elements;
+        try {
+            elements = chargeur.charger();
+        } catch (SQLException ex) {
+            System.err.println("❌ Erreur lors du chargement de " + table + ": " + ex.getMessage());
+            ex.printStackTrace();
+            // Rien n'est gardé : la prochaine lecture réessaiera
+            return new Entree<>(Collections.emptyList(), Collections.emptyMap(), -1, maintenant);
+        }
+        Map<Integer, T> parId = new HashMap<>();
+        for (T element : elements) {
+            parId.put(id.applyAsInt(element), element);
+        }
+        Entree<T> nouvelle = new Entree<>(Collections.unmodifiableList(elements), parId, version, maintenant);
+        entree = nouvelle;
+        return nouvelle;
+    }
+
+    private long lireVersion(Connection connection) {
+        String sql = "SELECT version FROM versions_donnees WHERE nom = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    // ================================================================
+    // INVALIDATION
+    // ================================================================
+
+    /**
+     * À appeler après chaque écriture réussie dans la table
+     * 💡 Dans une transaction, la nouvelle version est validée avec l'écriture
+     */
+    void invalider(Connection connection) {
+        entree = null;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "UPDATE versions_donnees SET version = version + 1 WHERE nom = ?")) {
+            pstmt.setString(1, table);
+            if (pstmt.executeUpdate() == 0) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO versions_donnees (nom, version) VALUES (?, 1)")) {
+                    insert.setString(1, table);
+                    insert.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠️ Version de " + table + " non mise à jour: " + e.getMessage());
+        }
+        // Un lecteur a pu recharger l'ancienne version pendant l'écriture
+        entree = null;
+    }
+}
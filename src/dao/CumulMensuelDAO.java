@@ -0,0 +1,399 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import model.ActionLog;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * CumulMensuelDAO : totaux par mois pour les rapports (tables cumuls_*)
+ *
+ * 💡 EXPLICATION :
+ * Un rapport "dons et distributions de l'année" relisait dons, distributions
+ * et stock depuis le début. Trois petites tables gardent les totaux par mois :
+ * - cumuls_dons_mensuels : dons, volume collecté, validés, rejetés (par groupe)
+ * - cumuls_distributions_mensuels : distributions et volume (par hôpital et groupe)
+ * - cumuls_stock_mensuels : volume entré, sorti, périmé (par groupe, d'après
+ *   le journal mouvements_stock) → flux net = entré - sorti - périmé
+ * Un rapport annuel lit quelques centaines de lignes au lieu de millions.
+ *
+ * Mise à jour INCRÉMENTALE, en deux temps :
+ * 1. Chaque écriture d'un DAO (DonDAO, DistributionDAO, MouvementStockDAO)
+ *    MARQUE le mois touché dans cumuls_a_recalculer : une ligne, rien de plus
+ * 2. Avant chaque lecture, les mois marqués sont recalculés (lecture des
+ *    lignes de CE mois seulement, par l'index sur la date), puis démarqués
+ *
+ * ⚠️ Une modification faite directement en SQL, ou le changement de groupe
+ *    d'un donneur, n'est pas marquée : reconstruire() recalcule tout.
+ *
+ * Les mois sont des entiers aaaamm (202610 = octobre 2026) : même calcul
+ * YEAR() * 100 + MONTH() sous MySQL et H2.
+ *
+ * @author dteach
+ */
+public class CumulMensuelDAO {
+
+    private static final String[] COLONNES_MARQUE = {"mois", "marque_a"};
+    private static final String MOIS = "YEAR(%1$s) * 100 + MONTH(%1$s)";
+    private static final String[] TABLES_CUMULS =
+        {"cumuls_dons_mensuels", "cumuls_distributions_mensuels", "cumuls_stock_mensuels"};
+
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    private final JournalModificationsDAO journalDAO;
+    private final String sqlMarquerMois;
+    private final String sqlMarquerDon;
+    private final String sqlMarquerDistribution;
+
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getCumulMensuelDAO())
+     */
+    CumulMensuelDAO(RegistreDAO registre, Dialecte dialecte, ActionLogDAO actionLogDAO,
+                    JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
+        this.journalDAO = journalDAO;
+        this.sqlMarquerMois = dialecte.insererOuMettreAJour("cumuls_a_recalculer", COLONNES_MARQUE, "mois",
+            "VALUES (?, ?)");
+        this.sqlMarquerDon = dialecte.insererOuMettreAJour("cumuls_a_recalculer", COLONNES_MARQUE, "mois",
+            "SELECT " + String.format(MOIS, "date_don") + ", ? FROM dons WHERE id = ?");
+        this.sqlMarquerDistribution = dialecte.insererOuMettreAJour("cumuls_a_recalculer", COLONNES_MARQUE, "mois",
+            "SELECT " + String.format(MOIS, "date_distribution") + ", ? FROM distributions WHERE id = ?");
+    }
+
+    // ================================================================
+    // MARQUAGE (appelé par les DAO après chaque écriture)
+    // ================================================================
+
+    /**
+     * Marque le mois d'une date
+     */
+    void marquer(Connection connection, LocalDate jour) {
+        executerMarque(connection, sqlMarquerMois, mois(jour), maintenant());
+    }
+
+    /**
+     * Marque le mois d'un don (à appeler avant une suppression, après une modification)
+     */
+    void marquerDon(Connection connection, int donId) {
+        executerMarque(connection, sqlMarquerDon, maintenant(), donId);
+    }
+
+    /**
+     * Marque le mois d'une distribution
+     */
+    void marquerDistribution(Connection connection, int distributionId) {
+        executerMarque(connection, sqlMarquerDistribution, maintenant(), distributionId);
+    }
+
+    // 💡 Un échec ne doit pas faire échouer l'écriture : le mois sera faux
+    //    jusqu'à la prochaine reconstruction
+    private static void executerMarque(Connection connection, String sql, Object... parametres) {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parametres.length; i++) {
+                pstmt.setObject(i + 1, parametres[i]);
+            }
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Mois non marqué pour les cumuls: " + e.getMessage());
+        }
+    }
+
+    // Précision à la seconde : celle d'une colonne DATETIME
+    private static LocalDateTime maintenant() {
+        return Dialecte.maintenant().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    // ================================================================
+    // RECALCUL
+    // ================================================================
+
+    /**
+     * Recalcule les mois marqués depuis la dernière lecture
+     *
+     * @return Le nombre de mois recalculés
+     */
+    public int appliquerMarques() {
+        Connection connection = registre.connexion();
+        List<Integer> marques = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT mois FROM cumuls_a_recalculer ORDER BY mois")) {
+            while (rs.next()) {
+                marques.add(rs.getInt("mois"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+
+        int recalcules = 0;
+        for (int mois : marques) {
+            try {
+                recalculer(mois);
+                recalcules++;
+            } catch (SQLException e) {
+                System.err.println("❌ Erreur lors du recalcul des cumuls de " + mois + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return recalcules;
+    }
+
+    /**
+     * Recalcule les trois cumuls d'un mois, dans UNE transaction
+     *
+     * 💡 La marque n'est effacée que si elle est antérieure au début du
+     *    recalcul : une écriture faite pendant le recalcul le relancera
+     */
+    public void recalculer(int mois) throws SQLException {
+        LocalDateTime debutRecalcul = maintenant();
+        LocalDateTime debut = LocalDate.of(mois / 100, mois % 100, 1).atStartOfDay();
+        LocalDateTime fin = debut.plusMonths(1);
+
+        registre.enTransaction(connection -> {
+            executer(connection, "DELETE FROM cumuls_dons_mensuels WHERE mois = ?", mois);
+            executer(connection, "INSERT INTO cumuls_dons_mensuels "
+                + "(mois, groupe_sanguin, dons, volume_collecte, valides, rejetes) "
+                + "SELECT ?, dn.groupe_sanguin, COUNT(*), "
+                + "COALESCE(SUM(CASE WHEN d.statut = 'VALIDE' THEN d.quantite ELSE 0 END), 0), "
+                + "SUM(CASE WHEN d.statut = 'VALIDE' THEN 1 ELSE 0 END), "
+                + "SUM(CASE WHEN d.statut = 'REJETE' THEN 1 ELSE 0 END) "
+                + "FROM " + duMois("dons", "donneur_id, quantite, statut", "date_don") + " d "
+                + "JOIN donneurs dn ON dn.id = d.donneur_id "
+                + "GROUP BY dn.groupe_sanguin", mois, debut, fin, debut, fin);
+
+            executer(connection, "DELETE FROM cumuls_distributions_mensuels WHERE mois = ?", mois);
+            executer(connection, "INSERT INTO cumuls_distributions_mensuels "
+                + "(mois, hopital_id, groupe_sanguin, distributions, volume, annulees) "
+                + "SELECT ?, hopital_id, groupe_sanguin, "
+                + "SUM(CASE WHEN statut <> 'ANNULEE' THEN 1 ELSE 0 END), "
+                + "COALESCE(SUM(CASE WHEN statut <> 'ANNULEE' THEN quantite ELSE 0 END), 0), "
+                + "SUM(CASE WHEN statut = 'ANNULEE' THEN 1 ELSE 0 END) "
+                + "FROM " + duMois("distributions", "hopital_id, groupe_sanguin, quantite, statut",
+                    "date_distribution") + " d "
+                + "GROUP BY hopital_id, groupe_sanguin", mois, debut, fin, debut, fin);
+
+            executer(connection, "DELETE FROM cumuls_stock_mensuels WHERE mois = ?", mois);
+            executer(connection, "INSERT INTO cumuls_stock_mensuels "
+                + "(mois, groupe_sanguin, volume_entre, volume_sorti, volume_perime) "
+                + "SELECT ?, groupe_sanguin, "
+                + "COALESCE(SUM(CASE WHEN variation > 0 THEN variation ELSE 0 END), 0), "
+                + "COALESCE(SUM(CASE WHEN variation < 0 AND type <> 'PEREMPTION' THEN -variation ELSE 0 END), 0), "
+                + "COALESCE(SUM(CASE WHEN type = 'PEREMPTION' THEN -variation ELSE 0 END), 0) "
+                + "FROM mouvements_stock "
+                + "WHERE date_mouvement >= ? AND date_mouvement < ? "
+                + "GROUP BY groupe_sanguin", mois, debut, fin);
+
+            executer(connection, "DELETE FROM cumuls_a_recalculer WHERE mois = ? AND marque_a < ?",
+                mois, debutRecalcul);
+            for (String table : TABLES_CUMULS) {
+                journalDAO.noter(connection, table, "mois", mois);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Recalcule TOUS les mois à partir des tables sources
+     * 💡 Commande d'administration : après une correction faite en SQL
+     *
+     * @return Le nombre de mois recalculés, -1 en cas d'erreur
+     */
+    public int reconstruire() {
+        long chrono = System.currentTimeMillis();
+        try {
+            int nbMois = registre.enTransaction(connection -> {
+                List<Integer> mois = new ArrayList<>();
+                try (Statement stmt = connection.createStatement()) {
+                    for (String table : TABLES_CUMULS) {
+                        stmt.executeUpdate("DELETE FROM " + table);
+                        journalDAO.noterTable(connection, table);
+                    }
+                    ResultSet rs = stmt.executeQuery(
+                        "SELECT DISTINCT " + String.format(MOIS, "date_don") + " FROM dons "
+                        + "UNION SELECT DISTINCT " + String.format(MOIS, "date_distribution") + " FROM distributions "
+                        + "UNION SELECT DISTINCT " + String.format(MOIS, "date_mouvement") + " FROM mouvements_stock "
+                        + "UNION SELECT DISTINCT " + String.format(MOIS, "date_don") + " FROM dons_archives "
+                        + "UNION SELECT DISTINCT " + String.format(MOIS, "date_distribution") + " FROM distributions_archives");
+                    while (rs.next()) {
+                        if (rs.getObject(1) != null) {
+                            mois.add(rs.getInt(1));
+                        }
+                    }
+                }
+                // 💡 Même transaction : les rapports voient les anciens cumuls jusqu'au commit
+                for (int m : mois) {
+                    recalculer(m);
+                }
+                return mois.size();
+            });
+            actionLogDAO.log(ActionLog.ACTION_MODIFIER, ActionLog.ENTITE_STOCK,
+                "Reconstruction des cumuls mensuels : " + nbMois + " mois");
+            System.out.println("✅ Cumuls mensuels reconstruits : " + nbMois + " mois ("
+                + (System.currentTimeMillis() - chrono) + " ms)");
+            return nbMois;
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors de la reconstruction des cumuls: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Les lignes d'un mois, dans la table et dans son archive (voir ArchiveDAO)
+     * 💡 Filtre répété dans chaque branche : chacune utilise l'index sur la date
+     */
+    private static String duMois(String table, String colonnes, String colonneDate) {
+        String filtre = " WHERE " + colonneDate + " >= ? AND " + colonneDate + " < ?";
+        return "(SELECT " + colonnes + " FROM " + table + filtre
+            + " UNION ALL SELECT " + colonnes + " FROM " + table + "_archives" + filtre + ")";
+    }
+
+    private static void executer(Connection connection, String sql, Object... parametres) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parametres.length; i++) {
+                pstmt.setObject(i + 1, parametres[i]);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    // ================================================================
+    // RAPPORTS
+    // ================================================================
+
+    /**
+     * Bilan mois par mois d'une période (tous groupes confondus)
+     * Retourne un tableau : [mois (aaaamm), dons, volume collecté, validés, rejetés,
+     *                        distributions, volume distribué, volume périmé, flux net]
+     */
+    public List<Object[]> getBilanMensuel(int moisDebut, int moisFin) {
+        appliquerMarques();
+        Connection connection = registre.connexion();
+        Map<Integer, long[]> bilan = new TreeMap<>();
+
+        lireParMois(connection, bilan, 0, "SELECT mois, SUM(dons), SUM(volume_collecte), SUM(valides), "
+            + "SUM(rejetes) FROM cumuls_dons_mensuels WHERE mois BETWEEN ? AND ? GROUP BY mois",
+            moisDebut, moisFin);
+        lireParMois(connection, bilan, 4, "SELECT mois, SUM(distributions), SUM(volume) "
+            + "FROM cumuls_distributions_mensuels WHERE mois BETWEEN ? AND ? GROUP BY mois",
+            moisDebut, moisFin);
+        lireParMois(connection, bilan, 6, "SELECT mois, SUM(volume_perime), "
+            + "SUM(volume_entre) - SUM(volume_sorti) - SUM(volume_perime) "
+            + "FROM cumuls_stock_mensuels WHERE mois BETWEEN ? AND ? GROUP BY mois",
+            moisDebut, moisFin);
+
+        List<Object[]> lignes = new ArrayList<>();
+        for (Map.Entry<Integer, long[]> e : bilan.entrySet()) {
+            Object[] ligne = new Object[9];
+            ligne[0] = e.getKey();
+            for (int i = 0; i < 8; i++) {
+                ligne[i + 1] = e.getValue()[i];
+            }
+            lignes.add(ligne);
+        }
+        return lignes;
+    }
+
+    private static void lireParMois(Connection connection, Map<Integer, long[]> bilan, int premiereColonne,
+            String sql, int moisDebut, int moisFin) {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, moisDebut);
+            pstmt.setInt(2, moisFin);
+            ResultSet rs = pstmt.executeQuery();
+            int colonnes = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                long[] ligne = bilan.computeIfAbsent(rs.getInt(1), m -> new long[8]);
+                for (int c = 2; c <= colonnes; c++) {
+                    ligne[premiereColonne + c - 2] = rs.getLong(c);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Distributions par hôpital et groupe sur une période
+     * Retourne un tableau : [hôpital, ville, groupe, distributions, volume (ml)], le plus gros volume d'abord
+     */
+    public List<Object[]> getDistributionsParHopital(int moisDebut, int moisFin) {
+        appliquerMarques();
+        Connection connection = registre.connexion();
+        List<Object[]> lignes = new ArrayList<>();
+        String sql = "SELECT h.nom, h.ville, c.groupe_sanguin, SUM(c.distributions) AS distributions, "
+            + "SUM(c.volume) AS volume "
+            + "FROM cumuls_distributions_mensuels c JOIN hopitaux h ON h.id = c.hopital_id "
+            + "WHERE c.mois BETWEEN ? AND ? "
+            + "GROUP BY h.nom, h.ville, c.groupe_sanguin "
+            + "ORDER BY volume DESC";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, moisDebut);
+            pstmt.setInt(2, moisFin);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                lignes.add(new Object[] {rs.getString("nom"), rs.getString("ville"),
+                    rs.getString("groupe_sanguin"), rs.getLong("distributions"), rs.getLong("volume")});
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return lignes;
+    }
+
+    /**
+     * Flux du stock par groupe sur une période
+     * Retourne un tableau : [groupe, volume entré, volume sorti, volume périmé, flux net] (ml)
+     */
+    public List<Object[]> getFluxParGroupe(int moisDebut, int moisFin) {
+        appliquerMarques();
+        Connection connection = registre.connexion();
+        List<Object[]> lignes = new ArrayList<>();
+        String sql = "SELECT groupe_sanguin, SUM(volume_entre) AS entre, SUM(volume_sorti) AS sorti, "
+            + "SUM(volume_perime) AS perime "
+            + "FROM cumuls_stock_mensuels "
+            + "WHERE mois BETWEEN ? AND ? "
+            + "GROUP BY groupe_sanguin "
+            + "ORDER BY groupe_sanguin";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, moisDebut);
+            pstmt.setInt(2, moisFin);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                long entre = rs.getLong("entre");
+                long sorti = rs.getLong("sorti");
+                long perime = rs.getLong("perime");
+                lignes.add(new Object[] {rs.getString("groupe_sanguin"), entre, sorti, perime,
+                    entre - sorti - perime});
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return lignes;
+    }
+
+    // ================================================================
+    // MÉTHODE UTILITAIRE
+    // ================================================================
+
+    /**
+     * Le mois d'une date, au format aaaamm
+     */
+    public static int mois(LocalDate jour) {
+        return jour.getYear() * 100 + jour.getMonthValue();
+    }
+}
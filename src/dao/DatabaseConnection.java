@@ -4,12 +4,14 @@
  */
 package dao;
 
+import diagnostic.JdbcInstrumente;
+import diagnostic.JournalRequetesLentes;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
- * Classe DatabaseConnection : gère la connexion à MySQL
+ * Classe DatabaseConnection : gère la connexion à la base (MySQL ou embarquée)
  * 
  * 💡 EXPLICATION :
  * Cette classe utilise le pattern SINGLETON
@@ -31,8 +33,31 @@ public class DatabaseConnection {
     private static final String USER = "root";           // Ton utilisateur MySQL
     private static final String PASSWORD = "";           // Ton mot de passe MySQL
     
+    // 💡 Ces valeurs peuvent être surchargées au lancement :
+    //    java -Dbloodplus.db.url=... -Dbloodplus.db.user=... -Dbloodplus.db.password=...
+    private static final String PROP_URL = "bloodplus.db.url";
+    private static final String PROP_USER = "bloodplus.db.user";
+    private static final String PROP_PASSWORD = "bloodplus.db.password";
+    
+    // ============ BASE EMBARQUÉE (sans serveur) ============
+    // 💡 -Dbloodplus.db.mode=embarque : base H2 (mode MySQL) dans un simple fichier,
+    //    créée automatiquement au premier démarrage. Pour les petits sites sans
+    //    serveur MySQL, les tests et les benchmarks.
+    //    -Dbloodplus.db.dossier=... choisit le dossier du fichier (défaut : ~/.bloodplus)
+    private static final String PROP_MODE = "bloodplus.db.mode";
+    private static final String PROP_DOSSIER = "bloodplus.db.dossier";
+    public static final String MODE_EMBARQUE = "embarque";
+    private static final String OPTIONS_EMBARQUE = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    private static final String USER_EMBARQUE = "sa";
+    
     // ============ SINGLETON ============
     private static Connection connection = null;
+    
+    // 💡 Les EXPLAIN du journal des requêtes lentes passent par leur propre
+    //    connexion, non mesurée (sinon ils apparaîtraient eux-mêmes comme lents)
+    static {
+        JournalRequetesLentes.setSourceConnexions(DatabaseConnection::ouvrirConnexionNonMesuree);
+    }
 
     /**
      * Constructeur privé (empêche de créer plusieurs instances)
@@ -51,26 +76,97 @@ public class DatabaseConnection {
     public static Connection getConnection() {
         if (connection == null) {
             try {
-                // Charger le driver MySQL
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                
                 // Établir la connexion
-                connection = DriverManager.getConnection(URL, USER, PASSWORD);
+                connection = ouvrirConnexion();
                 System.out.println("✅ Connexion à la base de données réussie !");
                 
             } catch (ClassNotFoundException e) {
-                System.err.println("❌ Driver MySQL non trouvé !");
-                System.err.println("💡 Assure-toi d'avoir ajouté le JAR mysql-connector au projet");
+                System.err.println("❌ Driver JDBC non trouvé : " + e.getMessage());
+                System.err.println(estEmbarquee()
+                    ? "💡 Assure-toi d'avoir ajouté le JAR H2 (lib/h2.jar) au projet"
+                    : "💡 Assure-toi d'avoir ajouté le JAR mysql-connector au projet");
                 e.printStackTrace();
             } catch (SQLException e) {
-                System.err.println("❌ Erreur de connexion à MySQL !");
-                System.err.println("💡 Vérifie que MySQL est démarré et que la base 'bloodplus' existe");
+                System.err.println("❌ Erreur de connexion à la base : " + getUrl());
+                System.err.println(estEmbarquee()
+                    ? "💡 Vérifie que le fichier de la base n'est pas ouvert par une autre application"
+                    : "💡 Vérifie que MySQL est démarré et que la base 'bloodplus' existe");
                 e.printStackTrace();
             }
         }
         return connection;
     }
 
+    /**
+     * Ouvre une NOUVELLE connexion (hors singleton)
+     * 
+     * 💡 Utilisé par le pool de connexions (PoolConnexions) :
+     *    chaque connexion du pool est indépendante
+     * 
+     * @return Une connexion neuve
+     */
+    public static Connection ouvrirConnexion() throws ClassNotFoundException, SQLException {
+        // 💡 Chaque requête des DAO est chronométrée (écran Diagnostic, JMX)
+        return JdbcInstrumente.envelopper(ouvrirConnexionNonMesuree());
+    }
+    
+    /**
+     * Ouvre une connexion sans l'instrumentation des métriques
+     */
+    private static Connection ouvrirConnexionNonMesuree() throws ClassNotFoundException, SQLException {
+        String url = getUrl();
+        boolean embarquee = estEmbarquee();
+        
+        // Charger le driver correspondant à l'URL
+        if (url.startsWith("jdbc:mysql:")) {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } else if (embarquee) {
+            Class.forName("org.h2.Driver");
+        }
+        Connection conn = DriverManager.getConnection(url,
+            System.getProperty(PROP_USER, embarquee ? USER_EMBARQUE : USER),
+            System.getProperty(PROP_PASSWORD, PASSWORD));
+        
+        // 💡 Base embarquée : les tables sont créées à la première connexion
+        if (embarquee) {
+            try {
+                SchemaEmbarque.initialiser(conn, url);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+        }
+        return conn;
+    }
+    
+    /**
+     * Retourne l'URL JDBC utilisée
+     * 
+     * 💡 Ordre de priorité :
+     *    1. -Dbloodplus.db.url (URL complète)
+     *    2. -Dbloodplus.db.mode=embarque (fichier H2 dans le dossier de données)
+     *    3. le serveur MySQL par défaut
+     */
+    public static String getUrl() {
+        String url = System.getProperty(PROP_URL);
+        if (url != null) {
+            return url;
+        }
+        if (MODE_EMBARQUE.equalsIgnoreCase(System.getProperty(PROP_MODE))) {
+            String dossier = System.getProperty(PROP_DOSSIER,
+                System.getProperty("user.home") + "/.bloodplus");
+            return "jdbc:h2:file:" + dossier + "/bloodplus" + OPTIONS_EMBARQUE;
+        }
+        return URL;
+    }
+    
+    /**
+     * true si l'application tourne sur la base embarquée (H2)
+     */
+    public static boolean estEmbarquee() {
+        return getUrl().startsWith("jdbc:h2:");
+    }
+
     /**
      * Fermer la connexion proprement
      */
@@ -0,0 +1,206 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.StringJoiner;
+
+/**
+ * Dialecte : les quelques différences de SQL entre les bases supportées
+ *
+ * 💡 EXPLICATION :
+ * Les DAO écrivaient du SQL propre à MySQL : CURDATE(), NOW(),
+ * DATE_ADD(... INTERVAL ? DAY), FIELD(...), ON DUPLICATE KEY UPDATE.
+ * Résultat : impossible de tourner sur une autre base (ex: la base embarquée),
+ * et des requêtes dont le résultat dépend de l'heure du serveur.
+ *
+ * Règles suivies maintenant :
+ * 1. Les DATES sont calculées en Java et liées en paramètres (?) :
+ *    "date_peremption >= ?" au lieu de "date_peremption >= CURDATE()".
+ *    Le texte SQL ne change jamais : la requête préparée est réutilisable
+ *    et la colonne reste comparée telle quelle (l'index est utilisé).
+ * 2. Le SQL standard est préféré quand il existe (CASE au lieu de FIELD,
+ *    CAST(x AS DATE) au lieu de DATE(x)).
+ * 3. Ce qui n'a pas d'équivalent standard passe par le Dialecte :
+ *    calcul de date sur une colonne, insertion-ou-mise-à-jour.
+ *
+ * @author dteach
+ */
+public enum Dialecte {
+
+    MYSQL {
+        @Override
+        public String ajouterJours(String expressionDate, int jours) {
+            return "DATE_ADD(" + expressionDate + ", INTERVAL " + jours + " DAY)";
+        }
+
+        @Override
+        public String insererOuMettreAJour(String table, String[] colonnes, String cle, String select) {
+            StringJoiner maj = new StringJoiner(", ");
+            for (String c : colonnes) {
+                if (!c.equals(cle)) {
+                    maj.add(c + " = VALUES(" + c + ")");
+                }
+            }
+            return "INSERT INTO " + table + " (" + String.join(", ", colonnes) + ") " + select
+                + " ON DUPLICATE KEY UPDATE " + maj;
+        }
+
+        @Override
+        public int tailleLectureEnFlux() {
+            // 💡 Valeur spéciale de Connector/J : les lignes arrivent une par une
+            return Integer.MIN_VALUE;
+        }
+
+        @Override
+        public String[] controlesChargement(boolean actifs) {
+            String valeur = actifs ? "1" : "0";
+            return new String[] {"SET FOREIGN_KEY_CHECKS = " + valeur, "SET UNIQUE_CHECKS = " + valeur};
+        }
+    },
+
+    H2 {
+        @Override
+        public String ajouterJours(String expressionDate, int jours) {
+            return "DATEADD(DAY, " + jours + ", " + expressionDate + ")";
+        }
+
+        @Override
+        public String insererOuMettreAJour(String table, String[] colonnes, String cle, String select) {
+            return "MERGE INTO " + table + " (" + String.join(", ", colonnes) + ") KEY (" + cle + ") " + select;
+        }
+
+        @Override
+        public int tailleLectureEnFlux() {
+            // H2 écrit sur disque les gros résultats au lieu de les garder en mémoire
+            return 1000;
+        }
+
+        @Override
+        public String[] controlesChargement(boolean actifs) {
+            return new String[] {"SET REFERENTIAL_INTEGRITY " + (actifs ? "TRUE" : "FALSE")};
+        }
+    };
+
+    // ================================================================
+    // SQL PROPRE À CHAQUE BASE
+    // ================================================================
+
+    /**
+     * Expression SQL : une date (colonne ou calcul) + N jours
+     * 💡 Pour un calcul sur une COLONNE ; une date fixe se calcule en Java
+     */
+    public abstract String ajouterJours(String expressionDate, int jours);
+
+    /**
+     * INSERT ... SELECT qui met à jour les lignes dont la clé existe déjà
+     *
+     * @param table La table cible
+     * @param colonnes Les colonnes remplies par le SELECT (dans l'ordre)
+     * @param cle La clé primaire (non mise à jour)
+     * @param select La requête SELECT qui fournit les lignes
+     */
+    public abstract String insererOuMettreAJour(String table, String[] colonnes, String cle, String select);
+
+    /**
+     * Taille de lecture (setFetchSize) pour parcourir une table entière sans la charger en mémoire
+     * 💡 La connexion ne doit servir à rien d'autre pendant le parcours
+     */
+    public abstract int tailleLectureEnFlux();
+
+    /**
+     * Instructions qui coupent (actifs = false) ou rétablissent les contrôles
+     * d'intégrité pendant un chargement en masse (restauration d'une sauvegarde)
+     */
+    public abstract String[] controlesChargement(boolean actifs);
+
+    // ================================================================
+    // CHOIX DU DIALECTE
+    // ================================================================
+
+    /**
+     * Dialecte d'une URL JDBC (MySQL par défaut)
+     */
+    public static Dialecte pour(String url) {
+        return url != null && url.startsWith("jdbc:h2:") ? H2 : MYSQL;
+    }
+
+    /**
+     * Dialecte de la base d'une connexion ouverte
+     */
+    public static Dialecte de(Connection connection) {
+        if (connection == null) {
+            return pour(DatabaseConnection.getUrl());
+        }
+        try {
+            return pour(connection.getMetaData().getURL());
+        } catch (SQLException e) {
+            return pour(DatabaseConnection.getUrl());
+        }
+    }
+
+    // ================================================================
+    // SQL PORTABLE ET DATES LIÉES EN PARAMÈTRES
+    // ================================================================
+
+    /**
+     * Tri dans un ordre donné de valeurs (remplace FIELD de MySQL)
+     * Ex: ordreValeurs("priorite", "CRITIQUE", "HAUTE") ->
+     *     "CASE priorite WHEN 'CRITIQUE' THEN 0 WHEN 'HAUTE' THEN 1 ELSE 2 END"
+     *
+     * @param valeurs Des constantes du code (jamais une saisie utilisateur)
+     */
+    public static String ordreValeurs(String colonne, String... valeurs) {
+        StringBuilder sb = new StringBuilder("CASE ").append(colonne);
+        for (int i = 0; i < valeurs.length; i++) {
+            sb.append(" WHEN '").append(valeurs[i]).append("' THEN ").append(i);
+        }
+        return sb.append(" ELSE ").append(valeurs.length).append(" END").toString();
+    }
+
+    // 💡 Les dates sont des java.time (LocalDate pour DATE, LocalDateTime pour
+    //    DATETIME), liées avec setObject et lues avec getObject(colonne, Classe) :
+    //    le pilote (JDBC 4.2) fait la conversion, sans java.sql.Date ni Timestamp
+    //    intermédiaires ni fuseau horaire implicite.
+
+    /**
+     * La date du jour, à lier à un paramètre DATE
+     */
+    public static LocalDate aujourdhui() {
+        return LocalDate.now();
+    }
+
+    /**
+     * Aujourd'hui + N jours (N négatif = dans le passé), paramètre DATE
+     */
+    public static LocalDate dansJours(int jours) {
+        return LocalDate.now().plusDays(jours);
+    }
+
+    /**
+     * Maintenant, à lier à un paramètre DATETIME
+     */
+    public static LocalDateTime maintenant() {
+        return LocalDateTime.now();
+    }
+
+    /**
+     * Il y a N jours à la même heure (remplace DATE_SUB(NOW(), INTERVAL ? DAY))
+     */
+    public static LocalDateTime ilYA(int jours) {
+        return LocalDateTime.now().minusDays(jours);
+    }
+
+    /**
+     * Minuit au début d'un jour (aujourd'hui + N jours), paramètre DATETIME
+     * 💡 "date_action >= debutDuJour(0) AND date_action < debutDuJour(1)"
+     *    remplace DATE(date_action) = CURDATE() et garde l'index sur date_action
+     */
+    public static LocalDateTime debutDuJour(int jours) {
+        return LocalDate.now().plusDays(jours).atStartOfDay();
+    }
+}
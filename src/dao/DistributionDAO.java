@@ -7,8 +7,13 @@ import model.ActionLog;
 import model.Distribution;
 import model.Hopital;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * DistributionDAO : gère les distributions de sang aux hôpitaux
@@ -17,14 +22,22 @@ import java.util.List;
  */
 public class DistributionDAO {
     
-    private Connection connection;
-    private ActionLogDAO actionLogDAO;
-    private StockSanguinDAO stockDAO;
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    private final StockSanguinDAO stockDAO;
+    private final CumulMensuelDAO cumulMensuelDAO;
+    private final JournalModificationsDAO journalDAO;
     
-    public DistributionDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        this.actionLogDAO = new ActionLogDAO();
-        this.stockDAO = new StockSanguinDAO();
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getDistributionDAO())
+     */
+    DistributionDAO(RegistreDAO registre, ActionLogDAO actionLogDAO, StockSanguinDAO stockDAO,
+                    CumulMensuelDAO cumulMensuelDAO, JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
+        this.stockDAO = stockDAO;
+        this.cumulMensuelDAO = cumulMensuelDAO;
+        this.journalDAO = journalDAO;
     }
     
     // ================================================================
@@ -32,6 +45,7 @@ public class DistributionDAO {
     // ================================================================
     
     public boolean ajouter(Distribution distribution) {
+        Connection connection = registre.connexion();
         String sql = "INSERT INTO distributions (hopital_id, groupe_sanguin, quantite, statut, motif) VALUES (?, ?, ?, ?, ?)";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -47,6 +61,9 @@ public class DistributionDAO {
                 ResultSet rs = pstmt.getGeneratedKeys();
                 if (rs.next()) {
                     distribution.setId(rs.getInt(1));
+                    journalDAO.noter(connection, "distributions", "id", distribution.getId());
+                    // 💡 Date posée par la base (CURRENT_TIMESTAMP) : le mois est relu
+                    cumulMensuelDAO.marquerDistribution(connection, distribution.getId());
                 }
                 
                 // ⚡ DIMINUER LE STOCK AUTOMATIQUEMENT
@@ -72,6 +89,7 @@ public class DistributionDAO {
     // ================================================================
     
     public List<Distribution> listerTous() {
+        Connection connection = registre.connexion();
         List<Distribution> distributions = new ArrayList<>();
         String sql = "SELECT d.*, h.nom as hopital_nom, h.ville as hopital_ville " +
                      "FROM distributions d " +
@@ -100,7 +118,87 @@ public class DistributionDAO {
         return distributions;
     }
     
+    /**
+     * Parcourt les distributions enregistrées après un identifiant, dans l'ordre
+     * 
+     * 💡 Pour le cube des distributions (service.CubeDistributions) : au premier
+     *    chargement apresId = 0, ensuite seules les nouvelles lignes sont lues
+     * 
+     * @param traitement Appelé pour chaque distribution (avec nom et ville de l'hôpital)
+     */
+    public void parcourirDepuis(int apresId, Consumer<Distribution> traitement) {
+        parcourir("distributions", apresId, traitement);
+    }
+    
+    /**
+     * Parcourt les distributions archivées (voir ArchiveDAO), dans l'ordre
+     * 💡 Elles ne changent plus : le cube ne les lit qu'au rechargement complet
+     */
+    public void parcourirArchives(Consumer<Distribution> traitement) {
+        parcourir("distributions_archives", 0, traitement);
+    }
+    
+    private void parcourir(String table, int apresId, Consumer<Distribution> traitement) {
+        Connection connection = registre.connexion();
+        String sql = "SELECT d.*, h.nom as hopital_nom, h.ville as hopital_ville " +
+                     "FROM " + table + " d " +
+                     "JOIN hopitaux h ON d.hopital_id = h.id " +
+                     "WHERE d.id > ? ORDER BY d.id";
+        
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, apresId);
+            pstmt.setFetchSize(1000);
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                Distribution dist = extraireDistribution(rs);
+                Hopital hopital = new Hopital();
+                hopital.setId(rs.getInt("hopital_id"));
+                hopital.setNom(rs.getString("hopital_nom"));
+                hopital.setVille(rs.getString("hopital_ville"));
+                dist.setHopital(hopital);
+                traitement.accept(dist);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors du parcours des distributions: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Le statut actuel de quelques distributions (identifiant → statut)
+     * 💡 Une seule requête par tranche de 500 identifiants (clé primaire)
+     */
+    public Map<Integer, String> getStatuts(List<Integer> ids) {
+        Connection connection = registre.connexion();
+        Map<Integer, String> statuts = new HashMap<>();
+        
+        for (int debut = 0; debut < ids.size(); debut += 500) {
+            List<Integer> tranche = ids.subList(debut, Math.min(debut + 500, ids.size()));
+            StringBuilder sql = new StringBuilder("SELECT id, statut FROM distributions WHERE id IN (");
+            for (int i = 0; i < tranche.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < tranche.size(); i++) {
+                    pstmt.setInt(i + 1, tranche.get(i));
+                }
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    statuts.put(rs.getInt("id"), rs.getString("statut"));
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return statuts;
+    }
+    
     public Distribution trouverParId(int id) {
+        Connection connection = registre.connexion();
         String sql = "SELECT * FROM distributions WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -118,6 +216,7 @@ public class DistributionDAO {
     }
     
     public List<Distribution> trouverParHopital(int hopitalId) {
+        Connection connection = registre.connexion();
         List<Distribution> distributions = new ArrayList<>();
         String sql = "SELECT * FROM distributions WHERE hopital_id = ? ORDER BY date_distribution DESC";
         
@@ -136,6 +235,7 @@ public class DistributionDAO {
     }
     
     public List<Distribution> trouverParStatut(String statut) {
+        Connection connection = registre.connexion();
         List<Distribution> distributions = new ArrayList<>();
         String sql = "SELECT d.*, h.nom as hopital_nom " +
                      "FROM distributions d " +
@@ -165,6 +265,7 @@ public class DistributionDAO {
     // ================================================================
     
     public boolean modifier(Distribution distribution) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE distributions SET hopital_id=?, groupe_sanguin=?, quantite=?, statut=?, motif=? WHERE id=?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -176,6 +277,8 @@ public class DistributionDAO {
             pstmt.setInt(6, distribution.getId());
             
             if (pstmt.executeUpdate() > 0) {
+                journalDAO.noter(connection, "distributions", "id", distribution.getId());
+                cumulMensuelDAO.marquerDistribution(connection, distribution.getId());
                 actionLogDAO.logModification(ActionLog.ENTITE_DISTRIBUTION, 
                     "Modification de la distribution ID:" + distribution.getId());
                 return true;
@@ -188,11 +291,14 @@ public class DistributionDAO {
     }
     
     public boolean marquerLivree(int distributionId) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE distributions SET statut = 'LIVREE' WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, distributionId);
             if (pstmt.executeUpdate() > 0) {
+                journalDAO.noter(connection, "distributions", "id", distributionId);
+                cumulMensuelDAO.marquerDistribution(connection, distributionId);
                 actionLogDAO.log(ActionLog.ACTION_LIVRER, ActionLog.ENTITE_DISTRIBUTION, 
                     "Distribution ID:" + distributionId + " marquée comme livrée");
                 return true;
@@ -204,11 +310,14 @@ public class DistributionDAO {
     }
     
     public boolean annuler(int distributionId) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE distributions SET statut = 'ANNULEE' WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, distributionId);
             if (pstmt.executeUpdate() > 0) {
+                journalDAO.noter(connection, "distributions", "id", distributionId);
+                cumulMensuelDAO.marquerDistribution(connection, distributionId);
                 actionLogDAO.log(ActionLog.ACTION_ANNULER, ActionLog.ENTITE_DISTRIBUTION, 
                     "Annulation de la distribution ID:" + distributionId);
                 return true;
@@ -224,11 +333,15 @@ public class DistributionDAO {
     // ================================================================
     
     public boolean supprimer(int id) {
+        Connection connection = registre.connexion();
         String sql = "DELETE FROM distributions WHERE id = ?";
+        // Le mois est lu avant que la ligne disparaisse
+        cumulMensuelDAO.marquerDistribution(connection, id);
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             if (pstmt.executeUpdate() > 0) {
+                journalDAO.noter(connection, "distributions", "id", id);
                 actionLogDAO.logSuppression(ActionLog.ENTITE_DISTRIBUTION, 
                     "Suppression de la distribution ID:" + id);
                 return true;
@@ -244,6 +357,7 @@ public class DistributionDAO {
     // ================================================================
     
     public int compter() {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM distributions";
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -258,6 +372,7 @@ public class DistributionDAO {
      * Total distribué par groupe sanguin
      */
     public int getTotalDistribueParGroupe(String groupeSanguin) {
+        Connection connection = registre.connexion();
         String sql = "SELECT COALESCE(SUM(quantite), 0) FROM distributions WHERE groupe_sanguin = ? AND statut = 'LIVREE'";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -270,13 +385,44 @@ public class DistributionDAO {
         return 0;
     }
     
-    private Distribution extraireDistribution(ResultSet rs) throws SQLException {
+    /**
+     * Consommation par jour, groupe et hôpital sur une période (distributions non annulées)
+     * Retourne un tableau : [jour (LocalDate), groupe, id de l'hôpital, quantité totale], par jour croissant
+     * 
+     * 💡 Pour la prévision de la demande (service.PrevisionDemandeService) :
+     *    la période est une plage de date_distribution (index distributions_date).
+     *    Une erreur remonte : une liste vide serait apprise comme des jours sans consommation
+     */
+    public List<Object[]> getConsommationParJour(LocalDate du, LocalDate au) throws SQLException {
+        Connection connection = registre.connexion();
+        List<Object[]> consommation = new ArrayList<>();
+        String sql = "SELECT CAST(date_distribution AS DATE) AS jour, groupe_sanguin, hopital_id, " +
+                     "SUM(quantite) AS total " +
+                     "FROM distributions " +
+                     "WHERE date_distribution >= ? AND date_distribution < ? AND statut <> 'ANNULEE' " +
+                     "GROUP BY CAST(date_distribution AS DATE), groupe_sanguin, hopital_id " +
+                     "ORDER BY jour";
+        
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, du.atStartOfDay());
+            pstmt.setObject(2, au.plusDays(1).atStartOfDay());
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                consommation.add(new Object[] {rs.getObject("jour", LocalDate.class),
+                    rs.getString("groupe_sanguin"), rs.getInt("hopital_id"), rs.getInt("total")});
+            }
+        }
+        return consommation;
+    }
+    
+    static Distribution extraireDistribution(ResultSet rs) throws SQLException {
         Distribution dist = new Distribution();
         dist.setId(rs.getInt("id"));
         dist.setHopitalId(rs.getInt("hopital_id"));
         dist.setGroupeSanguin(rs.getString("groupe_sanguin"));
         dist.setQuantite(rs.getInt("quantite"));
-        dist.setDateDistribution(rs.getTimestamp("date_distribution"));
+        dist.setDateDistribution(rs.getObject("date_distribution", LocalDateTime.class));
         dist.setStatut(rs.getString("statut"));
         dist.setMotif(rs.getString("motif"));
         return dist;
@@ -8,9 +8,9 @@ import model.Don;
 import model.Donneur;
 import model.StockSanguin;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -20,12 +20,27 @@ import java.util.List;
  */
 public class DonDAO {
     
-    private Connection connection;
-    private ActionLogDAO actionLogDAO;
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    private final EligibiliteDAO eligibiliteDAO;
+    private final DonneurDAO donneurDAO;
+    private final StockSanguinDAO stockDAO;
+    private final CumulMensuelDAO cumulMensuelDAO;
+    private final JournalModificationsDAO journalDAO;
     
-    public DonDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        this.actionLogDAO = new ActionLogDAO();
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getDonDAO())
+     */
+    DonDAO(RegistreDAO registre, ActionLogDAO actionLogDAO, EligibiliteDAO eligibiliteDAO,
+           DonneurDAO donneurDAO, StockSanguinDAO stockDAO, CumulMensuelDAO cumulMensuelDAO,
+           JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
+        this.eligibiliteDAO = eligibiliteDAO;
+        this.donneurDAO = donneurDAO;
+        this.stockDAO = stockDAO;
+        this.cumulMensuelDAO = cumulMensuelDAO;
+        this.journalDAO = journalDAO;
     }
     
     // ================================================================
@@ -33,12 +48,13 @@ public class DonDAO {
     // ================================================================
     
     public boolean ajouter(Don don) {
+        Connection connection = registre.connexion();
         String sql = "INSERT INTO dons (donneur_id, date_don, quantite, statut, notes) VALUES (?, ?, ?, ?, ?)";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, don.getDonneurId());
-            pstmt.setTimestamp(2, new Timestamp(don.getDateDon().getTime()));
+            pstmt.setObject(2, don.getDateDon());
             pstmt.setInt(3, don.getQuantite());
             pstmt.setString(4, don.getStatut());
             pstmt.setString(5, don.getNotes());
@@ -51,6 +67,11 @@ public class DonDAO {
                     don.setId(rs.getInt(1));
                 }
                 System.out.println("✅ Don enregistré avec ID: " + don.getId());
+                journalDAO.noter(connection, "dons", "id", don.getId());
+                cumulMensuelDAO.marquer(connection, don.getDateDon().toLocalDate());
+                if (don.estValide()) {
+                    eligibiliteDAO.recalculer(don.getDonneurId());
+                }
                 
                 // Enregistrer l'action
                 actionLogDAO.logAjout(ActionLog.ENTITE_DON, 
@@ -74,6 +95,7 @@ public class DonDAO {
      * Récupère tous les dons avec les infos du donneur
      */
     public List<Don> listerTous() {
+        Connection connection = registre.connexion();
         List<Don> dons = new ArrayList<>();
         // JOIN pour récupérer aussi les infos du donneur
         String sql = "SELECT d.*, dn.nom, dn.prenom, dn.groupe_sanguin " +
@@ -110,6 +132,7 @@ public class DonDAO {
      * Recherche un don par ID
      */
     public Don trouverParId(int id) {
+        Connection connection = registre.connexion();
         String sql = "SELECT * FROM dons WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -130,6 +153,7 @@ public class DonDAO {
      * Récupère les dons d'un donneur
      */
     public List<Don> trouverParDonneur(int donneurId) {
+        Connection connection = registre.connexion();
         List<Don> dons = new ArrayList<>();
         String sql = "SELECT * FROM dons WHERE donneur_id = ? ORDER BY date_don DESC";
         
@@ -152,6 +176,7 @@ public class DonDAO {
      * Récupère les dons par statut
      */
     public List<Don> trouverParStatut(String statut) {
+        Connection connection = registre.connexion();
         List<Don> dons = new ArrayList<>();
         String sql = "SELECT d.*, dn.nom, dn.prenom, dn.groupe_sanguin " +
                      "FROM dons d " +
@@ -188,17 +213,23 @@ public class DonDAO {
     // ================================================================
     
     public boolean modifier(Don don) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE dons SET donneur_id=?, date_don=?, quantite=?, statut=?, notes=? WHERE id=?";
+        // 💡 Le mois d'AVANT la modification (la date du don a pu changer)
+        cumulMensuelDAO.marquerDon(connection, don.getId());
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, don.getDonneurId());
-            pstmt.setTimestamp(2, new Timestamp(don.getDateDon().getTime()));
+            pstmt.setObject(2, don.getDateDon());
             pstmt.setInt(3, don.getQuantite());
             pstmt.setString(4, don.getStatut());
             pstmt.setString(5, don.getNotes());
             pstmt.setInt(6, don.getId());
             
             if (pstmt.executeUpdate() > 0) {
+                journalDAO.noter(connection, "dons", "id", don.getId());
+                cumulMensuelDAO.marquer(connection, don.getDateDon().toLocalDate());
+                eligibiliteDAO.recalculer(don.getDonneurId());
                 actionLogDAO.logModification(ActionLog.ENTITE_DON, 
                     "Modification du don ID:" + don.getId());
                 return true;
@@ -213,18 +244,30 @@ public class DonDAO {
     /**
      * Valider un don (changer le statut à VALIDE)
      * 💡 IMPORTANT : Cette méthode ajoute aussi le sang au stock !
+     * 
+     * 💡 Dans UNE transaction, et seulement si le don est encore EN_ATTENTE :
+     *    deux validations simultanées (deux postes, deux appels de l'API)
+     *    ne créent qu'une seule poche
+     * 
+     * @return false si le don n'existe pas, est déjà traité, ou en cas d'erreur
      */
     public boolean valider(int donId) {
-        String sql = "UPDATE dons SET statut = 'VALIDE' WHERE id = ?";
+        String sql = "UPDATE dons SET statut = 'VALIDE' WHERE id = ? AND statut = 'EN_ATTENTE'";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, donId);
-            if (pstmt.executeUpdate() > 0) {
+        try {
+            boolean valide = registre.enTransaction(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, donId);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                journalDAO.noter(connection, "dons", "id", donId);
+                cumulMensuelDAO.marquerDon(connection, donId);
                 // Récupérer les infos du don pour créer le stock
                 Don don = trouverParId(donId);
                 if (don != null) {
                     // Récupérer le groupe sanguin du donneur
-                    DonneurDAO donneurDAO = new DonneurDAO();
                     Donneur donneur = donneurDAO.trouverParId(don.getDonneurId());
                     
                     if (donneur != null) {
@@ -232,25 +275,30 @@ public class DonDAO {
                         StockSanguin stock = new StockSanguin();
                         stock.setGroupeSanguin(donneur.getGroupeSanguin());
                         stock.setQuantite(don.getQuantite());
-                        stock.setDatePrelevement(don.getDateDon());
+                        LocalDate prelevement = don.getDateDon().toLocalDate();
+                        stock.setDatePrelevement(prelevement);
                         
                         // Date de péremption = date du don + 42 jours
-                        Calendar cal = Calendar.getInstance();
-                        cal.setTime(don.getDateDon());
-                        cal.add(Calendar.DAY_OF_MONTH, 42);
-                        stock.setDatePeremption(cal.getTime());
+                        stock.setDatePeremption(StockSanguin.calculerPeremption(prelevement));
                         
                         stock.setDonId(donId);
                         stock.setStatut("DISPONIBLE");
                         
-                        // Ajouter au stock
-                        StockSanguinDAO stockDAO = new StockSanguinDAO();
-                        stockDAO.ajouter(stock);
+                        // Ajouter au stock (dans la même transaction)
+                        if (!stockDAO.ajouter(stock)) {
+                            throw new SQLException("Poche non créée pour le don " + donId);
+                        }
                         
                         System.out.println("✅ Stock ajouté: " + don.getQuantite() + "ml de " + donneur.getGroupeSanguin());
                     }
+                    
+                    // Le donneur devra attendre avant de redonner
+                    eligibiliteDAO.recalculer(don.getDonneurId());
                 }
-                
+                return true;
+            });
+            
+            if (valide) {
                 actionLogDAO.log(ActionLog.ACTION_VALIDER, ActionLog.ENTITE_DON, 
                     "Validation du don ID:" + donId + " - Stock créé");
                 return true;
@@ -265,12 +313,16 @@ public class DonDAO {
      * Rejeter un don
      */
     public boolean rejeter(int donId, String raison) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE dons SET statut = 'REJETE', notes = ? WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, raison);
             pstmt.setInt(2, donId);
             if (pstmt.executeUpdate() > 0) {
+                journalDAO.noter(connection, "dons", "id", donId);
+                cumulMensuelDAO.marquerDon(connection, donId);
+                recalculerEligibilite(donId);
                 actionLogDAO.log(ActionLog.ACTION_REJETER, ActionLog.ENTITE_DON, 
                     "Rejet du don ID:" + donId + " - Raison: " + raison);
                 return true;
@@ -286,11 +338,21 @@ public class DonDAO {
     // ================================================================
     
     public boolean supprimer(int id) {
+        Connection connection = registre.connexion();
+        Don don = trouverParId(id);
         String sql = "DELETE FROM dons WHERE id = ?";
+        // 💡 La cascade met le don_id de ses poches à NULL, sans passer par le journal du stock
+        journalDAO.noterSelection(connection, "stocks_sanguins", "id",
+            "SELECT id FROM stocks_sanguins WHERE don_id = ?", id);
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             if (pstmt.executeUpdate() > 0) {
+                journalDAO.noter(connection, "dons", "id", id);
+                if (don != null) {
+                    cumulMensuelDAO.marquer(connection, don.getDateDon().toLocalDate());
+                    eligibiliteDAO.recalculer(don.getDonneurId());
+                }
                 actionLogDAO.logSuppression(ActionLog.ENTITE_DON, 
                     "Suppression du don ID:" + id);
                 return true;
@@ -309,6 +371,7 @@ public class DonDAO {
      * Compte le total des dons
      */
     public int compter() {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM dons";
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -323,6 +386,7 @@ public class DonDAO {
      * Compte les dons par statut
      */
     public int compterParStatut(String statut) {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM dons WHERE statut = ?";
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, statut);
@@ -338,11 +402,18 @@ public class DonDAO {
     // MÉTHODE UTILITAIRE
     // ================================================================
     
-    private Don extraireDon(ResultSet rs) throws SQLException {
+    private void recalculerEligibilite(int donId) {
+        Don don = trouverParId(donId);
+        if (don != null) {
+            eligibiliteDAO.recalculer(don.getDonneurId());
+        }
+    }
+    
+    static Don extraireDon(ResultSet rs) throws SQLException {
         Don don = new Don();
         don.setId(rs.getInt("id"));
         don.setDonneurId(rs.getInt("donneur_id"));
-        don.setDateDon(rs.getTimestamp("date_don"));
+        don.setDateDon(rs.getObject("date_don", LocalDateTime.class));
         don.setQuantite(rs.getInt("quantite"));
         don.setStatut(rs.getString("statut"));
         don.setNotes(rs.getString("notes"));
@@ -5,9 +5,16 @@ package dao;
 
 import model.ActionLog;
 import model.Donneur;
+import utils.SimilariteUtils;
+import utils.ValidationUtils;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * DonneurDAO : gère toutes les opérations sur les donneurs en base de données
@@ -24,16 +31,24 @@ import java.util.List;
  */
 public class DonneurDAO {
     
-    // Connexion à la base de données
-    private Connection connection;
-    private ActionLogDAO actionLogDAO;
+    // Lignes lues au plus par recherche de candidats (voir trouverCandidatsDoublons)
+    public static final int LIMITE_CANDIDATS = 500;
+    private static final String COLONNES_CLES = "telephone_normalise, email_normalise, nom_phonetique";
+    
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    private final EligibiliteDAO eligibiliteDAO;
+    private final JournalModificationsDAO journalDAO;
     
     /**
-     * Constructeur : récupère la connexion
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getDonneurDAO())
      */
-    public DonneurDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        this.actionLogDAO = new ActionLogDAO();
+    DonneurDAO(RegistreDAO registre, ActionLogDAO actionLogDAO, EligibiliteDAO eligibiliteDAO,
+               JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
+        this.eligibiliteDAO = eligibiliteDAO;
+        this.journalDAO = journalDAO;
     }
     
     // ================================================================
@@ -50,7 +65,9 @@ public class DonneurDAO {
      * @return true si l'ajout a réussi
      */
     public boolean ajouter(Donneur donneur) {
-        String sql = "INSERT INTO donneurs (nom, prenom, date_naissance, sexe, groupe_sanguin, telephone, email, adresse, apte) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Connection connection = registre.connexion();
+        String sql = "INSERT INTO donneurs (nom, prenom, date_naissance, sexe, groupe_sanguin, telephone, email, adresse, apte, "
+                   + COLONNES_CLES + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
@@ -58,9 +75,9 @@ public class DonneurDAO {
             pstmt.setString(1, donneur.getNom());
             pstmt.setString(2, donneur.getPrenom());
             
-            // Conversion java.util.Date vers java.sql.Date
+            // LocalDate liée directement (le pilote la convertit en DATE)
             if (donneur.getDateNaissance() != null) {
-                pstmt.setDate(3, new java.sql.Date(donneur.getDateNaissance().getTime()));
+                pstmt.setObject(3, donneur.getDateNaissance());
             } else {
                 pstmt.setNull(3, Types.DATE);
             }
@@ -71,6 +88,7 @@ public class DonneurDAO {
             pstmt.setString(7, donneur.getEmail());
             pstmt.setString(8, donneur.getAdresse());
             pstmt.setBoolean(9, donneur.isApte());
+            lierCles(pstmt, 10, donneur);
             
             // Exécuter la requête
             int rowsAffected = pstmt.executeUpdate();
@@ -82,6 +100,8 @@ public class DonneurDAO {
                     donneur.setId(rs.getInt(1));
                 }
                 System.out.println("✅ Donneur ajouté avec ID: " + donneur.getId());
+                journalDAO.noter(connection, "donneurs", "id", donneur.getId());
+                eligibiliteDAO.recalculer(donneur.getId());
                 
                 // Enregistrer l'action
                 actionLogDAO.logAjout(ActionLog.ENTITE_DONNEUR, 
@@ -97,6 +117,58 @@ public class DonneurDAO {
         return false;
     }
     
+    /**
+     * Ajoute un lot de donneurs avec UNE seule requête INSERT multi-lignes
+     * 
+     * 💡 EXPLICATION :
+     * ajouter() coûte un aller-retour SQL, une lecture de clé et une entrée
+     * d'audit PAR donneur : beaucoup trop lent pour un import de milliers de lignes.
+     * Ici : INSERT INTO donneurs (...) VALUES (...), (...), (...)
+     * - Pas de récupération des IDs, pas d'audit ligne par ligne
+     * - La transaction (commit / rollback) est gérée par l'appelant
+     * 
+     * @param donneurs Le lot à insérer (quelques centaines de lignes au maximum)
+     * @return le nombre de lignes insérées
+     */
+    public int ajouterEnLot(List<Donneur> donneurs) throws SQLException {
+        Connection connection = registre.connexion();
+        if (donneurs.isEmpty()) {
+            return 0;
+        }
+        
+        // 💡 Pas d'IDs récupérés : la sauvegarde incrémentale reprend tout ce qui suit
+        int idAvant = getIdMax();
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO donneurs (nom, prenom, date_naissance, sexe, groupe_sanguin, telephone, email, adresse, apte, "
+            + COLONNES_CLES + ") VALUES ");
+        for (int i = 0; i < donneurs.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        
+        try (PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Donneur donneur : donneurs) {
+                pstmt.setString(p++, donneur.getNom());
+                pstmt.setString(p++, donneur.getPrenom());
+                if (donneur.getDateNaissance() != null) {
+                    pstmt.setObject(p++, donneur.getDateNaissance());
+                } else {
+                    pstmt.setNull(p++, Types.DATE);
+                }
+                pstmt.setString(p++, donneur.getSexe());
+                pstmt.setString(p++, donneur.getGroupeSanguin());
+                pstmt.setString(p++, donneur.getTelephone());
+                pstmt.setString(p++, donneur.getEmail());
+                pstmt.setString(p++, donneur.getAdresse());
+                pstmt.setBoolean(p++, donneur.isApte());
+                p = lierCles(pstmt, p, donneur);
+            }
+            int n = pstmt.executeUpdate();
+            journalDAO.noterApres(connection, "donneurs", "id", idAvant);
+            return n;
+        }
+    }
+    
     // ================================================================
     // READ : Lire / Rechercher des donneurs
     // ================================================================
@@ -107,6 +179,7 @@ public class DonneurDAO {
      * @return Liste de tous les donneurs
      */
     public List<Donneur> listerTous() {
+        Connection connection = registre.connexion();
         List<Donneur> donneurs = new ArrayList<>();
         String sql = "SELECT * FROM donneurs ORDER BY nom, prenom";
         
@@ -134,6 +207,7 @@ public class DonneurDAO {
      * @return Le donneur trouvé ou null
      */
     public Donneur trouverParId(int id) {
+        Connection connection = registre.connexion();
         String sql = "SELECT * FROM donneurs WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -159,6 +233,7 @@ public class DonneurDAO {
      * @return Liste des donneurs de ce groupe
      */
     public List<Donneur> trouverParGroupeSanguin(String groupeSanguin) {
+        Connection connection = registre.connexion();
         List<Donneur> donneurs = new ArrayList<>();
         String sql = "SELECT * FROM donneurs WHERE groupe_sanguin = ? AND apte = true";
         
@@ -185,6 +260,7 @@ public class DonneurDAO {
      * @return Liste des donneurs correspondants
      */
     public List<Donneur> rechercher(String recherche) {
+        Connection connection = registre.connexion();
         List<Donneur> donneurs = new ArrayList<>();
         String sql = "SELECT * FROM donneurs WHERE nom LIKE ? OR prenom LIKE ? ORDER BY nom, prenom";
         
@@ -206,6 +282,168 @@ public class DonneurDAO {
         return donneurs;
     }
     
+    /**
+     * Parcourt TOUS les donneurs sans construire de liste
+     * 
+     * 💡 Pour les traitements de masse (dédoublonnage...) : seules les colonnes
+     *    d'identité sont lues, et chaque donneur est passé au traitement au fil de l'eau
+     * 
+     * @param traitement Appelé pour chaque donneur (id, nom, prénom, naissance, téléphone, email)
+     */
+    public void parcourirTous(Consumer<Donneur> traitement) {
+        Connection connection = registre.connexion();
+        String sql = "SELECT id, nom, prenom, date_naissance, telephone, email FROM donneurs";
+        
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setFetchSize(1000);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                traitement.accept(extraireIdentite(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors du parcours des donneurs: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Recherche les donneurs qui POURRAIENT être la même personne
+     * 
+     * 💡 Uniquement des recherches indexées (pas de parcours de toute la table),
+     *    sur les mêmes clés que DedoublonnageService.analyser() : même téléphone
+     *    normalisé, même email normalisé, même date de naissance, même nom phonétique.
+     *    Chaque recherche est limitée à LIMITE_CANDIDATS lignes : une clé très
+     *    répandue ("MRTN" pour Martin) ne relit pas des milliers de fiches
+     * 
+     * @param donneur Le donneur à vérifier (nouveau ou existant)
+     * @return Les candidats (sans le donneur lui-même)
+     */
+    public List<Donneur> trouverCandidatsDoublons(Donneur donneur) {
+        Map<Integer, Donneur> candidats = new LinkedHashMap<>();
+        chercherCandidats(candidats, "telephone_normalise", telephoneNormalise(donneur.getTelephone()), donneur.getId());
+        chercherCandidats(candidats, "email_normalise", emailNormalise(donneur.getEmail()), donneur.getId());
+        chercherCandidats(candidats, "date_naissance", donneur.getDateNaissance(), donneur.getId());
+        chercherCandidats(candidats, "nom_phonetique", nomPhonetique(donneur.getNom()), donneur.getId());
+        return new ArrayList<>(candidats.values());
+    }
+    
+    private void chercherCandidats(Map<Integer, Donneur> candidats, String colonne, Object valeur, int idExclu) {
+        if (valeur == null) {
+            return;
+        }
+        Connection connection = registre.connexion();
+        String sql = "SELECT id, nom, prenom, date_naissance, telephone, email FROM donneurs "
+                   + "WHERE " + colonne + " = ? AND id <> ? LIMIT ?";
+        
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, valeur);
+            pstmt.setInt(2, idExclu);
+            pstmt.setInt(3, LIMITE_CANDIDATS);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                Donneur candidat = extraireIdentite(rs);
+                candidats.putIfAbsent(candidat.getId(), candidat);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors de la recherche de doublons: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Calcule les clés de recherche des fiches qui n'en ont pas encore
+     * (base créée avant ces colonnes, données de test du script SQL, restauration)
+     * 
+     * 💡 Appelée par une tâche de fond sur SA connexion (voir DedoublonnageService),
+     *    jamais par l'interface : une transaction et un lot d'UPDATE par tailleLot fiches
+     * 
+     * @return Le nombre de fiches complétées
+     */
+    public int completerClesDoublons(int tailleLot) throws SQLException {
+        Connection connection = registre.connexion();
+        String sql = "SELECT id, nom, prenom, date_naissance, telephone, email FROM donneurs "
+                   + "WHERE nom_phonetique IS NULL AND id > ? ORDER BY id LIMIT ?";
+        int total = 0;
+        int dernierId = 0;
+        List<Donneur> lot;
+        do {
+            lot = new ArrayList<>();
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, dernierId);
+                pstmt.setInt(2, tailleLot);
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    lot.add(extraireIdentite(rs));
+                }
+            }
+            if (lot.isEmpty()) {
+                break;
+            }
+            List<Donneur> fiches = lot;
+            registre.enTransaction(c -> {
+                enregistrerLotCles(c, fiches);
+                return null;
+            });
+            dernierId = lot.get(lot.size() - 1).getId();
+            total += lot.size();
+        } while (lot.size() == tailleLot);
+        return total;
+    }
+    
+    private static void enregistrerCles(Connection connection, Donneur donneur) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "UPDATE donneurs SET telephone_normalise = ?, email_normalise = ?, nom_phonetique = ? WHERE id = ?")) {
+            lierCles(pstmt, 1, donneur);
+            pstmt.setInt(4, donneur.getId());
+            pstmt.executeUpdate();
+        }
+    }
+    
+    private void enregistrerLotCles(Connection connection, List<Donneur> donneurs) throws SQLException {
+        List<Integer> ids = new ArrayList<>(donneurs.size());
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "UPDATE donneurs SET telephone_normalise = ?, email_normalise = ?, nom_phonetique = ? WHERE id = ?")) {
+            for (Donneur donneur : donneurs) {
+                lierCles(pstmt, 1, donneur);
+                pstmt.setInt(4, donneur.getId());
+                pstmt.addBatch();
+                ids.add(donneur.getId());
+            }
+            pstmt.executeBatch();
+        }
+        journalDAO.noter(connection, "donneurs", "id", ids);
+    }
+    
+    /**
+     * Lie les trois clés de dédoublonnage à partir du paramètre p
+     * 
+     * @return L'index du paramètre suivant
+     */
+    private static int lierCles(PreparedStatement pstmt, int p, Donneur donneur) throws SQLException {
+        pstmt.setString(p++, telephoneNormalise(donneur.getTelephone()));
+        pstmt.setString(p++, emailNormalise(donneur.getEmail()));
+        pstmt.setString(p++, nomPhonetique(donneur.getNom()));
+        return p;
+    }
+    
+    // 💡 Mêmes règles que les clés de DedoublonnageService (NULL : pas de clé)
+    private static String telephoneNormalise(String telephone) {
+        String normalise = SimilariteUtils.normaliserTelephone(telephone);
+        return normalise.length() >= 8 ? normalise : null;
+    }
+    
+    private static String emailNormalise(String email) {
+        String normalise = SimilariteUtils.normaliserEmail(email);
+        return normalise.isEmpty() ? null : normalise;
+    }
+    
+    private static String nomPhonetique(String nom) {
+        String cle = SimilariteUtils.clePhonetique(SimilariteUtils.normaliser(nom));
+        return cle.isEmpty() ? null : cle;
+    }
+    
     // ================================================================
     // UPDATE : Modifier un donneur
     // ================================================================
@@ -217,7 +455,9 @@ public class DonneurDAO {
      * @return true si la mise à jour a réussi
      */
     public boolean modifier(Donneur donneur) {
-        String sql = "UPDATE donneurs SET nom=?, prenom=?, date_naissance=?, sexe=?, groupe_sanguin=?, telephone=?, email=?, adresse=?, apte=? WHERE id=?";
+        Connection connection = registre.connexion();
+        String sql = "UPDATE donneurs SET nom=?, prenom=?, date_naissance=?, sexe=?, groupe_sanguin=?, telephone=?, email=?, adresse=?, apte=?, "
+                   + "telephone_normalise=?, email_normalise=?, nom_phonetique=? WHERE id=?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             
@@ -225,7 +465,7 @@ public class DonneurDAO {
             pstmt.setString(2, donneur.getPrenom());
             
             if (donneur.getDateNaissance() != null) {
-                pstmt.setDate(3, new java.sql.Date(donneur.getDateNaissance().getTime()));
+                pstmt.setObject(3, donneur.getDateNaissance());
             } else {
                 pstmt.setNull(3, Types.DATE);
             }
@@ -236,11 +476,14 @@ public class DonneurDAO {
             pstmt.setString(7, donneur.getEmail());
             pstmt.setString(8, donneur.getAdresse());
             pstmt.setBoolean(9, donneur.isApte());
-            pstmt.setInt(10, donneur.getId());  // WHERE id = ?
+            lierCles(pstmt, 10, donneur);
+            pstmt.setInt(13, donneur.getId());  // WHERE id = ?
             
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
                 System.out.println("✅ Donneur modifié: " + donneur.getNomComplet());
+                journalDAO.noter(connection, "donneurs", "id", donneur.getId());
+                eligibiliteDAO.recalculer(donneur.getId());
                 
                 // Enregistrer l'action
                 actionLogDAO.logModification(ActionLog.ENTITE_DONNEUR, 
@@ -268,11 +511,13 @@ public class DonneurDAO {
      * @return true si la suppression a réussi
      */
     public boolean supprimer(int id) {
+        Connection connection = registre.connexion();
         // Récupérer le donneur avant suppression pour le log
         Donneur donneur = trouverParId(id);
         String nomDonneur = donneur != null ? donneur.getNomComplet() : "ID:" + id;
         
         String sql = "DELETE FROM donneurs WHERE id = ?";
+        noterPochesDuDonneur(connection, id);
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, id);
@@ -280,6 +525,8 @@ public class DonneurDAO {
             int rowsAffected = pstmt.executeUpdate();
             if (rowsAffected > 0) {
                 System.out.println("✅ Donneur supprimé (ID: " + id + ")");
+                supprimerDonsArchives(connection, id);
+                noterSuppression(connection, id);
                 
                 // Enregistrer l'action
                 actionLogDAO.logSuppression(ActionLog.ENTITE_DONNEUR, 
@@ -296,6 +543,79 @@ public class DonneurDAO {
         return false;
     }
     
+    /**
+     * Fusionne deux fiches d'une même personne
+     * 
+     * 💡 Dans UNE transaction :
+     *    1. Les dons du doublon (archivés compris) sont rattachés au donneur conservé
+     *    2. Les informations manquantes du donneur conservé sont complétées
+     *    3. Le doublon est supprimé
+     * 
+     * @param idConserve Le donneur gardé
+     * @param idDoublon Le donneur fusionné puis supprimé
+     * @return true si la fusion a réussi
+     */
+    public boolean fusionner(int idConserve, int idDoublon) {
+        Donneur conserve = trouverParId(idConserve);
+        Donneur doublon = trouverParId(idDoublon);
+        if (conserve == null || doublon == null || idConserve == idDoublon) {
+            return false;
+        }
+        
+        try {
+            registre.enTransaction(connection -> {
+                // dons_archives n'a pas de clé étrangère : ses lignes sont rattachées à la main
+                for (String table : new String[] {"dons", "dons_archives"}) {
+                    try (PreparedStatement pstmt = connection.prepareStatement(
+                            "UPDATE " + table + " SET donneur_id = ? WHERE donneur_id = ?")) {
+                        pstmt.setInt(1, idConserve);
+                        pstmt.setInt(2, idDoublon);
+                        pstmt.executeUpdate();
+                    }
+                }
+                
+                try (PreparedStatement pstmt = connection.prepareStatement(
+                        "UPDATE donneurs SET date_naissance = COALESCE(date_naissance, ?), "
+                        + "telephone = COALESCE(NULLIF(telephone, ''), ?), email = COALESCE(NULLIF(email, ''), ?), "
+                        + "adresse = COALESCE(NULLIF(adresse, ''), ?) WHERE id = ?")) {
+                    if (doublon.getDateNaissance() != null) {
+                        pstmt.setObject(1, doublon.getDateNaissance());
+                    } else {
+                        pstmt.setNull(1, Types.DATE);
+                    }
+                    pstmt.setString(2, doublon.getTelephone());
+                    pstmt.setString(3, doublon.getEmail());
+                    pstmt.setString(4, doublon.getAdresse());
+                    pstmt.setInt(5, idConserve);
+                    pstmt.executeUpdate();
+                }
+                enregistrerCles(connection, trouverParId(idConserve));
+                
+                try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM donneurs WHERE id = ?")) {
+                    pstmt.setInt(1, idDoublon);
+                    pstmt.executeUpdate();
+                }
+                journalDAO.noter(connection, "donneurs", "id", idConserve);
+                journalDAO.noter(connection, "dons", "donneur_id", idConserve);
+                journalDAO.noter(connection, "dons_archives", "donneur_id", idConserve);
+                noterSuppression(connection, idDoublon);
+                eligibiliteDAO.recalculer(idConserve);
+                return true;
+            });
+            
+            actionLogDAO.logModification(ActionLog.ENTITE_DONNEUR, 
+                "Fusion du doublon " + doublon.getNomComplet() + " (ID:" + idDoublon 
+                + ") dans " + conserve.getNomComplet() + " (ID:" + idConserve + ")");
+            System.out.println("✅ Donneur " + idDoublon + " fusionné dans " + idConserve);
+            return true;
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors de la fusion: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+    
     // ================================================================
     // MÉTHODES UTILITAIRES
     // ================================================================
@@ -304,6 +624,7 @@ public class DonneurDAO {
      * Compte le nombre total de donneurs
      */
     public int compter() {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM donneurs";
         
         try (Statement stmt = connection.createStatement();
@@ -321,6 +642,7 @@ public class DonneurDAO {
      * Compte les donneurs par groupe sanguin
      */
     public int compterParGroupe(String groupeSanguin) {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM donneurs WHERE groupe_sanguin = ? AND apte = true";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -336,22 +658,87 @@ public class DonneurDAO {
     }
     
     /**
-     * 💡 Méthode privée : extrait un Donneur d'un ResultSet
+     * Plus grand ID de donneur (0 si la table est vide)
+     * 💡 Permet de repérer les donneurs ajoutés ensuite (import en masse)
+     */
+    public int getIdMax() {
+        Connection connection = registre.connexion();
+        String sql = "SELECT COALESCE(MAX(id), 0) FROM donneurs";
+        
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+    
+    /**
+     * Note pour la sauvegarde incrémentale tout ce que la suppression d'un donneur
+     * a retiré en cascade : sa fiche, ses dons, son éligibilité, ses dons archivés
+     */
+    private void noterSuppression(Connection connection, int donneurId) {
+        journalDAO.noter(connection, "donneurs", "id", donneurId);
+        journalDAO.noter(connection, "dons", "donneur_id", donneurId);
+        journalDAO.noter(connection, "eligibilite_donneurs", "donneur_id", donneurId);
+        journalDAO.noter(connection, "dons_archives", "donneur_id", donneurId);
+    }
+    
+    /**
+     * Note les poches issues des dons d'un donneur (AVANT sa suppression)
+     * 💡 La cascade met leur don_id à NULL sans passer par le journal du stock
+     */
+    private void noterPochesDuDonneur(Connection connection, int donneurId) {
+        journalDAO.noterSelection(connection, "stocks_sanguins", "id",
+            "SELECT s.id FROM stocks_sanguins s JOIN dons d ON s.don_id = d.id WHERE d.donneur_id = ?", donneurId);
+    }
+    
+    /**
+     * Supprime les dons archivés d'un donneur supprimé
+     * 💡 Comme le ON DELETE CASCADE de la table dons (l'archive n'a pas de clé étrangère)
+     */
+    private static void supprimerDonsArchives(Connection connection, int donneurId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM dons_archives WHERE donneur_id = ?")) {
+            pstmt.setInt(1, donneurId);
+            pstmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * 💡 Extrait un Donneur d'un ResultSet
      * Évite de répéter le même code dans chaque méthode
+     * (visible dans le package : réutilisé par EligibiliteDAO et les benchmarks)
      */
-    private Donneur extraireDonneur(ResultSet rs) throws SQLException {
+    static Donneur extraireDonneur(ResultSet rs) throws SQLException {
         Donneur donneur = new Donneur();
         donneur.setId(rs.getInt("id"));
         donneur.setNom(rs.getString("nom"));
         donneur.setPrenom(rs.getString("prenom"));
-        donneur.setDateNaissance(rs.getDate("date_naissance"));
+        donneur.setDateNaissance(rs.getObject("date_naissance", LocalDate.class));
         donneur.setSexe(rs.getString("sexe"));
         donneur.setGroupeSanguin(rs.getString("groupe_sanguin"));
         donneur.setTelephone(rs.getString("telephone"));
         donneur.setEmail(rs.getString("email"));
         donneur.setAdresse(rs.getString("adresse"));
-        donneur.setDateInscription(rs.getTimestamp("date_inscription"));
+        donneur.setDateInscription(rs.getObject("date_inscription", LocalDateTime.class));
         donneur.setApte(rs.getBoolean("apte"));
         return donneur;
     }
+    
+    /**
+     * Extrait uniquement les colonnes d'identité (voir parcourirTous)
+     */
+    private Donneur extraireIdentite(ResultSet rs) throws SQLException {
+        Donneur donneur = new Donneur();
+        donneur.setId(rs.getInt("id"));
+        donneur.setNom(rs.getString("nom"));
+        donneur.setPrenom(rs.getString("prenom"));
+        donneur.setDateNaissance(rs.getObject("date_naissance", LocalDate.class));
+        donneur.setTelephone(rs.getString("telephone"));
+        donneur.setEmail(rs.getString("email"));
+        return donneur;
+    }
 }
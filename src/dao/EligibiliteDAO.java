@@ -0,0 +1,318 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import model.Don;
+import model.Donneur;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * EligibiliteDAO : index des donneurs pouvant donner à nouveau
+ *
+ * 💡 EXPLICATION :
+ * Savoir si un donneur peut redonner demandait de chercher son dernier don VALIDE
+ * (MAX sur tout l'historique des dons) puis d'ajouter l'intervalle minimal.
+ * Plus l'historique grandit, plus c'est lent.
+ *
+ * La table eligibilite_donneurs garde, pour CHAQUE donneur :
+ * - son groupe sanguin et s'il est apte
+ * - la date de son dernier don validé et le nombre de dons
+ * - la date à partir de laquelle il peut redonner (prochaine_date_eligible)
+ *
+ * Elle est mise à jour donneur par donneur (recalculer) à chaque modification
+ * de ses dons ou de sa fiche. "Donneurs O- éligibles aujourd'hui" devient
+ * une simple lecture de l'index (apte, groupe_sanguin, prochaine_date_eligible).
+ *
+ * @author dteach
+ */
+public class EligibiliteDAO {
+
+    private static final String[] COLONNES = {
+        "donneur_id", "groupe_sanguin", "apte", "derniere_date_don", "prochaine_date_eligible", "nb_dons"
+    };
+
+    /**
+     * Un donneur éligible avec son historique (pour les campagnes de rappel)
+     */
+    public static class Candidat {
+        private final Donneur donneur;
+        private final int nbDons;
+        private final LocalDateTime derniereDateDon;
+
+        Candidat(Donneur donneur, int nbDons, LocalDateTime derniereDateDon) {
+            this.donneur = donneur;
+            this.nbDons = nbDons;
+            this.derniereDateDon = derniereDateDon;
+        }
+
+        public Donneur getDonneur() {
+            return donneur;
+        }
+
+        public int getNbDons() {
+            return nbDons;
+        }
+
+        public LocalDateTime getDerniereDateDon() {
+            return derniereDateDon;
+        }
+    }
+
+    private final RegistreDAO registre;
+    private final JournalModificationsDAO journalDAO;
+
+    // Calcul de l'éligibilité (écrit dans le dialecte de la base) : un donneur / les nouveaux / tous
+    private final String sqlUnDonneur;
+    private final String sqlApres;
+    private final String sqlTous;
+
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getEligibiliteDAO())
+     * 💡 Les requêtes sont écrites une fois pour toutes dans le dialecte de la base
+     */
+    EligibiliteDAO(RegistreDAO registre, Dialecte dialecte, JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.journalDAO = journalDAO;
+        this.sqlUnDonneur = sqlCalcul(dialecte, "WHERE dn.id = ? ");
+        this.sqlApres = sqlCalcul(dialecte, "WHERE dn.id > ? ");
+        this.sqlTous = sqlCalcul(dialecte, "");
+    }
+
+    /**
+     * Calcul de l'éligibilité à partir des dons validés
+     * 💡 Prochaine date = dernier don validé + intervalle minimal,
+     *    sinon la date d'inscription (jamais donné)
+     * 💡 Les dons archivés (ArchiveDAO) sont tous plus anciens que ceux de
+     *    la table dons : ils ne servent que si le donneur n'en a plus aucun
+     */
+    private static String sqlCalcul(Dialecte dialecte, String filtre) {
+        String dernierDon = "COALESCE(MAX(d.date_don), (SELECT MAX(a.date_don) FROM dons_archives a " +
+            "WHERE a.donneur_id = dn.id AND a.statut = 'VALIDE'))";
+        String select =
+            "SELECT dn.id, dn.groupe_sanguin, dn.apte, " + dernierDon + ", " +
+            "       COALESCE(" + dialecte.ajouterJours("CAST(" + dernierDon + " AS DATE)", Don.INTERVALLE_MIN_JOURS) + ", " +
+            "                CAST(dn.date_inscription AS DATE), CURRENT_DATE), " +
+            "       COUNT(d.id) + (SELECT COUNT(*) FROM dons_archives a " +
+            "                      WHERE a.donneur_id = dn.id AND a.statut = 'VALIDE') " +
+            "FROM donneurs dn " +
+            "LEFT JOIN dons d ON d.donneur_id = dn.id AND d.statut = 'VALIDE' " +
+            filtre +
+            "GROUP BY dn.id, dn.groupe_sanguin, dn.apte, dn.date_inscription";
+        return dialecte.insererOuMettreAJour("eligibilite_donneurs", COLONNES, "donneur_id", select);
+    }
+
+    // ================================================================
+    // MISE À JOUR DE L'INDEX
+    // ================================================================
+
+    /**
+     * Recalcule l'éligibilité d'UN donneur
+     * 💡 Appelé par DonDAO et DonneurDAO : ne lit que les dons de ce donneur
+     */
+    public void recalculer(int donneurId) {
+        Connection connection = registre.connexion();
+        try (PreparedStatement pstmt = connection.prepareStatement(sqlUnDonneur)) {
+            pstmt.setInt(1, donneurId);
+            pstmt.executeUpdate();
+            journalDAO.noter(connection, "eligibilite_donneurs", "donneur_id", donneurId);
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors du calcul de l'éligibilité: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Calcule l'éligibilité des donneurs d'ID supérieur à idMin
+     * 💡 Après un import en masse : seule la plage des nouveaux ID est parcourue
+     *
+     * @return le nombre de lignes écrites
+     */
+    public int recalculerApres(int idMin) throws SQLException {
+        Connection connection = registre.connexion();
+        try (PreparedStatement pstmt = connection.prepareStatement(sqlApres)) {
+            pstmt.setInt(1, idMin);
+            int n = pstmt.executeUpdate();
+            journalDAO.noterApres(connection, "eligibilite_donneurs", "donneur_id", idMin);
+            return n;
+        }
+    }
+
+    /**
+     * Reconstruit tout l'index à partir des tables donneurs et dons
+     * 💡 À lancer après une modification faite directement en SQL
+     */
+    public boolean reconstruire() {
+        try {
+            // 💡 Une seule transaction : personne ne lit un index vide entre les deux requêtes
+            int n = registre.enTransaction(connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM eligibilite_donneurs");
+                    int lignes = stmt.executeUpdate(sqlTous);
+                    journalDAO.noterTable(connection, "eligibilite_donneurs");
+                    return lignes;
+                }
+            });
+            System.out.println("✅ Index d'éligibilité reconstruit (" + n + " donneurs)");
+            return true;
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors de la reconstruction de l'éligibilité: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // ================================================================
+    // RECHERCHES
+    // ================================================================
+
+    /**
+     * Donneurs aptes pouvant donner à une date
+     *
+     * @param groupeSanguin Le groupe recherché (null = tous les groupes)
+     * @param date La date du don envisagé (ex: aujourd'hui)
+     * @return les donneurs éligibles, ceux qui attendent depuis le plus longtemps d'abord
+     */
+    public List<Donneur> listerEligibles(String groupeSanguin, LocalDate date) {
+        Connection connection = registre.connexion();
+        List<Donneur> donneurs = new ArrayList<>();
+        String sql = "SELECT dn.* FROM eligibilite_donneurs e " +
+                     "JOIN donneurs dn ON dn.id = e.donneur_id " +
+                     "WHERE e.apte = TRUE " +
+                     (groupeSanguin != null ? "AND e.groupe_sanguin = ? " : "") +
+                     "AND e.prochaine_date_eligible <= ? " +
+                     "ORDER BY e.prochaine_date_eligible";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int p = 1;
+            if (groupeSanguin != null) {
+                pstmt.setString(p++, groupeSanguin);
+            }
+            pstmt.setObject(p, date);
+
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                donneurs.add(DonneurDAO.extraireDonneur(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors de la recherche des donneurs éligibles: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return donneurs;
+    }
+
+    /**
+     * Donneurs d'un groupe qui (re)deviennent éligibles entre deux dates
+     * 💡 Utile pour planifier une collecte
+     */
+    public List<Donneur> listerDevenantEligibles(String groupeSanguin, LocalDate debut, LocalDate fin) {
+        Connection connection = registre.connexion();
+        List<Donneur> donneurs = new ArrayList<>();
+        String sql = "SELECT dn.* FROM eligibilite_donneurs e " +
+                     "JOIN donneurs dn ON dn.id = e.donneur_id " +
+                     "WHERE e.apte = TRUE AND e.groupe_sanguin = ? " +
+                     "AND e.prochaine_date_eligible BETWEEN ? AND ? " +
+                     "ORDER BY e.prochaine_date_eligible";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, groupeSanguin);
+            pstmt.setObject(2, debut);
+            pstmt.setObject(3, fin);
+
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                donneurs.add(DonneurDAO.extraireDonneur(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return donneurs;
+    }
+
+    /**
+     * Parcourt les donneurs éligibles d'un groupe joignables par téléphone,
+     * les plus fidèles d'abord (nombre de dons, puis don le plus récent)
+     *
+     * 💡 L'index idx_rappel (eligibilite_rappel en base embarquée), sur
+     *    (apte, groupe_sanguin, nb_dons, derniere_date_don),
+     *    donne les lignes déjà dans l'ordre du classement : pas de tri, la date
+     *    d'éligibilité est vérifiée au fil de la lecture, et LIMIT arrête la
+     *    lecture dès que le quota est atteint
+     *
+     * @param traitement Appelé pour chaque candidat, dans l'ordre du classement
+     */
+    public void parcourirPourRappel(String groupeSanguin, LocalDate date, int limite, Consumer<Candidat> traitement) {
+        Connection connection = registre.connexion();
+        String sql = "SELECT dn.*, e.nb_dons, e.derniere_date_don FROM eligibilite_donneurs e " +
+                     "JOIN donneurs dn ON dn.id = e.donneur_id " +
+                     "WHERE e.apte = TRUE AND e.groupe_sanguin = ? AND e.prochaine_date_eligible <= ? " +
+                     "AND dn.telephone IS NOT NULL AND dn.telephone <> '' " +
+                     "ORDER BY e.nb_dons DESC, e.derniere_date_don DESC " +
+                     "LIMIT ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, groupeSanguin);
+            pstmt.setObject(2, date);
+            pstmt.setInt(3, limite);
+
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                traitement.accept(new Candidat(DonneurDAO.extraireDonneur(rs),
+                    rs.getInt("nb_dons"), rs.getObject("derniere_date_don", LocalDateTime.class)));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors de la sélection des donneurs à rappeler: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Compte les donneurs d'un groupe éligibles à une date
+     */
+    public int compterEligibles(String groupeSanguin, LocalDate date) {
+        Connection connection = registre.connexion();
+        String sql = "SELECT COUNT(*) FROM eligibilite_donneurs " +
+                     "WHERE apte = TRUE AND groupe_sanguin = ? AND prochaine_date_eligible <= ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, groupeSanguin);
+            pstmt.setObject(2, date);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Date à partir de laquelle un donneur peut redonner (null si inconnu)
+     */
+    public LocalDate getProchaineDateEligible(int donneurId) {
+        Connection connection = registre.connexion();
+        String sql = "SELECT prochaine_date_eligible FROM eligibilite_donneurs WHERE donneur_id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, donneurId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getObject(1, LocalDate.class);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
@@ -16,12 +16,21 @@ import java.util.List;
  */
 public class HopitalDAO {
     
-    private Connection connection;
-    private ActionLogDAO actionLogDAO;
+    // 💡 Un seul DAO par registre, donc un seul cache : les hôpitaux changent rarement
+    private final CacheReference<Hopital> cache =
+        new CacheReference<>("hopitaux", Hopital::getId, Hopital::new);
     
-    public HopitalDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        this.actionLogDAO = new ActionLogDAO();
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    private final JournalModificationsDAO journalDAO;
+    
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getHopitalDAO())
+     */
+    HopitalDAO(RegistreDAO registre, ActionLogDAO actionLogDAO, JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
+        this.journalDAO = journalDAO;
     }
     
     // ================================================================
@@ -29,6 +38,7 @@ public class HopitalDAO {
     // ================================================================
     
     public boolean ajouter(Hopital hopital) {
+        Connection connection = registre.connexion();
         String sql = "INSERT INTO hopitaux (nom, adresse, ville, telephone, email, responsable, actif) VALUES (?, ?, ?, ?, ?, ?, ?)";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -48,6 +58,7 @@ public class HopitalDAO {
                     hopital.setId(rs.getInt(1));
                 }
                 System.out.println("✅ Hôpital ajouté: " + hopital.getNom());
+                cache.invalider(connection);
                 
                 // Enregistrer l'action
                 actionLogDAO.logAjout(ActionLog.ENTITE_HOPITAL, 
@@ -66,26 +77,37 @@ public class HopitalDAO {
     // READ
     // ================================================================
     
+    /**
+     * Tous les hôpitaux, triés par nom (lus dans le cache)
+     */
     public List<Hopital> listerTous() {
+        return cache.lister(registre.connexion(), this::lireTous);
+    }
+    
+    /**
+     * Les hôpitaux actifs, triés par nom (filtrés dans le cache)
+     */
+    public List<Hopital> listerActifs() {
         List<Hopital> hopitaux = new ArrayList<>();
-        String sql = "SELECT * FROM hopitaux ORDER BY nom";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                hopitaux.add(extraireHopital(rs));
+        for (Hopital hopital : listerTous()) {
+            if (hopital.isActif()) {
+                hopitaux.add(hopital);
             }
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return hopitaux;
     }
     
-    public List<Hopital> listerActifs() {
+    public Hopital trouverParId(int id) {
+        return cache.trouver(registre.connexion(), id, this::lireTous);
+    }
+    
+    /**
+     * Lecture de toute la table (chargement du cache)
+     */
+    private List<Hopital> lireTous() throws SQLException {
+        Connection connection = registre.connexion();
         List<Hopital> hopitaux = new ArrayList<>();
-        String sql = "SELECT * FROM hopitaux WHERE actif = true ORDER BY nom";
+        String sql = "SELECT * FROM hopitaux ORDER BY nom";
         
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -93,31 +115,12 @@ public class HopitalDAO {
             while (rs.next()) {
                 hopitaux.add(extraireHopital(rs));
             }
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return hopitaux;
     }
     
-    public Hopital trouverParId(int id) {
-        String sql = "SELECT * FROM hopitaux WHERE id = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return extraireHopital(rs);
-            }
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-    
     public List<Hopital> rechercherParVille(String ville) {
+        Connection connection = registre.connexion();
         List<Hopital> hopitaux = new ArrayList<>();
         String sql = "SELECT * FROM hopitaux WHERE ville LIKE ? AND actif = true";
         
@@ -140,6 +143,7 @@ public class HopitalDAO {
     // ================================================================
     
     public boolean modifier(Hopital hopital) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE hopitaux SET nom=?, adresse=?, ville=?, telephone=?, email=?, responsable=?, actif=? WHERE id=?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -153,6 +157,7 @@ public class HopitalDAO {
             pstmt.setInt(8, hopital.getId());
             
             if (pstmt.executeUpdate() > 0) {
+                cache.invalider(connection);
                 actionLogDAO.logModification(ActionLog.ENTITE_HOPITAL, 
                     "Modification de l'hôpital: " + hopital.getNom());
                 return true;
@@ -169,6 +174,7 @@ public class HopitalDAO {
     // ================================================================
     
     public boolean supprimer(int id) {
+        Connection connection = registre.connexion();
         // Récupérer l'hôpital avant suppression pour le log
         Hopital hopital = trouverParId(id);
         String nomHopital = hopital != null ? hopital.getNom() : "ID:" + id;
@@ -178,6 +184,9 @@ public class HopitalDAO {
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             if (pstmt.executeUpdate() > 0) {
+                cache.invalider(connection);
+                // 💡 Ses distributions sont supprimées en cascade
+                journalDAO.noter(connection, "distributions", "hopital_id", id);
                 actionLogDAO.logSuppression(ActionLog.ENTITE_HOPITAL, 
                     "Suppression de l'hôpital: " + nomHopital);
                 return true;
@@ -189,6 +198,7 @@ public class HopitalDAO {
     }
     
     public int compter() {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM hopitaux WHERE actif = true";
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -199,7 +209,7 @@ public class HopitalDAO {
         return 0;
     }
     
-    private Hopital extraireHopital(ResultSet rs) throws SQLException {
+    static Hopital extraireHopital(ResultSet rs) throws SQLException {
         Hopital hopital = new Hopital();
         hopital.setId(rs.getInt("id"));
         hopital.setNom(rs.getString("nom"));
@@ -0,0 +1,288 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * InstantaneStockDAO : photos quotidiennes du stock (instantanes_stock)
+ *
+ * 💡 EXPLICATION :
+ * "Combien de O- avions-nous le 3 mars ?" : avec le seul journal
+ * mouvements_stock, il faut relire tous les mouvements depuis le début.
+ * Une fois par jour, on enregistre donc une PHOTO du stock disponible à
+ * la fin de la journée, résumée par groupe et par date de péremption
+ * (au plus 8 groupes × 42 dates = quelques centaines de lignes).
+ *
+ * Pour connaître le stock d'un jour D :
+ * 1. On part de la dernière photo prise au plus tard le jour D
+ * 2. On rejoue seulement les mouvements faits depuis (quelques jours au plus) :
+ *    pour chaque poche touchée, on retire son état à la date de la photo
+ *    et on ajoute son état à la fin du jour D
+ * Les rapports mensuels et les courbes d'évolution lisent directement les photos.
+ *
+ * Même règle que StockSanguinDAO.getResumeStock() : poches DISPONIBLES et
+ * non périmées le jour D.
+ *
+ * @author dteach
+ */
+public class InstantaneStockDAO {
+
+    /**
+     * Tranches de péremption des rapports (jours restants, borne basse incluse)
+     */
+    public static final int[] TRANCHES_JOURS = {0, 8, 15, 29};
+    public static final String[] TRANCHES_LIBELLES = {"0-7 j", "8-14 j", "15-28 j", "29 j et +"};
+
+    // 💡 Dernier mouvement avant une date de chaque poche (éventuellement limité aux
+    //    poches touchées dans une période : %s), regroupé par groupe et péremption
+    private static final String SQL_ETAT =
+        "SELECT m.groupe_sanguin, m.date_peremption, SUM(m.quantite) AS quantite, COUNT(*) AS poches "
+        + "FROM mouvements_stock m "
+        + "JOIN (SELECT stock_id, MAX(id) AS dernier FROM mouvements_stock "
+        + "WHERE date_mouvement < ? %s GROUP BY stock_id) d ON m.id = d.dernier "
+        + "WHERE m.statut = 'DISPONIBLE' AND m.type <> 'SUPPRESSION' AND m.date_peremption >= ? "
+        + "GROUP BY m.groupe_sanguin, m.date_peremption";
+    private static final String FILTRE_TOUCHEES =
+        "AND stock_id IN (SELECT stock_id FROM mouvements_stock WHERE date_mouvement >= ? AND date_mouvement < ?)";
+
+    private final RegistreDAO registre;
+    private final JournalModificationsDAO journalDAO;
+
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getInstantaneStockDAO())
+     */
+    InstantaneStockDAO(RegistreDAO registre, JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.journalDAO = journalDAO;
+    }
+
+    // ================================================================
+    // PRISE DES PHOTOS
+    // ================================================================
+
+    /**
+     * Enregistre (ou remplace) la photo du stock à la fin d'un jour
+     *
+     * 💡 Calculée elle-même à partir de la photo précédente : la photo
+     *    quotidienne ne relit que les mouvements de la journée
+     *
+     * @return Le nombre de lignes écrites
+     */
+    public int prendre(LocalDate jour) throws SQLException {
+        Map<String, int[]> etat = etatFinDeJour(registre.connexion(), jour);
+        return registre.enTransaction(connection -> {
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "DELETE FROM instantanes_stock WHERE jour = ?")) {
+                pstmt.setObject(1, jour);
+                pstmt.executeUpdate();
+            }
+            String sql = "INSERT INTO instantanes_stock (jour, groupe_sanguin, date_peremption, quantite, poches) "
+                + "VALUES (?, ?, ?, ?, ?)";
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                for (Map.Entry<String, int[]> e : etat.entrySet()) {
+                    pstmt.setObject(1, jour);
+                    pstmt.setString(2, groupe(e.getKey()));
+                    pstmt.setObject(3, peremption(e.getKey()));
+                    pstmt.setInt(4, e.getValue()[0]);
+                    pstmt.setInt(5, e.getValue()[1]);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            journalDAO.noter(connection, "instantanes_stock", "jour", jour);
+            return etat.size();
+        });
+    }
+
+    /**
+     * Le jour de la dernière photo (null s'il n'y en a aucune)
+     */
+    public LocalDate getDernierJour() {
+        return dernierJourJusqua(registre.connexion(), null);
+    }
+
+    // ================================================================
+    // LECTURE
+    // ================================================================
+
+    /**
+     * Le stock disponible par groupe à la fin d'un jour
+     * Retourne un tableau : [groupe, quantité totale]
+     */
+    public List<Object[]> getStockALaDate(LocalDate jour) {
+        Map<String, Integer> parGroupe = new TreeMap<>();
+        try {
+            for (Map.Entry<String, int[]> e : etatFinDeJour(registre.connexion(), jour).entrySet()) {
+                parGroupe.merge(groupe(e.getKey()), e.getValue()[0], Integer::sum);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        List<Object[]> resume = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : parGroupe.entrySet()) {
+            resume.add(new Object[] {e.getKey(), e.getValue()});
+        }
+        return resume;
+    }
+
+    /**
+     * Le stock disponible à la fin d'un jour, par groupe et tranche de péremption
+     * Retourne un tableau : [groupe, tranche (TRANCHES_LIBELLES), quantité, nombre de poches]
+     */
+    public List<Object[]> getStockParTranche(LocalDate jour) {
+        Map<String, int[]> parTranche = new TreeMap<>();
+        try {
+            for (Map.Entry<String, int[]> e : etatFinDeJour(registre.connexion(), jour).entrySet()) {
+                int restants = (int) (peremption(e.getKey()).toEpochDay() - jour.toEpochDay());
+                int tranche = TRANCHES_JOURS.length - 1;
+                while (restants < TRANCHES_JOURS[tranche]) {
+                    tranche--;
+                }
+                int[] total = parTranche.computeIfAbsent(groupe(e.getKey()) + "|" + tranche, k -> new int[2]);
+                total[0] += e.getValue()[0];
+                total[1] += e.getValue()[1];
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        List<Object[]> lignes = new ArrayList<>();
+        for (Map.Entry<String, int[]> e : parTranche.entrySet()) {
+            String[] cle = e.getKey().split("\\|");
+            lignes.add(new Object[] {cle[0], TRANCHES_LIBELLES[Integer.parseInt(cle[1])],
+                e.getValue()[0], e.getValue()[1]});
+        }
+        return lignes;
+    }
+
+    /**
+     * L'évolution du stock disponible jour par jour (courbes, rapport mensuel)
+     * Retourne un tableau : [jour (LocalDate), groupe, quantité totale]
+     *
+     * 💡 Lue uniquement dans les photos : un jour sans photo n'apparaît pas
+     */
+    public List<Object[]> getEvolution(LocalDate debut, LocalDate fin) {
+        Connection connection = registre.connexion();
+        List<Object[]> evolution = new ArrayList<>();
+        String sql = "SELECT jour, groupe_sanguin, SUM(quantite) AS total FROM instantanes_stock "
+            + "WHERE jour BETWEEN ? AND ? "
+            + "GROUP BY jour, groupe_sanguin "
+            + "ORDER BY jour, groupe_sanguin";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, debut);
+            pstmt.setObject(2, fin);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                evolution.add(new Object[] {rs.getObject("jour", LocalDate.class),
+                    rs.getString("groupe_sanguin"), rs.getInt("total")});
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return evolution;
+    }
+
+    // ================================================================
+    // CALCUL : photo la plus proche + mouvements depuis
+    // ================================================================
+
+    /**
+     * Le stock à la fin d'un jour : "groupe|péremption" → [quantité, poches]
+     */
+    private Map<String, int[]> etatFinDeJour(Connection connection, LocalDate jour) throws SQLException {
+        LocalDate photo = dernierJourJusqua(connection, jour);
+        LocalDateTime fin = jour.plusDays(1).atStartOfDay();
+        Map<String, int[]> etat = new TreeMap<>();
+
+        if (photo == null) {
+            // Aucune photo : tout le journal (première photo seulement)
+            ajouter(connection, etat, String.format(SQL_ETAT, ""), 1, fin, jour);
+        } else {
+            lirePhoto(connection, photo, etat);
+            if (photo.isBefore(jour)) {
+                LocalDateTime debut = photo.plusDays(1).atStartOfDay();
+                String sql = String.format(SQL_ETAT, FILTRE_TOUCHEES);
+                // Les poches touchées depuis la photo : ancien état retiré, nouvel état ajouté
+                ajouter(connection, etat, sql, -1, debut, debut, fin, photo);
+                ajouter(connection, etat, sql, 1, fin, debut, fin, photo);
+            }
+        }
+
+        // Périmées entre la photo et le jour demandé, ou totalement sorties
+        etat.entrySet().removeIf(e -> peremption(e.getKey()).isBefore(jour) || e.getValue()[1] <= 0);
+        return etat;
+    }
+
+    private static void lirePhoto(Connection connection, LocalDate photo, Map<String, int[]> etat)
+            throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT groupe_sanguin, date_peremption, quantite, poches FROM instantanes_stock WHERE jour = ?")) {
+            pstmt.setObject(1, photo);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                etat.put(cle(rs.getString("groupe_sanguin"), rs.getObject("date_peremption", LocalDate.class)),
+                    new int[] {rs.getInt("quantite"), rs.getInt("poches")});
+            }
+        }
+    }
+
+    /**
+     * Ajoute (signe = 1) ou retire (signe = -1) le résultat d'une requête SQL_ETAT
+     */
+    private static void ajouter(Connection connection, Map<String, int[]> etat, String sql, int signe,
+            Object... parametres) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parametres.length; i++) {
+                pstmt.setObject(i + 1, parametres[i]);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                int[] total = etat.computeIfAbsent(
+                    cle(rs.getString("groupe_sanguin"), rs.getObject("date_peremption", LocalDate.class)),
+                    k -> new int[2]);
+                total[0] += signe * rs.getInt("quantite");
+                total[1] += signe * rs.getInt("poches");
+            }
+        }
+    }
+
+    /**
+     * Le jour de la dernière photo au plus tard à la date donnée (null = sans limite)
+     */
+    private static LocalDate dernierJourJusqua(Connection connection, LocalDate limite) {
+        String sql = "SELECT MAX(jour) FROM instantanes_stock" + (limite != null ? " WHERE jour <= ?" : "");
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            if (limite != null) {
+                pstmt.setObject(1, limite);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getObject(1, LocalDate.class) : null;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // "groupe|aaaa-mm-jj" : trié par groupe puis par péremption
+    private static String cle(String groupe, LocalDate peremption) {
+        return groupe + "|" + peremption;
+    }
+
+    private static String groupe(String cle) {
+        return cle.substring(0, cle.indexOf('|'));
+    }
+
+    private static LocalDate peremption(String cle) {
+        return LocalDate.parse(cle.substring(cle.indexOf('|') + 1));
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * JournalModificationsDAO : quelles lignes ont changé depuis une date ?
+ *
+ * 💡 EXPLICATION :
+ * Une sauvegarde complète relit toute la base, même si la journée n'a vu
+ * que quelques centaines de dons. Pour une sauvegarde INCRÉMENTALE (voir
+ * service.SauvegardeService), il faut savoir quelles lignes ont changé.
+ *
+ * Comme les marques des cumuls mensuels, chaque écriture d'un DAO NOTE ce
+ * qu'elle touche dans journal_modifications : une table, une colonne, une
+ * valeur. "dons, id = 12" : le don 12 a été ajouté, modifié ou supprimé.
+ * "dons, donneur_id = 7" : TOUS les dons du donneur 7 (suppression en
+ * cascade, fusion). "donneurs, id > 5000" : les donneurs d'un import en masse.
+ * Une note sans colonne vise toute la table (reconstruction).
+ *
+ * Sans nouvelle note, car déjà journalisées autrement :
+ * - stocks_sanguins : chaque écriture ajoute un mouvement (mouvements_stock)
+ *   qui porte l'id de la poche
+ * - actions_log et mouvements_stock : on n'y fait qu'ajouter, leur date suffit
+ *   (et la purge du journal d'audit ne retire que les plus anciennes)
+ *
+ * Les autres tables (hôpitaux, utilisateurs, alertes...) sont petites :
+ * elles sont recopiées en entier à chaque sauvegarde (estSuivie = false).
+ *
+ * ⚠️ Une écriture faite directement en SQL n'est pas notée : faire ensuite
+ *    une sauvegarde complète.
+ *
+ * @author dteach
+ */
+public class JournalModificationsDAO {
+
+    public static final String TABLE = "journal_modifications";
+
+    public static final String EGAL = "=";
+    public static final String APRES = ">";
+    public static final String DEPUIS = ">=";
+    public static final String AVANT = "<";
+
+    // Tables dont chaque écriture est notée (ou journalisée par mouvements_stock)
+    private static final Set<String> JOURNALISEES = Set.of(
+        "donneurs", "dons", "distributions", "eligibilite_donneurs", "stocks_sanguins",
+        "instantanes_stock", "cumuls_dons_mensuels", "cumuls_distributions_mensuels",
+        "cumuls_stock_mensuels", "dons_archives", "stocks_sanguins_archives", "distributions_archives");
+
+    // Tables où l'on ne fait qu'ajouter : la colonne de date de chaque ligne
+    private static final Map<String, String> PAR_DATE = Map.of(
+        "actions_log", "date_action",
+        "mouvements_stock", "date_mouvement");
+
+    private static final String SQL_NOTE =
+        "INSERT INTO " + TABLE + " (table_nom, colonne, operateur, valeur) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Une modification : les lignes de la table où "colonne operateur valeur" ont changé
+     * (colonne null : toute la table)
+     */
+    public static class Modification {
+        private final String table;
+        private final String colonne;
+        private final String operateur;
+        private final String valeur;
+
+        public Modification(String table, String colonne, String operateur, String valeur) {
+            this.table = table;
+            this.colonne = colonne;
+            this.operateur = operateur;
+            this.valeur = valeur;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public String getColonne() {
+            return colonne;
+        }
+
+        public String getOperateur() {
+            return operateur;
+        }
+
+        public String getValeur() {
+            return valeur;
+        }
+
+        public boolean estTouteLaTable() {
+            return colonne == null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Modification)) {
+                return false;
+            }
+            Modification m = (Modification) o;
+            return table.equals(m.table) && Objects.equals(colonne, m.colonne)
+                && operateur.equals(m.operateur) && Objects.equals(valeur, m.valeur);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(table, colonne, operateur, valeur);
+        }
+    }
+
+    private final RegistreDAO registre;
+
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getJournalModificationsDAO())
+     */
+    JournalModificationsDAO(RegistreDAO registre) {
+        this.registre = registre;
+    }
+
+    // ================================================================
+    // NOTES (appelées par les DAO, dans la transaction de l'écriture)
+    // ================================================================
+
+    /**
+     * Note les lignes où colonne = valeur
+     */
+    void noter(Connection connection, String table, String colonne, Object valeur) {
+        executerNote(connection, table, colonne, EGAL, valeur);
+    }
+
+    /**
+     * Note les lignes où colonne = chacune des valeurs (un lot)
+     */
+    void noter(Connection connection, String table, String colonne, Collection<?> valeurs) {
+        if (valeurs.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(SQL_NOTE)) {
+            for (Object valeur : valeurs) {
+                lier(pstmt, table, colonne, EGAL, valeur);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Modifications non notées pour la sauvegarde: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Note les lignes trouvées par une requête (un id par ligne)
+     * 💡 Avant une suppression en cascade (ON DELETE SET NULL...) : après, on ne les retrouve plus
+     */
+    void noterSelection(Connection connection, String table, String colonne, String select, Object parametre) {
+        List<Object> valeurs = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(select)) {
+            pstmt.setObject(1, parametre);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    valeurs.add(rs.getObject(1));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠️ Modifications non notées pour la sauvegarde: " + e.getMessage());
+            return;
+        }
+        noter(connection, table, colonne, valeurs);
+    }
+
+    /**
+     * Note les lignes où colonne > valeur (ex: les donneurs d'un import)
+     */
+    void noterApres(Connection connection, String table, String colonne, Object valeur) {
+        executerNote(connection, table, colonne, APRES, valeur);
+    }
+
+    /**
+     * Note toute la table (reconstruction complète)
+     */
+    void noterTable(Connection connection, String table) {
+        executerNote(connection, table, null, EGAL, null);
+    }
+
+    // 💡 Comme pour les cumuls, un échec ne fait pas échouer l'écriture :
+    //    la prochaine sauvegarde complète rattrapera la ligne
+    private static void executerNote(Connection connection, String table, String colonne, String operateur,
+            Object valeur) {
+        try (PreparedStatement pstmt = connection.prepareStatement(SQL_NOTE)) {
+            lier(pstmt, table, colonne, operateur, valeur);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Modification non notée pour la sauvegarde: " + e.getMessage());
+        }
+    }
+
+    private static void lier(PreparedStatement pstmt, String table, String colonne, String operateur,
+            Object valeur) throws SQLException {
+        pstmt.setString(1, table);
+        pstmt.setString(2, colonne);
+        pstmt.setString(3, operateur);
+        pstmt.setString(4, valeur != null ? valeur.toString() : null);
+    }
+
+    // ================================================================
+    // LECTURE (sauvegarde incrémentale)
+    // ================================================================
+
+    /**
+     * Vrai si les modifications de la table sont connues (sinon : la recopier en entier)
+     */
+    public static boolean estSuivie(String table) {
+        return JOURNALISEES.contains(table) || PAR_DATE.containsKey(table);
+    }
+
+    /**
+     * Tout ce qui a changé depuis une date, par table (tables suivies seulement)
+     *
+     * 💡 Lecture par les index sur les dates : le coût dépend du nombre de
+     *    modifications, pas de la taille des tables
+     */
+    public Map<String, Set<Modification>> modificationsDepuis(LocalDateTime depuis) throws SQLException {
+        Connection connection = registre.connexion();
+        Map<String, Set<Modification>> modifications = new HashMap<>();
+
+        String sql = "SELECT DISTINCT table_nom, colonne, operateur, valeur FROM " + TABLE + " WHERE note_le >= ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, depuis);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ajouter(modifications, new Modification(rs.getString("table_nom"), rs.getString("colonne"),
+                        rs.getString("operateur"), rs.getString("valeur")));
+                }
+            }
+        }
+
+        // Les poches touchées, d'après leur journal
+        sql = "SELECT DISTINCT stock_id FROM mouvements_stock WHERE date_mouvement >= ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, depuis);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ajouter(modifications, new Modification("stocks_sanguins", "id", EGAL, rs.getString(1)));
+                }
+            }
+        }
+
+        // Tables où l'on ne fait qu'ajouter : les lignes récentes, et celles purgées
+        for (Map.Entry<String, String> e : PAR_DATE.entrySet()) {
+            String table = e.getKey();
+            String colonne = e.getValue();
+            ajouter(modifications, new Modification(table, colonne, DEPUIS, depuis.toString()));
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MIN(" + colonne + ") FROM " + table)) {
+                LocalDateTime plusAncienne = rs.next() ? rs.getObject(1, LocalDateTime.class) : null;
+                if (plusAncienne != null) {
+                    ajouter(modifications, new Modification(table, colonne, AVANT, plusAncienne.toString()));
+                }
+            }
+        }
+        return modifications;
+    }
+
+    private static void ajouter(Map<String, Set<Modification>> modifications, Modification m) {
+        modifications.computeIfAbsent(m.getTable(), t -> new LinkedHashSet<>()).add(m);
+    }
+
+    /**
+     * Efface les notes antérieures à une date
+     *
+     * @return Le nombre de notes effacées
+     */
+    public int purger(LocalDateTime avant) throws SQLException {
+        Connection connection = registre.connexion();
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE note_le < ?")) {
+            pstmt.setObject(1, avant);
+            return pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import model.ActionLog;
+import model.MouvementStock;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MouvementStockDAO : le journal des mouvements du stock (mouvements_stock)
+ *
+ * 💡 EXPLICATION :
+ * Avant, stocks_sanguins était modifiée sur place : un prélèvement partiel
+ * écrasait la quantité de la poche, sans aucune trace. Impossible de savoir
+ * combien de sang il y avait en stock le 1er du mois.
+ *
+ * Maintenant, chaque écriture de StockSanguinDAO ajoute une ligne à ce
+ * journal, DANS LA MÊME TRANSACTION. Le journal n'est jamais modifié :
+ * - les écritures sont de simples ajouts en fin de table (rapides)
+ * - les questions "historiques" (stock à une date, sorties du mois...)
+ *   se posent au journal (et à ses photos quotidiennes, voir
+ *   InstantaneStockDAO), sans bloquer les mises à jour de stocks_sanguins
+ * - stocks_sanguins n'est plus que le dernier état de chaque poche :
+ *   reconstruireProjection() la recalcule à partir du journal
+ *
+ * Chaque ligne recopie l'état de la poche APRÈS le mouvement : le dernier
+ * mouvement d'une poche suffit donc à la reconstruire.
+ *
+ * @author dteach
+ */
+public class MouvementStockDAO {
+
+    // 💡 Copie de la poche dans le journal : %s = variation, volume restant, statut, filtre
+    private static final String SQL_COPIE =
+        "INSERT INTO mouvements_stock (stock_id, type, variation, quantite, statut, groupe_sanguin, "
+        + "date_prelevement, date_peremption, don_id, date_mouvement) "
+        + "SELECT id, ?, %s, %s, %s, groupe_sanguin, date_prelevement, date_peremption, don_id, ? "
+        + "FROM stocks_sanguins WHERE %s";
+    private static final String STATUT = "COALESCE(statut, 'DISPONIBLE')";
+
+    // Dernier mouvement de chaque poche (%s : filtre de la sous-requête)
+    private static final String SQL_DERNIERS =
+        "FROM mouvements_stock m "
+        + "JOIN (SELECT stock_id, MAX(id) AS dernier FROM mouvements_stock %s GROUP BY stock_id) d "
+        + "ON m.id = d.dernier ";
+
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    private final CumulMensuelDAO cumulMensuelDAO;
+    private final JournalModificationsDAO journalDAO;
+
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getMouvementStockDAO())
+     */
+    MouvementStockDAO(RegistreDAO registre, ActionLogDAO actionLogDAO, CumulMensuelDAO cumulMensuelDAO,
+                      JournalModificationsDAO journalDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
+        this.cumulMensuelDAO = cumulMensuelDAO;
+        this.journalDAO = journalDAO;
+    }
+
+    // ================================================================
+    // ÉCRITURE (appelée par StockSanguinDAO, dans sa transaction)
+    // ================================================================
+
+    /**
+     * Ajoute au journal l'état actuel d'une poche (à appeler APRÈS sa mise à jour)
+     *
+     * @param variation Variation du volume en ml (négative = sortie)
+     */
+    void journaliser(Connection connection, int stockId, String type, int variation) throws SQLException {
+        LocalDateTime maintenant = Dialecte.maintenant();
+        copier(connection, String.format(SQL_COPIE, "?", "quantite", STATUT, "id = ?"),
+            type, variation, maintenant, stockId);
+        cumulMensuelDAO.marquer(connection, maintenant.toLocalDate());
+    }
+
+    /**
+     * Ajoute au journal la suppression d'une poche (à appeler AVANT le DELETE)
+     * 💡 Tout le volume restant sort du stock
+     */
+    void journaliserSuppression(Connection connection, int stockId) throws SQLException {
+        LocalDateTime maintenant = Dialecte.maintenant();
+        copier(connection, String.format(SQL_COPIE, "-quantite", "0", STATUT, "id = ?"),
+            MouvementStock.TYPE_SUPPRESSION, maintenant, stockId);
+        cumulMensuelDAO.marquer(connection, maintenant.toLocalDate());
+    }
+
+    /**
+     * Ajoute au journal la péremption de toutes les poches disponibles périmées
+     * (à appeler AVANT de changer leur statut)
+     *
+     * @return Le nombre de poches concernées
+     */
+    int journaliserPeremptions(Connection connection, LocalDate aujourdhui) throws SQLException {
+        LocalDateTime maintenant = Dialecte.maintenant();
+        int poches = copier(connection, String.format(SQL_COPIE, "-quantite", "0", "'PERIME'",
+                "date_peremption < ? AND statut = 'DISPONIBLE'"),
+            MouvementStock.TYPE_PEREMPTION, maintenant, aujourdhui);
+        if (poches > 0) {
+            cumulMensuelDAO.marquer(connection, maintenant.toLocalDate());
+        }
+        return poches;
+    }
+
+    private static int copier(Connection connection, String sql, Object... parametres) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parametres.length; i++) {
+                pstmt.setObject(i + 1, parametres[i]);
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+
+    // ================================================================
+    // READ
+    // ================================================================
+
+    /**
+     * L'historique d'une poche, du plus ancien au plus récent
+     */
+    public List<MouvementStock> listerParStock(int stockId) {
+        Connection connection = registre.connexion();
+        List<MouvementStock> mouvements = new ArrayList<>();
+        String sql = "SELECT * FROM mouvements_stock WHERE stock_id = ? ORDER BY id";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, stockId);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                mouvements.add(extraireMouvement(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return mouvements;
+    }
+
+    /**
+     * Les mouvements d'une période [debut, fin[, du plus ancien au plus récent
+     */
+    public List<MouvementStock> listerEntre(LocalDateTime debut, LocalDateTime fin) {
+        Connection connection = registre.connexion();
+        List<MouvementStock> mouvements = new ArrayList<>();
+        String sql = "SELECT * FROM mouvements_stock WHERE date_mouvement >= ? AND date_mouvement < ? ORDER BY id";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, debut);
+            pstmt.setObject(2, fin);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                mouvements.add(extraireMouvement(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return mouvements;
+    }
+
+    // ================================================================
+    // PROJECTION : stocks_sanguins recalculée depuis le journal
+    // ================================================================
+
+    /**
+     * Reconstruit stocks_sanguins à partir du dernier mouvement de chaque poche
+     *
+     * 💡 Dans UNE transaction : les poches présentes dans le journal sont
+     *    supprimées puis recréées (même id). Les poches sans aucun mouvement
+     *    (créées hors de l'application) ne sont pas touchées.
+     *
+     * @return Le nombre de poches reconstruites, -1 en cas d'erreur
+     */
+    public int reconstruireProjection() {
+        try {
+            int poches = registre.enTransaction(connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    // 💡 Sans mouvement nouveau : la sauvegarde incrémentale doit tout reprendre
+                    journalDAO.noterTable(connection, "stocks_sanguins");
+                    stmt.executeUpdate("DELETE FROM stocks_sanguins "
+                        + "WHERE id IN (SELECT stock_id FROM mouvements_stock)");
+                    // Le don d'origine a pu être supprimé depuis (clé étrangère)
+                    return stmt.executeUpdate("INSERT INTO stocks_sanguins "
+                        + "(id, groupe_sanguin, quantite, date_prelevement, date_peremption, don_id, statut) "
+                        + "SELECT m.stock_id, m.groupe_sanguin, m.quantite, m.date_prelevement, m.date_peremption, "
+                        + "(SELECT dn.id FROM dons dn WHERE dn.id = m.don_id), m.statut "
+                        + String.format(SQL_DERNIERS, "")
+                        + "WHERE m.type <> 'SUPPRESSION' "
+                        // Les poches archivées (ArchiveDAO) ne reviennent pas dans la table de travail
+                        + "AND m.stock_id NOT IN (SELECT id FROM stocks_sanguins_archives)");
+                }
+            });
+            actionLogDAO.log(ActionLog.ACTION_MODIFIER, ActionLog.ENTITE_STOCK,
+                "Reconstruction du stock depuis le journal : " + poches + " poches");
+            System.out.println("✅ Stock reconstruit depuis le journal : " + poches + " poches");
+            return poches;
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur lors de la reconstruction du stock: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // ================================================================
+    // MÉTHODE UTILITAIRE
+    // ================================================================
+
+    static MouvementStock extraireMouvement(ResultSet rs) throws SQLException {
+        MouvementStock mouvement = new MouvementStock();
+        mouvement.setId(rs.getLong("id"));
+        mouvement.setStockId(rs.getInt("stock_id"));
+        mouvement.setType(rs.getString("type"));
+        mouvement.setVariation(rs.getInt("variation"));
+        mouvement.setQuantite(rs.getInt("quantite"));
+        mouvement.setStatut(rs.getString("statut"));
+        mouvement.setGroupeSanguin(rs.getString("groupe_sanguin"));
+        mouvement.setDatePeremption(rs.getObject("date_peremption", LocalDate.class));
+        mouvement.setDateMouvement(rs.getObject("date_mouvement", LocalDateTime.class));
+        return mouvement;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import diagnostic.Metriques;
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * PoolConnexions : un pool de connexions JDBC simple
+ *
+ * 💡 EXPLICATION :
+ * Ouvrir une connexion MySQL coûte cher (réseau + authentification).
+ * Le pool garde quelques connexions ouvertes et les "prête" :
+ * - getConnection() emprunte une connexion libre (ou en ouvre une nouvelle)
+ * - close() sur la connexion empruntée la REND au pool au lieu de la fermer
+ *
+ * Le nombre de connexions est limité (tailleMax) : au-delà, on attend qu'une
+ * connexion se libère (au maximum delaiAttenteMs).
+ *
+ * Utilisé par le mode serveur (api.ServeurApi) où plusieurs requêtes
+ * s'exécutent en parallèle, chacune avec sa propre connexion.
+ *
+ * @author dteach
+ */
+public class PoolConnexions implements DataSource {
+
+    private final LinkedBlockingDeque<Connection> libres = new LinkedBlockingDeque<>();
+    private final Semaphore permis;
+    private final int tailleMax;
+    private final long delaiAttenteMs;
+    private volatile boolean ferme = false;
+
+    /**
+     * @param tailleMax nombre maximum de connexions ouvertes en même temps
+     * @param delaiAttenteMs temps d'attente maximum pour obtenir une connexion
+     */
+    public PoolConnexions(int tailleMax, long delaiAttenteMs) {
+        this.tailleMax = tailleMax;
+        this.delaiAttenteMs = delaiAttenteMs;
+        this.permis = new Semaphore(tailleMax, true);
+        
+        // 💡 Lues à chaque affichage de l'écran Diagnostic (et par JMX)
+        Metriques.jauge("pool.actives", this::getNombreActives);
+        Metriques.jauge("pool.libres", this::getNombreLibres);
+        Metriques.jauge("pool.tailleMax", this::getTailleMax);
+        Metriques.jauge("pool.enAttente", permis::getQueueLength);
+    }
+
+    // ================================================================
+    // EMPRUNT / RESTITUTION
+    // ================================================================
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ferme) {
+            throw new SQLException("Pool de connexions fermé");
+        }
+        // 💡 Temps d'attente d'une connexion libre : "Pool.emprunt" dans le diagnostic
+        long debut = System.nanoTime();
+        try {
+            if (!permis.tryAcquire(delaiAttenteMs, TimeUnit.MILLISECONDS)) {
+                Metriques.enregistrer("Pool.emprunt", System.nanoTime() - debut, 0, true);
+                throw new SQLException("Aucune connexion libre après " + delaiAttenteMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente de connexion interrompue", e);
+        }
+        Metriques.enregistrer("Pool.emprunt", System.nanoTime() - debut, 0, false);
+
+        try {
+            Connection reelle = libres.pollFirst();
+            // Une connexion restée inactive a pu être coupée par le serveur
+            while (reelle != null && !reelle.isValid(1)) {
+                fermerSilencieusement(reelle);
+                reelle = libres.pollFirst();
+            }
+            if (reelle == null) {
+                reelle = DatabaseConnection.ouvrirConnexion();
+                Metriques.incrementer("pool.connexionsOuvertes");
+            }
+            return envelopper(reelle);
+        } catch (ClassNotFoundException | SQLException | RuntimeException e) {
+            permis.release();
+            if (e instanceof SQLException) {
+                throw (SQLException) e;
+            }
+            throw new SQLException("Impossible d'ouvrir une connexion", e);
+        }
+    }
+
+    /**
+     * Rend une connexion au pool (appelé par close() sur la connexion empruntée)
+     */
+    private void restituer(Connection reelle) {
+        try {
+            if (ferme || reelle.isClosed()) {
+                fermerSilencieusement(reelle);
+                return;
+            }
+            // Remettre la connexion dans un état propre pour le prochain emprunteur
+            if (!reelle.getAutoCommit()) {
+                reelle.rollback();
+                reelle.setAutoCommit(true);
+            }
+            libres.offerFirst(reelle);
+        } catch (SQLException e) {
+            fermerSilencieusement(reelle);
+        } finally {
+            permis.release();
+        }
+    }
+
+    /**
+     * Crée un "proxy" autour de la vraie connexion :
+     * toutes les méthodes sont transmises, sauf close() qui rend la connexion
+     */
+    private Connection envelopper(Connection reelle) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean rendue = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!rendue) {
+                            rendue = true;
+                            restituer(reelle);
+                        }
+                        return null;
+                    case "isClosed":
+                        return rendue || reelle.isClosed();
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(reelle)) {
+                            return reelle;
+                        }
+                        break;
+                    default:
+                        if (rendue) {
+                            throw new SQLException("Connexion déjà rendue au pool");
+                        }
+                }
+                try {
+                    return method.invoke(reelle, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    // ================================================================
+    // STATISTIQUES & FERMETURE
+    // ================================================================
+
+    /**
+     * Nombre de connexions actuellement empruntées
+     */
+    public int getNombreActives() {
+        return tailleMax - permis.availablePermits();
+    }
+
+    /**
+     * Nombre de connexions ouvertes en attente d'emprunt
+     */
+    public int getNombreLibres() {
+        return libres.size();
+    }
+
+    public int getTailleMax() {
+        return tailleMax;
+    }
+
+    /**
+     * Ferme toutes les connexions libres et refuse les nouveaux emprunts
+     */
+    public void fermer() {
+        ferme = true;
+        Connection c;
+        while ((c = libres.pollFirst()) != null) {
+            fermerSilencieusement(c);
+        }
+    }
+
+    private static void fermerSilencieusement(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException e) {
+            // Rien à faire : la connexion est de toute façon abandonnée
+        }
+    }
+
+    // ================================================================
+    // MÉTHODES DataSource NON UTILISÉES
+    // ================================================================
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Utiliser getConnection()");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Pas une instance de " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
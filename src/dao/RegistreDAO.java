@@ -0,0 +1,330 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * RegistreDAO : crée les DAO UNE fois et les partage dans toute l'application
+ *
+ * 💡 EXPLICATION :
+ * Avant, chaque écran faisait "new DonneurDAO()", chaque DAO créait son
+ * propre ActionLogDAO, DistributionDAO créait un StockSanguinDAO (qui
+ * créait encore un ActionLogDAO), et DonDAO.valider() créait deux DAO
+ * à chaque appel. Désormais :
+ * - Le registre possède la source de connexions (DataSource)
+ * - Il construit chaque DAO une seule fois, en lui donnant les DAO dont
+ *   il a besoin : un seul graphe d'objets par processus
+ * - Les DAO ne gardent AUCUNE connexion : à chaque méthode, ils demandent
+ *   registre.connexion(). Ils sont donc sans état et partageables entre threads
+ *
+ * Quelle connexion ?
+ * - Par défaut, la connexion partagée du registre (bureau : la connexion
+ *   unique de DatabaseConnection)
+ * - Un thread qui a besoin de SA connexion (requête de l'API, import dans
+ *   une transaction) la "lie" le temps du travail :
+ *       RegistreDAO.Liaison liaison = registre.lier(connexion);
+ *       try {
+ *           registre.getDonneurDAO().ajouter(donneur);
+ *       } finally {
+ *           liaison.close();
+ *       }
+ *   (try/finally plutôt que try-with-resources : la liaison n'est pas lue
+ *   dans le bloc, javac -Xlint:try le signalerait)
+ *
+ * Pour remplacer une couche (DAO instrumenté, avec cache...), il suffit
+ * de changer sa construction ici : les écrans et services ne créent plus
+ * de DAO eux-mêmes.
+ *
+ * @author dteach
+ */
+public final class RegistreDAO {
+
+    // ============ REGISTRE DE L'APPLICATION ============
+    private static volatile RegistreDAO instance;
+
+    private final DataSource source;
+    private final Dialecte dialecte;
+
+    // 💡 Connexion liée au thread courant (voir lier), sinon la connexion partagée
+    private final ThreadLocal<Connection> connexionLiee = new ThreadLocal<>();
+    private volatile Connection connexionPartagee;
+
+    // ============ LES DAO (un exemplaire de chaque) ============
+    private final ActionLogDAO actionLogDAO;
+    private final JournalModificationsDAO journalDAO;
+    private final EligibiliteDAO eligibiliteDAO;
+    private final CumulMensuelDAO cumulMensuelDAO;
+    private final MouvementStockDAO mouvementStockDAO;
+    private final InstantaneStockDAO instantaneStockDAO;
+    private final StockSanguinDAO stockSanguinDAO;
+    private final DonneurDAO donneurDAO;
+    private final DonDAO donDAO;
+    private final DistributionDAO distributionDAO;
+    private final HopitalDAO hopitalDAO;
+    private final AlerteDAO alerteDAO;
+    private final UtilisateurDAO utilisateurDAO;
+    private final ArchiveDAO archiveDAO;
+
+    /**
+     * Registre sur une source de connexions, dialecte déduit de l'URL configurée
+     */
+    public RegistreDAO(DataSource source) {
+        this(source, Dialecte.pour(DatabaseConnection.getUrl()));
+    }
+
+    /**
+     * @param source D'où viennent les connexions (connexion unique ou pool)
+     * @param dialecte Dialecte SQL de la base
+     */
+    public RegistreDAO(DataSource source, Dialecte dialecte) {
+        this.source = source;
+        this.dialecte = dialecte;
+
+        // 💡 Dans l'ordre des dépendances : chaque DAO reçoit ceux qu'il utilise
+        this.actionLogDAO = new ActionLogDAO(this);
+        this.journalDAO = new JournalModificationsDAO(this);
+        this.eligibiliteDAO = new EligibiliteDAO(this, dialecte, journalDAO);
+        this.cumulMensuelDAO = new CumulMensuelDAO(this, dialecte, actionLogDAO, journalDAO);
+        this.mouvementStockDAO = new MouvementStockDAO(this, actionLogDAO, cumulMensuelDAO, journalDAO);
+        this.instantaneStockDAO = new InstantaneStockDAO(this, journalDAO);
+        this.stockSanguinDAO = new StockSanguinDAO(this, actionLogDAO, mouvementStockDAO);
+        this.donneurDAO = new DonneurDAO(this, actionLogDAO, eligibiliteDAO, journalDAO);
+        this.donDAO = new DonDAO(this, actionLogDAO, eligibiliteDAO, donneurDAO, stockSanguinDAO,
+            cumulMensuelDAO, journalDAO);
+        this.distributionDAO = new DistributionDAO(this, actionLogDAO, stockSanguinDAO, cumulMensuelDAO,
+            journalDAO);
+        this.hopitalDAO = new HopitalDAO(this, actionLogDAO, journalDAO);
+        this.alerteDAO = new AlerteDAO(this);
+        this.utilisateurDAO = new UtilisateurDAO(this, actionLogDAO);
+        this.archiveDAO = new ArchiveDAO(this, actionLogDAO, journalDAO);
+    }
+
+    // ================================================================
+    // REGISTRE DE L'APPLICATION
+    // ================================================================
+
+    /**
+     * Le registre de l'application
+     * 💡 Créé au premier appel, sur la connexion unique (DatabaseConnection)
+     */
+    public static RegistreDAO get() {
+        RegistreDAO r = instance;
+        if (r == null) {
+            synchronized (RegistreDAO.class) {
+                r = instance;
+                if (r == null) {
+                    r = new RegistreDAO(new SourceConnexionUnique(DatabaseConnection::getConnection));
+                    instance = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Remplace le registre de l'application (ex: mode serveur, sur un pool)
+     */
+    public static void installer(RegistreDAO registre) {
+        synchronized (RegistreDAO.class) {
+            instance = registre;
+        }
+    }
+
+    /**
+     * Registre indépendant sur une connexion déjà ouverte (benchmarks, outils)
+     */
+    public static RegistreDAO sur(Connection connection) {
+        return new RegistreDAO(new SourceConnexionUnique(() -> connection), Dialecte.de(connection));
+    }
+
+    // ================================================================
+    // CONNEXIONS
+    // ================================================================
+
+    /**
+     * Connexion à utiliser par les DAO pour le thread courant
+     * @return La connexion liée au thread, sinon la connexion partagée (null si la base est injoignable)
+     */
+    Connection connexion() {
+        Connection liee = connexionLiee.get();
+        return liee != null ? liee : connexionPartagee();
+    }
+
+    private Connection connexionPartagee() {
+        Connection c = connexionPartagee;
+        try {
+            if (c == null || c.isClosed()) {
+                synchronized (this) {
+                    c = connexionPartagee;
+                    if (c == null || c.isClosed()) {
+                        c = source.getConnection();
+                        connexionPartagee = c;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ Connexion à la base indisponible : " + e.getMessage());
+            return null;
+        }
+        return c;
+    }
+
+    /**
+     * Lie une connexion au thread courant : les DAO l'utilisent jusqu'à close()
+     *
+     * 💡 Comme ContexteAppel, la liaison précédente est rétablie à la fin
+     *    (des liaisons imbriquées fonctionnent)
+     */
+    public Liaison lier(Connection connection) {
+        Connection precedente = connexionLiee.get();
+        connexionLiee.set(connection);
+        return new Liaison(precedente);
+    }
+
+    /**
+     * Fin d'une liaison (close() dans un finally, voir l'exemple en tête de classe)
+     */
+    public final class Liaison implements AutoCloseable {
+        private final Connection precedente;
+
+        private Liaison(Connection precedente) {
+            this.precedente = precedente;
+        }
+
+        @Override
+        public void close() {
+            if (precedente == null) {
+                connexionLiee.remove();
+            } else {
+                connexionLiee.set(precedente);
+            }
+        }
+    }
+
+    /**
+     * Un travail à faire sur une connexion, dans une transaction
+     */
+    @FunctionalInterface
+    interface Travail<T> {
+        T executer(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Exécute un travail dans UNE transaction sur la connexion courante
+     *
+     * 💡 Si l'appelant a déjà ouvert une transaction (autocommit désactivé,
+     *    ex: import CSV), le travail en fait partie et c'est l'appelant qui
+     *    valide. Sinon : commit à la fin, rollback en cas d'erreur.
+     */
+    <T> T enTransaction(Travail<T> travail) throws SQLException {
+        Connection connection = connexion();
+        if (connection == null) {
+            throw new SQLException("Connexion à la base indisponible");
+        }
+        if (!connection.getAutoCommit()) {
+            return travail.executer(connection);
+        }
+        connection.setAutoCommit(false);
+        try {
+            T resultat = travail.executer(connection);
+            connection.commit();
+            return resultat;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Libère les connexions du registre (mode serveur : rend la connexion partagée et ferme le pool)
+     * 💡 La connexion unique du bureau reste gérée par DatabaseConnection.closeConnection()
+     */
+    public void fermer() {
+        if (source instanceof PoolConnexions) {
+            Connection c = connexionPartagee;
+            connexionPartagee = null;
+            if (c != null) {
+                try {
+                    c.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            ((PoolConnexions) source).fermer();
+        }
+    }
+
+    // ================================================================
+    // ACCESSEURS
+    // ================================================================
+
+    public DataSource getSource() {
+        return source;
+    }
+
+    public Dialecte getDialecte() {
+        return dialecte;
+    }
+
+    public ActionLogDAO getActionLogDAO() {
+        return actionLogDAO;
+    }
+
+    public EligibiliteDAO getEligibiliteDAO() {
+        return eligibiliteDAO;
+    }
+
+    public CumulMensuelDAO getCumulMensuelDAO() {
+        return cumulMensuelDAO;
+    }
+
+    public MouvementStockDAO getMouvementStockDAO() {
+        return mouvementStockDAO;
+    }
+
+    public InstantaneStockDAO getInstantaneStockDAO() {
+        return instantaneStockDAO;
+    }
+
+    public StockSanguinDAO getStockSanguinDAO() {
+        return stockSanguinDAO;
+    }
+
+    public DonneurDAO getDonneurDAO() {
+        return donneurDAO;
+    }
+
+    public DonDAO getDonDAO() {
+        return donDAO;
+    }
+
+    public DistributionDAO getDistributionDAO() {
+        return distributionDAO;
+    }
+
+    public HopitalDAO getHopitalDAO() {
+        return hopitalDAO;
+    }
+
+    public AlerteDAO getAlerteDAO() {
+        return alerteDAO;
+    }
+
+    public UtilisateurDAO getUtilisateurDAO() {
+        return utilisateurDAO;
+    }
+
+    public ArchiveDAO getArchiveDAO() {
+        return archiveDAO;
+    }
+
+    public JournalModificationsDAO getJournalModificationsDAO() {
+        return journalDAO;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SchemaEmbarque : crée les tables de la base embarquée au premier démarrage
+ *
+ * 💡 EXPLICATION :
+ * Avec MySQL, la base est créée à la main (database/bloodplus.sql).
+ * Une base embarquée (un simple fichier, sans serveur) doit être prête
+ * toute seule : à la première connexion, on exécute le script
+ * schema-embarque.sql livré avec l'application.
+ *
+ * Le script n'utilise que "CREATE ... IF NOT EXISTS" (et "ADD COLUMN IF NOT
+ * EXISTS" pour les colonnes ajoutées depuis) : le relancer sur une
+ * base existante ne change rien. On ne le lance qu'une fois par base et par
+ * démarrage de l'application.
+ *
+ * @author dteach
+ */
+public class SchemaEmbarque {
+
+    private static final String SCRIPT = "schema-embarque.sql";
+
+    // URL des bases déjà initialisées depuis le démarrage
+    private static final Set<String> initialisees = new HashSet<>();
+
+    private SchemaEmbarque() {
+    }
+
+    /**
+     * Crée le schéma si ce n'est pas déjà fait pour cette base
+     *
+     * @param connection Une connexion ouverte sur la base embarquée
+     * @param url L'URL de la base (sert à ne l'initialiser qu'une fois)
+     */
+    public static synchronized void initialiser(Connection connection, String url) throws SQLException {
+        if (initialisees.contains(url)) {
+            return;
+        }
+        List<String> instructions = lireScript();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : instructions) {
+                stmt.execute(sql);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        initialisees.add(url);
+        System.out.println("✅ Base embarquée prête (" + instructions.size() + " instructions de schéma)");
+    }
+
+    /**
+     * Découpe le script en instructions (une instruction se termine par ";" en fin de ligne)
+     * 💡 Les lignes de commentaire "--" sont ignorées
+     */
+    private static List<String> lireScript() throws SQLException {
+        List<String> instructions = new ArrayList<>();
+        try (InputStream in = SchemaEmbarque.class.getResourceAsStream(SCRIPT)) {
+            if (in == null) {
+                throw new SQLException("Script de schéma introuvable : " + SCRIPT);
+            }
+            BufferedReader lecteur = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            StringBuilder courante = new StringBuilder();
+            String ligne;
+            while ((ligne = lecteur.readLine()) != null) {
+                String texte = ligne.trim();
+                if (texte.isEmpty() || texte.startsWith("--")) {
+                    continue;
+                }
+                courante.append(texte).append(' ');
+                if (texte.endsWith(";")) {
+                    instructions.add(courante.substring(0, courante.lastIndexOf(";")).trim());
+                    courante.setLength(0);
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Lecture du script de schéma impossible", e);
+        }
+        return instructions;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Package DAO : Data Access Object
+ */
+package dao;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * SourceConnexionUnique : présente la connexion unique de l'application comme une DataSource
+ *
+ * 💡 EXPLICATION :
+ * L'application de bureau travaille avec UNE connexion (DatabaseConnection),
+ * le mode serveur avec un pool (PoolConnexions). Le RegistreDAO ne connaît
+ * que des DataSource : cette petite classe fait le lien pour le bureau.
+ *
+ * ⚠️ getConnection() rend toujours la MÊME connexion : elle ne doit pas être
+ *    fermée par l'appelant (DatabaseConnection.closeConnection() s'en charge).
+ *
+ * @author dteach
+ */
+public class SourceConnexionUnique implements DataSource {
+
+    private final Supplier<Connection> fournisseur;
+
+    /**
+     * @param fournisseur Donne la connexion (ex: DatabaseConnection::getConnection)
+     */
+    public SourceConnexionUnique(Supplier<Connection> fournisseur) {
+        this.fournisseur = fournisseur;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = fournisseur.get();
+        if (connection == null) {
+            throw new SQLException("Connexion à la base indisponible");
+        }
+        return connection;
+    }
+
+    // ================================================================
+    // MÉTHODES DataSource NON UTILISÉES
+    // ================================================================
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Utiliser getConnection()");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Pas une instance de " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
@@ -4,8 +4,10 @@
 package dao;
 
 import model.ActionLog;
+import model.MouvementStock;
 import model.StockSanguin;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,16 +17,24 @@ import java.util.List;
  * 💡 C'est l'un des DAO les plus importants car il gère le cœur de l'application :
  *    le stock de sang disponible
  * 
+ * 💡 Chaque écriture ajoute aussi un mouvement au journal mouvements_stock,
+ *    dans la même transaction (voir MouvementStockDAO)
+ * 
  * @author dteach
  */
 public class StockSanguinDAO {
     
-    private Connection connection;
-    private ActionLogDAO actionLogDAO;
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    private final MouvementStockDAO mouvementDAO;
     
-    public StockSanguinDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        this.actionLogDAO = new ActionLogDAO();
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getStockSanguinDAO())
+     */
+    StockSanguinDAO(RegistreDAO registre, ActionLogDAO actionLogDAO, MouvementStockDAO mouvementDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
+        this.mouvementDAO = mouvementDAO;
     }
     
     // ================================================================
@@ -34,28 +44,36 @@ public class StockSanguinDAO {
     public boolean ajouter(StockSanguin stock) {
         String sql = "INSERT INTO stocks_sanguins (groupe_sanguin, quantite, date_prelevement, date_peremption, don_id, statut) VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, stock.getGroupeSanguin());
-            pstmt.setInt(2, stock.getQuantite());
-            pstmt.setDate(3, new java.sql.Date(stock.getDatePrelevement().getTime()));
-            pstmt.setDate(4, new java.sql.Date(stock.getDatePeremption().getTime()));
-            
-            if (stock.getDonId() > 0) {
-                pstmt.setInt(5, stock.getDonId());
-            } else {
-                pstmt.setNull(5, Types.INTEGER);
-            }
-            
-            pstmt.setString(6, stock.getStatut());
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected > 0) {
-                ResultSet rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    stock.setId(rs.getInt(1));
+        try {
+            boolean ajoute = registre.enTransaction(connection -> {
+                try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    
+                    pstmt.setString(1, stock.getGroupeSanguin());
+                    pstmt.setInt(2, stock.getQuantite());
+                    pstmt.setObject(3, stock.getDatePrelevement());
+                    pstmt.setObject(4, stock.getDatePeremption());
+                    
+                    if (stock.getDonId() > 0) {
+                        pstmt.setInt(5, stock.getDonId());
+                    } else {
+                        pstmt.setNull(5, Types.INTEGER);
+                    }
+                    
+                    pstmt.setString(6, stock.getStatut());
+                    
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                    ResultSet rs = pstmt.getGeneratedKeys();
+                    if (rs.next()) {
+                        stock.setId(rs.getInt(1));
+                    }
                 }
-                
+                mouvementDAO.journaliser(connection, stock.getId(), MouvementStock.TYPE_ENTREE, stock.getQuantite());
+                return true;
+            });
+            
+            if (ajoute) {
                 // Enregistrer l'action
                 actionLogDAO.logAjout(ActionLog.ENTITE_STOCK, 
                     "Ajout au stock: " + stock.getQuantite() + "ml de " + stock.getGroupeSanguin());
@@ -77,11 +95,13 @@ public class StockSanguinDAO {
      * Récupère tout le stock disponible
      */
     public List<StockSanguin> listerDisponible() {
+        Connection connection = registre.connexion();
         List<StockSanguin> stocks = new ArrayList<>();
-        String sql = "SELECT * FROM stocks_sanguins WHERE statut = 'DISPONIBLE' AND date_peremption >= CURDATE() ORDER BY date_peremption ASC";
+        String sql = "SELECT * FROM stocks_sanguins WHERE statut = 'DISPONIBLE' AND date_peremption >= ? ORDER BY date_peremption ASC";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, Dialecte.aujourdhui());
+            ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
                 stocks.add(extraireStock(rs));
@@ -97,6 +117,7 @@ public class StockSanguinDAO {
      * Récupère tout le stock (tous statuts)
      */
     public List<StockSanguin> listerTous() {
+        Connection connection = registre.connexion();
         List<StockSanguin> stocks = new ArrayList<>();
         String sql = "SELECT * FROM stocks_sanguins ORDER BY date_peremption ASC";
         
@@ -117,11 +138,13 @@ public class StockSanguinDAO {
      * Récupère le stock par groupe sanguin
      */
     public List<StockSanguin> trouverParGroupe(String groupeSanguin) {
+        Connection connection = registre.connexion();
         List<StockSanguin> stocks = new ArrayList<>();
-        String sql = "SELECT * FROM stocks_sanguins WHERE groupe_sanguin = ? AND statut = 'DISPONIBLE' AND date_peremption >= CURDATE()";
+        String sql = "SELECT * FROM stocks_sanguins WHERE groupe_sanguin = ? AND statut = 'DISPONIBLE' AND date_peremption >= ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, groupeSanguin);
+            pstmt.setObject(2, Dialecte.aujourdhui());
             ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
@@ -138,10 +161,12 @@ public class StockSanguinDAO {
      * 💡 IMPORTANT : Calcule la quantité totale disponible par groupe sanguin
      */
     public int getQuantiteTotaleParGroupe(String groupeSanguin) {
-        String sql = "SELECT COALESCE(SUM(quantite), 0) FROM stocks_sanguins WHERE groupe_sanguin = ? AND statut = 'DISPONIBLE' AND date_peremption >= CURDATE()";
+        Connection connection = registre.connexion();
+        String sql = "SELECT COALESCE(SUM(quantite), 0) FROM stocks_sanguins WHERE groupe_sanguin = ? AND statut = 'DISPONIBLE' AND date_peremption >= ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, groupeSanguin);
+            pstmt.setObject(2, Dialecte.aujourdhui());
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
@@ -159,15 +184,17 @@ public class StockSanguinDAO {
      * Retourne un tableau : [groupe, quantité totale]
      */
     public List<Object[]> getResumeStock() {
+        Connection connection = registre.connexion();
         List<Object[]> resume = new ArrayList<>();
         String sql = "SELECT groupe_sanguin, COALESCE(SUM(quantite), 0) as total " +
                      "FROM stocks_sanguins " +
-                     "WHERE statut = 'DISPONIBLE' AND date_peremption >= CURDATE() " +
+                     "WHERE statut = 'DISPONIBLE' AND date_peremption >= ? " +
                      "GROUP BY groupe_sanguin " +
                      "ORDER BY groupe_sanguin";
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setObject(1, Dialecte.aujourdhui());
+            ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
                 Object[] ligne = new Object[2];
@@ -186,14 +213,16 @@ public class StockSanguinDAO {
      * Récupère les stocks qui vont bientôt périmer (dans les X jours)
      */
     public List<StockSanguin> getStocksProchesPeremption(int joursAvant) {
+        Connection connection = registre.connexion();
         List<StockSanguin> stocks = new ArrayList<>();
         String sql = "SELECT * FROM stocks_sanguins " +
                      "WHERE statut = 'DISPONIBLE' " +
-                     "AND date_peremption BETWEEN CURDATE() AND DATE_ADD(CURDATE(), INTERVAL ? DAY) " +
+                     "AND date_peremption BETWEEN ? AND ? " +
                      "ORDER BY date_peremption ASC";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, joursAvant);
+            pstmt.setObject(1, Dialecte.aujourdhui());
+            pstmt.setObject(2, Dialecte.dansJours(joursAvant));
             ResultSet rs = pstmt.executeQuery();
             
             while (rs.next()) {
@@ -213,14 +242,26 @@ public class StockSanguinDAO {
     public boolean modifier(StockSanguin stock) {
         String sql = "UPDATE stocks_sanguins SET groupe_sanguin=?, quantite=?, date_peremption=?, statut=? WHERE id=?";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, stock.getGroupeSanguin());
-            pstmt.setInt(2, stock.getQuantite());
-            pstmt.setDate(3, new java.sql.Date(stock.getDatePeremption().getTime()));
-            pstmt.setString(4, stock.getStatut());
-            pstmt.setInt(5, stock.getId());
+        try {
+            boolean modifie = registre.enTransaction(connection -> {
+                StockSanguin avant = verrouiller(connection, stock.getId());
+                if (avant == null) {
+                    return false;
+                }
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setString(1, stock.getGroupeSanguin());
+                    pstmt.setInt(2, stock.getQuantite());
+                    pstmt.setObject(3, stock.getDatePeremption());
+                    pstmt.setString(4, stock.getStatut());
+                    pstmt.setInt(5, stock.getId());
+                    pstmt.executeUpdate();
+                }
+                mouvementDAO.journaliser(connection, stock.getId(),
+                    typeModification(avant.getStatut(), stock.getStatut()), stock.getQuantite() - avant.getQuantite());
+                return true;
+            });
             
-            if (pstmt.executeUpdate() > 0) {
+            if (modifie) {
                 actionLogDAO.logModification(ActionLog.ENTITE_STOCK, 
                     "Modification du stock ID:" + stock.getId() + " (" + stock.getGroupeSanguin() + ")");
                 return true;
@@ -232,15 +273,42 @@ public class StockSanguinDAO {
         return false;
     }
     
+    /**
+     * Type du mouvement enregistré pour une modification de la fiche
+     * 💡 Un changement de statut est un mouvement "métier", le reste une correction
+     */
+    private static String typeModification(String statutAvant, String statutApres) {
+        if (statutApres != null && !statutApres.equals(statutAvant)) {
+            switch (statutApres) {
+                case StockSanguin.STATUT_RESERVE:
+                    return MouvementStock.TYPE_RESERVATION;
+                case StockSanguin.STATUT_UTILISE:
+                    return MouvementStock.TYPE_PRELEVEMENT;
+                case StockSanguin.STATUT_PERIME:
+                    return MouvementStock.TYPE_PEREMPTION;
+                default:
+                    break;
+            }
+        }
+        return MouvementStock.TYPE_AJUSTEMENT;
+    }
+    
     /**
      * Marquer un stock comme utilisé
+     * 💡 Tout le volume restant sort du stock : la poche est vide ensuite
      */
     public boolean marquerUtilise(int stockId) {
-        String sql = "UPDATE stocks_sanguins SET statut = 'UTILISE' WHERE id = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, stockId);
-            if (pstmt.executeUpdate() > 0) {
+        try {
+            boolean utilise = registre.enTransaction(connection -> {
+                StockSanguin avant = verrouiller(connection, stockId);
+                if (avant == null) {
+                    return false;
+                }
+                prelever(connection, stockId, avant.getQuantite(), avant.getQuantite());
+                return true;
+            });
+            
+            if (utilise) {
                 actionLogDAO.log(ActionLog.ACTION_UTILISER, ActionLog.ENTITE_STOCK, 
                     "Stock ID:" + stockId + " marqué comme utilisé");
                 return true;
@@ -253,12 +321,21 @@ public class StockSanguinDAO {
     
     /**
      * Marquer les stocks périmés automatiquement
+     * 💡 Le volume des poches périmées sort du stock (mouvement PEREMPTION)
      */
     public int marquerPerimes() {
-        String sql = "UPDATE stocks_sanguins SET statut = 'PERIME' WHERE date_peremption < CURDATE() AND statut = 'DISPONIBLE'";
+        LocalDate aujourdhui = Dialecte.aujourdhui();
+        String sql = "UPDATE stocks_sanguins SET statut = 'PERIME', quantite = 0 WHERE date_peremption < ? AND statut = 'DISPONIBLE'";
         
-        try (Statement stmt = connection.createStatement()) {
-            return stmt.executeUpdate(sql);
+        try {
+            return registre.enTransaction(connection -> {
+                // Journal d'abord : il recopie le volume avant qu'il soit remis à zéro
+                mouvementDAO.journaliserPeremptions(connection, aujourdhui);
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setObject(1, aujourdhui);
+                    return pstmt.executeUpdate();
+                }
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -272,9 +349,16 @@ public class StockSanguinDAO {
     public boolean supprimer(int id) {
         String sql = "DELETE FROM stocks_sanguins WHERE id = ?";
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-            if (pstmt.executeUpdate() > 0) {
+        try {
+            boolean supprime = registre.enTransaction(connection -> {
+                mouvementDAO.journaliserSuppression(connection, id);
+                try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    pstmt.setInt(1, id);
+                    return pstmt.executeUpdate() > 0;
+                }
+            });
+            
+            if (supprime) {
                 actionLogDAO.logSuppression(ActionLog.ENTITE_STOCK, 
                     "Suppression du stock ID:" + id);
                 return true;
@@ -291,6 +375,10 @@ public class StockSanguinDAO {
     
     /**
      * Diminue le stock d'un groupe sanguin pour une distribution
+     * 
+     * 💡 Les poches sont verrouillées (FOR UPDATE) puis vidées dans l'ordre,
+     *    chaque prélèvement étant journalisé dans la même transaction
+     * 
      * @param groupeSanguin le groupe sanguin
      * @param quantite la quantité à soustraire en ml
      * @return true si réussi
@@ -299,36 +387,41 @@ public class StockSanguinDAO {
         // Trouver les poches disponibles de ce groupe, les plus anciennes d'abord
         String sqlSelect = "SELECT id, quantite FROM stocks_sanguins " +
                           "WHERE groupe_sanguin = ? AND statut = 'DISPONIBLE' " +
-                          "ORDER BY date_peremption ASC";
+                          "ORDER BY date_peremption ASC FOR UPDATE";
         
-        int resteADistribuer = quantite;
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sqlSelect)) {
-            pstmt.setString(1, groupeSanguin);
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next() && resteADistribuer > 0) {
-                int stockId = rs.getInt("id");
-                int stockQuantite = rs.getInt("quantite");
+        try {
+            List<Integer> videes = new ArrayList<>();
+            int resteADistribuer = registre.enTransaction(connection -> {
+                List<int[]> poches = new ArrayList<>();
+                try (PreparedStatement pstmt = connection.prepareStatement(sqlSelect)) {
+                    pstmt.setString(1, groupeSanguin);
+                    ResultSet rs = pstmt.executeQuery();
+                    while (rs.next()) {
+                        poches.add(new int[] {rs.getInt("id"), rs.getInt("quantite")});
+                    }
+                }
                 
-                if (stockQuantite <= resteADistribuer) {
-                    // Cette poche est entièrement utilisée
-                    marquerUtilise(stockId);
-                    resteADistribuer -= stockQuantite;
-                } else {
-                    // Diminuer partiellement cette poche
-                    int nouvelleQuantite = stockQuantite - resteADistribuer;
-                    String sqlUpdate = "UPDATE stocks_sanguins SET quantite = ? WHERE id = ?";
-                    try (PreparedStatement pstmtUpdate = connection.prepareStatement(sqlUpdate)) {
-                        pstmtUpdate.setInt(1, nouvelleQuantite);
-                        pstmtUpdate.setInt(2, stockId);
-                        pstmtUpdate.executeUpdate();
+                int reste = quantite;
+                for (int[] poche : poches) {
+                    if (reste <= 0) {
+                        break;
                     }
-                    resteADistribuer = 0;
+                    int preleve = Math.min(poche[1], reste);
+                    prelever(connection, poche[0], poche[1], preleve);
+                    if (preleve == poche[1]) {
+                        // Cette poche est entièrement utilisée
+                        videes.add(poche[0]);
+                    }
+                    reste -= preleve;
                 }
-            }
+                return reste;
+            });
             
-            if (resteADistribuer == 0) {
+            for (int stockId : videes) {
+                actionLogDAO.log(ActionLog.ACTION_UTILISER, ActionLog.ENTITE_STOCK, 
+                    "Stock ID:" + stockId + " marqué comme utilisé");
+            }
+            if (resteADistribuer <= 0) {
                 actionLogDAO.log(ActionLog.ACTION_UTILISER, ActionLog.ENTITE_STOCK, 
                     "Distribution de " + quantite + "ml de " + groupeSanguin);
                 return true;
@@ -340,17 +433,46 @@ public class StockSanguinDAO {
         return false;
     }
     
+    /**
+     * Prélève du sang dans une poche et journalise le prélèvement
+     * 💡 Poche vidée = statut UTILISE
+     */
+    private void prelever(Connection connection, int stockId, int quantitePoche, int preleve) throws SQLException {
+        boolean videe = preleve >= quantitePoche;
+        String sql = "UPDATE stocks_sanguins SET quantite = ?, statut = ? WHERE id = ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, videe ? 0 : quantitePoche - preleve);
+            pstmt.setString(2, videe ? StockSanguin.STATUT_UTILISE : StockSanguin.STATUT_DISPONIBLE);
+            pstmt.setInt(3, stockId);
+            pstmt.executeUpdate();
+        }
+        mouvementDAO.journaliser(connection, stockId, MouvementStock.TYPE_PRELEVEMENT, -preleve);
+    }
+    
+    /**
+     * Relit une poche en la verrouillant jusqu'à la fin de la transaction
+     * @return La poche, ou null si elle n'existe pas
+     */
+    private static StockSanguin verrouiller(Connection connection, int stockId) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT * FROM stocks_sanguins WHERE id = ? FOR UPDATE")) {
+            pstmt.setInt(1, stockId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? extraireStock(rs) : null;
+        }
+    }
+    
     // ================================================================
     // MÉTHODE UTILITAIRE
     // ================================================================
     
-    private StockSanguin extraireStock(ResultSet rs) throws SQLException {
+    static StockSanguin extraireStock(ResultSet rs) throws SQLException {
         StockSanguin stock = new StockSanguin();
         stock.setId(rs.getInt("id"));
         stock.setGroupeSanguin(rs.getString("groupe_sanguin"));
         stock.setQuantite(rs.getInt("quantite"));
-        stock.setDatePrelevement(rs.getDate("date_prelevement"));
-        stock.setDatePeremption(rs.getDate("date_peremption"));
+        stock.setDatePrelevement(rs.getObject("date_prelevement", LocalDate.class));
+        stock.setDatePeremption(rs.getObject("date_peremption", LocalDate.class));
         stock.setDonId(rs.getInt("don_id"));
         stock.setStatut(rs.getString("statut"));
         return stock;
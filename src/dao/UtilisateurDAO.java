@@ -7,6 +7,7 @@ import model.ActionLog;
 import model.Utilisateur;
 import utils.PasswordUtils;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,12 +18,19 @@ import java.util.List;
  */
 public class UtilisateurDAO {
     
-    private Connection connection;
-    private ActionLogDAO actionLogDAO;
+    // 💡 Un seul DAO par registre, donc un seul cache : les comptes changent rarement
+    private final CacheReference<Utilisateur> cache =
+        new CacheReference<>("utilisateurs", Utilisateur::getId, Utilisateur::new);
     
-    public UtilisateurDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        this.actionLogDAO = new ActionLogDAO();
+    private final RegistreDAO registre;
+    private final ActionLogDAO actionLogDAO;
+    
+    /**
+     * Créé une seule fois, par le RegistreDAO (RegistreDAO.get().getUtilisateurDAO())
+     */
+    UtilisateurDAO(RegistreDAO registre, ActionLogDAO actionLogDAO) {
+        this.registre = registre;
+        this.actionLogDAO = actionLogDAO;
     }
     
     // ================================================================
@@ -38,6 +46,7 @@ public class UtilisateurDAO {
      * @return L'utilisateur si authentifié, null sinon
      */
     public Utilisateur authentifier(String username, String password) {
+        Connection connection = registre.connexion();
         // 🔐 Nouvelle méthode avec hachage sécurisé
         String sql = "SELECT * FROM utilisateurs WHERE username = ? AND actif = true";
         
@@ -76,10 +85,37 @@ public class UtilisateurDAO {
         return null;
     }
     
+    /**
+     * Vérifie un couple identifiant / mot de passe SANS effet de bord
+     * (pas de migration, pas de mise à jour de la dernière connexion)
+     * 
+     * 💡 Utilisé par l'API HTTP qui vérifie l'identité à chaque requête
+     * 
+     * @return L'utilisateur si les identifiants sont bons, null sinon
+     */
+    public Utilisateur verifierIdentifiants(String username, String password) {
+        Connection connection = registre.connexion();
+        String sql = "SELECT * FROM utilisateurs WHERE username = ? AND actif = true";
+        
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            ResultSet rs = pstmt.executeQuery();
+            
+            if (rs.next() && PasswordUtils.verifyPassword(password, rs.getString("password"))) {
+                return extraireUtilisateur(rs);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("❌ Erreur de vérification des identifiants: " + e.getMessage());
+        }
+        return null;
+    }
+    
     /**
      * 🔐 Migre un mot de passe en clair vers le format hashé
      */
     private void migrerMotDePasse(int userId, String password) {
+        Connection connection = registre.connexion();
         String hashedPassword = PasswordUtils.hashPassword(password);
         String sql = "UPDATE utilisateurs SET password = ? WHERE id = ?";
         
@@ -87,6 +123,7 @@ public class UtilisateurDAO {
             pstmt.setString(1, hashedPassword);
             pstmt.setInt(2, userId);
             pstmt.executeUpdate();
+            cache.invalider(connection);
         } catch (SQLException e) {
             System.err.println("Erreur migration mot de passe: " + e.getMessage());
         }
@@ -96,11 +133,15 @@ public class UtilisateurDAO {
      * Met à jour la date de dernière connexion
      */
     private void mettreAJourDerniereConnexion(int userId) {
-        String sql = "UPDATE utilisateurs SET derniere_connexion = NOW() WHERE id = ?";
+        Connection connection = registre.connexion();
+        String sql = "UPDATE utilisateurs SET derniere_connexion = ? WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
+            pstmt.setObject(1, Dialecte.maintenant());
+            pstmt.setInt(2, userId);
             pstmt.executeUpdate();
+            // La liste des utilisateurs affiche la dernière connexion
+            cache.invalider(connection);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -111,6 +152,7 @@ public class UtilisateurDAO {
     // ================================================================
     
     public boolean ajouter(Utilisateur user) {
+        Connection connection = registre.connexion();
         String sql = "INSERT INTO utilisateurs (username, password, nom_complet, role, actif) VALUES (?, ?, ?, ?, ?)";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -129,6 +171,7 @@ public class UtilisateurDAO {
                     user.setId(rs.getInt(1));
                 }
                 System.out.println("✅ Utilisateur créé: " + user.getUsername());
+                cache.invalider(connection);
                 
                 // Enregistrer l'action
                 actionLogDAO.logAjout(ActionLog.ENTITE_UTILISATEUR, 
@@ -147,7 +190,18 @@ public class UtilisateurDAO {
         return false;
     }
     
+    /**
+     * Tous les utilisateurs, triés par rôle puis nom (lus dans le cache)
+     */
     public List<Utilisateur> listerTous() {
+        return cache.lister(registre.connexion(), this::lireTous);
+    }
+    
+    /**
+     * Lecture de toute la table (chargement du cache)
+     */
+    private List<Utilisateur> lireTous() throws SQLException {
+        Connection connection = registre.connexion();
         List<Utilisateur> utilisateurs = new ArrayList<>();
         String sql = "SELECT * FROM utilisateurs ORDER BY role, nom_complet";
         
@@ -157,14 +211,12 @@ public class UtilisateurDAO {
             while (rs.next()) {
                 utilisateurs.add(extraireUtilisateur(rs));
             }
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return utilisateurs;
     }
     
     public Utilisateur trouverParId(int id) {
+        Connection connection = registre.connexion();
         String sql = "SELECT * FROM utilisateurs WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -182,6 +234,7 @@ public class UtilisateurDAO {
     }
     
     public Utilisateur trouverParUsername(String username) {
+        Connection connection = registre.connexion();
         String sql = "SELECT * FROM utilisateurs WHERE username = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -199,6 +252,7 @@ public class UtilisateurDAO {
     }
     
     public boolean modifier(Utilisateur user) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE utilisateurs SET username=?, nom_complet=?, role=?, actif=? WHERE id=?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -209,6 +263,7 @@ public class UtilisateurDAO {
             pstmt.setInt(5, user.getId());
             
             if (pstmt.executeUpdate() > 0) {
+                cache.invalider(connection);
                 actionLogDAO.logModification(ActionLog.ENTITE_UTILISATEUR, 
                     "Modification de l'utilisateur: " + user.getUsername());
                 return true;
@@ -224,6 +279,7 @@ public class UtilisateurDAO {
      * Change le mot de passe d'un utilisateur
      */
     public boolean changerMotDePasse(int userId, String nouveauMotDePasse) {
+        Connection connection = registre.connexion();
         String sql = "UPDATE utilisateurs SET password = ? WHERE id = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -231,8 +287,11 @@ public class UtilisateurDAO {
             pstmt.setString(1, PasswordUtils.hashPassword(nouveauMotDePasse));
             pstmt.setInt(2, userId);
             
-            System.out.println("🔐 Mot de passe changé et hashé pour l'utilisateur ID: " + userId);
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() > 0) {
+                cache.invalider(connection);
+                System.out.println("🔐 Mot de passe changé et hashé pour l'utilisateur ID: " + userId);
+                return true;
+            }
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -241,6 +300,7 @@ public class UtilisateurDAO {
     }
     
     public boolean supprimer(int id) {
+        Connection connection = registre.connexion();
         // Récupérer l'utilisateur avant suppression pour le log
         Utilisateur user = trouverParId(id);
         String nomUser = user != null ? user.getUsername() : "ID:" + id;
@@ -250,6 +310,7 @@ public class UtilisateurDAO {
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             if (pstmt.executeUpdate() > 0) {
+                cache.invalider(connection);
                 actionLogDAO.logSuppression(ActionLog.ENTITE_UTILISATEUR, 
                     "Suppression de l'utilisateur: " + nomUser);
                 return true;
@@ -264,6 +325,7 @@ public class UtilisateurDAO {
      * Vérifie si un username existe déjà
      */
     public boolean usernameExiste(String username) {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM utilisateurs WHERE username = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -281,6 +343,7 @@ public class UtilisateurDAO {
     }
     
     public int compter() {
+        Connection connection = registre.connexion();
         String sql = "SELECT COUNT(*) FROM utilisateurs WHERE actif = true";
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -291,7 +354,7 @@ public class UtilisateurDAO {
         return 0;
     }
     
-    private Utilisateur extraireUtilisateur(ResultSet rs) throws SQLException {
+    static Utilisateur extraireUtilisateur(ResultSet rs) throws SQLException {
         Utilisateur user = new Utilisateur();
         user.setId(rs.getInt("id"));
         user.setUsername(rs.getString("username"));
@@ -299,8 +362,8 @@ public class UtilisateurDAO {
         user.setNomComplet(rs.getString("nom_complet"));
         user.setRole(rs.getString("role"));
         user.setActif(rs.getBoolean("actif"));
-        user.setDateCreation(rs.getTimestamp("date_creation"));
-        user.setDerniereConnexion(rs.getTimestamp("derniere_connexion"));
+        user.setDateCreation(rs.getObject("date_creation", LocalDateTime.class));
+        user.setDerniereConnexion(rs.getObject("derniere_connexion", LocalDateTime.class));
         return user;
     }
 }
@@ -0,0 +1,289 @@
+-- ============================================================
+-- 🩸 BLOODPLUS - Schéma de la base EMBARQUÉE (H2, mode MySQL)
+-- ============================================================
+-- Exécuté automatiquement par SchemaEmbarque au premier démarrage.
+-- Mêmes tables et mêmes index que database/bloodplus.sql, écrits
+-- en SQL portable :
+--   - pas d'ENUM (VARCHAR : les valeurs sont contrôlées par l'application)
+--   - pas de TEXT (VARCHAR long)
+--   - index créés à part, avec des noms uniques dans tout le schéma
+-- Une instruction par bloc terminé par ";" en fin de ligne.
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS donneurs (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    nom VARCHAR(100) NOT NULL,
+    prenom VARCHAR(100) NOT NULL,
+    date_naissance DATE,
+    sexe VARCHAR(1) DEFAULT 'M',
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    telephone VARCHAR(20),
+    email VARCHAR(150),
+    adresse VARCHAR(1000),
+    date_inscription DATETIME DEFAULT CURRENT_TIMESTAMP,
+    apte BOOLEAN DEFAULT TRUE,
+    telephone_normalise VARCHAR(20),
+    email_normalise VARCHAR(150),
+    nom_phonetique VARCHAR(100)
+);
+
+-- Bases créées avant les clés de dédoublonnage (calculées ensuite en tâche de fond, voir DedoublonnageService)
+ALTER TABLE donneurs ADD COLUMN IF NOT EXISTS telephone_normalise VARCHAR(20);
+ALTER TABLE donneurs ADD COLUMN IF NOT EXISTS email_normalise VARCHAR(150);
+ALTER TABLE donneurs ADD COLUMN IF NOT EXISTS nom_phonetique VARCHAR(100);
+
+CREATE TABLE IF NOT EXISTS dons (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    donneur_id INT NOT NULL,
+    date_don DATETIME NOT NULL,
+    quantite INT DEFAULT 450,
+    statut VARCHAR(20) DEFAULT 'EN_ATTENTE',
+    notes VARCHAR(1000),
+    FOREIGN KEY (donneur_id) REFERENCES donneurs(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS eligibilite_donneurs (
+    donneur_id INT PRIMARY KEY,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    apte BOOLEAN NOT NULL DEFAULT TRUE,
+    derniere_date_don DATETIME,
+    prochaine_date_eligible DATE NOT NULL,
+    nb_dons INT NOT NULL DEFAULT 0,
+    FOREIGN KEY (donneur_id) REFERENCES donneurs(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS stocks_sanguins (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    quantite INT NOT NULL,
+    date_prelevement DATE NOT NULL,
+    date_peremption DATE NOT NULL,
+    don_id INT,
+    statut VARCHAR(20) DEFAULT 'DISPONIBLE',
+    FOREIGN KEY (don_id) REFERENCES dons(id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS mouvements_stock (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    stock_id INT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    variation INT NOT NULL,
+    quantite INT NOT NULL,
+    statut VARCHAR(20) NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    date_prelevement DATE NOT NULL,
+    date_peremption DATE NOT NULL,
+    don_id INT,
+    date_mouvement DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS instantanes_stock (
+    jour DATE NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    date_peremption DATE NOT NULL,
+    quantite INT NOT NULL,
+    poches INT NOT NULL,
+    PRIMARY KEY (jour, groupe_sanguin, date_peremption)
+);
+
+CREATE TABLE IF NOT EXISTS hopitaux (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    nom VARCHAR(200) NOT NULL,
+    adresse VARCHAR(1000),
+    ville VARCHAR(100),
+    telephone VARCHAR(20),
+    email VARCHAR(150),
+    responsable VARCHAR(150),
+    actif BOOLEAN DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS distributions (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    hopital_id INT NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    quantite INT NOT NULL,
+    date_distribution DATETIME DEFAULT CURRENT_TIMESTAMP,
+    statut VARCHAR(20) DEFAULT 'EN_COURS',
+    motif VARCHAR(255),
+    FOREIGN KEY (hopital_id) REFERENCES hopitaux(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS cumuls_dons_mensuels (
+    mois INT NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    dons INT NOT NULL,
+    volume_collecte INT NOT NULL,
+    valides INT NOT NULL,
+    rejetes INT NOT NULL,
+    PRIMARY KEY (mois, groupe_sanguin)
+);
+
+CREATE TABLE IF NOT EXISTS cumuls_distributions_mensuels (
+    mois INT NOT NULL,
+    hopital_id INT NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    distributions INT NOT NULL,
+    volume INT NOT NULL,
+    annulees INT NOT NULL,
+    PRIMARY KEY (mois, hopital_id, groupe_sanguin)
+);
+
+CREATE TABLE IF NOT EXISTS cumuls_stock_mensuels (
+    mois INT NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    volume_entre INT NOT NULL,
+    volume_sorti INT NOT NULL,
+    volume_perime INT NOT NULL,
+    PRIMARY KEY (mois, groupe_sanguin)
+);
+
+CREATE TABLE IF NOT EXISTS cumuls_a_recalculer (
+    mois INT PRIMARY KEY,
+    marque_a DATETIME NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS dons_archives (
+    id INT PRIMARY KEY,
+    donneur_id INT NOT NULL,
+    date_don DATETIME NOT NULL,
+    quantite INT,
+    statut VARCHAR(20),
+    notes VARCHAR(1000),
+    archive_le DATETIME NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS stocks_sanguins_archives (
+    id INT PRIMARY KEY,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    quantite INT NOT NULL,
+    date_prelevement DATE NOT NULL,
+    date_peremption DATE NOT NULL,
+    don_id INT,
+    statut VARCHAR(20),
+    archive_le DATETIME NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS distributions_archives (
+    id INT PRIMARY KEY,
+    hopital_id INT NOT NULL,
+    groupe_sanguin VARCHAR(5) NOT NULL,
+    quantite INT NOT NULL,
+    date_distribution DATETIME,
+    statut VARCHAR(20),
+    motif VARCHAR(255),
+    archive_le DATETIME NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS journal_modifications (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    table_nom VARCHAR(64) NOT NULL,
+    colonne VARCHAR(64),
+    operateur VARCHAR(2) NOT NULL DEFAULT '=',
+    valeur VARCHAR(64),
+    note_le DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS alertes (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    type VARCHAR(30) NOT NULL,
+    message VARCHAR(1000) NOT NULL,
+    groupe_sanguin VARCHAR(5),
+    date_creation DATETIME DEFAULT CURRENT_TIMESTAMP,
+    lue BOOLEAN DEFAULT FALSE,
+    priorite VARCHAR(20) DEFAULT 'MOYENNE'
+);
+
+CREATE TABLE IF NOT EXISTS utilisateurs (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    nom_complet VARCHAR(150),
+    role VARCHAR(20) DEFAULT 'OPERATEUR',
+    actif BOOLEAN DEFAULT TRUE,
+    date_creation DATETIME DEFAULT CURRENT_TIMESTAMP,
+    derniere_connexion DATETIME
+);
+
+CREATE TABLE IF NOT EXISTS actions_log (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    utilisateur_id INT NOT NULL,
+    utilisateur_nom VARCHAR(150),
+    action VARCHAR(50) NOT NULL,
+    entite VARCHAR(50) NOT NULL,
+    description VARCHAR(1000),
+    date_action DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS versions_donnees (
+    nom VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- ============================================================
+-- INDEX (les mêmes que database/bloodplus.sql)
+-- ============================================================
+CREATE INDEX IF NOT EXISTS donneurs_groupe ON donneurs (groupe_sanguin);
+CREATE INDEX IF NOT EXISTS donneurs_nom ON donneurs (nom, prenom);
+CREATE INDEX IF NOT EXISTS donneurs_telephone ON donneurs (telephone);
+CREATE INDEX IF NOT EXISTS donneurs_email ON donneurs (email);
+CREATE INDEX IF NOT EXISTS donneurs_naissance ON donneurs (date_naissance);
+CREATE INDEX IF NOT EXISTS donneurs_telephone_normalise ON donneurs (telephone_normalise);
+CREATE INDEX IF NOT EXISTS donneurs_email_normalise ON donneurs (email_normalise);
+CREATE INDEX IF NOT EXISTS donneurs_nom_phonetique ON donneurs (nom_phonetique);
+CREATE INDEX IF NOT EXISTS dons_date ON dons (date_don);
+CREATE INDEX IF NOT EXISTS dons_statut ON dons (statut);
+CREATE INDEX IF NOT EXISTS dons_donneur_statut ON dons (donneur_id, statut, date_don);
+CREATE INDEX IF NOT EXISTS eligibilite_eligibles ON eligibilite_donneurs (apte, groupe_sanguin, prochaine_date_eligible);
+CREATE INDEX IF NOT EXISTS eligibilite_prochaine ON eligibilite_donneurs (prochaine_date_eligible);
+CREATE INDEX IF NOT EXISTS eligibilite_rappel ON eligibilite_donneurs (apte, groupe_sanguin, nb_dons, derniere_date_don);
+CREATE INDEX IF NOT EXISTS stocks_groupe ON stocks_sanguins (groupe_sanguin);
+CREATE INDEX IF NOT EXISTS stocks_peremption ON stocks_sanguins (date_peremption);
+CREATE INDEX IF NOT EXISTS stocks_statut ON stocks_sanguins (statut);
+CREATE INDEX IF NOT EXISTS mouvements_stock_poche ON mouvements_stock (stock_id);
+CREATE INDEX IF NOT EXISTS mouvements_stock_date ON mouvements_stock (date_mouvement);
+CREATE INDEX IF NOT EXISTS mouvements_stock_groupe_date ON mouvements_stock (groupe_sanguin, date_mouvement);
+CREATE INDEX IF NOT EXISTS hopitaux_ville ON hopitaux (ville);
+CREATE INDEX IF NOT EXISTS distributions_date ON distributions (date_distribution);
+CREATE INDEX IF NOT EXISTS distributions_hopital ON distributions (hopital_id);
+CREATE INDEX IF NOT EXISTS dons_archives_donneur ON dons_archives (donneur_id, statut, date_don);
+CREATE INDEX IF NOT EXISTS dons_archives_date ON dons_archives (date_don);
+CREATE INDEX IF NOT EXISTS stocks_archives_don ON stocks_sanguins_archives (don_id);
+CREATE INDEX IF NOT EXISTS stocks_archives_peremption ON stocks_sanguins_archives (date_peremption);
+CREATE INDEX IF NOT EXISTS distributions_archives_hopital ON distributions_archives (hopital_id);
+CREATE INDEX IF NOT EXISTS distributions_archives_date ON distributions_archives (date_distribution);
+CREATE INDEX IF NOT EXISTS journal_modifications_date ON journal_modifications (note_le);
+CREATE INDEX IF NOT EXISTS alertes_lue ON alertes (lue);
+CREATE INDEX IF NOT EXISTS alertes_priorite ON alertes (priorite);
+CREATE INDEX IF NOT EXISTS actions_log_utilisateur ON actions_log (utilisateur_id);
+CREATE INDEX IF NOT EXISTS actions_log_date ON actions_log (date_action);
+CREATE INDEX IF NOT EXISTS actions_log_action ON actions_log (action);
+CREATE INDEX IF NOT EXISTS actions_log_entite ON actions_log (entite);
+
+-- ============================================================
+-- COMPTE ADMINISTRATEUR INITIAL (à changer après la première connexion)
+-- ============================================================
+INSERT INTO utilisateurs (username, password, nom_complet, role)
+SELECT 'admin', 'admin123', 'Administrateur Système', 'ADMIN'
+WHERE NOT EXISTS (SELECT 1 FROM utilisateurs);
+
+-- ============================================================
+-- VERSIONS DES TABLES EN CACHE (voir dao.CacheReference)
+-- ============================================================
+INSERT INTO versions_donnees (nom, version)
+SELECT 'hopitaux', 0
+WHERE NOT EXISTS (SELECT 1 FROM versions_donnees WHERE nom = 'hopitaux');
+
+INSERT INTO versions_donnees (nom, version)
+SELECT 'utilisateurs', 0
+WHERE NOT EXISTS (SELECT 1 FROM versions_donnees WHERE nom = 'utilisateurs');
+
+-- ============================================================
+-- JOURNAL DU STOCK (voir dao.MouvementStockDAO)
+-- Poches créées avant le journal : une entrée avec leur état actuel
+-- ============================================================
+INSERT INTO mouvements_stock (stock_id, type, variation, quantite, statut, groupe_sanguin,
+                              date_prelevement, date_peremption, don_id, date_mouvement)
+SELECT s.id, 'ENTREE', s.quantite, s.quantite, COALESCE(s.statut, 'DISPONIBLE'), s.groupe_sanguin,
+       s.date_prelevement, s.date_peremption, s.don_id, s.date_prelevement
+FROM stocks_sanguins s
+WHERE NOT EXISTS (SELECT 1 FROM mouvements_stock m WHERE m.stock_id = s.id);
@@ -0,0 +1,105 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * EnregistreurJfr : démarre et arrête un enregistrement Java Flight Recorder
+ *
+ * 💡 EXPLICATION :
+ * JFR est l'enregistreur intégré à la JVM : quand l'utilisateur dit
+ * "l'application s'est figée", on lance un enregistrement depuis le menu
+ * Administration, on reproduit, puis on sauvegarde un fichier .jfr à
+ * ouvrir avec JDK Mission Control.
+ *
+ * Le fichier contient les événements de la JVM (GC, threads, CPU) et ceux
+ * de BloodPlus : requêtes SQL (RequeteSqlEvent), rechargements d'écran
+ * (RafraichissementEcranEvent) et tâches EDT lentes (TacheEdtEvent).
+ *
+ * Sans enregistrement, ces événements ne coûtent presque rien.
+ *
+ * @author dteach
+ */
+public final class EnregistreurJfr {
+
+    private static final DateTimeFormatter HORODATAGE = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final long SEUIL_EDT_MS = Long.getLong("bloodplus.jfr.seuilEdtMs", 100);
+
+    private static Recording enregistrement;
+
+    private EnregistreurJfr() {
+    }
+
+    /**
+     * true si un enregistrement lancé par l'application est en cours
+     */
+    public static synchronized boolean estActif() {
+        return enregistrement != null;
+    }
+
+    /**
+     * Démarre un enregistrement (profil "default" de la JVM + événements BloodPlus)
+     */
+    public static synchronized void demarrer() throws IOException {
+        if (enregistrement != null) {
+            return;
+        }
+        Recording r;
+        try {
+            r = new Recording(Configuration.getConfiguration("default"));
+        } catch (ParseException e) {
+            throw new IOException("Profil JFR illisible", e);
+        }
+        r.setName("BloodPlus");
+        r.enable(RequeteSqlEvent.class);
+        r.enable(RafraichissementEcranEvent.class);
+        r.enable(TacheEdtEvent.class).withThreshold(Duration.ofMillis(SEUIL_EDT_MS));
+        r.setToDisk(true);
+        r.start();
+        enregistrement = r;
+        System.out.println("✅ Enregistrement JFR démarré (tâches EDT > " + SEUIL_EDT_MS + " ms)");
+    }
+
+    /**
+     * Arrête l'enregistrement et l'écrit dans un fichier
+     *
+     * @param fichier le fichier .jfr à créer
+     */
+    public static synchronized void arreter(Path fichier) throws IOException {
+        if (enregistrement == null) {
+            return;
+        }
+        try {
+            if (fichier.getParent() != null) {
+                Files.createDirectories(fichier.getParent());
+            }
+            enregistrement.stop();
+            enregistrement.dump(fichier);
+            System.out.println("✅ Enregistrement JFR sauvegardé : " + fichier.toAbsolutePath());
+        } finally {
+            enregistrement.close();
+            enregistrement = null;
+        }
+    }
+
+    /**
+     * Nom de fichier proposé par défaut : bloodplus-AAAAMMJJ-HHMMSS.jfr
+     */
+    public static Path fichierParDefaut() {
+        String horodatage = HORODATAGE.format(LocalDateTime.now());
+        return Paths.get(System.getProperty("user.home"), "bloodplus-" + horodatage + ".jfr");
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+
+/**
+ * FileEvenementsInstrumentee : chronomètre chaque événement traité par l'EDT
+ *
+ * 💡 EXPLICATION :
+ * Tout ce que fait Swing (clic, dessin, invokeLater) passe par la file
+ * d'événements et s'exécute sur l'Event Dispatch Thread. Un événement
+ * long = une interface figée. En remplaçant la file par celle-ci, chaque
+ * événement est chronométré dans l'opération "EDT.dispatch".
+ * Pendant un enregistrement JFR, ceux qui dépassent le seuil deviennent
+ * des TacheEdtEvent. Le SurveillantEdt est prévenu du début et de la fin
+ * de chaque événement pour repérer les blocages.
+ *
+ * ⚠️ Une fenêtre modale (JOptionPane, JDialog) traite ses événements
+ *    À L'INTÉRIEUR de l'événement qui l'a ouverte : le temps passé dans la
+ *    fenêtre n'est pas un gel (l'utilisateur lit le message). La mesure de
+ *    cet événement s'arrête au premier événement imbriqué (avec la pile
+ *    capturée jusque-là), puis reprend à la fermeture de la fenêtre pour
+ *    compter le travail fait après (ex: la suppression après "Confirmer ?").
+ *
+ * @author dteach
+ */
+public class FileEvenementsInstrumentee extends EventQueue {
+
+    public static final String OPERATION = "EDT.dispatch";
+
+    private static final int PROFONDEUR_MAX = 64;
+
+    private final Metriques.Operation operation = Metriques.operation(OPERATION);
+    private final SurveillantEdt surveillant = SurveillantEdt.getInstance();
+
+    // Uniquement utilisés par l'EDT : pas de synchronisation
+    // 💡 Un niveau par événement imbriqué : [0] = événement normal, [1] = dans une fenêtre modale...
+    private int profondeur = 0;
+    private final boolean[] modal = new boolean[PROFONDEUR_MAX];
+    private final long[] debuts = new long[PROFONDEUR_MAX];
+    private final long[] sequences = new long[PROFONDEUR_MAX];
+    private final AWTEvent[] enCours = new AWTEvent[PROFONDEUR_MAX];
+    private final TacheEdtEvent[] taches = new TacheEdtEvent[PROFONDEUR_MAX];
+
+    /**
+     * Installe la file instrumentée et le surveillant (sans effet si les métriques sont désactivées)
+     */
+    public static void installer() {
+        if (Metriques.ACTIVES) {
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(new FileEvenementsInstrumentee());
+            SurveillantEdt.getInstance().demarrer();
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        // Un événement traité pendant un autre = boucle d'une fenêtre modale
+        if (profondeur > 0 && profondeur <= PROFONDEUR_MAX && !modal[profondeur - 1]) {
+            int parent = profondeur - 1;
+            modal[parent] = true;
+            // 💡 Le temps AVANT l'ouverture de la fenêtre est compté, avec la pile capturée pendant ce temps
+            terminer(taches[parent], sequences[parent], System.nanoTime() - debuts[parent], enCours[parent], false);
+        }
+        int niveau = profondeur++;
+
+        TacheEdtEvent tache = new TacheEdtEvent();
+        tache.begin();
+        long debut = System.nanoTime();
+        long sequence = surveillant.debutTraitement(debut);
+        if (niveau < PROFONDEUR_MAX) {
+            modal[niveau] = false;
+            debuts[niveau] = debut;
+            sequences[niveau] = sequence;
+            enCours[niveau] = event;
+            taches[niveau] = tache;
+        }
+        boolean erreur = true;
+        try {
+            super.dispatchEvent(event);
+            erreur = false;
+        } finally {
+            profondeur--;
+            long fin = System.nanoTime();
+            if (niveau < PROFONDEUR_MAX && modal[niveau]) {
+                // Travail fait après la fermeture de la fenêtre (pile non capturée : sequence 0)
+                terminer(taches[niveau], 0, fin - debuts[niveau], event, erreur);
+            } else {
+                terminer(tache, sequence, fin - debut, event, erreur);
+            }
+            if (niveau < PROFONDEUR_MAX) {
+                enCours[niveau] = null;
+                taches[niveau] = null;
+            }
+            // 💡 Fin d'un événement de la fenêtre modale : si elle vient de se fermer,
+            //    l'événement qui l'a ouverte reprend à partir d'ici
+            if (niveau > 0 && niveau <= PROFONDEUR_MAX) {
+                int parent = niveau - 1;
+                debuts[parent] = fin;
+                taches[parent] = new TacheEdtEvent();
+                taches[parent].begin();
+            }
+        }
+    }
+
+    /**
+     * Enregistre une mesure : surveillant, métrique "EDT.dispatch" et JFR
+     */
+    private void terminer(TacheEdtEvent tache, long sequence, long duree, AWTEvent event, boolean erreur) {
+        surveillant.finTraitement(sequence, duree, event);
+        operation.enregistrer(duree, 0, erreur);
+        tache.end();
+        // 💡 La description n'est construite que pour les tâches gardées (au-delà du seuil)
+        if (tache.shouldCommit()) {
+            tache.evenement = decrire(event);
+            tache.source = event.getSource() == null ? null : event.getSource().getClass().getName();
+            tache.commit();
+        }
+    }
+
+    private static String decrire(AWTEvent event) {
+        String texte = event.getClass().getSimpleName() + " " + event.paramString();
+        return texte.length() > 300 ? texte.substring(0, 300) : texte;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme : répartition des durées d'une opération, sans verrou
+ *
+ * 💡 EXPLICATION :
+ * Garder toutes les durées pour calculer un percentile coûterait de la
+ * mémoire et un tri. On range plutôt chaque durée dans une "classe" :
+ * - de 0 à 15 µs : une classe par microseconde (valeur exacte)
+ * - au-delà : chaque puissance de 2 est coupée en 8 classes égales
+ *   (ex: 1024-1151 µs, 1152-1279 µs, ...) → erreur relative ≤ 12,5 %
+ *
+ * Enregistrer une durée = incrémenter un compteur atomique : aucun verrou,
+ * des milliers de threads peuvent enregistrer en même temps sans s'attendre.
+ * Les percentiles se calculent à la lecture en parcourant les classes.
+ *
+ * @author dteach
+ */
+public class Histogramme {
+
+    private static final int EXACTES = 16;          // 0..15 µs : une classe par valeur
+    private static final int SOUS_CLASSES = 8;      // découpage de chaque puissance de 2
+    private static final int EXPOSANT_MIN = 4;      // 2^4 = 16 µs
+    private static final int EXPOSANT_MAX = 40;     // 2^40 µs ≈ 12 jours (au-delà : dernière classe)
+    private static final int NB_CLASSES = EXACTES + (EXPOSANT_MAX - EXPOSANT_MIN) * SOUS_CLASSES;
+
+    private final AtomicLongArray classes = new AtomicLongArray(NB_CLASSES);
+    private final LongAdder nombre = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Enregistre une durée
+     *
+     * @param nanos la durée en nanosecondes (System.nanoTime())
+     */
+    public void enregistrer(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        classes.incrementAndGet(classe(micros));
+        nombre.increment();
+        totalMicros.add(micros);
+        // 💡 Le CAS n'est tenté que si la durée dépasse le maximum connu (rare)
+        long max;
+        while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros)) {
+            // un autre thread a changé le maximum : on relit
+        }
+    }
+
+    // ================================================================
+    // LECTURE
+    // ================================================================
+
+    public long getNombre() {
+        return nombre.sum();
+    }
+
+    /**
+     * Durée moyenne en millisecondes
+     */
+    public double getMoyenneMs() {
+        long n = nombre.sum();
+        return n == 0 ? 0 : totalMicros.sum() / 1000.0 / n;
+    }
+
+    public double getMaxMs() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Percentile en millisecondes (borne haute de la classe, donc jamais sous-estimé)
+     *
+     * @param p entre 0 et 1 (ex: 0.95 pour le p95)
+     */
+    public double percentileMs(double p) {
+        long[] copie = new long[NB_CLASSES];
+        long total = 0;
+        for (int i = 0; i < NB_CLASSES; i++) {
+            copie[i] = classes.get(i);
+            total += copie[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(p * total));
+        long cumul = 0;
+        for (int i = 0; i < NB_CLASSES; i++) {
+            cumul += copie[i];
+            if (cumul >= rang) {
+                return Math.min(borneHaute(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMs();
+    }
+
+    /**
+     * Remet l'histogramme à zéro
+     * 💡 Pas atomique dans son ensemble : une mesure en cours peut être à moitié effacée
+     */
+    public void reinitialiser() {
+        for (int i = 0; i < NB_CLASSES; i++) {
+            classes.set(i, 0);
+        }
+        nombre.reset();
+        totalMicros.reset();
+        maxMicros.set(0);
+    }
+
+    // ================================================================
+    // CALCUL DES CLASSES
+    // ================================================================
+
+    static int classe(long micros) {
+        if (micros < EXACTES) {
+            return (int) micros;
+        }
+        int exposant = 63 - Long.numberOfLeadingZeros(micros);
+        if (exposant >= EXPOSANT_MAX) {
+            return NB_CLASSES - 1;
+        }
+        int sousClasse = (int) (micros >>> (exposant - 3)) & (SOUS_CLASSES - 1);
+        return EXACTES + (exposant - EXPOSANT_MIN) * SOUS_CLASSES + sousClasse;
+    }
+
+    static long borneHaute(int classe) {
+        if (classe < EXACTES) {
+            return classe;
+        }
+        int exposant = EXPOSANT_MIN + (classe - EXACTES) / SOUS_CLASSES;
+        int sousClasse = (classe - EXACTES) % SOUS_CLASSES;
+        return ((long) (SOUS_CLASSES + sousClasse + 1) << (exposant - 3)) - 1;
+    }
+}
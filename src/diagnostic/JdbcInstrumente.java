@@ -0,0 +1,262 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * JdbcInstrumente : chronomètre toutes les requêtes SQL d'une connexion
+ *
+ * 💡 EXPLICATION :
+ * Plutôt que d'ajouter un chronomètre dans chaque méthode de chaque DAO,
+ * on enveloppe la connexion JDBC dans un "proxy" (comme PoolConnexions) :
+ * - prepareStatement / createStatement : on retient QUI prépare la requête
+ *   (la méthode du DAO, trouvée dans la pile d'appels : "DonneurDAO.listerTous")
+ * - executeQuery : le chronomètre démarre, et s'arrête quand le ResultSet
+ *   est entièrement lu ou fermé → la mesure inclut la lecture des lignes,
+ *   c'est le temps réellement perdu par l'écran
+ * - executeUpdate / executeBatch : durée de l'appel et lignes modifiées
+ * - une SQLException : compteur d'erreurs de l'opération
+ * - si un enregistrement JFR est en cours : un RequeteSqlEvent par exécution
+ * - au-delà du seuil de lenteur : une entrée dans le JournalRequetesLentes
+ *   (les valeurs passées aux setXxx sont retenues pour cela)
+ *
+ * Le DAO ne voit aucune différence : il reçoit une Connection normale.
+ *
+ * @author dteach
+ */
+public final class JdbcInstrumente {
+
+    // 💡 Pile d'appels parcourue seulement jusqu'au premier appelant utile
+    private static final StackWalker PILE = StackWalker.getInstance();
+
+    private JdbcInstrumente() {
+    }
+
+    /**
+     * Enveloppe une connexion (ou la rend telle quelle si les métriques sont désactivées)
+     */
+    public static Connection envelopper(Connection reelle) {
+        if (!Metriques.ACTIVES || reelle == null) {
+            return reelle;
+        }
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object resultat = invoquer(reelle, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                case "prepareCall":
+                    // Même interface que le résultat réel (PreparedStatement, CallableStatement)
+                    return proxy(method.getReturnType(),
+                        new Requete((Statement) resultat, appelant(), (String) args[0]));
+                case "createStatement":
+                    // Le SQL n'est connu qu'à l'exécution : execute(sql)
+                    return proxy(Statement.class, new Requete((Statement) resultat, appelant(), null));
+                default:
+                    return resultat;
+            }
+        });
+    }
+
+    // ================================================================
+    // UNE REQUÊTE EN COURS DE MESURE
+    // ================================================================
+
+    /**
+     * Suit un Statement : une mesure par exécution
+     * 💡 Un Statement n'est utilisé que par un thread à la fois : pas besoin de synchroniser
+     */
+    private static final class Requete implements InvocationHandler {
+        private final Statement reel;
+        private final String nomOperation;
+        private final Metriques.Operation operation;
+        private final String sqlPrepare;
+        private String sql;
+        private long debut = -1;
+        private long lignes;
+        private RequeteSqlEvent evenement;
+        private Object[] parametres;                  // parametres[i] = valeur du i-ème ?
+
+        Requete(Statement reel, String nomOperation, String sqlPrepare) {
+            this.reel = reel;
+            this.nomOperation = nomOperation;
+            this.operation = Metriques.operation(nomOperation);
+            this.sqlPrepare = sqlPrepare;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nom = method.getName();
+            if (!nom.startsWith("execute")) {
+                if (nom.equals("close")) {
+                    terminer(false);
+                } else if (nom.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    retenir((Integer) args[0], nom.equals("setNull") ? null : args[1]);
+                } else if (nom.equals("clearParameters")) {
+                    parametres = null;
+                }
+                return invoquer(reel, method, args);
+            }
+
+            terminer(false);
+            sql = sqlPrepare != null ? sqlPrepare
+                : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            if (RequeteSqlEvent.TYPE.isEnabled()) {
+                evenement = new RequeteSqlEvent();
+                evenement.begin();
+            }
+            debut = System.nanoTime();
+            lignes = 0;
+            Object resultat;
+            try {
+                resultat = invoquer(reel, method, args);
+            } catch (SQLException | RuntimeException e) {
+                terminer(true);
+                throw e;
+            }
+            if (resultat instanceof ResultSet) {
+                // executeQuery : la mesure continue pendant la lecture
+                return proxy(ResultSet.class, new Lecture((ResultSet) resultat, this));
+            }
+            if (resultat instanceof Integer) {
+                lignes = (Integer) resultat;
+            } else if (resultat instanceof Long) {
+                lignes = (Long) resultat;
+            } else if (resultat instanceof int[]) {
+                for (int n : (int[]) resultat) {
+                    lignes += Math.max(n, 0);
+                }
+            } else if (resultat instanceof long[]) {
+                for (long n : (long[]) resultat) {
+                    lignes += Math.max(n, 0);
+                }
+            }
+            terminer(false);
+            return resultat;
+        }
+
+        private void retenir(int index, Object valeur) {
+            if (parametres == null || index >= parametres.length) {
+                parametres = Arrays.copyOf(parametres == null ? new Object[0] : parametres, Math.max(index + 1, 8));
+            }
+            parametres[index] = valeur;
+        }
+
+        void terminer(boolean erreur) {
+            if (debut >= 0) {
+                long duree = System.nanoTime() - debut;
+                operation.enregistrer(duree, lignes, erreur);
+                debut = -1;
+                JournalRequetesLentes journal = JournalRequetesLentes.getInstance();
+                if (journal.estLente(duree)) {
+                    journal.signaler(nomOperation, sql, parametres == null ? null : parametres.clone(),
+                        duree, lignes, erreur);
+                }
+            }
+            if (evenement != null) {
+                evenement.operation = nomOperation;
+                evenement.sql = sql;
+                evenement.lignes = lignes;
+                evenement.erreur = erreur;
+                evenement.commit();
+                evenement = null;
+            }
+        }
+    }
+
+    /**
+     * Suit un ResultSet : compte les lignes et arrête la mesure à la fin de la lecture
+     */
+    private static final class Lecture implements InvocationHandler {
+        private final ResultSet reel;
+        private final Requete requete;
+
+        Lecture(ResultSet reel, Requete requete) {
+            this.reel = reel;
+            this.requete = requete;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nom = method.getName();
+            if (nom.equals("next")) {
+                boolean suivante = (Boolean) invoquer(reel, method, args);
+                if (suivante) {
+                    requete.lignes++;
+                } else {
+                    requete.terminer(false);
+                }
+                return suivante;
+            }
+            if (nom.equals("close")) {
+                requete.terminer(false);
+            }
+            return invoquer(reel, method, args);
+        }
+    }
+
+    // ================================================================
+    // OUTILS
+    // ================================================================
+
+    /**
+     * Nom de l'opération : la première méthode appelante hors JDBC et hors diagnostic
+     * Ex: "DonneurDAO.listerTous", "ImportDonneursService.importer"
+     */
+    static String appelant() {
+        Optional<StackWalker.StackFrame> cadre = PILE.walk(s -> s
+            .filter(f -> !estInfrastructure(f.getClassName()))
+            .findFirst());
+        if (!cadre.isPresent()) {
+            return "SQL.inconnu";
+        }
+        return nomCourt(cadre.get().getClassName(), cadre.get().getMethodName());
+    }
+
+    /**
+     * "dao.DonneurDAO" + "listerTous" → "DonneurDAO.listerTous"
+     * 💡 Une lambda "lambda$listerTous$0" porte le nom de la méthode qui la contient
+     */
+    static String nomCourt(String classe, String methode) {
+        if (methode.startsWith("lambda$")) {
+            int fin = methode.indexOf('$', 7);
+            methode = fin > 7 ? methode.substring(7, fin) : methode;
+        }
+        return classe.substring(classe.lastIndexOf('.') + 1) + "." + methode;
+    }
+
+    private static boolean estInfrastructure(String classe) {
+        return classe.startsWith("diagnostic.")
+            || classe.startsWith("java.")
+            || classe.startsWith("javax.")
+            || classe.startsWith("jdk.")
+            || classe.startsWith("sun.")
+            || classe.startsWith("com.sun.")
+            || classe.contains("$Proxy")
+            || classe.equals("dao.PoolConnexions")
+            || classe.startsWith("dao.PoolConnexions$")
+            || classe.equals("dao.DatabaseConnection");
+    }
+
+    private static Object invoquer(Object cible, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(cible, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JournalRequetesLentes : garde une trace des requêtes SQL trop lentes, avec leur plan
+ *
+ * 💡 EXPLICATION :
+ * Quand une requête dépasse le seuil (-Dbloodplus.sql.seuilLentMs, 200 ms par
+ * défaut), JdbcInstrumente la signale ici. On écrit dans un fichier :
+ * - le texte SQL (avec ses ?), la méthode du DAO, la durée, les lignes
+ * - les paramètres, MASQUÉS s'ils peuvent contenir des données personnelles
+ *   (nom, téléphone, email, date de naissance, mot de passe...)
+ * - le plan d'exécution (EXPLAIN) : lecture complète de table ? index utilisé ?
+ * - des remarques simples : LIKE '%...' (index inutilisable), fonction
+ *   appliquée à une colonne (ex: DATE(date_action) = ...)
+ *
+ * Tout cela se fait sur un thread à part, avec SA propre connexion :
+ * l'écran qui a lancé la requête n'attend pas l'EXPLAIN.
+ *
+ * Fichier : ~/.bloodplus/requetes-lentes.log (-Dbloodplus.sql.journal=...),
+ * renommé en .1, .2, .3 quand il dépasse 5 Mo. Visible dans l'écran Diagnostic.
+ *
+ * @author dteach
+ */
+public final class JournalRequetesLentes {
+
+    private static final long TAILLE_MAX_FICHIER = 5L * 1024 * 1024;
+    private static final int NB_ARCHIVES = 3;
+    private static final long DELAI_NOUVEL_EXPLAIN_MS = 10 * 60 * 1000;
+    private static final DateTimeFormatter HORODATAGE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Mots des noms de colonnes dont les valeurs ne sont jamais écrites en clair
+    // 💡 Comparés au DÉBUT de chaque mot du nom ("telephone_normalise", "utilisateur_nom",
+    //    "nom_phonetique", "date_naissance") : une colonne ajoutée plus tard reste masquée
+    private static final Set<String> MOTS_PERSONNELS = new HashSet<>(Arrays.asList(
+        "nom", "prenom", "telephone", "email", "adresse", "naissance", "password",
+        "username", "description", "notes", "responsable", "message", "phonetique"));
+
+    // Une valeur "constante" (groupe sanguin, statut, rôle) peut être affichée :
+    // au moins une lettre (une suite de chiffres peut être un téléphone)
+    private static final Pattern VALEUR_CONSTANTE = Pattern.compile("(?=.*[A-Z])[A-Z0-9_+\\-]{1,20}");
+    private static final Pattern FONCTION_SUR_COLONNE = Pattern.compile(
+        "\\b(DATE|YEAR|MONTH|DAY|LOWER|UPPER|TRIM|SUBSTRING|CAST)\\s*\\(\\s*[a-z_]+(\\.[a-z_]+)?\\s*[,)]",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern COLONNE_AVANT = Pattern.compile(
+        "([a-z_][a-z0-9_]*)\\s*(=|<>|!=|<=|>=|<|>|\\bLIKE\\b|\\bIN\\s*\\()\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern INSERT = Pattern.compile(
+        "^\\s*INSERT\\s+INTO\\s+\\S+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    private static final JournalRequetesLentes INSTANCE = new JournalRequetesLentes();
+
+    private volatile long seuilNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("bloodplus.sql.seuilLentMs", 200));
+    private final Path fichier = Paths.get(System.getProperty("bloodplus.sql.journal",
+        System.getProperty("user.home") + "/.bloodplus/requetes-lentes.log"));
+
+    // 💡 Un seul thread, file bornée : si l'écriture prend du retard, on perd des
+    //    entrées (comptées dans "sql.lentes.ignorees") plutôt que de la mémoire
+    private final ThreadPoolExecutor executeur = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(500), r -> {
+            Thread t = new Thread(r, "BloodPlus-requetes-lentes");
+            t.setDaemon(true);
+            return t;
+        }, (r, e) -> Metriques.incrementer("sql.lentes.ignorees"));
+
+    private volatile Callable<Connection> sourceConnexions;
+    private Connection connexionExplain;                       // utilisée par le seul thread du journal
+    private final Map<String, Long> dernierExplain = new ConcurrentHashMap<>();
+
+    private JournalRequetesLentes() {
+    }
+
+    public static JournalRequetesLentes getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Indique comment ouvrir la connexion (non mesurée) qui sert aux EXPLAIN
+     * 💡 Appelé par DatabaseConnection : sans source, le journal est écrit sans plan
+     */
+    public static void setSourceConnexions(Callable<Connection> source) {
+        INSTANCE.sourceConnexions = source;
+    }
+
+    // ================================================================
+    // SIGNALEMENT (thread de la requête)
+    // ================================================================
+
+    /**
+     * true si une requête de cette durée doit être journalisée
+     */
+    boolean estLente(long dureeNanos) {
+        return dureeNanos >= seuilNanos;
+    }
+
+    /**
+     * Signale une requête lente : tout le travail est fait plus tard, sur le thread du journal
+     *
+     * @param parametres les valeurs liées (index 1 = parametres[1]), copiées par l'appelant
+     */
+    void signaler(String operation, String sql, Object[] parametres, long dureeNanos, long lignes, boolean erreur) {
+        Metriques.incrementer("sql.lentes");
+        LocalDateTime quand = LocalDateTime.now();
+        executeur.execute(() -> journaliser(quand, operation, sql, parametres, dureeNanos, lignes, erreur));
+    }
+
+    // ================================================================
+    // JOURNALISATION (thread du journal)
+    // ================================================================
+
+    private void journaliser(LocalDateTime quand, String operation, String sql, Object[] parametres,
+                             long dureeNanos, long lignes, boolean erreur) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== ").append(HORODATAGE.format(quand))
+            .append(" | ").append(operation)
+            .append(String.format(Locale.ROOT, " | %.1f ms", dureeNanos / 1_000_000.0))
+            .append(" | ").append(lignes).append(" lignes")
+            .append(erreur ? " | ERREUR" : "").append('\n');
+        sb.append("SQL : ").append(sql == null ? "(inconnu)" : sql).append('\n');
+
+        String[] colonnes = sql == null ? new String[0] : colonnesDesParametres(sql);
+        // 💡 Le tableau des paramètres peut être plus grand que le nombre de ?
+        int nbParametres = parametres == null ? 0
+            : sql == null ? parametres.length - 1 : Math.min(colonnes.length, parametres.length - 1);
+        if (nbParametres > 0) {
+            sb.append("Paramètres :");
+            for (int i = 1; i <= nbParametres; i++) {
+                String colonne = i - 1 < colonnes.length ? colonnes[i - 1] : null;
+                sb.append(" [").append(i).append("]=").append(masquer(colonne, parametres[i]));
+            }
+            sb.append('\n');
+        }
+        for (String remarque : remarques(sql, parametres)) {
+            sb.append("⚠️ ").append(remarque).append('\n');
+        }
+        sb.append(plan(sql, parametres, nbParametres));
+        sb.append('\n');
+        ecrire(sb.toString());
+    }
+
+    /**
+     * EXPLAIN de la requête (SELECT, UPDATE, DELETE), au plus une fois par 10 minutes par requête
+     */
+    private String plan(String sql, Object[] parametres, int nbParametres) {
+        if (sql == null || sourceConnexions == null) {
+            return "";
+        }
+        String debut = sql.trim().toUpperCase(Locale.ROOT);
+        if (!(debut.startsWith("SELECT") || debut.startsWith("UPDATE") || debut.startsWith("DELETE"))) {
+            return "";
+        }
+        long maintenant = System.currentTimeMillis();
+        Long dernier = dernierExplain.get(sql);
+        if (dernier != null && maintenant - dernier < DELAI_NOUVEL_EXPLAIN_MS) {
+            return "Plan : identique à la capture précédente de cette requête\n";
+        }
+        dernierExplain.put(sql, maintenant);
+
+        StringBuilder sb = new StringBuilder("Plan :\n");
+        try {
+            if (connexionExplain == null || connexionExplain.isClosed()) {
+                connexionExplain = sourceConnexions.call();
+            }
+            try (PreparedStatement pstmt = connexionExplain.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= nbParametres; i++) {
+                    pstmt.setObject(i, parametres[i]);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        sb.append("  ");
+                        for (int c = 1; c <= meta.getColumnCount(); c++) {
+                            Object valeur = rs.getObject(c);
+                            if (valeur != null) {
+                                sb.append(c > 1 ? " | " : "").append(meta.getColumnLabel(c).toLowerCase(Locale.ROOT))
+                                    .append('=').append(String.valueOf(valeur).replace('\n', ' '));
+                            }
+                        }
+                        sb.append('\n');
+                    }
+                }
+            }
+        } catch (Exception e) {
+            sb.append("  (EXPLAIN impossible : ").append(e.getMessage()).append(")\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ajoute au fichier, avec rotation quand il devient trop gros
+     */
+    private void ecrire(String entree) {
+        try {
+            if (fichier.getParent() != null) {
+                Files.createDirectories(fichier.getParent());
+            }
+            if (Files.exists(fichier) && Files.size(fichier) > TAILLE_MAX_FICHIER) {
+                for (int i = NB_ARCHIVES - 1; i >= 1; i--) {
+                    Path source = archive(i);
+                    if (Files.exists(source)) {
+                        Files.move(source, archive(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                Files.move(fichier, archive(1), StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (Writer out = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entree);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Journal des requêtes lentes : " + e.getMessage());
+        }
+    }
+
+    private Path archive(int numero) {
+        return fichier.resolveSibling(fichier.getFileName() + "." + numero);
+    }
+
+    // ================================================================
+    // MASQUAGE ET REMARQUES
+    // ================================================================
+
+    /**
+     * Colonne associée à chaque ? de la requête (null si inconnue)
+     * Ex: "WHERE nom LIKE ? AND id = ?" → [nom, id]
+     */
+    static String[] colonnesDesParametres(String sql) {
+        List<String> colonnes = new ArrayList<>();
+        Matcher insert = INSERT.matcher(sql);
+        if (insert.find()) {
+            for (String c : insert.group(1).split(",")) {
+                colonnes.add(c.trim().toLowerCase(Locale.ROOT));
+            }
+            return colonnes.toArray(new String[0]);
+        }
+        boolean dansChaine = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                dansChaine = !dansChaine;
+            } else if (c == '?' && !dansChaine) {
+                Matcher m = COLONNE_AVANT.matcher(sql.substring(Math.max(0, i - 60), i));
+                colonnes.add(m.find() ? m.group(1).toLowerCase(Locale.ROOT) : null);
+            }
+        }
+        return colonnes.toArray(new String[0]);
+    }
+
+    /**
+     * Valeur affichable d'un paramètre
+     * 💡 Une colonne personnelle ou inconnue, ou un texte libre, est toujours masqué
+     */
+    static String masquer(String colonne, Object valeur) {
+        if (valeur == null) {
+            return "NULL";
+        }
+        // 💡 Colonne inconnue : on ne devine rien d'après la valeur
+        if (colonne == null || estPersonnelle(colonne)) {
+            return "***";
+        }
+        if (valeur instanceof Number || valeur instanceof Boolean
+            || valeur instanceof Temporal || valeur instanceof Date) {
+            return String.valueOf(valeur);
+        }
+        String texte = String.valueOf(valeur);
+        return VALEUR_CONSTANTE.matcher(texte).matches() ? "'" + texte + "'" : "'***'";
+    }
+
+    static boolean estPersonnelle(String colonne) {
+        for (String mot : colonne.toLowerCase(Locale.ROOT).split("_")) {
+            for (String personnel : MOTS_PERSONNELS) {
+                if (mot.startsWith(personnel)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Causes de lenteur faciles à reconnaître dans le texte de la requête
+     */
+    static List<String> remarques(String sql, Object[] parametres) {
+        List<String> remarques = new ArrayList<>();
+        if (sql == null) {
+            return remarques;
+        }
+        if (parametres != null) {
+            for (Object p : parametres) {
+                if (p instanceof String && ((String) p).startsWith("%")) {
+                    remarques.add("LIKE commençant par '%' : aucun index ne peut servir, toute la table est lue");
+                    break;
+                }
+            }
+        }
+        int where = sql.toUpperCase(Locale.ROOT).indexOf(" WHERE ");
+        if (where >= 0 && FONCTION_SUR_COLONNE.matcher(sql.substring(where)).find()) {
+            remarques.add("Fonction appliquée à une colonne dans le WHERE : l'index de la colonne est ignoré "
+                + "(comparer la colonne à une borne calculée en Java)");
+        }
+        return remarques;
+    }
+
+    // ================================================================
+    // CONSULTATION (écran Diagnostic)
+    // ================================================================
+
+    public Path getFichier() {
+        return fichier;
+    }
+
+    public long getSeuilMs() {
+        return TimeUnit.NANOSECONDS.toMillis(seuilNanos);
+    }
+
+    public void setSeuilMs(long seuilMs) {
+        this.seuilNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, seuilMs));
+    }
+
+    /**
+     * La fin du journal (les entrées les plus récentes)
+     *
+     * @param octetsMax taille maximale lue depuis la fin du fichier
+     */
+    public String lireFin(int octetsMax) throws IOException {
+        if (!Files.exists(fichier)) {
+            return "";
+        }
+        try (SeekableByteChannel canal = Files.newByteChannel(fichier)) {
+            long debut = Math.max(0, canal.size() - octetsMax);
+            ByteBuffer tampon = ByteBuffer.allocate((int) (canal.size() - debut));
+            canal.position(debut);
+            while (tampon.hasRemaining() && canal.read(tampon) > 0) {
+                // lecture jusqu'à la fin du fichier
+            }
+            String texte = new String(tampon.array(), 0, tampon.position(), StandardCharsets.UTF_8);
+            // Commencer au début d'une entrée complète
+            int entree = debut > 0 ? texte.indexOf("\n=== ") : -1;
+            return entree >= 0 ? texte.substring(entree + 1) : texte;
+        }
+    }
+}
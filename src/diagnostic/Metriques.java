@@ -0,0 +1,237 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metriques : le registre de toutes les mesures de l'application
+ *
+ * 💡 EXPLICATION :
+ * Trois sortes de mesures, rangées par nom :
+ * - les OPÉRATIONS : une durée par appel (→ histogramme p50/p95/p99),
+ *   le nombre de lignes lues ou modifiées et le nombre d'erreurs
+ *   Ex: "DonneurDAO.listerTous", "Pool.emprunt", "EDT.dispatch"
+ * - les COMPTEURS : un nombre qui ne fait qu'augmenter
+ *   Ex: "cache.authentification.succes"
+ * - les JAUGES : une valeur lue au moment de l'affichage
+ *   Ex: "pool.actives"
+ *
+ * Tout est sans verrou (ConcurrentHashMap, LongAdder, compteurs atomiques) :
+ * mesurer ne doit jamais ralentir ce qu'on mesure.
+ *
+ * -Dbloodplus.metriques=false désactive l'instrumentation (requêtes SQL et EDT).
+ *
+ * @author dteach
+ */
+public final class Metriques implements MetriquesMXBean {
+
+    public static final boolean ACTIVES = !"false".equalsIgnoreCase(System.getProperty("bloodplus.metriques"));
+
+    private static final String NOM_JMX = "bloodplus:type=Metriques";
+    private static final Metriques INSTANCE = new Metriques();
+
+    private static final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> compteurs = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> jauges = new ConcurrentHashMap<>();
+    private static volatile boolean jmxEnregistre = false;
+
+    /**
+     * Les mesures d'une opération
+     */
+    public static final class Operation {
+        private final Histogramme histogramme = new Histogramme();
+        private final LongAdder lignes = new LongAdder();
+        private final LongAdder erreurs = new LongAdder();
+
+        /**
+         * Enregistre un appel
+         *
+         * @param nanos durée de l'appel
+         * @param nbLignes lignes lues ou modifiées (0 si sans objet)
+         * @param erreur true si l'appel a échoué
+         */
+        public void enregistrer(long nanos, long nbLignes, boolean erreur) {
+            histogramme.enregistrer(nanos);
+            if (nbLignes > 0) {
+                lignes.add(nbLignes);
+            }
+            if (erreur) {
+                erreurs.increment();
+            }
+        }
+
+        public Histogramme getHistogramme() {
+            return histogramme;
+        }
+
+        public long getLignes() {
+            return lignes.sum();
+        }
+
+        public long getErreurs() {
+            return erreurs.sum();
+        }
+
+        void reinitialiser() {
+            histogramme.reinitialiser();
+            lignes.reset();
+            erreurs.reset();
+        }
+    }
+
+    private Metriques() {
+    }
+
+    // ================================================================
+    // ENREGISTREMENT
+    // ================================================================
+
+    /**
+     * Les mesures d'une opération (créées au premier appel)
+     * 💡 Garder la référence évite la recherche dans la table à chaque appel
+     */
+    public static Operation operation(String nom) {
+        Operation op = operations.get(nom);
+        return op != null ? op : operations.computeIfAbsent(nom, k -> new Operation());
+    }
+
+    /**
+     * Raccourci : enregistre un appel d'une opération
+     */
+    public static void enregistrer(String nom, long nanos, long nbLignes, boolean erreur) {
+        operation(nom).enregistrer(nanos, nbLignes, erreur);
+    }
+
+    /**
+     * Ajoute 1 à un compteur
+     */
+    public static void incrementer(String nom) {
+        LongAdder compteur = compteurs.get(nom);
+        if (compteur == null) {
+            compteur = compteurs.computeIfAbsent(nom, k -> new LongAdder());
+        }
+        compteur.increment();
+    }
+
+    /**
+     * Compte un accès à un cache (taux de succès visible dans le diagnostic)
+     *
+     * @param cache nom du cache (ex: "authentification")
+     * @param trouve true si la valeur était dans le cache
+     */
+    public static void acces(String cache, boolean trouve) {
+        incrementer("cache." + cache + (trouve ? ".succes" : ".echecs"));
+    }
+
+    /**
+     * Déclare une jauge : sa valeur sera lue à chaque affichage
+     */
+    public static void jauge(String nom, LongSupplier valeur) {
+        jauges.put(nom, valeur);
+    }
+
+    // ================================================================
+    // LECTURE
+    // ================================================================
+
+    /**
+     * Photo de toutes les opérations, les plus coûteuses (temps total) en premier
+     */
+    public static List<StatistiqueOperation> instantane() {
+        List<StatistiqueOperation> liste = new ArrayList<>();
+        for (Map.Entry<String, Operation> e : operations.entrySet()) {
+            liste.add(new StatistiqueOperation(e.getKey(), e.getValue()));
+        }
+        liste.sort(Comparator.comparingDouble(StatistiqueOperation::getTotalMs).reversed());
+        return liste;
+    }
+
+    @Override
+    public List<StatistiqueOperation> getOperations() {
+        return instantane();
+    }
+
+    @Override
+    public Map<String, Long> getCompteurs() {
+        Map<String, Long> valeurs = new TreeMap<>();
+        compteurs.forEach((nom, c) -> valeurs.put(nom, c.sum()));
+        return valeurs;
+    }
+
+    @Override
+    public Map<String, Long> getJauges() {
+        Map<String, Long> valeurs = new TreeMap<>();
+        jauges.forEach((nom, j) -> {
+            try {
+                valeurs.put(nom, j.getAsLong());
+            } catch (RuntimeException e) {
+                valeurs.put(nom, -1L);
+            }
+        });
+        return valeurs;
+    }
+
+    @Override
+    public Map<String, Double> getTauxCaches() {
+        Map<String, Double> taux = new TreeMap<>();
+        for (String nom : compteurs.keySet()) {
+            if (nom.startsWith("cache.") && nom.endsWith(".succes")) {
+                String cache = nom.substring(6, nom.length() - 7);
+                long succes = compteurs.get(nom).sum();
+                LongAdder echecs = compteurs.get("cache." + cache + ".echecs");
+                long total = succes + (echecs == null ? 0 : echecs.sum());
+                taux.put(cache, total == 0 ? 0.0 : (double) succes / total);
+            }
+        }
+        return taux;
+    }
+
+    @Override
+    public void reinitialiser() {
+        operations.values().forEach(Operation::reinitialiser);
+        compteurs.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * L'instance publiée par JMX (et lue par l'écran Diagnostic)
+     */
+    public static Metriques getInstance() {
+        return INSTANCE;
+    }
+
+    // ================================================================
+    // JMX
+    // ================================================================
+
+    /**
+     * Publie les mesures dans le serveur JMX de la JVM (une seule fois)
+     */
+    public static synchronized void exposerJmx() {
+        if (jmxEnregistre) {
+            return;
+        }
+        try {
+            MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nom = new ObjectName(NOM_JMX);
+            if (!serveur.isRegistered(nom)) {
+                serveur.registerMBean(INSTANCE, nom);
+            }
+            jmxEnregistre = true;
+        } catch (JMException e) {
+            System.err.println("⚠️ Métriques non publiées par JMX : " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MetriquesMXBean : les mesures de BloodPlus exposées par JMX
+ *
+ * 💡 Le suffixe "MXBean" suffit à Java pour publier ces méthodes :
+ *    dans jconsole ou VisualVM, onglet MBeans → bloodplus → Metriques
+ *
+ * @author dteach
+ */
+public interface MetriquesMXBean {
+
+    /**
+     * Latences, lignes et erreurs de chaque opération mesurée
+     */
+    List<StatistiqueOperation> getOperations();
+
+    /**
+     * Compteurs simples (ex: cache.authentification.succes)
+     */
+    Map<String, Long> getCompteurs();
+
+    /**
+     * Valeurs instantanées (ex: connexions actives du pool)
+     */
+    Map<String, Long> getJauges();
+
+    /**
+     * Taux de succès de chaque cache (entre 0 et 1)
+     */
+    Map<String, Double> getTauxCaches();
+
+    /**
+     * Remet toutes les mesures à zéro
+     */
+    void reinitialiser();
+}
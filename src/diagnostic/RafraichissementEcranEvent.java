@@ -0,0 +1,57 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * RafraichissementEcranEvent : le rechargement d'un écran dans un enregistrement JFR
+ *
+ * Utilisation dans un panneau :
+ *   RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Dons");
+ *   ... chargement ...
+ *   evenement.terminer(tableModel.getRowCount());
+ *
+ * 💡 Sans enregistrement en cours, commit() ne fait rien : coût quasi nul
+ *
+ * @author dteach
+ */
+@Name("bloodplus.RafraichissementEcran")
+@Label("Rafraîchissement d'écran")
+@Category({"BloodPlus", "Interface"})
+@Description("Rechargement des données d'un écran (refreshData / chargerDonnees)")
+@StackTrace(false)
+public class RafraichissementEcranEvent extends Event {
+
+    @Label("Écran")
+    String ecran;
+
+    @Label("Lignes affichées")
+    long lignes;
+
+    /**
+     * Démarre la mesure du rechargement d'un écran
+     */
+    public static RafraichissementEcranEvent demarrer(String ecran) {
+        RafraichissementEcranEvent evenement = new RafraichissementEcranEvent();
+        evenement.ecran = ecran;
+        evenement.begin();
+        return evenement;
+    }
+
+    /**
+     * Termine la mesure
+     *
+     * @param lignes lignes affichées par l'écran (0 si sans objet)
+     */
+    public void terminer(int lignes) {
+        this.lignes = lignes;
+        commit();
+    }
+}
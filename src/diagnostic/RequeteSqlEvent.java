@@ -0,0 +1,45 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * RequeteSqlEvent : une requête SQL dans un enregistrement JFR
+ *
+ * 💡 Émis par JdbcInstrumente pour chaque exécution : la durée va de
+ *    l'exécution jusqu'à la fin de la lecture du ResultSet (comme les métriques)
+ *
+ * @author dteach
+ */
+@Name("bloodplus.RequeteSql")
+@Label("Requête SQL")
+@Category({"BloodPlus", "JDBC"})
+@Description("Exécution d'une requête par un DAO, lecture des lignes comprise")
+@StackTrace(false)
+public class RequeteSqlEvent extends Event {
+
+    // 💡 Consulté avant de créer l'événement : rien n'est alloué sans enregistrement
+    static final EventType TYPE = EventType.getEventType(RequeteSqlEvent.class);
+
+    @Label("Opération")
+    @Description("Méthode du DAO qui a préparé la requête")
+    String operation;
+
+    @Label("SQL")
+    @Description("Texte de la requête, avec ses ? (jamais les valeurs)")
+    String sql;
+
+    @Label("Lignes")
+    long lignes;
+
+    @Label("Erreur")
+    boolean erreur;
+}
@@ -0,0 +1,81 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+/**
+ * StatistiqueOperation : photo des mesures d'une opération à un instant donné
+ *
+ * 💡 Objet immuable avec des getters : l'écran Diagnostic l'affiche et JMX
+ *    le transforme automatiquement en CompositeData (lisible dans jconsole)
+ *
+ * @author dteach
+ */
+public class StatistiqueOperation {
+
+    private final String nom;
+    private final long appels;
+    private final long lignes;
+    private final long erreurs;
+    private final double moyenneMs;
+    private final double p50Ms;
+    private final double p95Ms;
+    private final double p99Ms;
+    private final double maxMs;
+
+    StatistiqueOperation(String nom, Metriques.Operation operation) {
+        Histogramme h = operation.getHistogramme();
+        this.nom = nom;
+        this.appels = h.getNombre();
+        this.lignes = operation.getLignes();
+        this.erreurs = operation.getErreurs();
+        this.moyenneMs = h.getMoyenneMs();
+        this.p50Ms = h.percentileMs(0.50);
+        this.p95Ms = h.percentileMs(0.95);
+        this.p99Ms = h.percentileMs(0.99);
+        this.maxMs = h.getMaxMs();
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public long getAppels() {
+        return appels;
+    }
+
+    public long getLignes() {
+        return lignes;
+    }
+
+    public long getErreurs() {
+        return erreurs;
+    }
+
+    public double getMoyenneMs() {
+        return moyenneMs;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public double getP95Ms() {
+        return p95Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public double getMaxMs() {
+        return maxMs;
+    }
+
+    /**
+     * Temps total passé dans l'opération (appels × moyenne), pour trier par coût
+     */
+    public double getTotalMs() {
+        return appels * moyenneMs;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import java.awt.AWTEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SurveillantEdt : détecte les gels de l'interface et trouve leur responsable
+ *
+ * 💡 EXPLICATION :
+ * Les écrans font leurs requêtes SQL directement dans les listeners : pendant
+ * ce temps l'Event Dispatch Thread (EDT) ne dessine plus rien, l'application
+ * paraît figée. Pour savoir QUI bloque :
+ * 1. FileEvenementsInstrumentee note l'heure de début de chaque événement
+ * 2. Un thread "surveillant" regarde régulièrement si l'événement en cours
+ *    dure plus que le seuil (-Dbloodplus.edt.seuilMs, 100 ms par défaut)
+ * 3. Si oui, il photographie la pile d'appels de l'EDT À CE MOMENT-LÀ :
+ *    elle montre le listener (ex: DonPanel.validerDon) et ce qu'il attend
+ *    (ex: DonDAO.valider)
+ * 4. Les blocages sont regroupés par endroit du code : nombre, durée
+ *    totale, durée maximale → les pires listeners en tête du rapport
+ *
+ * Indicateur de réactivité : part des événements traités sous le seuil.
+ *
+ * @author dteach
+ */
+public final class SurveillantEdt {
+
+    private static final SurveillantEdt INSTANCE = new SurveillantEdt();
+
+    private volatile long seuilNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("bloodplus.edt.seuilMs", 100));
+
+    // État de l'événement en cours (écrit par l'EDT, lu par le surveillant)
+    private volatile Thread edt;
+    private volatile long sequenceCourante;
+    private volatile long debutCourant;          // 0 = EDT libre
+    private volatile Capture derniereCapture;
+    private long compteurSequences;              // modifié uniquement par l'EDT
+
+    // Statistiques
+    private final LongAdder evenements = new LongAdder();
+    private final LongAdder blocages = new LongAdder();
+    private final LongAdder tempsBloqueNanos = new LongAdder();
+    private final Map<String, SiteBlocage> sites = new ConcurrentHashMap<>();
+    private volatile boolean demarre = false;
+
+    /**
+     * Pile de l'EDT photographiée pendant un blocage
+     */
+    private static final class Capture {
+        final long sequence;
+        final StackTraceElement[] pile;
+
+        Capture(long sequence, StackTraceElement[] pile) {
+            this.sequence = sequence;
+            this.pile = pile;
+        }
+    }
+
+    /**
+     * Les blocages d'un même endroit du code
+     */
+    public static final class SiteBlocage {
+        private final String site;
+        private final LongAdder nombre = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile String exemplePile;
+
+        SiteBlocage(String site) {
+            this.site = site;
+        }
+
+        void ajouter(long nanos, String pile) {
+            nombre.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (pile != null) {
+                exemplePile = pile;
+            }
+        }
+
+        public String getSite() {
+            return site;
+        }
+
+        public long getNombre() {
+            return nombre.sum();
+        }
+
+        public double getTotalMs() {
+            return totalNanos.sum() / 1_000_000.0;
+        }
+
+        public double getMaxMs() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        public String getExemplePile() {
+            return exemplePile;
+        }
+    }
+
+    private SurveillantEdt() {
+    }
+
+    public static SurveillantEdt getInstance() {
+        return INSTANCE;
+    }
+
+    // ================================================================
+    // APPELÉ PAR L'EDT (FileEvenementsInstrumentee)
+    // ================================================================
+
+    /**
+     * Début du traitement d'un événement
+     * @return le numéro de l'événement (à rendre à finTraitement)
+     */
+    long debutTraitement(long debut) {
+        if (edt == null) {
+            edt = Thread.currentThread();
+        }
+        long sequence = ++compteurSequences;
+        sequenceCourante = sequence;
+        debutCourant = debut;
+        return sequence;
+    }
+
+    /**
+     * Fin du traitement d'un événement
+     *
+     * @param sequence numéro rendu par debutTraitement, 0 si aucune pile ne correspond
+     * @param dureeNanos durée du traitement, sans le temps passé dans une fenêtre modale
+     * @param event l'événement (décrit si aucune pile n'a pu être capturée)
+     */
+    void finTraitement(long sequence, long dureeNanos, AWTEvent event) {
+        // 💡 Après un événement imbriqué (fenêtre modale), l'EDT attend l'utilisateur : libre
+        debutCourant = 0;
+        evenements.increment();
+        if (dureeNanos < seuilNanos) {
+            return;
+        }
+        blocages.increment();
+        tempsBloqueNanos.add(dureeNanos);
+        Metriques.incrementer("edt.blocages");
+
+        Capture capture = derniereCapture;
+        String site;
+        String pile = null;
+        if (capture != null && capture.sequence == sequence) {
+            site = site(capture.pile);
+            pile = texte(capture.pile);
+        } else {
+            // Blocage terminé entre deux passages du surveillant
+            site = "(pile non capturée) " + event.getClass().getSimpleName()
+                + (event.getSource() == null ? "" : " sur " + event.getSource().getClass().getSimpleName());
+        }
+        sites.computeIfAbsent(site, SiteBlocage::new).ajouter(dureeNanos, pile);
+    }
+
+    // ================================================================
+    // THREAD SURVEILLANT
+    // ================================================================
+
+    /**
+     * Démarre le thread surveillant (une seule fois)
+     */
+    public synchronized void demarrer() {
+        if (demarre) {
+            return;
+        }
+        demarre = true;
+        Thread thread = new Thread(this::surveiller, "BloodPlus-surveillant-EDT");
+        thread.setDaemon(true);
+        thread.start();
+        Metriques.jauge("edt.reactivite.pourMille", () -> Math.round(getTauxReactivite() * 1000));
+    }
+
+    private void surveiller() {
+        while (true) {
+            try {
+                // 💡 4 passages par seuil : un blocage est vu au plus tard à 1,25 × le seuil
+                TimeUnit.NANOSECONDS.sleep(Math.max(TimeUnit.MILLISECONDS.toNanos(5), seuilNanos / 4));
+            } catch (InterruptedException e) {
+                return;
+            }
+            long debut = debutCourant;
+            long sequence = sequenceCourante;
+            Thread thread = edt;
+            Capture precedente = derniereCapture;
+            if (debut == 0 || thread == null || (precedente != null && precedente.sequence == sequence)) {
+                continue;
+            }
+            if (System.nanoTime() - debut >= seuilNanos) {
+                StackTraceElement[] pile = thread.getStackTrace();
+                // L'événement a pu se terminer pendant la capture : on vérifie
+                if (sequenceCourante == sequence && debutCourant != 0) {
+                    derniereCapture = new Capture(sequence, pile);
+                }
+            }
+        }
+    }
+
+    // ================================================================
+    // ANALYSE DE LA PILE
+    // ================================================================
+
+    /**
+     * Endroit du blocage : le listener de l'écran, et ce qu'il attendait
+     * Ex: "DonPanel.validerDon:212 → DonDAO.valider"
+     */
+    static String site(StackTraceElement[] pile) {
+        StackTraceElement attente = null;
+        StackTraceElement ecran = null;
+        for (StackTraceElement e : pile) {
+            String classe = e.getClassName();
+            if (!estApplication(classe)) {
+                continue;
+            }
+            if (attente == null) {
+                attente = e;
+            }
+            if (classe.startsWith("ui.")) {
+                ecran = e;
+                break;
+            }
+        }
+        if (attente == null) {
+            return pile.length > 0 ? nom(pile[0]) : "(pile vide)";
+        }
+        if (ecran == null) {
+            return nom(attente) + ":" + attente.getLineNumber();
+        }
+        String site = nom(ecran) + ":" + ecran.getLineNumber();
+        return attente == ecran ? site : site + " → " + nom(attente);
+    }
+
+    private static boolean estApplication(String classe) {
+        return !classe.startsWith("diagnostic.")
+            && (classe.startsWith("ui.") || classe.startsWith("dao.") || classe.startsWith("service.")
+                || classe.startsWith("model.") || classe.startsWith("utils.") || classe.startsWith("api."));
+    }
+
+    private static String nom(StackTraceElement e) {
+        return JdbcInstrumente.nomCourt(e.getClassName(), e.getMethodName());
+    }
+
+    private static String texte(StackTraceElement[] pile) {
+        StringBuilder sb = new StringBuilder();
+        for (StackTraceElement e : pile) {
+            sb.append("    at ").append(e).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // ================================================================
+    // RAPPORT
+    // ================================================================
+
+    /**
+     * Sites de blocage, le plus coûteux (durée totale) en premier
+     */
+    public List<SiteBlocage> getSites() {
+        List<SiteBlocage> liste = new ArrayList<>(sites.values());
+        liste.sort(Comparator.comparingDouble(SiteBlocage::getTotalMs).reversed());
+        return liste;
+    }
+
+    /**
+     * Part des événements traités sous le seuil (1.0 = aucun blocage)
+     */
+    public double getTauxReactivite() {
+        long n = evenements.sum();
+        return n == 0 ? 1.0 : 1.0 - (double) blocages.sum() / n;
+    }
+
+    public long getNombreEvenements() {
+        return evenements.sum();
+    }
+
+    public long getNombreBlocages() {
+        return blocages.sum();
+    }
+
+    public double getTempsBloqueMs() {
+        return tempsBloqueNanos.sum() / 1_000_000.0;
+    }
+
+    public long getSeuilMs() {
+        return TimeUnit.NANOSECONDS.toMillis(seuilNanos);
+    }
+
+    public void setSeuilMs(long seuilMs) {
+        this.seuilNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(10, seuilMs));
+    }
+
+    public void reinitialiser() {
+        evenements.reset();
+        blocages.reset();
+        tempsBloqueNanos.reset();
+        sites.clear();
+    }
+
+    /**
+     * Rapport texte : indicateur de réactivité puis blocages par site
+     */
+    public String rapport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Réactivité de l'interface (seuil ").append(getSeuilMs()).append(" ms)\n");
+        sb.append(String.format("  %.2f %% des %d événements traités sous le seuil%n",
+            getTauxReactivite() * 100, getNombreEvenements()));
+        sb.append(String.format("  %d blocages, %.1f s d'interface figée%n%n",
+            getNombreBlocages(), getTempsBloqueMs() / 1000));
+        for (SiteBlocage s : getSites()) {
+            sb.append(String.format("%s%n  %d blocages, total %.0f ms, max %.0f ms%n",
+                s.getSite(), s.getNombre(), s.getTotalMs(), s.getMaxMs()));
+            if (s.getExemplePile() != null) {
+                sb.append(s.getExemplePile());
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Package DIAGNOSTIC : mesures de performance
+ */
+package diagnostic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * TacheEdtEvent : un événement Swing trop long dans un enregistrement JFR
+ *
+ * 💡 Seuls les événements qui dépassent le seuil sont gardés (100 ms par
+ *    défaut, -Dbloodplus.jfr.seuilEdtMs=... pour l'enregistrement lancé
+ *    depuis le menu Administration). L'événement et sa source indiquent
+ *    l'action de l'utilisateur qui a figé l'interface ; les requêtes SQL
+ *    du même intervalle, sur le même thread, disent ce qui a pris le temps.
+ *
+ * @author dteach
+ */
+@Name("bloodplus.TacheEdt")
+@Label("Tâche EDT lente")
+@Category({"BloodPlus", "Interface"})
+@Description("Événement traité par l'Event Dispatch Thread au-delà du seuil")
+@Threshold("100 ms")
+@StackTrace(false)
+public class TacheEdtEvent extends Event {
+
+    @Label("Événement")
+    @Description("Type et paramètres de l'événement AWT")
+    String evenement;
+
+    @Label("Source")
+    @Description("Classe du composant à l'origine de l'événement")
+    String source;
+}
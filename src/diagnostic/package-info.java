@@ -0,0 +1,14 @@
+/**
+ * Package DIAGNOSTIC : mesures de performance de l'application en production
+ *
+ * 💡 EXPLICATION :
+ * Ce package observe l'application sans changer son comportement :
+ * - Metriques : le registre des mesures (latences, lignes, erreurs, compteurs)
+ * - Histogramme : la répartition des durées d'une opération (p50, p95, p99)
+ * - JdbcInstrumente : chronomètre chaque requête SQL des DAO
+ * - FileEvenementsInstrumentee : chronomètre chaque événement Swing (EDT)
+ *
+ * Les mesures sont visibles dans l'écran "Diagnostic" (administrateurs)
+ * et par JMX (jconsole, VisualVM : bean "bloodplus:type=Metriques").
+ */
+package diagnostic;
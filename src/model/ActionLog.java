@@ -3,7 +3,7 @@
  */
 package model;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 
 /**
  * ActionLog : Enregistre une action effectuée par un utilisateur
@@ -26,7 +26,7 @@ public class ActionLog {
     private String action;              // Type d'action (AJOUTER, MODIFIER, etc.)
     private String entite;              // Sur quoi (DONNEUR, DON, STOCK, etc.)
     private String description;         // Description détaillée
-    private Date dateAction;            // Quand
+    private LocalDateTime dateAction;   // Quand
     private String adresseIP;           // Optionnel: depuis où
 
     // ============ CONSTANTES - TYPES D'ACTIONS ============
@@ -54,7 +54,7 @@ public class ActionLog {
     // ============ CONSTRUCTEURS ============
     
     public ActionLog() {
-        this.dateAction = new Date();
+        this.dateAction = LocalDateTime.now();
     }
 
     public ActionLog(int utilisateurId, String utilisateurNom, String action, 
@@ -93,7 +93,7 @@ public class ActionLog {
         return description;
     }
 
-    public Date getDateAction() {
+    public LocalDateTime getDateAction() {
         return dateAction;
     }
 
@@ -127,7 +127,7 @@ public class ActionLog {
         this.description = description;
     }
 
-    public void setDateAction(Date dateAction) {
+    public void setDateAction(LocalDateTime dateAction) {
         this.dateAction = dateAction;
     }
 
@@ -3,7 +3,7 @@
  */
 package model;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 
 /**
  * Classe Alerte : représente une alerte du système
@@ -23,7 +23,7 @@ public class Alerte {
     private String type;            // Type d'alerte
     private String message;         // Message de l'alerte
     private String groupeSanguin;   // Groupe concerné (si applicable)
-    private Date dateCreation;      // Date de création
+    private LocalDateTime dateCreation; // Date de création
     private boolean lue;            // L'alerte a-t-elle été lue ?
     private String priorite;        // "BASSE", "MOYENNE", "HAUTE", "CRITIQUE"
 
@@ -42,7 +42,7 @@ public class Alerte {
     // ============ CONSTRUCTEURS ============
     
     public Alerte() {
-        this.dateCreation = new Date();
+        this.dateCreation = LocalDateTime.now();
         this.lue = false;
     }
 
@@ -50,7 +50,7 @@ public class Alerte {
         this.type = type;
         this.message = message;
         this.priorite = priorite;
-        this.dateCreation = new Date();
+        this.dateCreation = LocalDateTime.now();
         this.lue = false;
     }
 
@@ -110,7 +110,7 @@ public class Alerte {
         return groupeSanguin;
     }
 
-    public Date getDateCreation() {
+    public LocalDateTime getDateCreation() {
         return dateCreation;
     }
 
@@ -140,7 +140,7 @@ public class Alerte {
         this.groupeSanguin = groupeSanguin;
     }
 
-    public void setDateCreation(Date dateCreation) {
+    public void setDateCreation(LocalDateTime dateCreation) {
         this.dateCreation = dateCreation;
     }
 
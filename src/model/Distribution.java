@@ -3,7 +3,7 @@
  */
 package model;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 
 /**
  * Classe Distribution : représente une distribution de sang vers un hôpital
@@ -21,7 +21,7 @@ public class Distribution {
     private int hopitalId;          // ID de l'hôpital destinataire
     private String groupeSanguin;   // Groupe sanguin distribué
     private int quantite;           // Quantité en ml
-    private Date dateDistribution;  // Date de la distribution
+    private LocalDateTime dateDistribution; // Date de la distribution
     private String statut;          // "EN_COURS", "LIVREE", "ANNULEE"
     private String motif;           // Raison de la demande (urgence, opération, etc.)
     
@@ -42,7 +42,7 @@ public class Distribution {
         this.hopitalId = hopitalId;
         this.groupeSanguin = groupeSanguin;
         this.quantite = quantite;
-        this.dateDistribution = new Date();
+        this.dateDistribution = LocalDateTime.now();
         this.statut = STATUT_EN_COURS;
     }
 
@@ -64,7 +64,7 @@ public class Distribution {
         return quantite;
     }
 
-    public Date getDateDistribution() {
+    public LocalDateTime getDateDistribution() {
         return dateDistribution;
     }
 
@@ -98,7 +98,7 @@ public class Distribution {
         this.quantite = quantite;
     }
 
-    public void setDateDistribution(Date dateDistribution) {
+    public void setDateDistribution(LocalDateTime dateDistribution) {
         this.dateDistribution = dateDistribution;
     }
 
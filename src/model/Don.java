@@ -3,7 +3,7 @@
  */
 package model;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 
 /**
  * Classe Don : représente un acte de don de sang
@@ -19,7 +19,7 @@ public class Don {
     // ============ ATTRIBUTS ============
     private int id;                    // Identifiant unique
     private int donneurId;             // ID du donneur (clé étrangère)
-    private Date dateDon;              // Date du don
+    private LocalDateTime dateDon;     // Date du don
     private int quantite;              // Quantité en millilitres (ml)
     private String statut;             // "EN_ATTENTE", "VALIDE", "REJETE"
     private String notes;              // Remarques éventuelles
@@ -34,13 +34,16 @@ public class Don {
     
     // Quantité standard d'un don de sang en ml
     public static final int QUANTITE_STANDARD = 450;
+    
+    // Nombre minimal de jours entre deux dons de sang total
+    public static final int INTERVALLE_MIN_JOURS = 56;
 
     // ============ CONSTRUCTEURS ============
     
     public Don() {
     }
 
-    public Don(int donneurId, Date dateDon, int quantite) {
+    public Don(int donneurId, LocalDateTime dateDon, int quantite) {
         this.donneurId = donneurId;
         this.dateDon = dateDon;
         this.quantite = quantite;
@@ -57,7 +60,7 @@ public class Don {
         return donneurId;
     }
 
-    public Date getDateDon() {
+    public LocalDateTime getDateDon() {
         return dateDon;
     }
 
@@ -87,7 +90,7 @@ public class Don {
         this.donneurId = donneurId;
     }
 
-    public void setDateDon(Date dateDon) {
+    public void setDateDon(LocalDateTime dateDon) {
         this.dateDon = dateDon;
     }
 
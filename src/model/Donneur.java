@@ -4,7 +4,8 @@
  */
 package model;
 
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Classe Donneur : représente une personne qui donne son sang
@@ -23,13 +24,13 @@ public class Donneur {
     private int id;                    // Identifiant unique en base de données
     private String nom;                // Nom de famille
     private String prenom;             // Prénom
-    private Date dateNaissance;        // Date de naissance
+    private LocalDate dateNaissance;   // Date de naissance
     private String sexe;               // "M" ou "F"
     private String groupeSanguin;      // Ex: "A+", "O-", "AB+"...
     private String telephone;          // Numéro de téléphone
     private String email;              // Adresse email
     private String adresse;            // Adresse postale
-    private Date dateInscription;      // Date d'inscription comme donneur
+    private LocalDateTime dateInscription; // Date d'inscription comme donneur
     private boolean apte;              // Est-il apte à donner ? (true/false)
 
     // ============ CONSTRUCTEURS ============
@@ -49,7 +50,7 @@ public class Donneur {
         this.prenom = prenom;
         this.groupeSanguin = groupeSanguin;
         this.telephone = telephone;
-        this.dateInscription = new Date(); // Date du jour
+        this.dateInscription = LocalDateTime.now(); // Date du jour
         this.apte = true; // Par défaut, apte à donner
     }
 
@@ -67,7 +68,7 @@ public class Donneur {
         return prenom;
     }
 
-    public Date getDateNaissance() {
+    public LocalDate getDateNaissance() {
         return dateNaissance;
     }
 
@@ -91,7 +92,7 @@ public class Donneur {
         return adresse;
     }
 
-    public Date getDateInscription() {
+    public LocalDateTime getDateInscription() {
         return dateInscription;
     }
 
@@ -113,7 +114,7 @@ public class Donneur {
         this.prenom = prenom;
     }
 
-    public void setDateNaissance(Date dateNaissance) {
+    public void setDateNaissance(LocalDate dateNaissance) {
         this.dateNaissance = dateNaissance;
     }
 
@@ -137,7 +138,7 @@ public class Donneur {
         this.adresse = adresse;
     }
 
-    public void setDateInscription(Date dateInscription) {
+    public void setDateInscription(LocalDateTime dateInscription) {
         this.dateInscription = dateInscription;
     }
 
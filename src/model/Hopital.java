@@ -37,6 +37,20 @@ public class Hopital {
         this.actif = true;
     }
 
+    /**
+     * Copie (utilisée par le cache des hôpitaux)
+     */
+    public Hopital(Hopital autre) {
+        this.id = autre.id;
+        this.nom = autre.nom;
+        this.adresse = autre.adresse;
+        this.ville = autre.ville;
+        this.telephone = autre.telephone;
+        this.email = autre.email;
+        this.responsable = autre.responsable;
+        this.actif = autre.actif;
+    }
+
     // ============ GETTERS ============
     
     public int getId() {
@@ -0,0 +1,134 @@
+/*
+ * Package MODEL : contient les "objets métier"
+ */
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Classe MouvementStock : une ligne du journal des mouvements d'une poche
+ *
+ * 💡 EXPLICATION :
+ * Chaque changement d'une poche de sang (entrée, prélèvement, réservation,
+ * péremption, correction, suppression) ajoute UNE ligne au journal
+ * mouvements_stock. On n'y modifie ni n'y supprime jamais rien.
+ *
+ * Une ligne contient :
+ * - la variation du volume (négative pour une sortie)
+ * - l'état de la poche APRÈS le mouvement (volume restant, statut...)
+ *
+ * La table stocks_sanguins n'est donc plus que le "dernier état" de chaque
+ * poche : elle peut être reconstruite à partir du journal.
+ *
+ * @author dteach
+ */
+public class MouvementStock {
+
+    // ============ ATTRIBUTS ============
+    private long id;
+    private int stockId;                // Poche concernée
+    private String type;                // Type de mouvement
+    private int variation;              // Variation du volume en ml (négative = sortie)
+    private int quantite;               // Volume restant après le mouvement
+    private String statut;              // Statut de la poche après le mouvement
+    private String groupeSanguin;
+    private LocalDate datePeremption;
+    private LocalDateTime dateMouvement;
+
+    // ============ CONSTANTES - Types de mouvements ============
+    public static final String TYPE_ENTREE = "ENTREE";
+    public static final String TYPE_PRELEVEMENT = "PRELEVEMENT";
+    public static final String TYPE_RESERVATION = "RESERVATION";
+    public static final String TYPE_PEREMPTION = "PEREMPTION";
+    public static final String TYPE_AJUSTEMENT = "AJUSTEMENT";
+    public static final String TYPE_SUPPRESSION = "SUPPRESSION";
+
+    // ============ CONSTRUCTEURS ============
+
+    public MouvementStock() {
+        this.dateMouvement = LocalDateTime.now();
+    }
+
+    // ============ GETTERS ============
+
+    public long getId() {
+        return id;
+    }
+
+    public int getStockId() {
+        return stockId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getVariation() {
+        return variation;
+    }
+
+    public int getQuantite() {
+        return quantite;
+    }
+
+    public String getStatut() {
+        return statut;
+    }
+
+    public String getGroupeSanguin() {
+        return groupeSanguin;
+    }
+
+    public LocalDate getDatePeremption() {
+        return datePeremption;
+    }
+
+    public LocalDateTime getDateMouvement() {
+        return dateMouvement;
+    }
+
+    // ============ SETTERS ============
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public void setStockId(int stockId) {
+        this.stockId = stockId;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public void setVariation(int variation) {
+        this.variation = variation;
+    }
+
+    public void setQuantite(int quantite) {
+        this.quantite = quantite;
+    }
+
+    public void setStatut(String statut) {
+        this.statut = statut;
+    }
+
+    public void setGroupeSanguin(String groupeSanguin) {
+        this.groupeSanguin = groupeSanguin;
+    }
+
+    public void setDatePeremption(LocalDate datePeremption) {
+        this.datePeremption = datePeremption;
+    }
+
+    public void setDateMouvement(LocalDateTime dateMouvement) {
+        this.dateMouvement = dateMouvement;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + (variation > 0 ? "+" : "") + variation + " ml (poche " + stockId + ", reste "
+            + quantite + " ml, " + statut + ")";
+    }
+}
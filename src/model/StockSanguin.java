@@ -3,7 +3,7 @@
  */
 package model;
 
-import java.util.Date;
+import java.time.LocalDate;
 
 /**
  * Classe StockSanguin : représente le stock de sang disponible
@@ -19,9 +19,9 @@ public class StockSanguin {
     // ============ ATTRIBUTS ============
     private int id;
     private String groupeSanguin;      // Le groupe sanguin
-    private int quantite;              // Quantité en ml
-    private Date datePrelevement;      // Date du prélèvement
-    private Date datePeremption;       // Date limite d'utilisation
+    private int quantite;              // Volume restant en ml (0 une fois utilisée ou périmée)
+    private LocalDate datePrelevement; // Date du prélèvement
+    private LocalDate datePeremption;  // Date limite d'utilisation
     private int donId;                 // ID du don d'origine
     private String statut;             // "DISPONIBLE", "RESERVE", "UTILISE", "PERIME"
 
@@ -42,15 +42,23 @@ public class StockSanguin {
     public StockSanguin() {
     }
 
-    public StockSanguin(String groupeSanguin, int quantite, Date datePrelevement) {
+    public StockSanguin(String groupeSanguin, int quantite, LocalDate datePrelevement) {
         this.groupeSanguin = groupeSanguin;
         this.quantite = quantite;
         this.datePrelevement = datePrelevement;
         this.statut = STATUT_DISPONIBLE;
         
         // Calcul automatique de la date de péremption (42 jours après)
-        this.datePeremption = new Date(datePrelevement.getTime() + 
-                                       (DUREE_VIE_JOURS * 24L * 60L * 60L * 1000L));
+        this.datePeremption = calculerPeremption(datePrelevement);
+    }
+
+    /**
+     * Date de péremption d'une poche prélevée ce jour-là
+     * 💡 Simple addition sur le numéro du jour (epoch day) : pas de Calendar,
+     *    pas de souci de changement d'heure
+     */
+    public static LocalDate calculerPeremption(LocalDate datePrelevement) {
+        return LocalDate.ofEpochDay(datePrelevement.toEpochDay() + DUREE_VIE_JOURS);
     }
 
     // ============ GETTERS ============
@@ -67,11 +75,11 @@ public class StockSanguin {
         return quantite;
     }
 
-    public Date getDatePrelevement() {
+    public LocalDate getDatePrelevement() {
         return datePrelevement;
     }
 
-    public Date getDatePeremption() {
+    public LocalDate getDatePeremption() {
         return datePeremption;
     }
 
@@ -97,11 +105,11 @@ public class StockSanguin {
         this.quantite = quantite;
     }
 
-    public void setDatePrelevement(Date datePrelevement) {
+    public void setDatePrelevement(LocalDate datePrelevement) {
         this.datePrelevement = datePrelevement;
     }
 
-    public void setDatePeremption(Date datePeremption) {
+    public void setDatePeremption(LocalDate datePeremption) {
         this.datePeremption = datePeremption;
     }
 
@@ -119,15 +127,14 @@ public class StockSanguin {
      * Vérifie si le stock est périmé
      */
     public boolean estPerime() {
-        return new Date().after(datePeremption);
+        return LocalDate.now().isAfter(datePeremption);
     }
 
     /**
      * Calcule le nombre de jours avant péremption
      */
     public int joursAvantPeremption() {
-        long diff = datePeremption.getTime() - new Date().getTime();
-        return (int) (diff / (24 * 60 * 60 * 1000));
+        return (int) (datePeremption.toEpochDay() - LocalDate.now().toEpochDay());
     }
 
     /**
@@ -3,7 +3,7 @@
  */
 package model;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 
 /**
  * Classe Utilisateur : représente un utilisateur de l'application
@@ -24,8 +24,8 @@ public class Utilisateur {
     private String nomComplet;         // Nom affiché
     private String role;               // ADMIN, OPERATEUR, LECTEUR
     private boolean actif;             // Compte actif ?
-    private Date dateCreation;
-    private Date derniereConnexion;
+    private LocalDateTime dateCreation;
+    private LocalDateTime derniereConnexion;
 
     // ============ CONSTANTES - RÔLES ============
     public static final String ROLE_ADMIN = "ADMIN";
@@ -38,7 +38,7 @@ public class Utilisateur {
     
     public Utilisateur() {
         this.actif = true;
-        this.dateCreation = new Date();
+        this.dateCreation = LocalDateTime.now();
     }
 
     public Utilisateur(String username, String password, String nomComplet, String role) {
@@ -49,6 +49,20 @@ public class Utilisateur {
         this.role = role;
     }
 
+    /**
+     * Copie (utilisée par le cache des utilisateurs)
+     */
+    public Utilisateur(Utilisateur autre) {
+        this.id = autre.id;
+        this.username = autre.username;
+        this.password = autre.password;
+        this.nomComplet = autre.nomComplet;
+        this.role = autre.role;
+        this.actif = autre.actif;
+        this.dateCreation = autre.dateCreation;
+        this.derniereConnexion = autre.derniereConnexion;
+    }
+
     // ============ GETTERS ============
     
     public int getId() {
@@ -75,11 +89,11 @@ public class Utilisateur {
         return actif;
     }
 
-    public Date getDateCreation() {
+    public LocalDateTime getDateCreation() {
         return dateCreation;
     }
 
-    public Date getDerniereConnexion() {
+    public LocalDateTime getDerniereConnexion() {
         return derniereConnexion;
     }
 
@@ -109,11 +123,11 @@ public class Utilisateur {
         this.actif = actif;
     }
 
-    public void setDateCreation(Date dateCreation) {
+    public void setDateCreation(LocalDateTime dateCreation) {
         this.dateCreation = dateCreation;
     }
 
-    public void setDerniereConnexion(Date derniereConnexion) {
+    public void setDerniereConnexion(LocalDateTime derniereConnexion) {
         this.derniereConnexion = derniereConnexion;
     }
 
@@ -0,0 +1,126 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import dao.ArchiveDAO;
+import dao.DatabaseConnection;
+import dao.Dialecte;
+import dao.RegistreDAO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArchivageService : archive chaque jour les lignes closes plus anciennes que l'horizon
+ *
+ * 💡 EXPLICATION :
+ * Une tâche de fond déplace une fois par jour les dons, poches et
+ * distributions clos depuis plus de HORIZON jours vers les tables
+ * *_archives (voir ArchiveDAO), par lots de quelques centaines de lignes.
+ * Les tables de travail ne gardent que les deux dernières années : les
+ * écrans et leurs index restent petits quelle que soit l'ancienneté de la base.
+ *
+ * Réglages :
+ * - -Dbloodplus.archivage.horizonJours=730 (au moins HORIZON_MIN_JOURS)
+ * - -Dbloodplus.archivage.lot=500
+ *
+ * Comme l'import CSV, la tâche travaille sur SA connexion : la connexion
+ * partagée de l'interface n'est jamais prise dans sa transaction.
+ *
+ * @author dteach
+ */
+public class ArchivageService {
+
+    // 💡 La prévision de la demande relit un an de distributions dans la table de travail
+    public static final int HORIZON_MIN_JOURS = PrevisionDemandeService.HISTORIQUE_JOURS + 1;
+    public static final int HORIZON_JOURS =
+        Math.max(HORIZON_MIN_JOURS, Integer.getInteger("bloodplus.archivage.horizonJours", 730));
+    public static final int TAILLE_LOT = Math.max(1, Integer.getInteger("bloodplus.archivage.lot", 500));
+    public static final long PERIODE_HEURES = 24;
+
+    private final RegistreDAO registre;
+    private ScheduledExecutorService planificateur;
+
+    public ArchivageService() {
+        this(RegistreDAO.get());
+    }
+
+    public ArchivageService(RegistreDAO registre) {
+        this.registre = registre;
+    }
+
+    // ================================================================
+    // TÂCHE DE FOND
+    // ================================================================
+
+    /**
+     * Lance la tâche de fond (dans une minute, puis une fois par jour)
+     * 💡 Pas au démarrage même : l'ouverture des écrans passe d'abord
+     */
+    public synchronized void demarrer() {
+        if (planificateur != null) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "BloodPlus-archivage");
+            t.setDaemon(true);
+            return t;
+        });
+        planificateur.scheduleWithFixedDelay(this::archiverSansErreur,
+            TimeUnit.MINUTES.toMillis(1), TimeUnit.HOURS.toMillis(PERIODE_HEURES), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void arreter() {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+            planificateur = null;
+        }
+    }
+
+    // 💡 Une exception arrêterait définitivement la tâche planifiée
+    private void archiverSansErreur() {
+        try {
+            archiver();
+        } catch (SQLException | RuntimeException e) {
+            // Ex: un autre poste archive le même lot au même moment (clé primaire)
+            System.err.println("⚠️ Archivage interrompu : " + e.getMessage());
+        }
+    }
+
+    // ================================================================
+    // ARCHIVAGE
+    // ================================================================
+
+    /**
+     * Archive tout ce qui est clos depuis plus de HORIZON_JOURS jours
+     *
+     * @return Le nombre de lignes archivées [dons, poches, distributions]
+     */
+    public int[] archiver() throws SQLException {
+        try (Connection connection = ouvrirConnexion()) {
+            RegistreDAO.Liaison liaison = registre.lier(connection);
+            try {
+                ArchiveDAO dao = registre.getArchiveDAO();
+                return dao.archiver(Dialecte.aujourdhui().minusDays(HORIZON_JOURS), TAILLE_LOT);
+            } finally {
+                liaison.close();
+            }
+        }
+    }
+
+    /**
+     * Connexion dédiée à la tâche de fond
+     */
+    private static Connection ouvrirConnexion() throws SQLException {
+        try {
+            return DatabaseConnection.ouvrirConnexion();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver JDBC introuvable", e);
+        }
+    }
+}
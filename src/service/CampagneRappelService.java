@@ -0,0 +1,172 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import dao.ActionLogDAO;
+import dao.EligibiliteDAO;
+import dao.RegistreDAO;
+import dao.StockSanguinDAO;
+import model.ActionLog;
+import model.Donneur;
+import model.GroupeSanguin;
+import model.StockSanguin;
+import utils.DateUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CampagneRappelService : prépare la liste des donneurs à appeler quand un stock est bas
+ *
+ * 💡 EXPLICATION :
+ * 1. On repère les groupes dont le stock disponible est sous StockSanguin.SEUIL_ALERTE_ML
+ * 2. Pour chaque groupe en manque, on cherche les donneurs qui peuvent le reconstituer :
+ *    - d'abord ceux du MÊME groupe
+ *    - puis les groupes compatibles (GroupeSanguin.getDonneursCompatibles)
+ *    - O- en dernier : donneur universel, on le garde pour les vrais manques
+ * 3. Seuls les donneurs ÉLIGIBLES aujourd'hui sont retenus (index d'éligibilité),
+ *    les plus fidèles d'abord (nombre de dons, puis don le plus récent)
+ * 4. La liste est écrite au fur et à mesure (CSV pour appels ou SMS)
+ *
+ * Chaque recherche lit l'index idx_rappel dans l'ordre du classement et
+ * s'arrête au quota : quelques requêtes courtes, quelle que soit la taille
+ * du fichier des donneurs (voir EligibiliteDAO.parcourirPourRappel).
+ *
+ * @author dteach
+ */
+public class CampagneRappelService {
+
+    // Nombre de donneurs à contacter par groupe en manque (par défaut)
+    public static final int LIMITE_PAR_GROUPE = 200;
+
+    private final StockSanguinDAO stockDAO;
+    private final EligibiliteDAO eligibiliteDAO;
+    private final ActionLogDAO actionLogDAO;
+
+    public CampagneRappelService() {
+        this(RegistreDAO.get().getStockSanguinDAO(), RegistreDAO.get().getEligibiliteDAO(),
+            RegistreDAO.get().getActionLogDAO());
+    }
+
+    public CampagneRappelService(StockSanguinDAO stockDAO, EligibiliteDAO eligibiliteDAO, ActionLogDAO actionLogDAO) {
+        this.stockDAO = stockDAO;
+        this.eligibiliteDAO = eligibiliteDAO;
+        this.actionLogDAO = actionLogDAO;
+    }
+
+    /**
+     * Groupes sous le seuil d'alerte, avec leur quantité disponible (ml)
+     * 💡 Un groupe absent du résumé n'a plus de stock du tout
+     */
+    public Map<String, Integer> getGroupesEnManque() {
+        Map<String, Integer> quantites = new LinkedHashMap<>();
+        for (String groupe : GroupeSanguin.TOUS_LES_GROUPES) {
+            quantites.put(groupe, 0);
+        }
+        for (Object[] ligne : stockDAO.getResumeStock()) {
+            quantites.put((String) ligne[0], (Integer) ligne[1]);
+        }
+        quantites.values().removeIf(q -> q >= StockSanguin.SEUIL_ALERTE_ML);
+        return quantites;
+    }
+
+    /**
+     * Ordre de sollicitation des groupes donneurs pour un groupe en manque
+     */
+    private static List<String> ordreSollicitation(String groupeEnManque) {
+        List<String> ordre = new ArrayList<>();
+        ordre.add(groupeEnManque);
+        for (String g : GroupeSanguin.getDonneursCompatibles(groupeEnManque)) {
+            if (!g.equals(groupeEnManque) && !GroupeSanguin.O_NEGATIF.equals(g)) {
+                ordre.add(g);
+            }
+        }
+        if (!GroupeSanguin.O_NEGATIF.equals(groupeEnManque)) {
+            ordre.add(GroupeSanguin.O_NEGATIF);
+        }
+        return ordre;
+    }
+
+    // ================================================================
+    // GÉNÉRATION DE LA CAMPAGNE
+    // ================================================================
+
+    /**
+     * Écrit la liste d'appel (CSV ;) des groupes actuellement en manque
+     *
+     * @param sortie Où écrire la liste (fichier, réponse HTTP...)
+     * @param limiteParGroupe Nombre maximal de donneurs par groupe en manque
+     * @return le nombre de donneurs listés
+     */
+    public int generer(Writer sortie, int limiteParGroupe) throws IOException {
+        Map<String, Integer> enManque = getGroupesEnManque();
+        LocalDate aujourdhui = LocalDate.now();
+        Set<Integer> dejaListes = new HashSet<>();
+        int total = 0;
+
+        sortie.write("priorite;groupe_en_manque;nom;prenom;groupe_sanguin;telephone;email;nb_dons;dernier_don\n");
+
+        for (String groupeEnManque : enManque.keySet()) {
+            int restant = limiteParGroupe;
+            int priorite = 1;
+
+            for (String groupeDonneur : ordreSollicitation(groupeEnManque)) {
+                if (restant <= 0) {
+                    break;
+                }
+                int[] ajoutes = {0};
+                int rang = priorite;
+                int quota = restant;
+                try {
+                    // On demande un peu plus que le quota : certains donneurs ont déjà été
+                    // listés pour un autre groupe en manque
+                    eligibiliteDAO.parcourirPourRappel(groupeDonneur, aujourdhui, quota + dejaListes.size(), c -> {
+                        if (ajoutes[0] < quota && dejaListes.add(c.getDonneur().getId())) {
+                            ecrire(sortie, rang, groupeEnManque, c);
+                            ajoutes[0]++;
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                restant -= ajoutes[0];
+                total += ajoutes[0];
+                priorite++;
+            }
+        }
+        sortie.flush();
+
+        actionLogDAO.log(ActionLog.ACTION_CONSULTER, ActionLog.ENTITE_DONNEUR,
+            "Campagne de rappel : " + total + " donneurs pour " + enManque.keySet());
+        System.out.println("✅ Campagne de rappel : " + total + " donneurs (" + enManque.keySet() + ")");
+        return total;
+    }
+
+    private static void ecrire(Writer sortie, int priorite, String groupeEnManque, EligibiliteDAO.Candidat c) {
+        Donneur d = c.getDonneur();
+        try {
+            sortie.write(priorite + ";" + groupeEnManque + ";" + csv(d.getNom()) + ";" + csv(d.getPrenom()) + ";"
+                + d.getGroupeSanguin() + ";" + csv(d.getTelephone()) + ";" + csv(d.getEmail()) + ";"
+                + c.getNbDons() + ";" + DateUtils.dateToString(c.getDerniereDateDon()) + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(String valeur) {
+        if (valeur == null) return "";
+        if (valeur.indexOf(';') >= 0 || valeur.indexOf('"') >= 0) {
+            return "\"" + valeur.replace("\"", "\"\"") + "\"";
+        }
+        return valeur;
+    }
+}
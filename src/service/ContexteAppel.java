@@ -0,0 +1,143 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import model.Utilisateur;
+
+import java.util.function.Supplier;
+
+/**
+ * ContexteAppel : "qui" effectue l'opération en cours
+ *
+ * 💡 EXPLICATION :
+ * Avant, les DAO demandaient l'utilisateur au singleton Session : une seule
+ * personne connectée pour toute l'application. Impossible d'avoir plusieurs
+ * utilisateurs en parallèle (mode serveur, threads de travail...).
+ *
+ * Maintenant :
+ * - Un ContexteAppel est IMMUABLE (aucun setter) : on peut le partager sans risque
+ * - Il est attaché au thread qui exécute l'opération, le temps de l'opération :
+ *
+ *     ContexteAppel.executer(ctx, () -> donDAO.valider(id));
+ *
+ * - Les DAO lisent ContexteAppel.courant() pour le journal d'audit
+ * - Sur le poste de travail (Swing), si aucun contexte n'est attaché,
+ *   on retombe sur l'utilisateur de la Session (adaptateur "bureau")
+ *
+ * @author dteach
+ */
+public final class ContexteAppel {
+
+    /**
+     * Une action exécutée sous un contexte (peut lever une exception vérifiée)
+     */
+    @FunctionalInterface
+    public interface Action<T, E extends Exception> {
+        T executer() throws E;
+    }
+
+    // Contexte attaché au thread courant (null = aucun)
+    private static final ThreadLocal<ContexteAppel> COURANT = new ThreadLocal<>();
+
+    // Contexte utilisé quand aucun n'est attaché au thread (ex: la Session Swing)
+    private static volatile Supplier<ContexteAppel> parDefaut = () -> null;
+
+    // ============ ATTRIBUTS (immuables) ============
+    private final int utilisateurId;
+    private final String utilisateurNom;
+    private final String role;
+
+    public ContexteAppel(int utilisateurId, String utilisateurNom, String role) {
+        this.utilisateurId = utilisateurId;
+        this.utilisateurNom = utilisateurNom;
+        this.role = role;
+    }
+
+    /**
+     * Crée le contexte d'un utilisateur authentifié
+     */
+    public static ContexteAppel depuis(Utilisateur utilisateur) {
+        return new ContexteAppel(utilisateur.getId(), utilisateur.getNomComplet(), utilisateur.getRole());
+    }
+
+    // ================================================================
+    // PORTÉE (attacher un contexte le temps d'une opération)
+    // ================================================================
+
+    /**
+     * Exécute une action sous ce contexte puis restaure le contexte précédent
+     */
+    public static <T, E extends Exception> T executer(ContexteAppel contexte, Action<T, E> action) throws E {
+        ContexteAppel precedent = COURANT.get();
+        COURANT.set(contexte);
+        try {
+            return action.executer();
+        } finally {
+            if (precedent == null) {
+                COURANT.remove();
+            } else {
+                COURANT.set(precedent);
+            }
+        }
+    }
+
+    /**
+     * Version sans valeur de retour
+     */
+    public static void executer(ContexteAppel contexte, Runnable action) {
+        executer(contexte, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Retourne le contexte de l'opération en cours (null si personne n'est identifié)
+     */
+    public static ContexteAppel courant() {
+        ContexteAppel contexte = COURANT.get();
+        return contexte != null ? contexte : parDefaut.get();
+    }
+
+    /**
+     * Définit le contexte utilisé quand aucun n'est attaché au thread
+     * 💡 Appelé par la Session du poste de travail
+     */
+    public static void setParDefaut(Supplier<ContexteAppel> fournisseur) {
+        parDefaut = fournisseur != null ? fournisseur : () -> null;
+    }
+
+    // ============ GETTERS ============
+
+    public int getUtilisateurId() {
+        return utilisateurId;
+    }
+
+    public String getUtilisateurNom() {
+        return utilisateurNom;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    // ============ PERMISSIONS (mêmes règles que Utilisateur) ============
+
+    public boolean estAdmin() {
+        return Utilisateur.ROLE_ADMIN.equals(role);
+    }
+
+    public boolean peutModifier() {
+        return estAdmin() || Utilisateur.ROLE_OPERATEUR.equals(role);
+    }
+
+    public boolean peutSupprimer() {
+        return estAdmin();
+    }
+
+    @Override
+    public String toString() {
+        return utilisateurNom + " (" + role + ")";
+    }
+}
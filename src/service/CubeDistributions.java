@@ -0,0 +1,640 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import dao.DistributionDAO;
+import dao.RegistreDAO;
+import model.Distribution;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CubeDistributions : les distributions en mémoire, pour les rapports de la direction
+ *
+ * 💡 EXPLICATION :
+ * Les rapports découpent les distributions par groupe, hôpital, ville et
+ * période ("le O- livré à Douala par mois", puis "détail par hôpital"...).
+ * Une requête SQL par découpage, c'est lent et ça charge la base.
+ *
+ * Le cube garde UNE copie compacte de la table, rangée par colonne :
+ * - une colonne = un tableau de nombres (int[], byte[]), pas d'objets
+ * - les textes (groupe, hôpital, ville, statut) sont remplacés par un code :
+ *   "O-" → 0, "A+" → 1... (dictionnaire), 1 octet au lieu d'une chaîne
+ * - les dates deviennent un numéro de jour et de mois
+ *
+ * Une agrégation parcourt ces tableaux EN PARALLÈLE (fork/join) : chaque
+ * tâche additionne un morceau des lignes dans ses propres cases, puis les
+ * morceaux sont additionnés deux à deux. Quelques millisecondes pour des
+ * centaines de milliers de distributions, sans aucune requête SQL.
+ *
+ * Mise à jour (rafraichir, au plus toutes les 5 s) :
+ * - les nouvelles distributions (identifiant > dernier chargé) sont ajoutées
+ * - le statut des distributions encore EN_COURS est relu (livrée, annulée)
+ * - si des lignes ont disparu, ou toutes les heures, le cube est rechargé
+ *   en entier (modification d'une ancienne distribution, ville d'un hôpital)
+ *
+ * @author dteach
+ */
+public class CubeDistributions {
+
+    /**
+     * Les axes d'analyse
+     */
+    public enum Dimension {
+        GROUPE, HOPITAL, VILLE, STATUT, JOUR, MOIS, ANNEE
+    }
+
+    private static final long DELAI_RAFRAICHISSEMENT_NANOS =
+        TimeUnit.MILLISECONDS.toNanos(Long.getLong("bloodplus.cube.rafraichissementMs", 5_000));
+    private static final long DELAI_RECHARGEMENT_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    // Lignes par tâche fork/join au minimum (en dessous, on ne découpe plus)
+    private static final int SEUIL_TACHE = 16_384;
+    // 💡 Au-delà, les cases sont rangées dans une table de hachage
+    //    (ex: jour × hôpital sur 10 ans) plutôt que dans un tableau
+    private static final int CASES_TABLEAU_MAX = 1 << 16;
+
+    private final DistributionDAO distributionDAO;
+
+    // ============ COLONNES (modifiées uniquement sous verrou) ============
+    private int[] ids = new int[0];
+    private byte[] groupes = new byte[0];
+    private int[] hopitaux = new int[0];
+    private int[] villes = new int[0];
+    private byte[] statuts = new byte[0];
+    private int[] jours = new int[0];           // LocalDate.toEpochDay()
+    private int[] mois = new int[0];            // année × 12 + mois - 1
+    private int[] quantites = new int[0];
+    private int taille;
+    private int archivees;                      // lignes lues dans distributions_archives
+
+    private final Dictionnaire dicoGroupes = new Dictionnaire();
+    private final Dictionnaire dicoHopitaux = new Dictionnaire();
+    private final Dictionnaire dicoVilles = new Dictionnaire();
+    private final Dictionnaire dicoStatuts = new Dictionnaire();
+
+    // Lignes encore EN_COURS : leur statut peut encore changer
+    private final List<Integer> enCours = new ArrayList<>();
+
+    private long rafraichiA;
+    private long chargeA;
+
+    // 💡 Ce que voient les agrégations : une photo des colonnes, publiée après
+    //    chaque mise à jour (les lignes ajoutées après ne sont pas lues)
+    private volatile Etat etat;
+
+    public CubeDistributions() {
+        this(RegistreDAO.get().getDistributionDAO());
+    }
+
+    public CubeDistributions(DistributionDAO distributionDAO) {
+        this.distributionDAO = distributionDAO;
+    }
+
+    // ================================================================
+    // CHARGEMENT
+    // ================================================================
+
+    /**
+     * Recharge tout le cube depuis la table distributions et son archive
+     * 💡 Les archives d'abord : les ids de la table de travail restent les
+     *    plus grands, le rafraîchissement continue après le dernier
+     */
+    public synchronized void recharger() {
+        long debut = System.currentTimeMillis();
+        ids = new int[0];
+        groupes = new byte[0];
+        hopitaux = new int[0];
+        villes = new int[0];
+        statuts = new byte[0];
+        jours = new int[0];
+        mois = new int[0];
+        quantites = new int[0];
+        taille = 0;
+        archivees = 0;
+        dicoGroupes.vider();
+        dicoHopitaux.vider();
+        dicoVilles.vider();
+        dicoStatuts.vider();
+        enCours.clear();
+
+        distributionDAO.parcourirArchives(this::ajouterLigne);
+        archivees = taille;
+        distributionDAO.parcourirDepuis(0, this::ajouterLigne);
+        chargeA = rafraichiA = System.nanoTime();
+        publier();
+        System.out.println("✅ Cube des distributions chargé : " + taille + " lignes ("
+            + (System.currentTimeMillis() - debut) + " ms)");
+    }
+
+    /**
+     * Ajoute les nouvelles distributions et relit les statuts EN_COURS
+     */
+    public synchronized void rafraichir() {
+        if (etat == null || System.nanoTime() - chargeA > DELAI_RECHARGEMENT_NANOS) {
+            recharger();
+            return;
+        }
+        distributionDAO.parcourirDepuis(taille > 0 ? ids[taille - 1] : 0, this::ajouterLigne);
+        relireEnCours();
+
+        // 💡 Moins de lignes en base que dans le cube : des distributions ont été
+        //    supprimées ou archivées depuis le chargement
+        if (distributionDAO.compter() < taille - archivees) {
+            recharger();
+            return;
+        }
+        rafraichiA = System.nanoTime();
+        publier();
+    }
+
+    /**
+     * Rafraîchit le cube s'il n'a pas été mis à jour depuis quelques secondes
+     */
+    private void rafraichirSiAncien() {
+        Etat e = etat;
+        if (e == null || System.nanoTime() - e.publieA > DELAI_RAFRAICHISSEMENT_NANOS) {
+            synchronized (this) {
+                if (etat == e) {
+                    rafraichir();
+                }
+            }
+        }
+    }
+
+    private void ajouterLigne(Distribution d) {
+        if (taille == ids.length) {
+            int capacite = Math.max(1024, taille * 2);
+            ids = Arrays.copyOf(ids, capacite);
+            groupes = Arrays.copyOf(groupes, capacite);
+            hopitaux = Arrays.copyOf(hopitaux, capacite);
+            villes = Arrays.copyOf(villes, capacite);
+            statuts = Arrays.copyOf(statuts, capacite);
+            jours = Arrays.copyOf(jours, capacite);
+            mois = Arrays.copyOf(mois, capacite);
+            quantites = Arrays.copyOf(quantites, capacite);
+        }
+        LocalDate jour = d.getDateDistribution() != null
+            ? d.getDateDistribution().toLocalDate() : LocalDate.now();
+        String statut = d.getStatut() != null ? d.getStatut() : Distribution.STATUT_EN_COURS;
+
+        ids[taille] = d.getId();
+        groupes[taille] = (byte) dicoGroupes.coder(d.getGroupeSanguin(), d.getGroupeSanguin());
+        hopitaux[taille] = dicoHopitaux.coder(String.valueOf(d.getHopitalId()), d.getHopital().getNom());
+        villes[taille] = dicoVilles.coder(d.getHopital().getVille(), d.getHopital().getVille());
+        statuts[taille] = (byte) dicoStatuts.coder(statut, statut);
+        jours[taille] = (int) jour.toEpochDay();
+        mois[taille] = jour.getYear() * 12 + jour.getMonthValue() - 1;
+        quantites[taille] = d.getQuantite();
+        if (Distribution.STATUT_EN_COURS.equals(statut)) {
+            enCours.add(taille);
+        }
+        taille++;
+    }
+
+    private void relireEnCours() {
+        if (enCours.isEmpty()) {
+            return;
+        }
+        List<Integer> aRelire = new ArrayList<>(enCours.size());
+        for (int ligne : enCours) {
+            aRelire.add(ids[ligne]);
+        }
+        Map<Integer, String> actuels = distributionDAO.getStatuts(aRelire);
+
+        // 💡 Copie avant écriture : l'Etat publié partage statuts, et les agrégations
+        //    en cours le lisent sans verrou. La copie est publiée avec le prochain Etat
+        byte[] nouveaux = statuts;
+        List<Integer> restants = new ArrayList<>();
+        for (int ligne : enCours) {
+            String statut = actuels.get(ids[ligne]);
+            if (statut != null) {
+                byte code = (byte) dicoStatuts.coder(statut, statut);
+                if (code != nouveaux[ligne]) {
+                    if (nouveaux == statuts) {
+                        nouveaux = statuts.clone();
+                    }
+                    nouveaux[ligne] = code;
+                }
+            }
+            if (statut == null || Distribution.STATUT_EN_COURS.equals(statut)) {
+                restants.add(ligne);
+            }
+        }
+        statuts = nouveaux;
+        enCours.clear();
+        enCours.addAll(restants);
+    }
+
+    private void publier() {
+        int jourMin = Integer.MAX_VALUE, jourMax = Integer.MIN_VALUE;
+        int moisMin = Integer.MAX_VALUE, moisMax = Integer.MIN_VALUE;
+        for (int i = 0; i < taille; i++) {
+            jourMin = Math.min(jourMin, jours[i]);
+            jourMax = Math.max(jourMax, jours[i]);
+            moisMin = Math.min(moisMin, mois[i]);
+            moisMax = Math.max(moisMax, mois[i]);
+        }
+        etat = new Etat(this, jourMin, jourMax, moisMin, moisMax);
+    }
+
+    // ================================================================
+    // AGRÉGATION
+    // ================================================================
+
+    /**
+     * Additionne les distributions selon les axes demandés
+     *
+     * 💡 Aucun axe = le grand total. Un axe de moins = on "remonte"
+     *    (par mois → par année), un filtre + un axe de plus = on "descend"
+     *    (le groupe O- → par hôpital).
+     *
+     * @param filtre Les lignes à garder (null = toutes)
+     * @param axes Les axes du découpage, dans l'ordre des colonnes du résultat
+     * @return Une ligne par case non vide : [libellé de chaque axe..., quantité (ml), nombre],
+     *         triées par libellés
+     */
+    public List<Object[]> agreger(Filtre filtre, Dimension... axes) {
+        rafraichirSiAncien();
+        Etat e = etat;
+        Requete requete = new Requete(e, filtre != null ? filtre : new Filtre(), axes);
+        if (e.taille == 0) {
+            return new ArrayList<>();
+        }
+        // 💡 Quelques tâches par cœur : chaque tâche a ses propres cases, à additionner ensuite
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int seuil = Math.max(SEUIL_TACHE, e.taille / (4 * pool.getParallelism()) + 1);
+        Cases cases = pool.invoke(new Tache(requete, 0, e.taille, seuil));
+        return requete.lignes(cases);
+    }
+
+    /**
+     * Nombre de distributions dans le cube
+     */
+    public int getTaille() {
+        rafraichirSiAncien();
+        return etat.taille;
+    }
+
+    /**
+     * Les lignes à garder : valeurs acceptées par axe, et période
+     */
+    public static class Filtre {
+        private final Map<Dimension, Set<String>> valeurs = new HashMap<>();
+        private LocalDate du;
+        private LocalDate au;
+
+        /**
+         * Garde les lignes dont l'axe a l'une de ces valeurs
+         * (HOPITAL : nom ou identifiant, JOUR/MOIS/ANNEE : utiliser entre())
+         */
+        public Filtre avec(Dimension axe, String... acceptees) {
+            valeurs.computeIfAbsent(axe, a -> new HashSet<>()).addAll(Arrays.asList(acceptees));
+            return this;
+        }
+
+        /**
+         * Garde les distributions faites entre ces deux jours (inclus, null = sans limite)
+         */
+        public Filtre entre(LocalDate du, LocalDate au) {
+            this.du = du;
+            this.au = au;
+            return this;
+        }
+    }
+
+    // ================================================================
+    // CLASSES INTERNES
+    // ================================================================
+
+    /**
+     * Dictionnaire d'un axe : valeur → code (0, 1, 2...) et code → libellé
+     */
+    private static final class Dictionnaire {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> cles = new ArrayList<>();
+        private final List<String> libelles = new ArrayList<>();
+
+        int coder(String cle, String libelle) {
+            String c = cle != null ? cle : "";
+            Integer code = codes.get(c);
+            if (code == null) {
+                code = cles.size();
+                codes.put(c, code);
+                cles.add(c);
+                libelles.add(libelle != null ? libelle : "");
+            }
+            return code;
+        }
+
+        void vider() {
+            codes.clear();
+            cles.clear();
+            libelles.clear();
+        }
+    }
+
+    /**
+     * Photo des colonnes lue par les agrégations
+     * 💡 Les tableaux sont partagés avec le cube : seules les lignes < taille sont lues,
+     *    et statuts est recopié avant d'être modifié (voir relireEnCours)
+     */
+    private static final class Etat {
+        final byte[] groupes, statuts;
+        final int[] hopitaux, villes, jours, mois, quantites;
+        final int taille;
+        final String[][] cles = new String[Dimension.values().length][];
+        final String[][] libelles = new String[Dimension.values().length][];
+        final int jourMin, jourMax, moisMin, moisMax;
+        final long publieA;
+
+        Etat(CubeDistributions cube, int jourMin, int jourMax, int moisMin, int moisMax) {
+            this.groupes = cube.groupes;
+            this.statuts = cube.statuts;
+            this.hopitaux = cube.hopitaux;
+            this.villes = cube.villes;
+            this.jours = cube.jours;
+            this.mois = cube.mois;
+            this.quantites = cube.quantites;
+            this.taille = cube.taille;
+            this.jourMin = jourMin;
+            this.jourMax = jourMax;
+            this.moisMin = moisMin;
+            this.moisMax = moisMax;
+            this.publieA = cube.rafraichiA;
+            copier(Dimension.GROUPE, cube.dicoGroupes);
+            copier(Dimension.HOPITAL, cube.dicoHopitaux);
+            copier(Dimension.VILLE, cube.dicoVilles);
+            copier(Dimension.STATUT, cube.dicoStatuts);
+        }
+
+        private void copier(Dimension axe, Dictionnaire dico) {
+            cles[axe.ordinal()] = dico.cles.toArray(new String[0]);
+            libelles[axe.ordinal()] = dico.libelles.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Une agrégation préparée : filtres traduits en codes, taille de chaque axe
+     */
+    private static final class Requete {
+        final Etat etat;
+        final Dimension[] axes;
+        final int[] cardinalites;
+        final long nombreCases;
+        final boolean[][] acceptes = new boolean[Dimension.values().length][];
+        final int jourDu, jourAu;
+
+        Requete(Etat etat, Filtre filtre, Dimension[] axes) {
+            this.etat = etat;
+            this.axes = axes;
+            this.jourDu = filtre.du != null ? (int) filtre.du.toEpochDay() : Integer.MIN_VALUE;
+            this.jourAu = filtre.au != null ? (int) filtre.au.toEpochDay() : Integer.MAX_VALUE;
+
+            for (Map.Entry<Dimension, Set<String>> f : filtre.valeurs.entrySet()) {
+                String[] cles = etat.cles[f.getKey().ordinal()];
+                if (cles == null) {
+                    throw new IllegalArgumentException("Filtrer " + f.getKey() + " avec entre()");
+                }
+                boolean[] accepte = new boolean[cles.length];
+                for (int code = 0; code < cles.length; code++) {
+                    accepte[code] = f.getValue().contains(cles[code])
+                        || f.getValue().contains(etat.libelles[f.getKey().ordinal()][code]);
+                }
+                acceptes[f.getKey().ordinal()] = accepte;
+            }
+
+            cardinalites = new int[axes.length];
+            long n = 1;
+            for (int a = 0; a < axes.length; a++) {
+                cardinalites[a] = cardinalite(axes[a]);
+                n *= cardinalites[a];
+            }
+            nombreCases = n;
+        }
+
+        private int cardinalite(Dimension axe) {
+            switch (axe) {
+                case JOUR:
+                    return Math.max(1, etat.jourMax - etat.jourMin + 1);
+                case MOIS:
+                    return Math.max(1, etat.moisMax - etat.moisMin + 1);
+                case ANNEE:
+                    return Math.max(1, etat.moisMax / 12 - etat.moisMin / 12 + 1);
+                default:
+                    return Math.max(1, etat.cles[axe.ordinal()].length);
+            }
+        }
+
+        boolean garder(int i) {
+            Etat e = etat;
+            return e.jours[i] >= jourDu && e.jours[i] <= jourAu
+                && accepte(Dimension.GROUPE, e.groupes[i])
+                && accepte(Dimension.HOPITAL, e.hopitaux[i])
+                && accepte(Dimension.VILLE, e.villes[i])
+                && accepte(Dimension.STATUT, e.statuts[i]);
+        }
+
+        private boolean accepte(Dimension axe, int code) {
+            boolean[] accepte = acceptes[axe.ordinal()];
+            return accepte == null || accepte[code];
+        }
+
+        /**
+         * Numéro de la case d'une ligne (les codes des axes mis bout à bout)
+         */
+        long caseDe(int i) {
+            long numero = 0;
+            for (int a = 0; a < axes.length; a++) {
+                numero = numero * cardinalites[a] + code(axes[a], i);
+            }
+            return numero;
+        }
+
+        private int code(Dimension axe, int i) {
+            Etat e = etat;
+            switch (axe) {
+                case GROUPE:
+                    return e.groupes[i];
+                case HOPITAL:
+                    return e.hopitaux[i];
+                case VILLE:
+                    return e.villes[i];
+                case STATUT:
+                    return e.statuts[i];
+                case JOUR:
+                    return e.jours[i] - e.jourMin;
+                case MOIS:
+                    return e.mois[i] - e.moisMin;
+                default:
+                    return e.mois[i] / 12 - e.moisMin / 12;
+            }
+        }
+
+        private String libelle(Dimension axe, int code) {
+            Etat e = etat;
+            switch (axe) {
+                case JOUR:
+                    return LocalDate.ofEpochDay(e.jourMin + code).toString();
+                case MOIS:
+                    int m = e.moisMin + code;
+                    return String.format("%04d-%02d", m / 12, m % 12 + 1);
+                case ANNEE:
+                    return String.valueOf(e.moisMin / 12 + code);
+                default:
+                    return e.libelles[axe.ordinal()][code];
+            }
+        }
+
+        /**
+         * Traduit les cases non vides en lignes de résultat
+         */
+        List<Object[]> lignes(Cases cases) {
+            List<Object[]> lignes = new ArrayList<>();
+            cases.pourChaque((numero, quantite, nombre) -> {
+                Object[] ligne = new Object[axes.length + 2];
+                long reste = numero;
+                for (int a = axes.length - 1; a >= 0; a--) {
+                    ligne[a] = libelle(axes[a], (int) (reste % cardinalites[a]));
+                    reste /= cardinalites[a];
+                }
+                ligne[axes.length] = quantite;
+                ligne[axes.length + 1] = nombre;
+                lignes.add(ligne);
+            });
+            lignes.sort((x, y) -> {
+                for (int a = 0; a < axes.length; a++) {
+                    int c = ((String) x[a]).compareTo((String) y[a]);
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+                return 0;
+            });
+            return lignes;
+        }
+    }
+
+    /**
+     * Les totaux d'une tâche, case par case
+     *
+     * 💡 Peu de cases : un tableau indexé par le numéro de case. Beaucoup de
+     *    cases (surtout vides) : une table de hachage "à adressage ouvert"
+     *    sur des tableaux de long, sans créer un objet par case.
+     */
+    private static final class Cases {
+        private final boolean creuses;
+        private long[] numeros;             // Cases creuses : numéro + 1 (0 = place libre)
+        private long[] quantites;
+        private long[] nombres;
+        private int occupees;
+
+        Cases(long nombreCases) {
+            creuses = nombreCases > CASES_TABLEAU_MAX;
+            int places = creuses ? 1024 : (int) nombreCases;
+            numeros = creuses ? new long[places] : null;
+            quantites = new long[places];
+            nombres = new long[places];
+        }
+
+        void ajouter(long numero, long quantite, long nombre) {
+            int place = creuses ? place(numero) : (int) numero;
+            quantites[place] += quantite;
+            nombres[place] += nombre;
+        }
+
+        private int place(long numero) {
+            int masque = numeros.length - 1;
+            int p = (int) (numero * 0x9E3779B97F4A7C15L >>> 40) & masque;
+            while (numeros[p] != 0 && numeros[p] != numero + 1) {
+                p = (p + 1) & masque;
+            }
+            if (numeros[p] == 0) {
+                if (2 * (occupees + 1) > numeros.length) {
+                    agrandir();
+                    return place(numero);
+                }
+                numeros[p] = numero + 1;
+                occupees++;
+            }
+            return p;
+        }
+
+        private void agrandir() {
+            long[] anciensNumeros = numeros, anciennesQuantites = quantites, anciensNombres = nombres;
+            numeros = new long[anciensNumeros.length * 2];
+            quantites = new long[numeros.length];
+            nombres = new long[numeros.length];
+            occupees = 0;
+            for (int p = 0; p < anciensNumeros.length; p++) {
+                if (anciensNumeros[p] != 0) {
+                    ajouter(anciensNumeros[p] - 1, anciennesQuantites[p], anciensNombres[p]);
+                }
+            }
+        }
+
+        Cases fusionner(Cases autres) {
+            autres.pourChaque(this::ajouter);
+            return this;
+        }
+
+        void pourChaque(Visiteur visiteur) {
+            for (int p = 0; p < nombres.length; p++) {
+                if (nombres[p] > 0) {
+                    visiteur.visiter(creuses ? numeros[p] - 1 : p, quantites[p], nombres[p]);
+                }
+            }
+        }
+
+        interface Visiteur {
+            void visiter(long numero, long quantite, long nombre);
+        }
+    }
+
+    /**
+     * Additionne les lignes [debut, fin[ : coupée en deux tant qu'elle est trop grosse
+     */
+    private static final class Tache extends RecursiveTask<Cases> {
+        private final Requete requete;
+        private final int debut;
+        private final int fin;
+        private final int seuil;
+
+        Tache(Requete requete, int debut, int fin, int seuil) {
+            this.requete = requete;
+            this.debut = debut;
+            this.fin = fin;
+            this.seuil = seuil;
+        }
+
+        @Override
+        protected Cases compute() {
+            if (fin - debut > seuil) {
+                int milieu = (debut + fin) >>> 1;
+                Tache gauche = new Tache(requete, debut, milieu, seuil);
+                gauche.fork();
+                Cases droite = new Tache(requete, milieu, fin, seuil).compute();
+                return gauche.join().fusionner(droite);
+            }
+            Cases cases = new Cases(requete.nombreCases);
+            int[] quantites = requete.etat.quantites;
+            for (int i = debut; i < fin; i++) {
+                if (requete.garder(i)) {
+                    cases.ajouter(requete.caseDe(i), quantites[i], 1);
+                }
+            }
+            return cases;
+        }
+    }
+}
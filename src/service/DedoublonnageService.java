@@ -0,0 +1,345 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import dao.DatabaseConnection;
+import dao.DonneurDAO;
+import dao.RegistreDAO;
+import model.Donneur;
+import utils.SimilariteUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DedoublonnageService : détecte les donneurs enregistrés plusieurs fois
+ *
+ * 💡 EXPLICATION :
+ * Comparer chaque donneur à tous les autres coûte n² comparaisons :
+ * 1 million de donneurs = 500 milliards de paires, impossible.
+ *
+ * On utilise des CLÉS DE REGROUPEMENT ("blocking") :
+ * - nom phonétique + date de naissance (ou nom + prénom phonétiques si pas de date)
+ * - téléphone normalisé
+ * - email normalisé
+ * Seuls les donneurs qui partagent au moins une clé sont comparés.
+ * Les groupes sont petits : le nombre de paires reste proche de n.
+ *
+ * Chaque paire candidate reçoit ensuite un SCORE (Jaro-Winkler sur les noms,
+ * égalité des dates / téléphones / emails). Les groupes sont traités
+ * EN PARALLÈLE sur tous les cœurs.
+ *
+ * verifier(donneur) fait la même chose pour UN donneur (à l'inscription),
+ * avec des recherches indexées en base au lieu d'un parcours complet.
+ * Les clés de ces recherches sont calculées à l'enregistrement ; celles des
+ * fiches plus anciennes par completerClesEnFond(), au démarrage.
+ *
+ * @author dteach
+ */
+public class DedoublonnageService {
+
+    // Score minimal pour proposer une fusion
+    public static final double SEUIL_SUGGESTION = 0.80;
+
+    // 💡 Un groupe plus grand correspond à une valeur "générique"
+    //    (ex: le standard téléphonique d'une entreprise) : on l'ignore
+    public static final int TAILLE_MAX_GROUPE = 500;
+
+    // Fiches complétées par transaction (voir completerClesEnFond)
+    public static final int TAILLE_LOT_CLES = Math.max(1, Integer.getInteger("bloodplus.dedoublonnage.lot", 500));
+
+    private static boolean clesLancees = false;
+
+    /**
+     * Une proposition de fusion entre deux donneurs
+     */
+    public static class Suggestion {
+        private final Donneur donneurA;
+        private final Donneur donneurB;
+        private final double score;
+        private final String motif;
+
+        Suggestion(Donneur donneurA, Donneur donneurB, double score, String motif) {
+            this.donneurA = donneurA;
+            this.donneurB = donneurB;
+            this.score = score;
+            this.motif = motif;
+        }
+
+        public Donneur getDonneurA() {
+            return donneurA;
+        }
+
+        public Donneur getDonneurB() {
+            return donneurB;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public String getMotif() {
+            return motif;
+        }
+    }
+
+    /**
+     * Version "préparée" d'un donneur : tout est normalisé UNE fois
+     */
+    private static class Fiche {
+        final Donneur donneur;
+        final String nom;
+        final String prenom;
+        final long naissance;     // jour depuis 1970, ou -1
+        final String telephone;
+        final String email;
+        final String[] cles;
+
+        Fiche(Donneur d) {
+            this.donneur = d;
+            this.nom = SimilariteUtils.normaliser(d.getNom());
+            this.prenom = SimilariteUtils.normaliser(d.getPrenom());
+            this.naissance = d.getDateNaissance() == null ? -1
+                : d.getDateNaissance().toEpochDay();
+            this.telephone = SimilariteUtils.normaliserTelephone(d.getTelephone());
+            this.email = SimilariteUtils.normaliserEmail(d.getEmail());
+            this.cles = calculerCles();
+        }
+
+        private String[] calculerCles() {
+            List<String> c = new ArrayList<>(3);
+            String phonNom = SimilariteUtils.clePhonetique(nom);
+            if (naissance >= 0) {
+                c.add("N:" + phonNom + ":" + naissance);
+            } else {
+                c.add("P:" + phonNom + ":" + SimilariteUtils.clePhonetique(prenom));
+            }
+            if (telephone.length() >= 8) {
+                c.add("T:" + telephone);
+            }
+            if (!email.isEmpty()) {
+                c.add("E:" + email);
+            }
+            return c.toArray(new String[0]);
+        }
+
+        /**
+         * Plus petite clé commune aux deux fiches, hors groupes ignorés (null si aucune)
+         */
+        String premiereCleCommune(Fiche autre, Set<String> ignorees) {
+            String min = null;
+            for (String a : cles) {
+                for (String b : autre.cles) {
+                    if (a.equals(b) && !ignorees.contains(a) && (min == null || a.compareTo(min) < 0)) {
+                        min = a;
+                    }
+                }
+            }
+            return min;
+        }
+    }
+
+    private final DonneurDAO donneurDAO;
+
+    public DedoublonnageService() {
+        this(RegistreDAO.get().getDonneurDAO());
+    }
+
+    public DedoublonnageService(DonneurDAO donneurDAO) {
+        this.donneurDAO = donneurDAO;
+    }
+
+    // ================================================================
+    // ANALYSE COMPLÈTE
+    // ================================================================
+
+    /**
+     * Analyse toute la base et retourne les fusions proposées (meilleur score d'abord)
+     */
+    public List<Suggestion> analyser() {
+        long debut = System.currentTimeMillis();
+
+        // 1. Lecture + regroupement par clé
+        Map<String, List<Fiche>> groupes = new HashMap<>();
+        AtomicInteger nbDonneurs = new AtomicInteger();
+        donneurDAO.parcourirTous(d -> {
+            nbDonneurs.incrementAndGet();
+            Fiche fiche = new Fiche(d);
+            for (String cle : fiche.cles) {
+                groupes.computeIfAbsent(cle, k -> new ArrayList<>(2)).add(fiche);
+            }
+        });
+
+        Set<String> ignorees = new HashSet<>();
+        groupes.forEach((cle, groupe) -> {
+            if (groupe.size() > TAILLE_MAX_GROUPE) {
+                ignorees.add(cle);
+            }
+        });
+
+        // 2. Comparaison des paires de chaque groupe, en parallèle
+        ConcurrentLinkedQueue<Suggestion> suggestions = new ConcurrentLinkedQueue<>();
+        groupes.entrySet().parallelStream()
+            .filter(e -> e.getValue().size() > 1 && !ignorees.contains(e.getKey()))
+            .forEach(e -> comparerGroupe(e.getKey(), e.getValue(), ignorees, suggestions));
+
+        List<Suggestion> resultat = trier(suggestions);
+        System.out.println("✅ Dédoublonnage : " + nbDonneurs.get() + " donneurs, " + groupes.size()
+            + " groupes, " + resultat.size() + " suggestions (" + (System.currentTimeMillis() - debut) + " ms)");
+        return resultat;
+    }
+
+    private static void comparerGroupe(String cle, List<Fiche> groupe, Set<String> ignorees,
+            Collection<Suggestion> suggestions) {
+        for (int i = 0; i < groupe.size(); i++) {
+            for (int j = i + 1; j < groupe.size(); j++) {
+                Fiche a = groupe.get(i);
+                Fiche b = groupe.get(j);
+                // 💡 Une paire peut partager plusieurs clés : on ne la compare
+                //    que dans le groupe de sa plus petite clé commune (pas de doublon, pas de verrou)
+                if (!cle.equals(a.premiereCleCommune(b, ignorees))) {
+                    continue;
+                }
+                Suggestion s = comparer(a, b);
+                if (s != null) {
+                    suggestions.add(s);
+                }
+            }
+        }
+    }
+
+    // ================================================================
+    // VÉRIFICATION D'UN SEUL DONNEUR
+    // ================================================================
+
+    /**
+     * Cherche les doublons possibles d'un donneur (nouveau ou existant)
+     * 💡 Quelques recherches indexées : utilisable à chaque inscription
+     */
+    public List<Suggestion> verifier(Donneur donneur) {
+        Fiche fiche = new Fiche(donneur);
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Donneur candidat : donneurDAO.trouverCandidatsDoublons(donneur)) {
+            Suggestion s = comparer(new Fiche(candidat), fiche);
+            if (s != null) {
+                suggestions.add(s);
+            }
+        }
+        return trier(suggestions);
+    }
+
+    // ================================================================
+    // CLÉS DES FICHES ANCIENNES
+    // ================================================================
+
+    /**
+     * Lance une fois, en tâche de fond, le calcul des clés de recherche manquantes
+     * 💡 Comme l'archivage : SA connexion, jamais celle de l'interface
+     */
+    public static synchronized void completerClesEnFond(RegistreDAO registre) {
+        if (clesLancees) {
+            return;
+        }
+        clesLancees = true;
+        Thread thread = new Thread(() -> {
+            try {
+                int total = completerCles(registre);
+                if (total > 0) {
+                    System.out.println("✅ Clés de dédoublonnage calculées pour " + total + " donneurs");
+                }
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("⚠️ Clés de dédoublonnage incomplètes: " + e.getMessage());
+            }
+        }, "BloodPlus-cles-doublons");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Calcule les clés manquantes sur une connexion dédiée
+     *
+     * @return Le nombre de fiches complétées
+     */
+    public static int completerCles(RegistreDAO registre) throws SQLException {
+        try (Connection connection = ouvrirConnexion()) {
+            RegistreDAO.Liaison liaison = registre.lier(connection);
+            try {
+                return registre.getDonneurDAO().completerClesDoublons(TAILLE_LOT_CLES);
+            } finally {
+                liaison.close();
+            }
+        }
+    }
+
+    private static Connection ouvrirConnexion() throws SQLException {
+        try {
+            return DatabaseConnection.ouvrirConnexion();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver JDBC introuvable", e);
+        }
+    }
+
+    /**
+     * Fusionne une suggestion : le donneur A (le plus ancien) est conservé
+     */
+    public boolean fusionner(Suggestion suggestion) {
+        return donneurDAO.fusionner(suggestion.getDonneurA().getId(), suggestion.getDonneurB().getId());
+    }
+
+    // ================================================================
+    // SCORE D'UNE PAIRE
+    // ================================================================
+
+    /**
+     * Score pondéré : nom 35 %, prénom 25 %, naissance 20 %, téléphone 10 %, email 10 %
+     * 💡 Nom et prénom inversés à la saisie sont aussi testés
+     *
+     * @return la suggestion, ou null si le score est sous le seuil
+     */
+    private static Suggestion comparer(Fiche a, Fiche b) {
+        double noms = 0.35 * SimilariteUtils.jaroWinkler(a.nom, b.nom)
+                    + 0.25 * SimilariteUtils.jaroWinkler(a.prenom, b.prenom);
+        double inverses = 0.35 * SimilariteUtils.jaroWinkler(a.nom, b.prenom)
+                        + 0.25 * SimilariteUtils.jaroWinkler(a.prenom, b.nom);
+
+        StringBuilder motif = new StringBuilder(inverses > noms ? "noms inversés" : "noms proches");
+        double score = Math.max(noms, inverses);
+        if (a.naissance >= 0 && a.naissance == b.naissance) {
+            score += 0.20;
+            motif.append(", même naissance");
+        }
+        if (!a.telephone.isEmpty() && a.telephone.equals(b.telephone)) {
+            score += 0.10;
+            motif.append(", même téléphone");
+        }
+        if (!a.email.isEmpty() && a.email.equals(b.email)) {
+            score += 0.10;
+            motif.append(", même email");
+        }
+
+        if (score < SEUIL_SUGGESTION) {
+            return null;
+        }
+        // Le plus ancien (plus petit ID) est proposé comme fiche à conserver
+        boolean aDabord = a.donneur.getId() <= b.donneur.getId() || b.donneur.getId() == 0;
+        return aDabord
+            ? new Suggestion(a.donneur, b.donneur, score, motif.toString())
+            : new Suggestion(b.donneur, a.donneur, score, motif.toString());
+    }
+
+    private static List<Suggestion> trier(Collection<Suggestion> suggestions) {
+        List<Suggestion> liste = new ArrayList<>(suggestions);
+        liste.sort((x, y) -> Double.compare(y.getScore(), x.getScore()));
+        return liste;
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import dao.DatabaseConnection;
+import dao.DonneurDAO;
+import dao.EligibiliteDAO;
+import dao.RegistreDAO;
+import model.ActionLog;
+import model.Donneur;
+import utils.DateUtils;
+import utils.ValidationUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * ImportDonneursService : importe un fichier CSV de donneurs (collectes de sang)
+ *
+ * 💡 EXPLICATION :
+ * Les collectes nous envoient des tableurs de plusieurs milliers de donneurs.
+ * Passer par DonneurDAO.ajouter() ligne par ligne coûterait, PAR donneur :
+ * un INSERT, une lecture de clé générée, un INSERT d'audit et un affichage console.
+ *
+ * Ici, le fichier est traité par BLOCS de TAILLE_BLOC lignes :
+ * 1. Lecture en flux (BufferedReader) : le fichier n'est jamais chargé en entier
+ * 2. Découpage + validation du bloc EN PARALLÈLE (ValidationUtils)
+ * 3. Écriture des lignes valides avec des INSERT multi-lignes (TAILLE_LOT_SQL lignes
+ *    par requête), mise à jour de l'index d'éligibilité, puis COMMIT : une transaction par bloc
+ * 4. Les lignes refusées sont écrites dans un fichier de rejets (numéro, motif, contenu)
+ *
+ * À la fin, UNE seule entrée dans le journal d'audit résume l'import.
+ *
+ * Format attendu : une ligne d'en-tête avec les noms de colonnes, séparateur ; ou ,
+ *   nom;prenom;date_naissance;sexe;groupe_sanguin;telephone;email;adresse
+ * (nom, prenom et groupe_sanguin sont obligatoires, dates au format jj/mm/aaaa ou aaaa-mm-jj)
+ *
+ * @author dteach
+ */
+public class ImportDonneursService {
+
+    // Lignes lues, validées puis écrites en base dans une même transaction
+    public static final int TAILLE_BLOC = 5000;
+    // Lignes par requête INSERT multi-lignes
+    public static final int TAILLE_LOT_SQL = 500;
+
+    private static final String[] COLONNES_OBLIGATOIRES = {"nom", "prenom", "groupe_sanguin"};
+
+
+    /**
+     * Bilan d'un import
+     */
+    public static class Resultat {
+        private int lues;
+        private int importees;
+        private int rejetees;
+        private long dureeMs;
+        private Path fichierRejets;
+
+        public int getLues() {
+            return lues;
+        }
+
+        public int getImportees() {
+            return importees;
+        }
+
+        public int getRejetees() {
+            return rejetees;
+        }
+
+        public long getDureeMs() {
+            return dureeMs;
+        }
+
+        public Path getFichierRejets() {
+            return fichierRejets;
+        }
+
+        @Override
+        public String toString() {
+            return lues + " lignes lues, " + importees + " donneurs importés, "
+                + rejetees + " rejetées (" + dureeMs + " ms)";
+        }
+    }
+
+    /**
+     * Une ligne du fichier, avec le résultat de sa validation
+     */
+    private static class Ligne {
+        final int numero;
+        final String texte;
+        Donneur donneur;   // rempli si la ligne est valide
+        String motif;      // rempli si la ligne est rejetée
+
+        Ligne(int numero, String texte) {
+            this.numero = numero;
+            this.texte = texte;
+        }
+    }
+
+    private final RegistreDAO registre;
+
+    public ImportDonneursService() {
+        this(RegistreDAO.get());
+    }
+
+    public ImportDonneursService(RegistreDAO registre) {
+        this.registre = registre;
+    }
+
+    // ================================================================
+    // IMPORT
+    // ================================================================
+
+    /**
+     * Importe le fichier CSV
+     *
+     * @param fichier Le fichier CSV (UTF-8)
+     * @param fichierRejets Le fichier où écrire les lignes refusées
+     * @param progression Reçoit le nombre de lignes traitées après chaque bloc (peut être null)
+     * @return le bilan de l'import
+     */
+    public Resultat importer(Path fichier, Path fichierRejets, IntConsumer progression)
+            throws IOException, SQLException {
+        long debut = System.currentTimeMillis();
+        // Contexte capturé AVANT de paralléliser : les threads de travail n'en ont pas
+        ContexteAppel contexte = ContexteAppel.courant();
+        Resultat resultat = new Resultat();
+        resultat.fichierRejets = fichierRejets;
+
+        try (BufferedReader lecteur = Files.newBufferedReader(fichier, StandardCharsets.UTF_8);
+             BufferedWriter rejets = Files.newBufferedWriter(fichierRejets, StandardCharsets.UTF_8);
+             Connection connection = ouvrirConnexion()) {
+            // 💡 Les DAO du registre écrivent sur CETTE connexion (la transaction de l'import)
+            RegistreDAO.Liaison liaison = registre.lier(connection);
+            try {
+                String entete = lecteur.readLine();
+                if (entete == null) {
+                    throw new IOException("Fichier vide: " + fichier);
+                }
+                if (entete.startsWith("\uFEFF")) {
+                    entete = entete.substring(1);   // BOM ajouté par Excel
+                }
+                char separateur = entete.indexOf(';') >= 0 ? ';' : ',';
+                Map<String, Integer> colonnes = indexerColonnes(entete, separateur);
+
+                rejets.write("ligne;motif;contenu");
+                rejets.newLine();
+
+                DonneurDAO donneurDAO = registre.getDonneurDAO();
+                EligibiliteDAO eligibiliteDAO = registre.getEligibiliteDAO();
+                connection.setAutoCommit(false);
+                try {
+                    List<Ligne> bloc = new ArrayList<>(TAILLE_BLOC);
+                    int numero = 1;
+                    String texte;
+                    while ((texte = lecteur.readLine()) != null) {
+                        numero++;
+                        if (texte.trim().isEmpty()) {
+                            continue;
+                        }
+                        bloc.add(new Ligne(numero, texte));
+                        if (bloc.size() == TAILLE_BLOC) {
+                            traiterBloc(bloc, separateur, colonnes, donneurDAO, eligibiliteDAO, connection, rejets, resultat);
+                            bloc.clear();
+                            if (progression != null) {
+                                progression.accept(resultat.lues);
+                            }
+                        }
+                    }
+                    traiterBloc(bloc, separateur, colonnes, donneurDAO, eligibiliteDAO, connection, rejets, resultat);
+
+                    resultat.dureeMs = System.currentTimeMillis() - debut;
+                    registre.getActionLogDAO().log(contexte, ActionLog.ACTION_AJOUTER, ActionLog.ENTITE_DONNEUR,
+                        "Import CSV " + fichier.getFileName() + " : " + resultat);
+                    connection.commit();
+
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw new SQLException("Import interrompu après " + resultat.importees
+                        + " donneurs importés: " + e.getMessage(), e);
+                }
+            } finally {
+                liaison.close();
+            }
+        }
+
+        if (progression != null) {
+            progression.accept(resultat.lues);
+        }
+        System.out.println("✅ Import terminé : " + resultat);
+        return resultat;
+    }
+
+    /**
+     * Valide un bloc en parallèle puis l'écrit en base dans une transaction
+     */
+    private void traiterBloc(List<Ligne> bloc, char separateur, Map<String, Integer> colonnes,
+            DonneurDAO donneurDAO, EligibiliteDAO eligibiliteDAO, Connection connection,
+            BufferedWriter rejets, Resultat resultat)
+            throws IOException, SQLException {
+        if (bloc.isEmpty()) {
+            return;
+        }
+
+        // 💡 Chaque ligne est indépendante : on répartit la validation sur tous les cœurs
+        bloc.parallelStream().forEach(ligne -> valider(ligne, separateur, colonnes));
+
+        List<Donneur> valides = new ArrayList<>(bloc.size());
+        for (Ligne ligne : bloc) {
+            if (ligne.donneur != null) {
+                valides.add(ligne.donneur);
+            } else {
+                rejets.write(ligne.numero + ";" + ligne.motif + ";" + ligne.texte);
+                rejets.newLine();
+                resultat.rejetees++;
+            }
+        }
+
+        int idAvant = donneurDAO.getIdMax();
+        int inserees = 0;
+        for (int i = 0; i < valides.size(); i += TAILLE_LOT_SQL) {
+            inserees += donneurDAO.ajouterEnLot(
+                valides.subList(i, Math.min(i + TAILLE_LOT_SQL, valides.size())));
+        }
+        // Index d'éligibilité des nouveaux donneurs, dans la même transaction
+        eligibiliteDAO.recalculerApres(idAvant);
+        connection.commit();
+        resultat.importees += inserees;
+        resultat.lues += bloc.size();
+    }
+
+    // ================================================================
+    // LECTURE ET VALIDATION D'UNE LIGNE
+    // ================================================================
+
+    private static Map<String, Integer> indexerColonnes(String entete, char separateur) throws IOException {
+        Map<String, Integer> colonnes = new HashMap<>();
+        List<String> noms = decouper(entete, separateur);
+        for (int i = 0; i < noms.size(); i++) {
+            colonnes.put(noms.get(i).trim().toLowerCase(), i);
+        }
+        for (String obligatoire : COLONNES_OBLIGATOIRES) {
+            if (!colonnes.containsKey(obligatoire)) {
+                throw new IOException("Colonne obligatoire absente de l'en-tête: " + obligatoire);
+            }
+        }
+        return colonnes;
+    }
+
+    /**
+     * Transforme une ligne en Donneur, ou renseigne le motif du rejet
+     * 💡 Appelée depuis plusieurs threads : n'utilise que des objets locaux ou sans état
+     */
+    private static void valider(Ligne ligne, char separateur, Map<String, Integer> colonnes) {
+        List<String> champs = decouper(ligne.texte, separateur);
+
+        String nom = champ(champs, colonnes, "nom");
+        String prenom = champ(champs, colonnes, "prenom");
+        String groupe = champ(champs, colonnes, "groupe_sanguin");
+        String telephone = champ(champs, colonnes, "telephone");
+        String email = champ(champs, colonnes, "email");
+        String sexe = champ(champs, colonnes, "sexe");
+        String dateNaissance = champ(champs, colonnes, "date_naissance");
+
+        if (!ValidationUtils.estNomValide(nom)) {
+            ligne.motif = "Nom invalide";
+        } else if (!ValidationUtils.estNomValide(prenom)) {
+            ligne.motif = "Prénom invalide";
+        } else if (!ValidationUtils.estGroupeSanguinValide(groupe == null ? null : groupe.toUpperCase())) {
+            ligne.motif = "Groupe sanguin invalide";
+        } else if (telephone != null && !ValidationUtils.estTelephoneValide(telephone)) {
+            ligne.motif = "Téléphone invalide";
+        } else if (email != null && !ValidationUtils.estEmailValide(email)) {
+            ligne.motif = "Email invalide";
+        } else if (sexe != null && !sexe.equalsIgnoreCase("M") && !sexe.equalsIgnoreCase("F")) {
+            ligne.motif = "Sexe invalide (M ou F)";
+        }
+
+        LocalDate naissance = null;
+        if (ligne.motif == null && dateNaissance != null) {
+            naissance = lireDate(dateNaissance);
+            if (naissance == null) {
+                ligne.motif = "Date de naissance invalide";
+            }
+        }
+        if (ligne.motif != null) {
+            return;
+        }
+
+        Donneur donneur = new Donneur(nom, prenom, groupe.toUpperCase(), telephone);
+        donneur.setDateNaissance(naissance);
+        donneur.setSexe(sexe != null ? sexe.toUpperCase() : "M");
+        donneur.setEmail(email);
+        donneur.setAdresse(champ(champs, colonnes, "adresse"));
+        ligne.donneur = donneur;
+    }
+
+    /**
+     * Valeur d'une colonne (null si absente ou vide)
+     */
+    private static String champ(List<String> champs, Map<String, Integer> colonnes, String nom) {
+        Integer index = colonnes.get(nom);
+        if (index == null || index >= champs.size()) {
+            return null;
+        }
+        String valeur = champs.get(index).trim();
+        return valeur.isEmpty() ? null : valeur;
+    }
+
+    private static LocalDate lireDate(String texte) {
+        try {
+            // 💡 Le formateur de DateUtils est immuable : partagé par les threads d'import
+            return texte.contains("/")
+                ? LocalDate.parse(texte, DateUtils.FORMATEUR_DATE)
+                : LocalDate.parse(texte);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Découpe une ligne CSV (gère les champs entre guillemets : "Dupont; Jr")
+     */
+    private static List<String> decouper(String ligne, char separateur) {
+        List<String> champs = new ArrayList<>();
+        StringBuilder courant = new StringBuilder();
+        boolean entreGuillemets = false;
+
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (c == '"') {
+                if (entreGuillemets && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    courant.append('"');   // "" = guillemet échappé
+                    i++;
+                } else {
+                    entreGuillemets = !entreGuillemets;
+                }
+            } else if (c == separateur && !entreGuillemets) {
+                champs.add(courant.toString());
+                courant.setLength(0);
+            } else {
+                courant.append(c);
+            }
+        }
+        champs.add(courant.toString());
+        return champs;
+    }
+
+    /**
+     * Connexion dédiée à l'import : la connexion partagée de l'interface
+     * n'est pas bloquée dans une longue transaction
+     */
+    private static Connection ouvrirConnexion() throws SQLException {
+        try {
+            return DatabaseConnection.ouvrirConnexion();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver JDBC introuvable", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import dao.DatabaseConnection;
+import dao.Dialecte;
+import dao.InstantaneStockDAO;
+import dao.RegistreDAO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InstantanesStockService : prend chaque jour la photo du stock (instantanes_stock)
+ *
+ * 💡 EXPLICATION :
+ * Une tâche de fond vérifie toutes les heures que la photo d'hier existe.
+ * Si l'application était fermée plusieurs jours (poste de bureau), elle
+ * rattrape tous les jours manquants, du plus ancien au plus récent : chaque
+ * photo est calculée à partir de la précédente (voir InstantaneStockDAO).
+ *
+ * La photo du jour J n'est prise que le lendemain : la journée J est
+ * terminée, la photo ne changera plus.
+ *
+ * Comme l'import CSV, la tâche travaille sur SA connexion : la connexion
+ * partagée de l'interface n'est jamais prise dans sa transaction.
+ *
+ * @author dteach
+ */
+public class InstantanesStockService {
+
+    // Sans aucune photo, on commence à ce nombre de jours en arrière
+    public static final int JOURS_HISTORIQUE = 90;
+    public static final long PERIODE_HEURES = 1;
+
+    private final RegistreDAO registre;
+    private ScheduledExecutorService planificateur;
+
+    public InstantanesStockService() {
+        this(RegistreDAO.get());
+    }
+
+    public InstantanesStockService(RegistreDAO registre) {
+        this.registre = registre;
+    }
+
+    // ================================================================
+    // TÂCHE DE FOND
+    // ================================================================
+
+    /**
+     * Lance la tâche de fond (tout de suite, puis toutes les heures)
+     */
+    public synchronized void demarrer() {
+        if (planificateur != null) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "BloodPlus-instantanes");
+            t.setDaemon(true);
+            return t;
+        });
+        planificateur.scheduleWithFixedDelay(this::rattraperSansErreur, 0, PERIODE_HEURES, TimeUnit.HOURS);
+    }
+
+    public synchronized void arreter() {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+            planificateur = null;
+        }
+    }
+
+    // 💡 Une exception arrêterait définitivement la tâche planifiée
+    private void rattraperSansErreur() {
+        try {
+            rattraper();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("⚠️ Photo du stock non prise : " + e.getMessage());
+        }
+    }
+
+    // ================================================================
+    // PRISE DES PHOTOS
+    // ================================================================
+
+    /**
+     * Prend toutes les photos manquantes jusqu'à hier
+     *
+     * @return Le nombre de photos prises
+     */
+    public int rattraper() throws SQLException {
+        try (Connection connection = ouvrirConnexion()) {
+            RegistreDAO.Liaison liaison = registre.lier(connection);
+            try {
+                InstantaneStockDAO dao = registre.getInstantaneStockDAO();
+                LocalDate hier = Dialecte.aujourdhui().minusDays(1);
+                LocalDate derniere = dao.getDernierJour();
+                LocalDate jour = derniere != null ? derniere.plusDays(1) : hier.minusDays(JOURS_HISTORIQUE);
+
+                int photos = 0;
+                for (; !jour.isAfter(hier); jour = jour.plusDays(1)) {
+                    // 💡 Un autre poste peut prendre la même photo en même temps :
+                    //    la clé primaire refuse le doublon, on passe au jour suivant
+                    try {
+                        dao.prendre(jour);
+                        photos++;
+                    } catch (SQLException e) {
+                        System.err.println("⚠️ Photo du stock du " + jour + " ignorée : " + e.getMessage());
+                    }
+                }
+                if (photos > 0) {
+                    System.out.println("✅ Photos du stock prises : " + photos + " jour(s) jusqu'au " + hier);
+                }
+                return photos;
+            } finally {
+                liaison.close();
+            }
+        }
+    }
+
+    /**
+     * Connexion dédiée à la tâche de fond
+     */
+    private static Connection ouvrirConnexion() throws SQLException {
+        try {
+            return DatabaseConnection.ouvrirConnexion();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver JDBC introuvable", e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import dao.Dialecte;
+import dao.DistributionDAO;
+import dao.RegistreDAO;
+import dao.StockSanguinDAO;
+import model.GroupeSanguin;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PrevisionDemandeService : prévoit la consommation de sang des prochains jours
+ *
+ * 💡 EXPLICATION :
+ * Pour planifier les collectes, il faut savoir combien de jours le stock
+ * actuel va durer. On apprend la consommation JOURNALIÈRE (distributions
+ * non annulées) de chaque groupe, et de chaque groupe dans chaque hôpital,
+ * par LISSAGE EXPONENTIEL (méthode de Holt-Winters) :
+ * - un NIVEAU : la consommation "normale" d'un jour
+ * - une TENDANCE : de combien elle monte ou descend chaque jour
+ *   (amortie : on ne la prolonge pas indéfiniment)
+ * - une SAISONNALITÉ sur 7 jours : le lundi n'est pas le dimanche
+ * Chaque nouveau jour corrige un peu ces trois valeurs (ALPHA, BETA, GAMMA) :
+ * les jours récents comptent plus que les anciens.
+ *
+ * Apprentissage INCRÉMENTAL : au premier appel, les 52 dernières semaines
+ * sont lues (une requête groupée par jour). Ensuite, seuls les jours
+ * terminés depuis le dernier appel sont lus et appris : rien n'est
+ * recalculé depuis le début. Une prévision ne fait que des additions sur
+ * des valeurs en mémoire (quelques microsecondes par groupe).
+ *
+ * "Jours de stock" : on additionne la consommation prévue jour après jour
+ * jusqu'à épuiser le stock disponible du groupe.
+ *
+ * @author dteach
+ */
+public class PrevisionDemandeService {
+
+    // Poids du dernier jour dans le niveau, la tendance et la saisonnalité
+    public static final double ALPHA = 0.2;
+    public static final double BETA = 0.02;
+    public static final double GAMMA = 0.15;
+    // Amortissement de la tendance (1 = tendance prolongée telle quelle)
+    public static final double AMORTISSEMENT = 0.95;
+
+    public static final int HISTORIQUE_JOURS = 364;
+    // Au-delà, le stock est considéré comme "largement suffisant"
+    public static final int HORIZON_MAX_JOURS = 90;
+
+    private final DistributionDAO distributionDAO;
+    private final StockSanguinDAO stockDAO;
+
+    private final Map<String, Lissage> parGroupe = new TreeMap<>();
+    private final Map<String, Map<Integer, Lissage>> parGroupeEtHopital = new TreeMap<>();
+    private LocalDate dernierJourAppris;
+
+    public PrevisionDemandeService() {
+        this(RegistreDAO.get().getDistributionDAO(), RegistreDAO.get().getStockSanguinDAO());
+    }
+
+    public PrevisionDemandeService(DistributionDAO distributionDAO, StockSanguinDAO stockDAO) {
+        this.distributionDAO = distributionDAO;
+        this.stockDAO = stockDAO;
+        for (String groupe : GroupeSanguin.TOUS_LES_GROUPES) {
+            parGroupe.put(groupe, new Lissage());
+        }
+    }
+
+    // ================================================================
+    // APPRENTISSAGE
+    // ================================================================
+
+    /**
+     * Apprend les jours terminés depuis le dernier appel (jusqu'à hier)
+     * 💡 Appelée par chaque prévision : ne lit la base qu'une fois par jour.
+     *    Si la lecture échoue, rien n'est appris : le prochain appel réessaie
+     */
+    public synchronized void mettreAJour() {
+        LocalDate hier = Dialecte.aujourdhui().minusDays(1);
+        if (dernierJourAppris != null && !dernierJourAppris.isBefore(hier)) {
+            return;
+        }
+        LocalDate debut = dernierJourAppris != null
+            ? dernierJourAppris.plusDays(1) : hier.minusDays(HISTORIQUE_JOURS - 1);
+        long chrono = System.currentTimeMillis();
+
+        // [jour, groupe, hôpital, quantité] par jour croissant
+        List<Object[]> consommation;
+        try {
+            consommation = distributionDAO.getConsommationParJour(debut, hier);
+        } catch (SQLException e) {
+            System.err.println("⚠️ Prévision de la demande non mise à jour : " + e.getMessage());
+            return;
+        }
+        int ligne = 0;
+        for (LocalDate jour = debut; !jour.isAfter(hier); jour = jour.plusDays(1)) {
+            Map<String, Double> groupesDuJour = new HashMap<>();
+            Map<String, Map<Integer, Double>> hopitauxDuJour = new HashMap<>();
+            while (ligne < consommation.size() && jour.equals(consommation.get(ligne)[0])) {
+                Object[] c = consommation.get(ligne++);
+                String groupe = (String) c[1];
+                double quantite = ((Number) c[3]).doubleValue();
+                groupesDuJour.merge(groupe, quantite, Double::sum);
+                hopitauxDuJour.computeIfAbsent(groupe, g -> new HashMap<>()).merge((Integer) c[2], quantite, Double::sum);
+            }
+            apprendreJour(jour, groupesDuJour, hopitauxDuJour);
+        }
+        dernierJourAppris = hier;
+
+        if (ligne > 0 || debut.isBefore(hier)) {
+            System.out.println("✅ Prévision de la demande apprise jusqu'au " + hier + " ("
+                + (System.currentTimeMillis() - chrono) + " ms)");
+        }
+    }
+
+    private void apprendreJour(LocalDate jour, Map<String, Double> groupesDuJour,
+            Map<String, Map<Integer, Double>> hopitauxDuJour) {
+        int jourSemaine = jour.getDayOfWeek().getValue() - 1;
+
+        // 💡 Un jour sans distribution est une consommation de 0, pas une absence de donnée
+        for (Map.Entry<String, Lissage> g : parGroupe.entrySet()) {
+            g.getValue().apprendre(groupesDuJour.getOrDefault(g.getKey(), 0.0), jourSemaine);
+        }
+
+        for (Map.Entry<String, Map<Integer, Double>> g : hopitauxDuJour.entrySet()) {
+            Map<Integer, Lissage> hopitaux = parGroupeEtHopital.computeIfAbsent(g.getKey(), k -> new TreeMap<>());
+            for (Integer hopital : g.getValue().keySet()) {
+                hopitaux.computeIfAbsent(hopital, h -> new Lissage());
+            }
+        }
+        for (Map.Entry<String, Map<Integer, Lissage>> g : parGroupeEtHopital.entrySet()) {
+            Map<Integer, Double> duJour = hopitauxDuJour.getOrDefault(g.getKey(), Map.of());
+            for (Map.Entry<Integer, Lissage> h : g.getValue().entrySet()) {
+                h.getValue().apprendre(duJour.getOrDefault(h.getKey(), 0.0), jourSemaine);
+            }
+        }
+    }
+
+    // ================================================================
+    // PRÉVISIONS
+    // ================================================================
+
+    /**
+     * Consommation prévue d'un groupe, jour par jour, à partir d'aujourd'hui (ml)
+     */
+    public synchronized double[] prevoir(String groupe, int jours) {
+        mettreAJour();
+        Lissage lissage = parGroupe.get(groupe);
+        return lissage != null ? lissage.prevoir(dernierJourAppris, jours) : new double[jours];
+    }
+
+    /**
+     * Consommation prévue par groupe et hôpital sur les prochains jours
+     * Retourne un tableau : [groupe, id de l'hôpital, quantité prévue (ml)], la plus forte d'abord
+     */
+    public synchronized List<Object[]> getPrevisionsParHopital(int jours) {
+        mettreAJour();
+        List<Object[]> previsions = new ArrayList<>();
+        for (Map.Entry<String, Map<Integer, Lissage>> g : parGroupeEtHopital.entrySet()) {
+            for (Map.Entry<Integer, Lissage> h : g.getValue().entrySet()) {
+                double total = somme(h.getValue().prevoir(dernierJourAppris, jours));
+                if (total > 0) {
+                    previsions.add(new Object[] {g.getKey(), h.getKey(), (int) Math.round(total)});
+                }
+            }
+        }
+        previsions.sort((a, b) -> Integer.compare((Integer) b[2], (Integer) a[2]));
+        return previsions;
+    }
+
+    /**
+     * Combien de jours le stock disponible de chaque groupe va durer
+     * Retourne un tableau : [groupe, stock disponible (ml), consommation prévue sur 7 jours (ml),
+     *                        jours de stock (double, HORIZON_MAX_JOURS = au moins autant)]
+     */
+    public synchronized List<Object[]> getJoursDeStock() {
+        mettreAJour();
+        Map<String, Integer> stock = new HashMap<>();
+        for (Object[] ligne : stockDAO.getResumeStock()) {
+            stock.put((String) ligne[0], ((Number) ligne[1]).intValue());
+        }
+
+        List<Object[]> resultat = new ArrayList<>();
+        for (Map.Entry<String, Lissage> g : parGroupe.entrySet()) {
+            int disponible = stock.getOrDefault(g.getKey(), 0);
+            double[] prevision = g.getValue().prevoir(dernierJourAppris, HORIZON_MAX_JOURS);
+            resultat.add(new Object[] {g.getKey(), disponible,
+                (int) Math.round(somme(prevision, 7)), joursDeStock(disponible, prevision)});
+        }
+        return resultat;
+    }
+
+    /**
+     * Jours avant épuisement du stock : jours entiers couverts + fraction du dernier jour
+     */
+    static double joursDeStock(double stock, double[] prevision) {
+        double reste = stock;
+        for (int j = 0; j < prevision.length; j++) {
+            if (prevision[j] >= reste) {
+                return j + (prevision[j] > 0 ? reste / prevision[j] : 0);
+            }
+            reste -= prevision[j];
+        }
+        return prevision.length;
+    }
+
+    private static double somme(double[] valeurs) {
+        return somme(valeurs, valeurs.length);
+    }
+
+    private static double somme(double[] valeurs, int n) {
+        double total = 0;
+        for (int i = 0; i < Math.min(n, valeurs.length); i++) {
+            total += valeurs[i];
+        }
+        return total;
+    }
+
+    // ================================================================
+    // LISSAGE DE HOLT-WINTERS (additif, tendance amortie, saison de 7 jours)
+    // ================================================================
+
+    /**
+     * L'état appris d'une série (un groupe, ou un groupe dans un hôpital)
+     */
+    static final class Lissage {
+        private double niveau;
+        private double tendance;
+        private final double[] saisons = new double[7];   // écart de chaque jour de la semaine (lundi = 0)
+        private int observations;
+
+        /**
+         * Apprend la consommation d'un jour
+         */
+        void apprendre(double valeur, int jourSemaine) {
+            if (observations == 0) {
+                niveau = valeur;
+            } else {
+                double saison = saisons[jourSemaine];
+                double ancienNiveau = niveau;
+                niveau = ALPHA * (valeur - saison) + (1 - ALPHA) * (niveau + AMORTISSEMENT * tendance);
+                tendance = BETA * (niveau - ancienNiveau) + (1 - BETA) * AMORTISSEMENT * tendance;
+                saisons[jourSemaine] = GAMMA * (valeur - niveau) + (1 - GAMMA) * saison;
+            }
+            observations++;
+        }
+
+        /**
+         * Consommation prévue pour les jours qui suivent dernierJour (jamais négative)
+         */
+        double[] prevoir(LocalDate dernierJour, int jours) {
+            double[] prevision = new double[jours];
+            double cumulTendance = 0;
+            double facteur = 1;
+            int jourSemaine = dernierJour.getDayOfWeek().getValue() - 1;
+            for (int h = 1; h <= jours; h++) {
+                facteur *= AMORTISSEMENT;
+                cumulTendance += facteur * tendance;
+                jourSemaine = (jourSemaine + 1) % 7;
+                prevision[h - 1] = Math.max(0, niveau + cumulTendance + saisons[jourSemaine]);
+            }
+            return prevision;
+        }
+    }
+}
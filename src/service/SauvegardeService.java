@@ -0,0 +1,1472 @@
+/*
+ * Package SERVICE
+ */
+package service;
+
+import dao.DatabaseConnection;
+import dao.Dialecte;
+import dao.JournalModificationsDAO;
+import dao.JournalModificationsDAO.Modification;
+import dao.RegistreDAO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * SauvegardeService : sauvegarde et restauration de toute la base dans un fichier compressé
+ *
+ * 💡 EXPLICATION :
+ * Jusqu'ici, la sauvegarde passait par un mysqldump externe : un seul fil
+ * d'exécution, un gros fichier SQL texte, et rien pour la base embarquée.
+ *
+ * SAUVEGARDE :
+ * - Chaque table est lue en FLUX (curseur en avant seulement, voir
+ *   Dialecte.tailleLectureEnFlux) : la mémoire ne dépend pas du nombre de lignes
+ * - Les grandes tables à clé entière sont découpées en TRANCHES d'ids :
+ *   plusieurs cœurs lisent la même table (TRAVAILLEURS fils, une connexion chacun)
+ * - Les lignes sont rangées par BLOCS d'environ TAILLE_BLOC octets, compressés
+ *   (Deflate) et signés (CRC32C) par le fil qui les a lus
+ * - Un seul FileChannel reçoit les blocs terminés, dans l'ordre où ils arrivent
+ * - Le fichier est écrit sous un nom temporaire puis renommé : une sauvegarde
+ *   interrompue n'écrase jamais la précédente
+ *
+ * RESTAURATION :
+ * 1. Le fichier est relu une première fois pour vérifier chaque somme de
+ *    contrôle et le nombre de lignes de chaque table : une sauvegarde
+ *    abîmée est refusée avant d'avoir touché à la base
+ * 2. Les tables présentes dans la sauvegarde sont vidées (trames S)
+ * 3. Les blocs sont distribués aux TRAVAILLEURS (file bornée : mémoire constante),
+ *    qui les insèrent par lots (addBatch) avec les contrôles d'intégrité
+ *    coupés (Dialecte.controlesChargement) : clés étrangères et unicité ne
+ *    sont pas revérifiées ligne par ligne, les index se remplissent en masse.
+ *    Un COMMIT par bloc.
+ *
+ * SAUVEGARDE INCRÉMENTALE (sauvegarderIncrement) :
+ * Seules les lignes modifiées depuis la sauvegarde précédente sont relues,
+ * d'après le journal des modifications (voir JournalModificationsDAO).
+ * Pour chaque note "colonne opérateur valeur", le fichier porte une
+ * SUPPRESSION (trame S) puis les lignes qui y répondent aujourd'hui : une
+ * ligne supprimée disparaît, une ligne modifiée est remplacée. Les petites
+ * tables non suivies sont recopiées en entier. Le recouvrement de
+ * MARGE_MINUTES avec la précédente rattrape les transactions encore ouvertes
+ * à son début (une ligne relue deux fois est simplement remplacée).
+ *
+ * Restaurer = la complète PUIS chaque incrément, dans l'ordre de la chaîne
+ * (restaurer(List)). Le journal n'est gardé que JOURS_JOURNAL jours : au-delà,
+ * l'incrément est refusé, il faut refaire une complète.
+ *
+ * ⚠️ Chaque tranche est lue dans sa propre transaction : pour une photo
+ *    exacte de toute la base, sauvegarder quand personne ne travaille.
+ *
+ * Format du fichier : "BPSAUV01", date (long), puis des trames
+ *   [type (1 octet)][longueur (int)][CRC32C (int)][contenu]
+ * P = description (identifiant, précédente, heure de début),
+ * T = colonnes d'une table, S = suppression avant chargement,
+ * D = bloc de lignes compressé, F = fin d'une table (nombre de lignes),
+ * E = fin de la sauvegarde
+ *
+ * @author dteach
+ */
+public class SauvegardeService {
+
+    // Octets de lignes (avant compression) par bloc
+    public static final int TAILLE_BLOC = 1 << 20;
+    // Lignes par executeBatch à la restauration
+    public static final int TAILLE_LOT_SQL = 500;
+    // Ids par tranche : au-delà, une table est lue par plusieurs fils
+    public static final int IDS_PAR_TRANCHE = 100_000;
+    public static final int TRAVAILLEURS = Math.max(1,
+        Integer.getInteger("bloodplus.sauvegarde.travailleurs", Runtime.getRuntime().availableProcessors()));
+    // Recouvrement entre deux sauvegardes successives (transactions longues, horloges des postes)
+    public static final int MARGE_MINUTES = Math.max(0, Integer.getInteger("bloodplus.sauvegarde.margeMinutes", 60));
+    // Durée de conservation du journal des modifications : au-delà, seule une complète est possible
+    public static final int JOURS_JOURNAL = Math.max(1, Integer.getInteger("bloodplus.sauvegarde.journalJours", 35));
+
+    // Valeurs par IN (...) à la lecture, par trame de suppression
+    private static final int VALEURS_PAR_REQUETE = 500;
+    private static final int VALEURS_PAR_TRAME = 10_000;
+    private static final Set<String> OPERATEURS = Set.of(JournalModificationsDAO.EGAL, JournalModificationsDAO.APRES,
+        JournalModificationsDAO.DEPUIS, JournalModificationsDAO.AVANT);
+
+    private static final byte[] MAGIQUE = "BPSAUV01".getBytes(StandardCharsets.US_ASCII);
+    private static final int ENTETE_FICHIER = MAGIQUE.length + Long.BYTES;
+    private static final int ENTETE_TRAME = 1 + Integer.BYTES + Integer.BYTES;
+    // Début d'un bloc : table (short), lignes (int), taille avant compression (int)
+    private static final int ENTETE_BLOC = Short.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private static final byte TRAME_DESCRIPTION = 'P';
+    private static final byte TRAME_TABLE = 'T';
+    private static final byte TRAME_SUPPRESSION = 'S';
+    private static final byte TRAME_BLOC = 'D';
+    private static final byte TRAME_FIN_TABLE = 'F';
+    private static final byte TRAME_FIN = 'E';
+
+    // Genre des colonnes : comment chaque valeur est écrite dans un bloc
+    private static final byte ENTIER = 1;
+    private static final byte BOOLEEN = 2;
+    private static final byte REEL = 3;
+    private static final byte DECIMAL = 4;
+    private static final byte DATE = 5;
+    private static final byte DATE_HEURE = 6;
+    private static final byte HEURE = 7;
+    private static final byte TEXTE = 8;
+    private static final byte OCTETS = 9;
+
+    /**
+     * Bilan d'une sauvegarde ou d'une restauration
+     */
+    public static class Bilan {
+        private final int tables;
+        private final long lignes;
+        private final long octets;
+        private final long dureeMs;
+
+        Bilan(int tables, long lignes, long octets, long dureeMs) {
+            this.tables = tables;
+            this.lignes = lignes;
+            this.octets = octets;
+            this.dureeMs = dureeMs;
+        }
+
+        public int getTables() {
+            return tables;
+        }
+
+        public long getLignes() {
+            return lignes;
+        }
+
+        public long getOctets() {
+            return octets;
+        }
+
+        public long getDureeMs() {
+            return dureeMs;
+        }
+
+        @Override
+        public String toString() {
+            return tables + " tables, " + lignes + " lignes, " + (octets / 1024) + " Ko en " + dureeMs + " ms";
+        }
+    }
+
+    /**
+     * Description d'une sauvegarde : son identifiant, celui de la précédente
+     * (0 : sauvegarde complète), l'heure de la base à son début
+     */
+    public static class Description {
+        private final long identifiant;
+        private final long parent;
+        private final LocalDateTime debut;
+        private final Map<String, Long> lignes;
+
+        Description(long identifiant, long parent, LocalDateTime debut, Map<String, Long> lignes) {
+            this.identifiant = identifiant;
+            this.parent = parent;
+            this.debut = debut;
+            this.lignes = lignes;
+        }
+
+        public long getIdentifiant() {
+            return identifiant;
+        }
+
+        public long getParent() {
+            return parent;
+        }
+
+        public boolean estComplete() {
+            return parent == 0;
+        }
+
+        public LocalDateTime getDebut() {
+            return debut;
+        }
+
+        /**
+         * Lignes sauvegardées par table (rempli par verifier())
+         */
+        public Map<String, Long> getLignes() {
+            return lignes;
+        }
+
+        boolean contient(String table) {
+            return lignes.keySet().stream().anyMatch(table::equalsIgnoreCase);
+        }
+
+        byte[] decrire() {
+            return ByteBuffer.allocate(3 * Long.BYTES).putLong(identifiant).putLong(parent)
+                .putLong(debut.toEpochSecond(ZoneOffset.UTC)).array();
+        }
+
+        static Description decoder(ByteBuffer contenu, Map<String, Long> lignes) {
+            long identifiant = contenu.getLong();
+            long parent = contenu.getLong();
+            return new Description(identifiant, parent,
+                LocalDateTime.ofEpochSecond(contenu.getLong(), 0, ZoneOffset.UTC), lignes);
+        }
+
+        @Override
+        public String toString() {
+            return (estComplete() ? "complète" : "incrémentale") + " du " + debut;
+        }
+    }
+
+    private final RegistreDAO registre;
+
+    public SauvegardeService() {
+        this(RegistreDAO.get());
+    }
+
+    public SauvegardeService(RegistreDAO registre) {
+        this.registre = registre;
+    }
+
+    // ================================================================
+    // SAUVEGARDE
+    // ================================================================
+
+    /**
+     * Sauvegarde COMPLÈTE : toutes les tables de la base dans un fichier
+     */
+    public Bilan sauvegarder(Path fichier) throws SQLException, IOException {
+        return ecrire(fichier, null);
+    }
+
+    /**
+     * Sauvegarde INCRÉMENTALE : seulement ce qui a changé depuis une sauvegarde
+     * précédente (complète ou elle-même incrémentale)
+     *
+     * 💡 Seule la description de la précédente est relue, pas ses données
+     */
+    public Bilan sauvegarderIncrement(Path precedente, Path fichier) throws SQLException, IOException {
+        return ecrire(fichier, lireDescription(precedente));
+    }
+
+    private Bilan ecrire(Path fichier, Description precedente) throws SQLException, IOException {
+        long chrono = System.currentTimeMillis();
+        List<Table> tables = new ArrayList<>();
+        List<byte[]> suppressions = new ArrayList<>();
+        List<Tranche> tranches = new ArrayList<>();
+        Dialecte dialecte;
+        LocalDateTime debut;
+        try (Connection connection = ouvrirConnexion()) {
+            RegistreDAO.Liaison liaison = registre.lier(connection);
+            try {
+                dialecte = Dialecte.de(connection);
+                debut = heureBase(connection);
+
+                JournalModificationsDAO journal = registre.getJournalModificationsDAO();
+                Map<String, Set<Modification>> modifications = null;
+                if (precedente != null) {
+                    // 💡 Marge : une transaction ouverte avant la sauvegarde précédente a pu valider après
+                    LocalDateTime depuis = precedente.getDebut().minusMinutes(MARGE_MINUTES);
+                    if (depuis.isBefore(debut.minusDays(JOURS_JOURNAL))) {
+                        throw new IOException("Sauvegarde précédente du " + precedente.getDebut()
+                            + " trop ancienne pour le journal des modifications : faire une sauvegarde complète");
+                    }
+                    modifications = journal.modificationsDepuis(depuis);
+                }
+
+                for (String nom : listerTables(connection)) {
+                    String cle = nom.toLowerCase(Locale.ROOT);
+                    Set<Modification> touchees = modifications != null && JournalModificationsDAO.estSuivie(cle)
+                        ? modifications.getOrDefault(cle, Set.of()) : null;
+                    if (touchees != null && touchees.isEmpty()) {
+                        continue;
+                    }
+                    Table table = Table.lire(connection, tables.size(), nom);
+                    tables.add(table);
+                    if (touchees == null || !preparerModifications(connection, table, touchees, suppressions, tranches)) {
+                        suppressions.add(table.suppression("", JournalModificationsDAO.EGAL, List.of()));
+                        tranches.addAll(decouper(connection, table));
+                    }
+                }
+                journal.purger(debut.minusDays(JOURS_JOURNAL));
+            } finally {
+                liaison.close();
+            }
+        }
+
+        Description description = new Description(nouvelIdentifiant(),
+            precedente != null ? precedente.getIdentifiant() : 0, debut, null);
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".partiel");
+        ExecutorService executeur = creerExecuteur("BloodPlus-sauvegarde");
+        long lignes = 0;
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Ecrivain ecrivain = new Ecrivain(canal);
+            ecrivain.ecrire(TRAME_DESCRIPTION, description.decrire());
+            for (Table table : tables) {
+                ecrivain.ecrire(TRAME_TABLE, table.decrire());
+            }
+            // 💡 Avant tout bloc : à la restauration, les suppressions passent avant les insertions
+            for (byte[] suppression : suppressions) {
+                ecrivain.ecrire(TRAME_SUPPRESSION, suppression);
+            }
+
+            List<Future<Long>> resultats = new ArrayList<>();
+            for (Tranche tranche : tranches) {
+                resultats.add(executeur.submit(() -> sauvegarderTranche(ecrivain, dialecte, tranche)));
+            }
+            long[] parTable = new long[tables.size()];
+            for (int i = 0; i < tranches.size(); i++) {
+                parTable[tranches.get(i).table.index] += attendre(resultats.get(i));
+            }
+
+            for (Table table : tables) {
+                lignes += parTable[table.index];
+                ecrivain.ecrire(TRAME_FIN_TABLE, ByteBuffer.allocate(Short.BYTES + Long.BYTES)
+                    .putShort((short) table.index).putLong(parTable[table.index]).array());
+            }
+            ecrivain.ecrire(TRAME_FIN, ByteBuffer.allocate(Integer.BYTES + Long.BYTES)
+                .putInt(tables.size()).putLong(lignes).array());
+            canal.force(true);
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaire);
+            throw e;
+        } finally {
+            executeur.shutdownNow();
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Bilan bilan = new Bilan(tables.size(), lignes, Files.size(fichier), System.currentTimeMillis() - chrono);
+        System.out.println("✅ Sauvegarde " + (precedente != null ? "incrémentale " : "") + fichier + " : " + bilan);
+        return bilan;
+    }
+
+    /**
+     * Prépare la copie des seules lignes modifiées d'une table
+     *
+     * @return false si la table doit être recopiée en entière (reconstruction, colonne inconnue)
+     */
+    private static boolean preparerModifications(Connection connection, Table table, Set<Modification> touchees,
+            List<byte[]> suppressions, List<Tranche> tranches) throws SQLException, IOException {
+        int[] cle = table.indicesCle(connection);
+        // Valeurs regroupées par "colonne opérateur"
+        Map<List<String>, List<String>> parFiltre = new LinkedHashMap<>();
+        for (Modification m : touchees) {
+            if (m.estTouteLaTable() || table.colonne(m.getColonne()) < 0 || cle.length == 0) {
+                return false;
+            }
+            parFiltre.computeIfAbsent(List.of(m.getColonne(), m.getOperateur()), f -> new ArrayList<>())
+                .add(m.getValeur());
+        }
+
+        List<Requete> requetes = new ArrayList<>();
+        for (Map.Entry<List<String>, List<String>> e : parFiltre.entrySet()) {
+            String colonne = table.colonnes[table.colonne(e.getKey().get(0))];
+            String operateur = e.getKey().get(1);
+            List<String> valeurs = e.getValue();
+            for (int i = 0; i < valeurs.size(); i += VALEURS_PAR_TRAME) {
+                suppressions.add(table.suppression(colonne, operateur,
+                    valeurs.subList(i, Math.min(i + VALEURS_PAR_TRAME, valeurs.size()))));
+            }
+            if (JournalModificationsDAO.EGAL.equals(operateur)) {
+                for (int i = 0; i < valeurs.size(); i += VALEURS_PAR_REQUETE) {
+                    List<String> lot = valeurs.subList(i, Math.min(i + VALEURS_PAR_REQUETE, valeurs.size()));
+                    requetes.add(new Requete("SELECT * FROM " + table.nom + " WHERE " + colonne + " IN ("
+                        + String.join(", ", Collections.nCopies(lot.size(), "?")) + ")",
+                        table.convertir(colonne, lot)));
+                }
+            } else {
+                for (String valeur : valeurs) {
+                    requetes.add(new Requete("SELECT * FROM " + table.nom + " WHERE " + colonne + " " + operateur + " ?",
+                        table.convertir(colonne, List.of(valeur))));
+                }
+            }
+        }
+        tranches.add(new Tranche(table, requetes, cle));
+        return true;
+    }
+
+    /**
+     * Les tranches d'une table : par plages d'ids si la clé primaire est un entier
+     */
+    private static List<Tranche> decouper(Connection connection, Table table) throws SQLException {
+        List<Tranche> tranches = new ArrayList<>();
+        String cle = table.cleEntiere(connection);
+        if (cle != null) {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MIN(" + cle + "), MAX(" + cle + ") FROM " + table.nom)) {
+                if (rs.next() && rs.getObject(1) != null) {
+                    long min = rs.getLong(1);
+                    long max = rs.getLong(2);
+                    long nombre = Math.min(TRAVAILLEURS * 4L, (max - min) / IDS_PAR_TRANCHE + 1);
+                    if (nombre > 1) {
+                        long pas = (max - min) / nombre + 1;
+                        String sql = "SELECT * FROM " + table.nom + " WHERE " + cle + " >= ? AND " + cle + " < ?";
+                        for (long du = min; du <= max; du += pas) {
+                            tranches.add(new Tranche(table,
+                                List.of(new Requete(sql, du, Math.min(du + pas, max + 1))), null));
+                        }
+                        return tranches;
+                    }
+                }
+            }
+        }
+        tranches.add(new Tranche(table, List.of(new Requete("SELECT * FROM " + table.nom)), null));
+        return tranches;
+    }
+
+    /**
+     * Lit une tranche en flux et écrit ses blocs (dans un fil de l'exécuteur)
+     *
+     * @return Le nombre de lignes écrites
+     */
+    private static long sauvegarderTranche(Ecrivain ecrivain, Dialecte dialecte, Tranche tranche)
+            throws SQLException, IOException {
+        Table table = tranche.table;
+        // 💡 Une ligne peut répondre à deux modifications (son id, son donneur) : écrite une fois
+        Set<List<Object>> dejaEcrites = tranche.cle != null ? new HashSet<>() : null;
+
+        try (Connection connection = ouvrirConnexion()) {
+            Tampon brut = new Tampon(TAILLE_BLOC + TAILLE_BLOC / 8);
+            DataOutputStream sortie = new DataOutputStream(brut);
+            Compresseur compresseur = new Compresseur();
+            long total = 0;
+            int lignes = 0;
+            for (Requete requete : tranche.requetes) {
+                try (PreparedStatement pstmt = connection.prepareStatement(requete.sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    for (int i = 0; i < requete.parametres.length; i++) {
+                        pstmt.setObject(i + 1, requete.parametres[i]);
+                    }
+                    pstmt.setFetchSize(dialecte.tailleLectureEnFlux());
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            if (dejaEcrites != null && !dejaEcrites.add(cleDe(rs, tranche.cle))) {
+                                continue;
+                            }
+                            table.ecrireLigne(rs, sortie);
+                            lignes++;
+                            if (brut.size() >= TAILLE_BLOC) {
+                                ecrivain.ecrire(TRAME_BLOC, compresseur.bloc(table.index, lignes, brut));
+                                total += lignes;
+                                lignes = 0;
+                                brut.reset();
+                            }
+                        }
+                    }
+                }
+            }
+            if (lignes > 0) {
+                ecrivain.ecrire(TRAME_BLOC, compresseur.bloc(table.index, lignes, brut));
+                total += lignes;
+            }
+            compresseur.fermer();
+            return total;
+        }
+    }
+
+    private static List<Object> cleDe(ResultSet rs, int[] cle) throws SQLException {
+        List<Object> valeurs = new ArrayList<>(cle.length);
+        for (int c : cle) {
+            valeurs.add(rs.getObject(c + 1));
+        }
+        return valeurs;
+    }
+
+    // ================================================================
+    // RESTAURATION
+    // ================================================================
+
+    /**
+     * Lit la description d'une sauvegarde (première trame seulement)
+     */
+    public Description lireDescription(Path fichier) throws IOException {
+        try (Lecteur lecteur = new Lecteur(fichier)) {
+            if (!lecteur.suivante() || lecteur.type != TRAME_DESCRIPTION) {
+                throw new IOException(fichier.getFileName() + " : description absente (format inconnu)");
+            }
+            return Description.decoder(lecteur.contenu(), null);
+        }
+    }
+
+    /**
+     * Vérifie une sauvegarde sans toucher à la base (sommes de contrôle, trames de fin)
+     *
+     * @return Sa description, avec le nombre de lignes de chaque table
+     */
+    public Description verifier(Path fichier) throws IOException {
+        Description description = null;
+        Map<Integer, String> noms = new HashMap<>();
+        Map<String, Long> lignes = new LinkedHashMap<>();
+        try (Lecteur lecteur = new Lecteur(fichier)) {
+            while (lecteur.suivante()) {
+                ByteBuffer contenu = lecteur.contenu();
+                switch (lecteur.type) {
+                    case TRAME_DESCRIPTION:
+                        description = Description.decoder(contenu, lignes);
+                        break;
+                    case TRAME_TABLE:
+                        Table table = Table.decoder(contenu);
+                        noms.put(table.index, table.nom);
+                        break;
+                    case TRAME_FIN_TABLE:
+                        lignes.put(noms.get((int) contenu.getShort()), contenu.getLong());
+                        break;
+                    case TRAME_FIN:
+                        if (description == null) {
+                            throw new IOException(fichier.getFileName() + " : description absente (format inconnu)");
+                        }
+                        if (contenu.getInt() != noms.size() || lignes.size() != noms.size()) {
+                            throw new IOException("Sauvegarde incomplète : " + lignes.size() + " tables sur " + noms.size());
+                        }
+                        return description;
+                    default:
+                        break;
+                }
+            }
+        }
+        throw new IOException("Sauvegarde tronquée : trame de fin absente");
+    }
+
+    /**
+     * Remplace le contenu des tables de la base par celui d'une sauvegarde complète
+     * ⚠️ Les tables doivent exister (script SQL ou base embarquée)
+     */
+    public Bilan restaurer(Path fichier) throws SQLException, IOException {
+        return restaurer(List.of(fichier));
+    }
+
+    /**
+     * Restaure une sauvegarde complète puis ses sauvegardes incrémentales
+     *
+     * 💡 Les fichiers peuvent être donnés dans n'importe quel ordre : la chaîne
+     *    est reconstituée d'après leurs descriptions, et TOUS sont vérifiés
+     *    avant que la base soit touchée
+     */
+    public Bilan restaurer(List<Path> fichiers) throws SQLException, IOException {
+        long chrono = System.currentTimeMillis();
+        Map<Path, Description> descriptions = new LinkedHashMap<>();
+        for (Path fichier : fichiers) {
+            descriptions.put(fichier, verifier(fichier));
+        }
+        List<Path> chaine = ordonner(descriptions);
+
+        try (Connection connection = ouvrirConnexion()) {
+            Dialecte dialecte = Dialecte.de(connection);
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                executer(stmt, dialecte.controlesChargement(false));
+                connection.commit();
+
+                long lignes = 0;
+                long octets = 0;
+                for (Path fichier : chaine) {
+                    lignes += charger(fichier, connection, dialecte, descriptions.get(fichier).getLignes());
+                    octets += Files.size(fichier);
+                }
+
+                // 💡 Les autres postes rechargent leurs caches (voir CacheReference)
+                if (descriptions.values().stream().anyMatch(d -> d.contient("versions_donnees"))) {
+                    stmt.executeUpdate("UPDATE versions_donnees SET version = version + 1");
+                }
+                executer(stmt, dialecte.controlesChargement(true));
+                connection.commit();
+
+                Bilan bilan = new Bilan(descriptions.get(chaine.get(0)).getLignes().size(), lignes, octets,
+                    System.currentTimeMillis() - chrono);
+                System.out.println("✅ Restauration de " + chaine.size() + " fichier(s) : " + bilan);
+                return bilan;
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                try (Statement stmt = connection.createStatement()) {
+                    executer(stmt, dialecte.controlesChargement(true));
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * La sauvegarde complète d'abord, puis chaque incrément après son parent
+     */
+    private static List<Path> ordonner(Map<Path, Description> descriptions) throws IOException {
+        Map<Long, Path> parParent = new HashMap<>();
+        for (Map.Entry<Path, Description> e : descriptions.entrySet()) {
+            if (parParent.put(e.getValue().getParent(), e.getKey()) != null) {
+                throw new IOException(e.getValue().estComplete()
+                    ? "Une seule sauvegarde complète à la fois : " + e.getKey().getFileName()
+                    : "Deux sauvegardes suivent la même : " + e.getKey().getFileName());
+            }
+        }
+        List<Path> chaine = new ArrayList<>();
+        Path suivante = parParent.remove(0L);
+        if (suivante == null) {
+            throw new IOException("Aucune sauvegarde complète parmi les fichiers choisis");
+        }
+        while (suivante != null) {
+            chaine.add(suivante);
+            suivante = parParent.remove(descriptions.get(suivante).getIdentifiant());
+        }
+        if (!parParent.isEmpty()) {
+            throw new IOException("Chaîne de sauvegardes incomplète : "
+                + parParent.values().iterator().next().getFileName() + " ne suit aucun des fichiers choisis");
+        }
+        return chaine;
+    }
+
+    /**
+     * Applique un fichier : ses suppressions (sur la connexion principale),
+     * puis ses blocs, répartis entre les fils d'insertion
+     */
+    private static long charger(Path fichier, Connection connection, Dialecte dialecte,
+            Map<String, Long> attendues) throws SQLException, IOException {
+        // 💡 Quelques blocs d'avance au plus : la mémoire ne dépend pas de la taille du fichier
+        BlockingQueue<Bloc> file = new ArrayBlockingQueue<>(TRAVAILLEURS * 2);
+        Map<Integer, Table> tables = new ConcurrentHashMap<>();
+        AtomicLongArray inserees = new AtomicLongArray(attendues.size());
+
+        ExecutorService executeur = creerExecuteur("BloodPlus-restauration");
+        List<Future<Long>> travailleurs = new ArrayList<>();
+        try {
+            for (int i = 0; i < TRAVAILLEURS; i++) {
+                travailleurs.add(executeur.submit(() -> inserer(file, tables, dialecte, inserees)));
+            }
+            try (Lecteur lecteur = new Lecteur(fichier)) {
+                while (lecteur.suivante()) {
+                    if (lecteur.type == TRAME_TABLE) {
+                        Table table = Table.decoder(lecteur.contenu());
+                        tables.put(table.index, table);
+                    } else if (lecteur.type == TRAME_SUPPRESSION) {
+                        supprimer(connection, tables, lecteur.contenu());
+                    } else if (lecteur.type == TRAME_BLOC) {
+                        deposer(file, new Bloc(Arrays.copyOf(lecteur.charge, lecteur.longueur)), travailleurs);
+                    }
+                }
+            }
+            for (int i = 0; i < TRAVAILLEURS; i++) {
+                deposer(file, Bloc.FIN, travailleurs);
+            }
+            long lignes = 0;
+            for (Future<Long> travailleur : travailleurs) {
+                lignes += attendre(travailleur);
+            }
+
+            for (Table table : tables.values()) {
+                long attendu = attendues.get(table.nom);
+                if (inserees.get(table.index) != attendu) {
+                    throw new SQLException("Restauration de " + table.nom + " incomplète : "
+                        + inserees.get(table.index) + " lignes sur " + attendu);
+                }
+            }
+            return lignes;
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+
+    /**
+     * Supprime les lignes d'une trame S (toute la table, ou "colonne opérateur valeur")
+     * 💡 Validé tout de suite : les fils d'insertion (autres connexions) n'attendent aucun verrou
+     */
+    private static void supprimer(Connection connection, Map<Integer, Table> tables, ByteBuffer contenu)
+            throws SQLException, IOException {
+        Table table = tables.get((int) contenu.getShort());
+        String colonne = lireUtf(contenu);
+        String operateur = lireUtf(contenu);
+        int n = contenu.getInt();
+        List<String> valeurs = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            valeurs.add(lireUtf(contenu));
+        }
+
+        if (colonne.isEmpty()) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("DELETE FROM " + table.nom);
+            }
+        } else {
+            if (table.colonne(colonne) < 0 || !OPERATEURS.contains(operateur)) {
+                throw new IOException("Suppression invalide sur " + table.nom + " : " + colonne + " " + operateur);
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "DELETE FROM " + table.nom + " WHERE " + colonne + " " + operateur + " ?")) {
+                for (Object valeur : table.convertir(colonne, valeurs)) {
+                    pstmt.setObject(1, valeur);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+        connection.commit();
+    }
+
+    // 💡 Si un fil d'insertion a échoué, la file ne se vide plus : on le vérifie en attendant
+    private static void deposer(BlockingQueue<Bloc> file, Bloc bloc, List<Future<Long>> travailleurs)
+            throws SQLException, IOException {
+        try {
+            while (!file.offer(bloc, 100, TimeUnit.MILLISECONDS)) {
+                for (Future<Long> travailleur : travailleurs) {
+                    if (travailleur.isDone()) {
+                        attendre(travailleur);
+                        throw new SQLException("Fil de restauration arrêté avant la fin");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Restauration interrompue", e);
+        }
+    }
+
+    /**
+     * Fil d'insertion : décompresse les blocs reçus et les insère par lots
+     *
+     * @return Le nombre de lignes insérées par ce fil
+     */
+    private static long inserer(BlockingQueue<Bloc> file, Map<Integer, Table> tables, Dialecte dialecte,
+            AtomicLongArray inserees) throws SQLException, IOException, InterruptedException {
+        Map<Integer, PreparedStatement> requetes = new HashMap<>();
+        Inflater inflater = new Inflater();
+        byte[] brut = new byte[TAILLE_BLOC + TAILLE_BLOC / 8];
+        long total = 0;
+
+        try (Connection connection = ouvrirConnexion();
+             Statement stmt = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            executer(stmt, dialecte.controlesChargement(false));
+
+            for (Bloc bloc = file.take(); bloc != Bloc.FIN; bloc = file.take()) {
+                ByteBuffer entete = ByteBuffer.wrap(bloc.charge);
+                Table table = tables.get((int) entete.getShort());
+                int lignes = entete.getInt();
+                int tailleBrute = entete.getInt();
+                if (brut.length < tailleBrute) {
+                    brut = new byte[tailleBrute];
+                }
+                inflater.reset();
+                inflater.setInput(bloc.charge, ENTETE_BLOC, bloc.charge.length - ENTETE_BLOC);
+                try {
+                    if (inflater.inflate(brut, 0, tailleBrute) != tailleBrute) {
+                        throw new IOException("Bloc de " + table.nom + " illisible");
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Bloc de " + table.nom + " illisible", e);
+                }
+
+                PreparedStatement pstmt = requetes.get(table.index);
+                if (pstmt == null) {
+                    pstmt = connection.prepareStatement(table.sqlInsertion());
+                    requetes.put(table.index, pstmt);
+                }
+                ByteBuffer valeurs = ByteBuffer.wrap(brut, 0, tailleBrute);
+                for (int i = 1; i <= lignes; i++) {
+                    table.lireLigne(valeurs, pstmt);
+                    pstmt.addBatch();
+                    if (i % TAILLE_LOT_SQL == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+                connection.commit();
+                inserees.addAndGet(table.index, lignes);
+                total += lignes;
+            }
+            // 💡 Les contrôles sont rétablis par restaurer(), une fois TOUS les fils terminés
+            return total;
+        } finally {
+            inflater.end();
+            for (PreparedStatement pstmt : requetes.values()) {
+                pstmt.close();
+            }
+        }
+    }
+
+    // ================================================================
+    // TABLES ET VALEURS
+    // ================================================================
+
+    /**
+     * Une table sauvegardée : ses colonnes, leur genre et leur type JDBC
+     */
+    private static final class Table {
+        final int index;
+        final String nom;
+        final String[] colonnes;
+        final byte[] genres;
+        final int[] types;
+
+        Table(int index, String nom, String[] colonnes, byte[] genres, int[] types) {
+            this.index = index;
+            this.nom = nom;
+            this.colonnes = colonnes;
+            this.genres = genres;
+            this.types = types;
+        }
+
+        static Table lire(Connection connection, int index, String nom) throws SQLException {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT * FROM " + nom + " WHERE 1 = 0")) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int n = meta.getColumnCount();
+                String[] colonnes = new String[n];
+                byte[] genres = new byte[n];
+                int[] types = new int[n];
+                for (int c = 0; c < n; c++) {
+                    colonnes[c] = meta.getColumnName(c + 1);
+                    types[c] = meta.getColumnType(c + 1);
+                    genres[c] = genre(types[c]);
+                }
+                return new Table(index, nom, colonnes, genres, types);
+            }
+        }
+
+        /**
+         * La clé primaire si c'est UNE colonne entière (sinon null : pas de tranches)
+         */
+        String cleEntiere(Connection connection) throws SQLException {
+            int[] cle = indicesCle(connection);
+            return cle.length == 1 && genres[cle[0]] == ENTIER ? colonnes[cle[0]] : null;
+        }
+
+        /**
+         * Les colonnes de la clé primaire (vide si la table n'en a pas)
+         */
+        int[] indicesCle(Connection connection) throws SQLException {
+            DatabaseMetaData meta = connection.getMetaData();
+            List<Integer> cle = new ArrayList<>();
+            try (ResultSet rs = meta.getPrimaryKeys(connection.getCatalog(), connection.getSchema(), nom)) {
+                while (rs.next()) {
+                    int c = colonne(rs.getString("COLUMN_NAME"));
+                    if (c < 0) {
+                        return new int[0];
+                    }
+                    cle.add(c);
+                }
+            }
+            return cle.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Position d'une colonne (noms en majuscules pour H2) : -1 si absente
+         */
+        int colonne(String nomColonne) {
+            for (int c = 0; c < colonnes.length; c++) {
+                if (colonnes[c].equalsIgnoreCase(nomColonne)) {
+                    return c;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Les valeurs du journal (texte) dans le type de la colonne
+         */
+        Object[] convertir(String nomColonne, List<String> valeurs) throws IOException {
+            byte genre = genres[colonne(nomColonne)];
+            Object[] converties = new Object[valeurs.size()];
+            try {
+                for (int i = 0; i < converties.length; i++) {
+                    String v = valeurs.get(i);
+                    switch (genre) {
+                        case ENTIER:
+                            converties[i] = Long.parseLong(v);
+                            break;
+                        case BOOLEEN:
+                            converties[i] = Boolean.parseBoolean(v);
+                            break;
+                        case REEL:
+                            converties[i] = Double.parseDouble(v);
+                            break;
+                        case DECIMAL:
+                            converties[i] = new BigDecimal(v);
+                            break;
+                        case DATE:
+                            converties[i] = LocalDate.parse(v);
+                            break;
+                        case DATE_HEURE:
+                            converties[i] = LocalDateTime.parse(v);
+                            break;
+                        case HEURE:
+                            converties[i] = LocalTime.parse(v);
+                            break;
+                        default:
+                            converties[i] = v;
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Valeur illisible pour " + nom + "." + nomColonne + " : " + e.getMessage(), e);
+            }
+            return converties;
+        }
+
+        /**
+         * Trame S : table, colonne ("" : toute la table), opérateur, valeurs
+         */
+        byte[] suppression(String colonne, String operateur, List<String> valeurs) throws IOException {
+            Tampon tampon = new Tampon(64 + valeurs.size() * 8);
+            DataOutputStream sortie = new DataOutputStream(tampon);
+            sortie.writeShort(index);
+            sortie.writeUTF(colonne);
+            sortie.writeUTF(operateur);
+            sortie.writeInt(valeurs.size());
+            for (String valeur : valeurs) {
+                sortie.writeUTF(valeur);
+            }
+            return tampon.toByteArray();
+        }
+
+        byte[] decrire() throws IOException {
+            Tampon tampon = new Tampon(256);
+            DataOutputStream sortie = new DataOutputStream(tampon);
+            sortie.writeShort(index);
+            sortie.writeUTF(nom);
+            sortie.writeInt(colonnes.length);
+            for (int c = 0; c < colonnes.length; c++) {
+                sortie.writeUTF(colonnes[c]);
+                sortie.writeByte(genres[c]);
+                sortie.writeInt(types[c]);
+            }
+            return tampon.toByteArray();
+        }
+
+        static Table decoder(ByteBuffer contenu) {
+            int index = contenu.getShort();
+            String nom = lireUtf(contenu);
+            int n = contenu.getInt();
+            String[] colonnes = new String[n];
+            byte[] genres = new byte[n];
+            int[] types = new int[n];
+            for (int c = 0; c < n; c++) {
+                colonnes[c] = lireUtf(contenu);
+                genres[c] = contenu.get();
+                types[c] = contenu.getInt();
+            }
+            return new Table(index, nom, colonnes, genres, types);
+        }
+
+        String sqlInsertion() {
+            StringBuilder marques = new StringBuilder();
+            for (int c = 0; c < colonnes.length; c++) {
+                marques.append(c == 0 ? "?" : ", ?");
+            }
+            return "INSERT INTO " + nom + " (" + String.join(", ", colonnes) + ") VALUES (" + marques + ")";
+        }
+
+        /**
+         * Écrit la ligne courante : pour chaque colonne, 0 (NULL) ou 1 suivi de la valeur
+         */
+        void ecrireLigne(ResultSet rs, DataOutputStream sortie) throws SQLException, IOException {
+            for (int c = 0; c < colonnes.length; c++) {
+                int i = c + 1;
+                Object valeur;
+                switch (genres[c]) {
+                    case ENTIER:
+                        long entier = rs.getLong(i);
+                        valeur = rs.wasNull() ? null : entier;
+                        break;
+                    case BOOLEEN:
+                        boolean booleen = rs.getBoolean(i);
+                        valeur = rs.wasNull() ? null : booleen;
+                        break;
+                    case REEL:
+                        double reel = rs.getDouble(i);
+                        valeur = rs.wasNull() ? null : reel;
+                        break;
+                    case DECIMAL:
+                        valeur = rs.getBigDecimal(i);
+                        break;
+                    case DATE:
+                        valeur = rs.getObject(i, LocalDate.class);
+                        break;
+                    case DATE_HEURE:
+                        valeur = rs.getObject(i, LocalDateTime.class);
+                        break;
+                    case HEURE:
+                        valeur = rs.getObject(i, LocalTime.class);
+                        break;
+                    case OCTETS:
+                        valeur = rs.getBytes(i);
+                        break;
+                    default:
+                        valeur = rs.getString(i);
+                }
+                if (valeur == null) {
+                    sortie.writeByte(0);
+                    continue;
+                }
+                sortie.writeByte(1);
+                switch (genres[c]) {
+                    case ENTIER:
+                        sortie.writeLong((Long) valeur);
+                        break;
+                    case BOOLEEN:
+                        sortie.writeBoolean((Boolean) valeur);
+                        break;
+                    case REEL:
+                        sortie.writeDouble((Double) valeur);
+                        break;
+                    case DECIMAL:
+                        ecrireOctets(sortie, ((BigDecimal) valeur).toPlainString().getBytes(StandardCharsets.UTF_8));
+                        break;
+                    case DATE:
+                        sortie.writeLong(((LocalDate) valeur).toEpochDay());
+                        break;
+                    case DATE_HEURE:
+                        LocalDateTime dateHeure = (LocalDateTime) valeur;
+                        sortie.writeLong(dateHeure.toEpochSecond(ZoneOffset.UTC));
+                        sortie.writeInt(dateHeure.getNano());
+                        break;
+                    case HEURE:
+                        sortie.writeLong(((LocalTime) valeur).toNanoOfDay());
+                        break;
+                    case OCTETS:
+                        ecrireOctets(sortie, (byte[]) valeur);
+                        break;
+                    default:
+                        ecrireOctets(sortie, ((String) valeur).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        /**
+         * Lit une ligne d'un bloc décompressé et la lie aux paramètres de l'INSERT
+         */
+        void lireLigne(ByteBuffer valeurs, PreparedStatement pstmt) throws SQLException {
+            for (int c = 0; c < colonnes.length; c++) {
+                int i = c + 1;
+                if (valeurs.get() == 0) {
+                    pstmt.setNull(i, types[c]);
+                    continue;
+                }
+                switch (genres[c]) {
+                    case ENTIER:
+                        pstmt.setLong(i, valeurs.getLong());
+                        break;
+                    case BOOLEEN:
+                        pstmt.setBoolean(i, valeurs.get() != 0);
+                        break;
+                    case REEL:
+                        pstmt.setDouble(i, valeurs.getDouble());
+                        break;
+                    case DECIMAL:
+                        pstmt.setBigDecimal(i, new BigDecimal(lireTexte(valeurs)));
+                        break;
+                    case DATE:
+                        pstmt.setObject(i, LocalDate.ofEpochDay(valeurs.getLong()));
+                        break;
+                    case DATE_HEURE:
+                        long secondes = valeurs.getLong();
+                        pstmt.setObject(i, LocalDateTime.ofEpochSecond(secondes, valeurs.getInt(), ZoneOffset.UTC));
+                        break;
+                    case HEURE:
+                        pstmt.setObject(i, LocalTime.ofNanoOfDay(valeurs.getLong()));
+                        break;
+                    case OCTETS:
+                        byte[] octets = new byte[valeurs.getInt()];
+                        valeurs.get(octets);
+                        pstmt.setBytes(i, octets);
+                        break;
+                    default:
+                        pstmt.setString(i, lireTexte(valeurs));
+                }
+            }
+        }
+    }
+
+    private static byte genre(int typeJdbc) {
+        switch (typeJdbc) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return ENTIER;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return BOOLEEN;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return REEL;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return DECIMAL;
+            case Types.DATE:
+                return DATE;
+            case Types.TIMESTAMP:
+                return DATE_HEURE;
+            case Types.TIME:
+                return HEURE;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return OCTETS;
+            default:
+                return TEXTE;
+        }
+    }
+
+    private static void ecrireOctets(DataOutputStream sortie, byte[] octets) throws IOException {
+        sortie.writeInt(octets.length);
+        sortie.write(octets);
+    }
+
+    private static String lireTexte(ByteBuffer valeurs) {
+        int longueur = valeurs.getInt();
+        String texte = new String(valeurs.array(), valeurs.arrayOffset() + valeurs.position(), longueur,
+            StandardCharsets.UTF_8);
+        valeurs.position(valeurs.position() + longueur);
+        return texte;
+    }
+
+    // Format de DataOutputStream.writeUTF (longueur sur 2 octets)
+    private static String lireUtf(ByteBuffer contenu) {
+        int longueur = contenu.getShort() & 0xFFFF;
+        String texte = new String(contenu.array(), contenu.arrayOffset() + contenu.position(), longueur,
+            StandardCharsets.UTF_8);
+        contenu.position(contenu.position() + longueur);
+        return texte;
+    }
+
+    // ================================================================
+    // FICHIER : trames, blocs compressés
+    // ================================================================
+
+    /**
+     * Écrit les trames dans le fichier (appelé par tous les fils, une trame à la fois)
+     */
+    private static final class Ecrivain {
+        private final FileChannel canal;
+        private final ByteBuffer entete = ByteBuffer.allocate(ENTETE_TRAME);
+        private final CRC32C crc = new CRC32C();
+
+        Ecrivain(FileChannel canal) throws IOException {
+            this.canal = canal;
+            ByteBuffer debut = ByteBuffer.allocate(ENTETE_FICHIER).put(MAGIQUE).putLong(System.currentTimeMillis());
+            debut.flip();
+            while (debut.hasRemaining()) {
+                canal.write(debut);
+            }
+        }
+
+        void ecrire(byte type, byte[] contenu) throws IOException {
+            ecrire(type, contenu, contenu.length, somme(contenu, contenu.length));
+        }
+
+        void ecrire(byte type, Compresseur.Resultat bloc) throws IOException {
+            ecrire(type, bloc.octets, bloc.longueur, bloc.crc);
+        }
+
+        private int somme(byte[] contenu, int longueur) {
+            synchronized (crc) {
+                crc.reset();
+                crc.update(contenu, 0, longueur);
+                return (int) crc.getValue();
+            }
+        }
+
+        // 💡 Écriture groupée (en-tête + contenu) : une trame n'est jamais coupée par une autre
+        synchronized void ecrire(byte type, byte[] contenu, int longueur, int somme) throws IOException {
+            entete.clear();
+            entete.put(type).putInt(longueur).putInt(somme).flip();
+            ByteBuffer[] tampons = {entete, ByteBuffer.wrap(contenu, 0, longueur)};
+            while (tampons[1].hasRemaining() || tampons[0].hasRemaining()) {
+                canal.write(tampons);
+            }
+        }
+    }
+
+    /**
+     * Compresse un bloc de lignes (un par fil : le Deflater n'est pas partagé)
+     */
+    private static final class Compresseur {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32C crc = new CRC32C();
+        private byte[] sortie = new byte[TAILLE_BLOC / 2];
+
+        static final class Resultat {
+            final byte[] octets;
+            final int longueur;
+            final int crc;
+
+            Resultat(byte[] octets, int longueur, int crc) {
+                this.octets = octets;
+                this.longueur = longueur;
+                this.crc = crc;
+            }
+        }
+
+        Resultat bloc(int table, int lignes, Tampon brut) {
+            deflater.reset();
+            deflater.setInput(brut.tableau(), 0, brut.size());
+            deflater.finish();
+            int n = ENTETE_BLOC;
+            while (!deflater.finished()) {
+                if (n == sortie.length) {
+                    sortie = Arrays.copyOf(sortie, sortie.length * 2);
+                }
+                n += deflater.deflate(sortie, n, sortie.length - n);
+            }
+            ByteBuffer.wrap(sortie).putShort((short) table).putInt(lignes).putInt(brut.size());
+
+            crc.reset();
+            crc.update(sortie, 0, n);
+            return new Resultat(sortie, n, (int) crc.getValue());
+        }
+
+        void fermer() {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Lit les trames d'une sauvegarde et vérifie leur somme de contrôle
+     */
+    private static final class Lecteur implements Closeable {
+        private final FileChannel canal;
+        private final ByteBuffer entete = ByteBuffer.allocate(ENTETE_TRAME);
+        private final CRC32C crc = new CRC32C();
+        byte[] charge = new byte[64 * 1024];
+        byte type;
+        int longueur;
+
+        Lecteur(Path fichier) throws IOException {
+            canal = FileChannel.open(fichier, StandardOpenOption.READ);
+            ByteBuffer debut = ByteBuffer.allocate(ENTETE_FICHIER);
+            if (!lireComplet(debut)) {
+                canal.close();
+                throw new IOException("Fichier trop court : ce n'est pas une sauvegarde BloodPlus");
+            }
+            byte[] magique = new byte[MAGIQUE.length];
+            debut.flip().get(magique);
+            if (!Arrays.equals(magique, MAGIQUE)) {
+                canal.close();
+                throw new IOException("Ce fichier n'est pas une sauvegarde BloodPlus");
+            }
+        }
+
+        /**
+         * Passe à la trame suivante (false à la fin du fichier)
+         */
+        boolean suivante() throws IOException {
+            entete.clear();
+            if (canal.read(entete) <= 0) {
+                return false;
+            }
+            if (!lireComplet(entete)) {
+                throw new IOException("Sauvegarde tronquée");
+            }
+            entete.flip();
+            type = entete.get();
+            longueur = entete.getInt();
+            int somme = entete.getInt();
+            if (longueur < 0) {
+                throw new IOException("Sauvegarde corrompue : longueur de trame " + longueur);
+            }
+            if (charge.length < longueur) {
+                charge = new byte[Math.max(longueur, charge.length * 2)];
+            }
+            if (!lireComplet(ByteBuffer.wrap(charge, 0, longueur))) {
+                throw new IOException("Sauvegarde tronquée");
+            }
+            crc.reset();
+            crc.update(charge, 0, longueur);
+            if ((int) crc.getValue() != somme) {
+                throw new IOException("Sauvegarde corrompue : somme de contrôle fausse (trame " + (char) type
+                    + " à l'octet " + (canal.position() - longueur) + ")");
+            }
+            return true;
+        }
+
+        ByteBuffer contenu() {
+            return ByteBuffer.wrap(charge, 0, longueur);
+        }
+
+        private boolean lireComplet(ByteBuffer tampon) throws IOException {
+            while (tampon.hasRemaining()) {
+                if (canal.read(tampon) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+
+    /**
+     * Un bloc compressé en attente d'insertion (FIN = plus rien à insérer)
+     */
+    private static final class Bloc {
+        static final Bloc FIN = new Bloc(new byte[0]);
+        final byte[] charge;
+
+        Bloc(byte[] charge) {
+            this.charge = charge;
+        }
+    }
+
+    /**
+     * Une partie d'une table lue par un fil : toute la table, les ids [du, au[,
+     * ou les lignes modifiées (cle : colonnes qui repèrent une ligne déjà écrite)
+     */
+    private static final class Tranche {
+        final Table table;
+        final List<Requete> requetes;
+        final int[] cle;
+
+        Tranche(Table table, List<Requete> requetes, int[] cle) {
+            this.table = table;
+            this.requetes = requetes;
+            this.cle = cle;
+        }
+    }
+
+    private static final class Requete {
+        final String sql;
+        final Object[] parametres;
+
+        Requete(String sql, Object... parametres) {
+            this.sql = sql;
+            this.parametres = parametres;
+        }
+    }
+
+    /**
+     * ByteArrayOutputStream réutilisable dont on lit le tableau sans copie
+     */
+    private static final class Tampon extends ByteArrayOutputStream {
+        Tampon(int taille) {
+            super(taille);
+        }
+
+        byte[] tableau() {
+            return buf;
+        }
+    }
+
+    // ================================================================
+    // MÉTHODES UTILITAIRES
+    // ================================================================
+
+    /**
+     * Les tables de la base de la connexion, par ordre alphabétique
+     */
+    private static List<String> listerTables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        // "BASE TABLE" : nom du type pour H2 2.x
+        try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(),
+                "%", new String[] {"TABLE", "BASE TABLE"})) {
+            while (rs.next()) {
+                String table = rs.getString("TABLE_NAME");
+                // 💡 Le journal ne sert qu'à la base qui l'a écrit
+                if (!JournalModificationsDAO.TABLE.equalsIgnoreCase(table)) {
+                    tables.add(table);
+                }
+            }
+        }
+        tables.sort(null);
+        return tables;
+    }
+
+    /**
+     * Heure de la base (pas du poste) : c'est elle qui date les notes du journal
+     */
+    private static LocalDateTime heureBase(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT LOCALTIMESTAMP")) {
+            rs.next();
+            return rs.getObject(1, LocalDateTime.class).withNano(0);
+        }
+    }
+
+    private static long nouvelIdentifiant() {
+        long identifiant = UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE;
+        return identifiant != 0 ? identifiant : 1;
+    }
+
+    private static void executer(Statement stmt, String[] instructions) throws SQLException {
+        for (String sql : instructions) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static ExecutorService creerExecuteur(String nom) {
+        return Executors.newFixedThreadPool(TRAVAILLEURS, r -> {
+            Thread t = new Thread(r, nom);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static <T> T attendre(Future<T> resultat) throws SQLException, IOException {
+        try {
+            return resultat.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Connexion dédiée (une par fil)
+     */
+    private static Connection ouvrirConnexion() throws SQLException {
+        try {
+            return DatabaseConnection.ouvrirConnexion();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Driver JDBC introuvable", e);
+        }
+    }
+}
@@ -13,29 +13,37 @@ import model.Utilisateur;
  * - Permet d'accéder à l'utilisateur connecté depuis n'importe où
  * - getInstance() retourne toujours la même instance
  * 
+ * 💡 ADAPTATEUR "BUREAU" :
+ * La Session représente l'utilisateur du poste de travail Swing.
+ * Elle fournit le ContexteAppel par défaut : les opérations lancées depuis
+ * l'interface sont donc auditées sous son nom, comme avant.
+ * Les autres modes (serveur HTTP...) attachent leur propre ContexteAppel.
+ * 
  * @author dteach
  */
 public class Session {
     
     // L'instance unique (Singleton)
-    private static Session instance;
+    // 💡 Créée au chargement de la classe : pas de risque d'en créer deux depuis deux threads
+    private static final Session instance = new Session();
+    
+    // L'utilisateur actuellement connecté (volatile : lu depuis les threads de travail)
+    private volatile Utilisateur utilisateurConnecte;
     
-    // L'utilisateur actuellement connecté
-    private Utilisateur utilisateurConnecte;
+    // Son contexte d'appel immuable (null si personne n'est connecté)
+    private volatile ContexteAppel contexte;
     
     /**
      * Constructeur privé (empêche la création d'instances externes)
      */
     private Session() {
+        ContexteAppel.setParDefaut(() -> contexte);
     }
     
     /**
      * Retourne l'instance unique de Session
      */
     public static Session getInstance() {
-        if (instance == null) {
-            instance = new Session();
-        }
         return instance;
     }
     
@@ -46,6 +54,7 @@ public class Session {
      */
     public void connecter(Utilisateur utilisateur) {
         this.utilisateurConnecte = utilisateur;
+        this.contexte = ContexteAppel.depuis(utilisateur);
         System.out.println("📌 Session ouverte pour: " + utilisateur.getNomComplet());
     }
     
@@ -57,6 +66,7 @@ public class Session {
             System.out.println("👋 Session fermée pour: " + utilisateurConnecte.getNomComplet());
         }
         this.utilisateurConnecte = null;
+        this.contexte = null;
     }
     
     /**
@@ -66,6 +76,13 @@ public class Session {
         return utilisateurConnecte != null;
     }
     
+    /**
+     * Retourne le contexte d'appel de l'utilisateur connecté (null si déconnecté)
+     */
+    public ContexteAppel getContexte() {
+        return contexte;
+    }
+    
     /**
      * Retourne l'utilisateur connecté
      */
@@ -4,10 +4,14 @@
 package ui;
 
 import dao.*;
+import diagnostic.RafraichissementEcranEvent;
 import model.GroupeSanguin;
+import service.PrevisionDemandeService;
 import javax.swing.*;
 import java.awt.*;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DashboardPanel : Tableau de bord principal
@@ -15,7 +19,7 @@ import java.util.List;
  * 💡 EXPLICATION :
  * C'est l'écran d'accueil qui affiche :
  * - Les statistiques générales
- * - L'état du stock par groupe sanguin
+ * - L'état du stock par groupe sanguin (et combien de jours il va durer)
  * - Les alertes en cours
  * 
  * @author dteach
@@ -39,6 +43,9 @@ public class DashboardPanel extends JPanel {
     private DonDAO donDAO;
     private StockSanguinDAO stockDAO;
     private AlerteDAO alerteDAO;
+    
+    // Prévision de la consommation (jours de stock restants)
+    private PrevisionDemandeService prevision;
 
     public DashboardPanel() {
         initDAOs();
@@ -47,10 +54,11 @@ public class DashboardPanel extends JPanel {
     }
     
     private void initDAOs() {
-        donneurDAO = new DonneurDAO();
-        donDAO = new DonDAO();
-        stockDAO = new StockSanguinDAO();
-        alerteDAO = new AlerteDAO();
+        donneurDAO = RegistreDAO.get().getDonneurDAO();
+        donDAO = RegistreDAO.get().getDonDAO();
+        stockDAO = RegistreDAO.get().getStockSanguinDAO();
+        alerteDAO = RegistreDAO.get().getAlerteDAO();
+        prevision = new PrevisionDemandeService();
     }
     
     private void initComponents() {
@@ -157,8 +165,9 @@ public class DashboardPanel extends JPanel {
     
     /**
      * Crée une carte pour un groupe sanguin
+     * @param joursDeStock Jours avant épuisement prévus (null si inconnu)
      */
-    private JPanel createBloodGroupCard(String groupe, int quantite) {
+    private JPanel createBloodGroupCard(String groupe, int quantite, Double joursDeStock) {
         JPanel card = new JPanel(new BorderLayout(5, 5));
         card.setBorder(BorderFactory.createCompoundBorder(
             BorderFactory.createLineBorder(new Color(220, 53, 69)),
@@ -180,7 +189,13 @@ public class DashboardPanel extends JPanel {
         lblGroupe.setFont(new Font("Arial", Font.BOLD, 18));
         lblGroupe.setForeground(Color.WHITE);
         
-        JLabel lblQuantite = new JLabel(quantite + " ml", SwingConstants.CENTER);
+        String texte = quantite + " ml";
+        if (joursDeStock != null) {
+            texte += joursDeStock >= PrevisionDemandeService.HORIZON_MAX_JOURS
+                ? " · " + PrevisionDemandeService.HORIZON_MAX_JOURS + "+ j"
+                : String.format(" · ≈ %.1f j", joursDeStock);
+        }
+        JLabel lblQuantite = new JLabel(texte, SwingConstants.CENTER);
         lblQuantite.setFont(new Font("Arial", Font.PLAIN, 12));
         lblQuantite.setForeground(Color.WHITE);
         
@@ -195,6 +210,9 @@ public class DashboardPanel extends JPanel {
      * Appelé quand on navigue vers cet écran
      */
     public void refreshData() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Tableau de bord");
+        
         try {
             // Statistiques générales
             int totalDonneurs = donneurDAO.compter();
@@ -208,11 +226,12 @@ public class DashboardPanel extends JPanel {
             // Stock par groupe sanguin
             stockGridPanel.removeAll();
             int totalStock = 0;
+            Map<String, Double> joursDeStock = getJoursDeStock();
             
             for (String groupe : GroupeSanguin.TOUS_LES_GROUPES) {
                 int quantite = stockDAO.getQuantiteTotaleParGroupe(groupe);
                 totalStock += quantite;
-                stockGridPanel.add(createBloodGroupCard(groupe, quantite));
+                stockGridPanel.add(createBloodGroupCard(groupe, quantite, joursDeStock.get(groupe)));
             }
             
             lblTotalStock.setText(totalStock + " ml");
@@ -241,6 +260,24 @@ public class DashboardPanel extends JPanel {
         } catch (Exception e) {
             System.err.println("Erreur lors du rafraîchissement du dashboard: " + e.getMessage());
         }
+        
+        evenement.terminer(0);
+    }
+    
+    /**
+     * Jours de stock prévus par groupe (vide si la prévision échoue)
+     * 💡 La base n'est lue qu'une fois par jour : le reste est calculé en mémoire
+     */
+    private Map<String, Double> getJoursDeStock() {
+        Map<String, Double> jours = new HashMap<>();
+        try {
+            for (Object[] ligne : prevision.getJoursDeStock()) {
+                jours.put((String) ligne[0], (Double) ligne[3]);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Prévision de la demande indisponible: " + e.getMessage());
+        }
+        return jours;
     }
     
     /**
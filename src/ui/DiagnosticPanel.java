@@ -0,0 +1,344 @@
+/*
+ * Package UI
+ */
+package ui;
+
+import diagnostic.JournalRequetesLentes;
+import diagnostic.Metriques;
+import diagnostic.StatistiqueOperation;
+import diagnostic.SurveillantEdt;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DiagnosticPanel : mesures de performance de l'application
+ * (Réservé ADMIN)
+ *
+ * 💡 EXPLICATION :
+ * - Tableau du haut : chaque opération mesurée (requête d'un DAO, emprunt
+ *   au pool, événement Swing) avec ses latences p50/p95/p99, ses lignes
+ *   et ses erreurs. Les plus coûteuses (temps total) sont en premier.
+ * - Tableau du bas : compteurs, jauges (pool de connexions) et taux de
+ *   succès des caches.
+ * - Onglet "Blocages EDT" : les gels de l'interface regroupés par endroit
+ *   du code (voir diagnostic.SurveillantEdt), avec la pile d'appels
+ *   capturée pendant le blocage et l'indicateur de réactivité.
+ * - Onglet "Requêtes lentes" : la fin du journal des requêtes au-delà du
+ *   seuil, avec leurs paramètres masqués et leur plan d'exécution.
+ * Les mêmes valeurs sont publiées par JMX (bean bloodplus:type=Metriques).
+ *
+ * @author dteach
+ */
+public class DiagnosticPanel extends JPanel {
+
+    private static final int PERIODE_ACTUALISATION_MS = 2000;
+
+    private DefaultTableModel modeleOperations;
+    private DefaultTableModel modeleCompteurs;
+    private DefaultTableModel modeleBlocages;
+    private List<SurveillantEdt.SiteBlocage> sitesAffiches;
+    private JLabel lblReactivite;
+    private JTextArea txtPile;
+    private JTextArea txtRequetesLentes;
+    private JCheckBox chkAuto;
+    private Timer timer;
+
+    public DiagnosticPanel() {
+        setLayout(new BorderLayout(10, 10));
+        setBackground(new Color(248, 249, 250));
+        setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        initComponents();
+        chargerDonnees();
+    }
+
+    private void initComponents() {
+        // ========== HEADER ==========
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setOpaque(false);
+
+        JLabel lblTitre = new JLabel("🩺 Diagnostic");
+        lblTitre.setFont(new Font("Arial", Font.BOLD, 24));
+
+        JLabel lblInfo = new JLabel(Metriques.ACTIVES
+            ? "Latences des requêtes et de l'interface depuis le démarrage (ou la dernière remise à zéro)"
+            : "⚠️ Mesures désactivées (-Dbloodplus.metriques=false)");
+        lblInfo.setFont(new Font("Arial", Font.ITALIC, 12));
+        lblInfo.setForeground(Color.GRAY);
+
+        JPanel titlePanel = new JPanel(new GridLayout(2, 1));
+        titlePanel.setOpaque(false);
+        titlePanel.add(lblTitre);
+        titlePanel.add(lblInfo);
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+
+        // Boutons
+        JPanel boutonsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        boutonsPanel.setOpaque(false);
+
+        chkAuto = new JCheckBox("Actualisation automatique");
+        chkAuto.setOpaque(false);
+        chkAuto.addActionListener(e -> {
+            if (chkAuto.isSelected()) {
+                timer.start();
+            } else {
+                timer.stop();
+            }
+        });
+        boutonsPanel.add(chkAuto);
+
+        JButton btnActualiser = new JButton("🔄 Actualiser");
+        btnActualiser.addActionListener(e -> chargerDonnees());
+        boutonsPanel.add(btnActualiser);
+
+        JButton btnReinitialiser = new JButton("Remettre à zéro");
+        btnReinitialiser.setBackground(new Color(220, 53, 69));
+        btnReinitialiser.setForeground(Color.WHITE);
+        btnReinitialiser.addActionListener(e -> {
+            int confirm = JOptionPane.showConfirmDialog(this,
+                "Effacer toutes les mesures ?", "Confirmation", JOptionPane.YES_NO_OPTION);
+            if (confirm == JOptionPane.YES_OPTION) {
+                Metriques.getInstance().reinitialiser();
+                SurveillantEdt.getInstance().reinitialiser();
+                chargerDonnees();
+            }
+        });
+        boutonsPanel.add(btnReinitialiser);
+
+        headerPanel.add(boutonsPanel, BorderLayout.EAST);
+        add(headerPanel, BorderLayout.NORTH);
+
+        // ========== TABLE DES OPÉRATIONS ==========
+        modeleOperations = new DefaultTableModel(new String[]{
+            "Opération", "Appels", "Moyenne (ms)", "p50 (ms)", "p95 (ms)", "p99 (ms)",
+            "Max (ms)", "Total (ms)", "Lignes", "Erreurs"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            // Pour que le tri par colonne compare des nombres, pas du texte
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : Number.class;
+            }
+        };
+        JTable tableOperations = creerTable(modeleOperations);
+        tableOperations.setAutoCreateRowSorter(true);
+        tableOperations.getColumnModel().getColumn(0).setPreferredWidth(280);
+
+        // ========== TABLE DES COMPTEURS ==========
+        modeleCompteurs = new DefaultTableModel(new String[]{"Mesure", "Valeur"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable tableCompteurs = creerTable(modeleCompteurs);
+
+        JScrollPane scrollCompteurs = new JScrollPane(tableCompteurs);
+        scrollCompteurs.setPreferredSize(new Dimension(0, 160));
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            new JScrollPane(tableOperations), scrollCompteurs);
+        split.setResizeWeight(0.75);
+
+        JTabbedPane onglets = new JTabbedPane();
+        onglets.addTab("Opérations", split);
+        onglets.addTab("Blocages EDT", creerOngletBlocages());
+        onglets.addTab("Requêtes lentes", creerOngletRequetesLentes());
+        // Le journal est un fichier : on ne le relit qu'à l'ouverture de l'onglet
+        onglets.addChangeListener(e -> {
+            if (onglets.getSelectedIndex() == 2) {
+                chargerRequetesLentes();
+            }
+        });
+        add(onglets, BorderLayout.CENTER);
+
+        // 💡 Le Timer Swing s'exécute sur l'EDT : pas besoin d'invokeLater
+        timer = new Timer(PERIODE_ACTUALISATION_MS, e -> {
+            if (isShowing()) {
+                chargerDonnees();
+            }
+        });
+    }
+
+    /**
+     * Onglet des gels de l'interface : indicateur, sites de blocage, pile d'appels
+     */
+    private JPanel creerOngletBlocages() {
+        SurveillantEdt surveillant = SurveillantEdt.getInstance();
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+
+        JPanel haut = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        lblReactivite = new JLabel();
+        lblReactivite.setFont(new Font("Arial", Font.BOLD, 13));
+        haut.add(lblReactivite);
+        haut.add(Box.createHorizontalStrut(20));
+        haut.add(new JLabel("Seuil (ms) :"));
+        JSpinner spnSeuil = new JSpinner(new SpinnerNumberModel((int) surveillant.getSeuilMs(), 10, 10000, 50));
+        spnSeuil.addChangeListener(e -> surveillant.setSeuilMs((Integer) spnSeuil.getValue()));
+        haut.add(spnSeuil);
+        JButton btnExporter = new JButton("💾 Exporter le rapport");
+        btnExporter.addActionListener(e -> exporterRapport());
+        haut.add(btnExporter);
+        panel.add(haut, BorderLayout.NORTH);
+
+        modeleBlocages = new DefaultTableModel(new String[]{
+            "Endroit du code", "Blocages", "Total (ms)", "Max (ms)"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable tableBlocages = creerTable(modeleBlocages);
+        tableBlocages.getColumnModel().getColumn(0).setPreferredWidth(450);
+
+        txtPile = new JTextArea();
+        txtPile.setEditable(false);
+        txtPile.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+
+        // Sélection d'une ligne → pile d'appels capturée pendant le blocage
+        tableBlocages.getSelectionModel().addListSelectionListener(e -> {
+            int ligne = tableBlocages.getSelectedRow();
+            if (!e.getValueIsAdjusting() && ligne >= 0 && sitesAffiches != null && ligne < sitesAffiches.size()) {
+                String pile = sitesAffiches.get(ligne).getExemplePile();
+                txtPile.setText(pile != null ? pile : "Blocage terminé avant la capture de la pile");
+                txtPile.setCaretPosition(0);
+            }
+        });
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            new JScrollPane(tableBlocages), new JScrollPane(txtPile));
+        split.setResizeWeight(0.5);
+        panel.add(split, BorderLayout.CENTER);
+        return panel;
+    }
+
+    /**
+     * Onglet du journal des requêtes lentes
+     */
+    private JPanel creerOngletRequetesLentes() {
+        JournalRequetesLentes journal = JournalRequetesLentes.getInstance();
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+
+        JPanel haut = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        haut.add(new JLabel("Seuil (ms) :"));
+        JSpinner spnSeuil = new JSpinner(new SpinnerNumberModel((int) journal.getSeuilMs(), 1, 60000, 50));
+        spnSeuil.addChangeListener(e -> journal.setSeuilMs((Integer) spnSeuil.getValue()));
+        haut.add(spnSeuil);
+        JButton btnRelire = new JButton("🔄 Relire le journal");
+        btnRelire.addActionListener(e -> chargerRequetesLentes());
+        haut.add(btnRelire);
+        JLabel lblFichier = new JLabel(journal.getFichier().toAbsolutePath().toString());
+        lblFichier.setForeground(Color.GRAY);
+        haut.add(lblFichier);
+        panel.add(haut, BorderLayout.NORTH);
+
+        txtRequetesLentes = new JTextArea();
+        txtRequetesLentes.setEditable(false);
+        txtRequetesLentes.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        panel.add(new JScrollPane(txtRequetesLentes), BorderLayout.CENTER);
+        return panel;
+    }
+
+    /**
+     * Affiche la fin du journal (200 Ko), les entrées les plus récentes en bas
+     */
+    private void chargerRequetesLentes() {
+        try {
+            String texte = JournalRequetesLentes.getInstance().lireFin(200_000);
+            txtRequetesLentes.setText(texte.isEmpty() ? "✅ Aucune requête lente enregistrée" : texte);
+            txtRequetesLentes.setCaretPosition(txtRequetesLentes.getDocument().getLength());
+        } catch (IOException e) {
+            txtRequetesLentes.setText("❌ Lecture du journal impossible : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sauvegarde le rapport des blocages dans un fichier texte
+     */
+    private void exporterRapport() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new java.io.File("blocages-edt.txt"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            Files.write(chooser.getSelectedFile().toPath(),
+                SurveillantEdt.getInstance().rapport().getBytes(StandardCharsets.UTF_8));
+            JOptionPane.showMessageDialog(this, "✅ Rapport enregistré");
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "❌ Erreur : " + e.getMessage(),
+                "Erreur", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private JTable creerTable(DefaultTableModel modele) {
+        JTable table = new JTable(modele);
+        table.setRowHeight(26);
+        table.setFont(new Font("Arial", Font.PLAIN, 12));
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        table.getTableHeader().setBackground(new Color(52, 58, 64));
+        table.getTableHeader().setForeground(Color.WHITE);
+        table.setGridColor(new Color(220, 220, 220));
+        return table;
+    }
+
+    /**
+     * Recharge les mesures (lecture en mémoire, aucune requête SQL)
+     */
+    public void chargerDonnees() {
+        modeleOperations.setRowCount(0);
+        for (StatistiqueOperation s : Metriques.instantane()) {
+            modeleOperations.addRow(new Object[]{
+                s.getNom(),
+                s.getAppels(),
+                arrondir(s.getMoyenneMs()),
+                arrondir(s.getP50Ms()),
+                arrondir(s.getP95Ms()),
+                arrondir(s.getP99Ms()),
+                arrondir(s.getMaxMs()),
+                arrondir(s.getTotalMs()),
+                s.getLignes(),
+                s.getErreurs()
+            });
+        }
+
+        Metriques metriques = Metriques.getInstance();
+        modeleCompteurs.setRowCount(0);
+        for (Map.Entry<String, Long> e : metriques.getJauges().entrySet()) {
+            modeleCompteurs.addRow(new Object[]{"📈 " + e.getKey(), e.getValue()});
+        }
+        for (Map.Entry<String, Double> e : metriques.getTauxCaches().entrySet()) {
+            modeleCompteurs.addRow(new Object[]{"🎯 cache " + e.getKey() + " (taux de succès)",
+                String.format("%.1f %%", e.getValue() * 100)});
+        }
+        for (Map.Entry<String, Long> e : metriques.getCompteurs().entrySet()) {
+            modeleCompteurs.addRow(new Object[]{"🔢 " + e.getKey(), e.getValue()});
+        }
+
+        SurveillantEdt surveillant = SurveillantEdt.getInstance();
+        lblReactivite.setText(String.format("Réactivité : %.2f %% des %d événements < %d ms  |  %d blocages, %.1f s figée",
+            surveillant.getTauxReactivite() * 100, surveillant.getNombreEvenements(), surveillant.getSeuilMs(),
+            surveillant.getNombreBlocages(), surveillant.getTempsBloqueMs() / 1000));
+        sitesAffiches = surveillant.getSites();
+        modeleBlocages.setRowCount(0);
+        for (SurveillantEdt.SiteBlocage site : sitesAffiches) {
+            modeleBlocages.addRow(new Object[]{
+                site.getSite(), site.getNombre(), arrondir(site.getTotalMs()), arrondir(site.getMaxMs())});
+        }
+    }
+
+    // 💡 Double arrondi à 0,01 ms : la colonne reste triable comme un nombre
+    private static double arrondir(double ms) {
+        return Math.round(ms * 100) / 100.0;
+    }
+}
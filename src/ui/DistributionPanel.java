@@ -5,7 +5,9 @@ package ui;
 
 import dao.DistributionDAO;
 import dao.HopitalDAO;
+import dao.RegistreDAO;
 import dao.StockSanguinDAO;
+import diagnostic.RafraichissementEcranEvent;
 import model.Distribution;
 import model.GroupeSanguin;
 import model.Hopital;
@@ -31,9 +33,9 @@ public class DistributionPanel extends JPanel {
     private StockSanguinDAO stockDAO;
 
     public DistributionPanel() {
-        distributionDAO = new DistributionDAO();
-        hopitalDAO = new HopitalDAO();
-        stockDAO = new StockSanguinDAO();
+        distributionDAO = RegistreDAO.get().getDistributionDAO();
+        hopitalDAO = RegistreDAO.get().getHopitalDAO();
+        stockDAO = RegistreDAO.get().getStockSanguinDAO();
         initComponents();
     }
     
@@ -302,6 +304,9 @@ public class DistributionPanel extends JPanel {
     }
     
     public void refreshData() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Distributions");
+        
         tableModel.setRowCount(0);
         List<Distribution> distributions = distributionDAO.listerTous();
         
@@ -318,5 +323,7 @@ public class DistributionPanel extends JPanel {
                 d.getMotif()
             });
         }
+        
+        evenement.terminer(tableModel.getRowCount());
     }
 }
@@ -4,7 +4,9 @@
 package ui;
 
 import dao.DonDAO;
-import dao.DonneurDAO;
+import dao.EligibiliteDAO;
+import dao.RegistreDAO;
+import diagnostic.RafraichissementEcranEvent;
 import model.Don;
 import model.Donneur;
 import utils.DateUtils;
@@ -12,7 +14,8 @@ import utils.DateUtils;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -26,11 +29,11 @@ public class DonPanel extends JPanel {
     private DefaultTableModel tableModel;
     
     private DonDAO donDAO;
-    private DonneurDAO donneurDAO;
+    private EligibiliteDAO eligibiliteDAO;
 
     public DonPanel() {
-        donDAO = new DonDAO();
-        donneurDAO = new DonneurDAO();
+        donDAO = RegistreDAO.get().getDonDAO();
+        eligibiliteDAO = RegistreDAO.get().getEligibiliteDAO();
         initComponents();
     }
     
@@ -133,13 +136,11 @@ public class DonPanel extends JPanel {
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.insets = new Insets(8, 5, 8, 5);
         
-        // Liste des donneurs aptes
-        List<Donneur> donneurs = donneurDAO.listerTous();
+        // Liste des donneurs aptes ET dont le dernier don est assez ancien
+        List<Donneur> donneurs = eligibiliteDAO.listerEligibles(null, LocalDate.now());
         JComboBox<Donneur> cmbDonneur = new JComboBox<>();
         for (Donneur d : donneurs) {
-            if (d.isApte()) {
-                cmbDonneur.addItem(d);
-            }
+            cmbDonneur.addItem(d);
         }
         
         // Afficher le nom complet dans la combobox
@@ -195,7 +196,7 @@ public class DonPanel extends JPanel {
             Donneur donneur = (Donneur) cmbDonneur.getSelectedItem();
             int quantite = (int) spnQuantite.getValue();
             
-            Don don = new Don(donneur.getId(), new Date(), quantite);
+            Don don = new Don(donneur.getId(), LocalDateTime.now(), quantite);
             don.setNotes(txtNotes.getText().trim());
             
             if (donDAO.ajouter(don)) {
@@ -233,8 +234,11 @@ public class DonPanel extends JPanel {
         int id = (int) tableModel.getValueAt(selectedRow, 0);
         if (donDAO.valider(id)) {
             JOptionPane.showMessageDialog(this, "✅ Don validé !");
-            refreshData();
+        } else {
+            // Ex: validé entre-temps depuis un autre poste
+            JOptionPane.showMessageDialog(this, "❌ Don non validé (déjà traité ?)");
         }
+        refreshData();
     }
     
     private void rejeterSelection() {
@@ -261,6 +265,9 @@ public class DonPanel extends JPanel {
     }
     
     public void refreshData() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Dons");
+        
         tableModel.setRowCount(0);
         List<Don> dons = donDAO.listerTous();
         
@@ -279,5 +286,7 @@ public class DonPanel extends JPanel {
                 d.getStatut()
             });
         }
+        
+        evenement.terminer(tableModel.getRowCount());
     }
 }
@@ -4,14 +4,19 @@
 package ui;
 
 import dao.DonneurDAO;
+import dao.RegistreDAO;
+import diagnostic.RafraichissementEcranEvent;
 import model.Donneur;
 import model.GroupeSanguin;
+import service.DedoublonnageService;
+import service.ImportDonneursService;
 import utils.ValidationUtils;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -24,6 +29,8 @@ import java.util.List;
  * - Modifier un donneur existant
  * - Supprimer un donneur
  * - Rechercher des donneurs
+ * - Importer des donneurs depuis un fichier CSV
+ * - Détecter et fusionner les donneurs inscrits deux fois
  * 
  * @author dteach
  */
@@ -38,7 +45,7 @@ public class DonneurPanel extends JPanel {
     private DonneurDAO donneurDAO;
 
     public DonneurPanel() {
-        donneurDAO = new DonneurDAO();
+        donneurDAO = RegistreDAO.get().getDonneurDAO();
         initComponents();
     }
     
@@ -110,16 +117,22 @@ public class DonneurPanel extends JPanel {
         JButton btnModifier = createButton("✏️ Modifier", new Color(0, 123, 255));
         JButton btnSupprimer = createButton("🗑️ Supprimer", new Color(220, 53, 69));
         JButton btnRefresh = createButton("🔄 Rafraîchir", new Color(108, 117, 125));
+        JButton btnImporter = createButton("📥 Importer CSV", new Color(23, 162, 184));
+        JButton btnDoublons = createButton("🔎 Doublons", new Color(255, 140, 0));
         
         btnAjouter.addActionListener(e -> showFormulaire(null));
         btnModifier.addActionListener(e -> modifierSelection());
         btnSupprimer.addActionListener(e -> supprimerSelection());
         btnRefresh.addActionListener(e -> refreshData());
+        btnImporter.addActionListener(e -> importerCsv(btnImporter));
+        btnDoublons.addActionListener(e -> rechercherDoublons(btnDoublons));
         
         buttonPanel.add(btnAjouter);
         buttonPanel.add(btnModifier);
         buttonPanel.add(btnSupprimer);
         buttonPanel.add(btnRefresh);
+        buttonPanel.add(btnImporter);
+        buttonPanel.add(btnDoublons);
         
         add(buttonPanel, BorderLayout.SOUTH);
         
@@ -236,6 +249,22 @@ public class DonneurPanel extends JPanel {
             d.setAdresse(txtAdresse.getText().trim());
             d.setApte(chkApte.isSelected());
             
+            // Vérifier qu'il n'est pas déjà inscrit (orthographe différente...)
+            if (donneur == null) {
+                List<DedoublonnageService.Suggestion> doublons = new DedoublonnageService(donneurDAO).verifier(d);
+                if (!doublons.isEmpty()) {
+                    Donneur existant = doublons.get(0).getDonneurA();
+                    int choix = JOptionPane.showConfirmDialog(dialog, 
+                        "⚠️ Ce donneur semble déjà inscrit :\n" + existant.getNomComplet() 
+                        + " (ID: " + existant.getId() + ", " + doublons.get(0).getMotif() + ")\n\n"
+                        + "Enregistrer quand même ?", 
+                        "Doublon possible", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+                    if (choix != JOptionPane.YES_OPTION) {
+                        return;
+                    }
+                }
+            }
+            
             boolean success;
             if (donneur == null) {
                 success = donneurDAO.ajouter(d);
@@ -323,6 +352,162 @@ public class DonneurPanel extends JPanel {
         }
     }
     
+    /**
+     * Importe un fichier CSV de donneurs (collecte de sang)
+     * 
+     * 💡 L'import tourne dans un SwingWorker : l'interface reste utilisable
+     *    pendant le traitement de milliers de lignes
+     */
+    private void importerCsv(JButton btnImporter) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Importer des donneurs (CSV)");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Fichiers CSV", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        Path fichier = chooser.getSelectedFile().toPath();
+        Path rejets = fichier.resolveSibling(fichier.getFileName() + ".rejets.csv");
+        
+        btnImporter.setEnabled(false);
+        btnImporter.setText("Import...");
+        
+        SwingWorker<ImportDonneursService.Resultat, Integer> worker =
+                new SwingWorker<ImportDonneursService.Resultat, Integer>() {
+            @Override
+            protected ImportDonneursService.Resultat doInBackground() throws Exception {
+                return new ImportDonneursService().importer(fichier, rejets, this::publish);
+            }
+            
+            @Override
+            protected void process(List<Integer> lignes) {
+                btnImporter.setText("Import... " + lignes.get(lignes.size() - 1));
+            }
+            
+            @Override
+            protected void done() {
+                btnImporter.setEnabled(true);
+                btnImporter.setText("📥 Importer CSV");
+                try {
+                    ImportDonneursService.Resultat r = get();
+                    String message = "✅ " + r.getImportees() + " donneurs importés";
+                    if (r.getRejetees() > 0) {
+                        message += "\n⚠️ " + r.getRejetees() + " lignes rejetées, voir :\n" + r.getFichierRejets();
+                    }
+                    JOptionPane.showMessageDialog(DonneurPanel.this, message);
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(DonneurPanel.this, 
+                        "❌ Erreur lors de l'import :\n" + (e.getCause() != null ? e.getCause() : e).getMessage(), 
+                        "Erreur", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+                refreshData();
+            }
+        };
+        
+        worker.execute();
+    }
+    
+    /**
+     * Recherche les donneurs inscrits plusieurs fois et propose de les fusionner
+     */
+    private void rechercherDoublons(JButton btnDoublons) {
+        btnDoublons.setEnabled(false);
+        btnDoublons.setText("Analyse...");
+        
+        SwingWorker<List<DedoublonnageService.Suggestion>, Void> worker =
+                new SwingWorker<List<DedoublonnageService.Suggestion>, Void>() {
+            @Override
+            protected List<DedoublonnageService.Suggestion> doInBackground() {
+                return new DedoublonnageService(donneurDAO).analyser();
+            }
+            
+            @Override
+            protected void done() {
+                btnDoublons.setEnabled(true);
+                btnDoublons.setText("🔎 Doublons");
+                try {
+                    List<DedoublonnageService.Suggestion> suggestions = get();
+                    if (suggestions.isEmpty()) {
+                        JOptionPane.showMessageDialog(DonneurPanel.this, "✅ Aucun doublon détecté");
+                    } else {
+                        afficherDoublons(suggestions);
+                    }
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(DonneurPanel.this, 
+                        "❌ Erreur lors de la recherche de doublons", 
+                        "Erreur", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+            }
+        };
+        
+        worker.execute();
+    }
+    
+    /**
+     * Affiche les fusions proposées (le donneur conservé est celui de gauche)
+     */
+    private void afficherDoublons(List<DedoublonnageService.Suggestion> suggestions) {
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(this), 
+            "Doublons possibles (" + suggestions.size() + ")", true);
+        dialog.setSize(850, 450);
+        dialog.setLocationRelativeTo(this);
+        
+        String[] colonnes = {"Score", "Conservé", "Doublon", "Motif"};
+        DefaultTableModel modele = new DefaultTableModel(colonnes, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (DedoublonnageService.Suggestion s : suggestions) {
+            modele.addRow(new Object[]{
+                String.format("%.0f %%", s.getScore() * 100),
+                s.getDonneurA().getNomComplet() + " (ID: " + s.getDonneurA().getId() + ")",
+                s.getDonneurB().getNomComplet() + " (ID: " + s.getDonneurB().getId() + ")",
+                s.getMotif()
+            });
+        }
+        JTable tableDoublons = new JTable(modele);
+        tableDoublons.setRowHeight(25);
+        
+        JButton btnFusionner = createButton("🔗 Fusionner", new Color(40, 167, 69));
+        JButton btnFermer = createButton("❌ Fermer", new Color(108, 117, 125));
+        
+        btnFermer.addActionListener(e -> dialog.dispose());
+        btnFusionner.addActionListener(e -> {
+            int ligne = tableDoublons.getSelectedRow();
+            if (ligne < 0) {
+                JOptionPane.showMessageDialog(dialog, "Veuillez sélectionner une ligne");
+                return;
+            }
+            DedoublonnageService.Suggestion s = suggestions.get(ligne);
+            int confirm = JOptionPane.showConfirmDialog(dialog, 
+                "Fusionner " + s.getDonneurB().getNomComplet() + " dans " + s.getDonneurA().getNomComplet() 
+                + " ?\nLes dons du doublon seront rattachés au donneur conservé.", 
+                "Confirmation", JOptionPane.YES_NO_OPTION);
+            if (confirm == JOptionPane.YES_OPTION) {
+                if (new DedoublonnageService(donneurDAO).fusionner(s)) {
+                    suggestions.remove(ligne);
+                    modele.removeRow(ligne);
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(dialog, "❌ Erreur lors de la fusion", 
+                        "Erreur", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+        
+        JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btnPanel.add(btnFusionner);
+        btnPanel.add(btnFermer);
+        
+        dialog.add(new JScrollPane(tableDoublons), BorderLayout.CENTER);
+        dialog.add(btnPanel, BorderLayout.SOUTH);
+        dialog.setVisible(true);
+    }
+    
     /**
      * Recherche des donneurs
      */
@@ -353,6 +538,9 @@ public class DonneurPanel extends JPanel {
      * Rafraîchit les données du tableau
      */
     public void refreshData() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Donneurs");
+        
         tableModel.setRowCount(0);
         List<Donneur> donneurs = donneurDAO.listerTous();
         
@@ -367,5 +555,7 @@ public class DonneurPanel extends JPanel {
                 d.isApte() ? "✅ Oui" : "❌ Non"
             });
         }
+        
+        evenement.terminer(tableModel.getRowCount());
     }
 }
@@ -4,15 +4,17 @@
 package ui;
 
 import dao.ActionLogDAO;
+import dao.RegistreDAO;
 import dao.UtilisateurDAO;
+import diagnostic.RafraichissementEcranEvent;
 import model.ActionLog;
 import model.Utilisateur;
+import utils.DateUtils;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
-import java.text.SimpleDateFormat;
 import java.util.List;
 
 /**
@@ -32,12 +34,10 @@ public class HistoriquePanel extends JPanel {
     private JComboBox<UtilisateurItem> cmbUtilisateur;
     private JTextField txtRecherche;
     private JSpinner spnLimite;
-    
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
 
     public HistoriquePanel() {
-        actionLogDAO = new ActionLogDAO();
-        utilisateurDAO = new UtilisateurDAO();
+        actionLogDAO = RegistreDAO.get().getActionLogDAO();
+        utilisateurDAO = RegistreDAO.get().getUtilisateurDAO();
         
         setLayout(new BorderLayout(10, 10));
         setBackground(new Color(248, 249, 250));
@@ -258,6 +258,9 @@ public class HistoriquePanel extends JPanel {
     }
     
     public void chargerDonnees() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Historique");
+        
         tableModel.setRowCount(0);
         int limite = (int) spnLimite.getValue();
         
@@ -266,7 +269,7 @@ public class HistoriquePanel extends JPanel {
         for (ActionLog a : actions) {
             Object[] row = {
                 a.getId(),
-                dateFormat.format(a.getDateAction()),
+                DateUtils.dateHeureSecondesToString(a.getDateAction()),
                 a.getUtilisateurNom(),
                 a.getActionEmoji() + " " + a.getAction(),
                 a.getEntiteEmoji() + " " + a.getEntite(),
@@ -274,6 +277,8 @@ public class HistoriquePanel extends JPanel {
             };
             tableModel.addRow(row);
         }
+        
+        evenement.terminer(tableModel.getRowCount());
     }
     
     private void appliquerFiltre() {
@@ -332,7 +337,7 @@ public class HistoriquePanel extends JPanel {
         for (ActionLog a : actions) {
             Object[] row = {
                 a.getId(),
-                dateFormat.format(a.getDateAction()),
+                DateUtils.dateHeureSecondesToString(a.getDateAction()),
                 a.getUtilisateurNom(),
                 a.getActionEmoji() + " " + a.getAction(),
                 a.getEntiteEmoji() + " " + a.getEntite(),
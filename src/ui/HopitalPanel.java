@@ -4,6 +4,8 @@
 package ui;
 
 import dao.HopitalDAO;
+import dao.RegistreDAO;
+import diagnostic.RafraichissementEcranEvent;
 import model.Hopital;
 import utils.ValidationUtils;
 
@@ -25,7 +27,7 @@ public class HopitalPanel extends JPanel {
     private HopitalDAO hopitalDAO;
 
     public HopitalPanel() {
-        hopitalDAO = new HopitalDAO();
+        hopitalDAO = RegistreDAO.get().getHopitalDAO();
         initComponents();
     }
     
@@ -233,6 +235,9 @@ public class HopitalPanel extends JPanel {
     }
     
     public void refreshData() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Hôpitaux");
+        
         tableModel.setRowCount(0);
         List<Hopital> hopitaux = hopitalDAO.listerTous();
         
@@ -246,5 +251,7 @@ public class HopitalPanel extends JPanel {
                 h.isActif() ? "✅ Oui" : "❌ Non"
             });
         }
+        
+        evenement.terminer(tableModel.getRowCount());
     }
 }
@@ -4,6 +4,7 @@
 package ui;
 
 import dao.ActionLogDAO;
+import dao.RegistreDAO;
 import dao.UtilisateurDAO;
 import model.Utilisateur;
 import service.Session;
@@ -34,8 +35,8 @@ public class LoginFrame extends JFrame {
     private ActionLogDAO actionLogDAO;
 
     public LoginFrame() {
-        utilisateurDAO = new UtilisateurDAO();
-        actionLogDAO = new ActionLogDAO();
+        utilisateurDAO = RegistreDAO.get().getUtilisateurDAO();
+        actionLogDAO = RegistreDAO.get().getActionLogDAO();
         initComponents();
         setupWindow();
     }
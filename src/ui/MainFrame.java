@@ -4,11 +4,24 @@
 package ui;
 
 import dao.ActionLogDAO;
+import dao.RegistreDAO;
+import dao.Dialecte;
+import diagnostic.EnregistreurJfr;
+import model.ActionLog;
 import model.Utilisateur;
+import service.ArchivageService;
+import service.DedoublonnageService;
+import service.InstantanesStockService;
+import service.SauvegardeService;
 import service.Session;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * MainFrame : Fenêtre principale de l'application BloodPlus
@@ -26,6 +39,10 @@ public class MainFrame extends JFrame {
     // Instance statique pour accès global (rafraîchissement dashboard)
     private static MainFrame instance;
     
+    // 💡 Photo quotidienne du stock : une seule tâche de fond, même après une reconnexion
+    private static final InstantanesStockService INSTANTANES = new InstantanesStockService();
+    private static final ArchivageService ARCHIVAGE = new ArchivageService();
+    
     // ============ COMPOSANTS ============
     private JPanel mainPanel;           // Panel principal avec CardLayout
     private CardLayout cardLayout;      // Pour changer d'écran
@@ -39,6 +56,8 @@ public class MainFrame extends JFrame {
     private DistributionPanel distributionPanel;
     private UtilisateurPanel utilisateurPanel;
     private HistoriquePanel historiquePanel;
+    private RapportsPanel rapportsPanel;
+    private DiagnosticPanel diagnosticPanel;
     
     // Barre latérale
     private JPanel sidebarPanel;
@@ -46,6 +65,8 @@ public class MainFrame extends JFrame {
     // Boutons admin (pour contrôle visibilité)
     private JButton btnUtilisateurs;
     private JButton btnHistorique;
+    private JButton btnDiagnostic;
+    private JMenu menuAdministration;
     
     // Constantes pour les noms des cartes (écrans)
     private static final String DASHBOARD = "DASHBOARD";
@@ -54,8 +75,10 @@ public class MainFrame extends JFrame {
     private static final String STOCK = "STOCK";
     private static final String HOPITAUX = "HOPITAUX";
     private static final String DISTRIBUTIONS = "DISTRIBUTIONS";
+    private static final String RAPPORTS = "RAPPORTS";
     private static final String UTILISATEURS = "UTILISATEURS";
     private static final String HISTORIQUE = "HISTORIQUE";
+    private static final String DIAGNOSTIC = "DIAGNOSTIC";
 
     /**
      * Constructeur : initialise la fenêtre
@@ -64,6 +87,9 @@ public class MainFrame extends JFrame {
         instance = this;  // Sauvegarder l'instance pour accès global
         initComponents();
         setupWindow();
+        INSTANTANES.demarrer();
+        ARCHIVAGE.demarrer();
+        DedoublonnageService.completerClesEnFond(RegistreDAO.get());
     }
     
     /**
@@ -118,8 +144,10 @@ public class MainFrame extends JFrame {
         stockPanel = new StockPanel();
         hopitalPanel = new HopitalPanel();
         distributionPanel = new DistributionPanel();
+        rapportsPanel = new RapportsPanel();
         utilisateurPanel = new UtilisateurPanel();
         historiquePanel = new HistoriquePanel();
+        diagnosticPanel = new DiagnosticPanel();
         
         // 5. Ajouter les écrans au CardLayout
         mainPanel.add(dashboardPanel, DASHBOARD);
@@ -128,8 +156,10 @@ public class MainFrame extends JFrame {
         mainPanel.add(stockPanel, STOCK);
         mainPanel.add(hopitalPanel, HOPITAUX);
         mainPanel.add(distributionPanel, DISTRIBUTIONS);
+        mainPanel.add(rapportsPanel, RAPPORTS);
         mainPanel.add(utilisateurPanel, UTILISATEURS);
         mainPanel.add(historiquePanel, HISTORIQUE);
+        mainPanel.add(diagnosticPanel, DIAGNOSTIC);
         
         add(mainPanel, BorderLayout.CENTER);
         
@@ -151,6 +181,12 @@ public class MainFrame extends JFrame {
         if (btnHistorique != null) {
             btnHistorique.setVisible(session.estAdmin());
         }
+        if (btnDiagnostic != null) {
+            btnDiagnostic.setVisible(session.estAdmin());
+        }
+        if (menuAdministration != null) {
+            menuAdministration.setVisible(session.estAdmin());
+        }
     }
     
     /**
@@ -172,7 +208,25 @@ public class MainFrame extends JFrame {
         itemAPropos.addActionListener(e -> showAbout());
         menuAide.add(itemAPropos);
         
+        // Menu Administration (visible seulement pour ADMIN)
+        menuAdministration = new JMenu("Administration");
+        JCheckBoxMenuItem itemJfr = new JCheckBoxMenuItem("Enregistrement JFR");
+        itemJfr.setSelected(EnregistreurJfr.estActif());
+        itemJfr.addActionListener(e -> basculerEnregistrementJfr(itemJfr));
+        menuAdministration.add(itemJfr);
+        menuAdministration.addSeparator();
+        JMenuItem itemSauvegarder = new JMenuItem("💾 Sauvegarder la base…");
+        itemSauvegarder.addActionListener(e -> sauvegarderBase());
+        menuAdministration.add(itemSauvegarder);
+        JMenuItem itemIncrement = new JMenuItem("💾 Sauvegarde incrémentale…");
+        itemIncrement.addActionListener(e -> sauvegarderIncrement());
+        menuAdministration.add(itemIncrement);
+        JMenuItem itemRestaurer = new JMenuItem("♻️ Restaurer une sauvegarde…");
+        itemRestaurer.addActionListener(e -> restaurerBase());
+        menuAdministration.add(itemRestaurer);
+        
         menuBar.add(menuFichier);
+        menuBar.add(menuAdministration);
         menuBar.add(menuAide);
         
         return menuBar;
@@ -239,6 +293,8 @@ public class MainFrame extends JFrame {
         sidebar.add(createNavButton("🏥 Hôpitaux", HOPITAUX));
         sidebar.add(Box.createVerticalStrut(5));
         sidebar.add(createNavButton("📦 Distributions", DISTRIBUTIONS));
+        sidebar.add(Box.createVerticalStrut(5));
+        sidebar.add(createNavButton("📈 Rapports", RAPPORTS));
         
         // Bouton Utilisateurs (visible seulement pour ADMIN)
         sidebar.add(Box.createVerticalStrut(5));
@@ -250,6 +306,11 @@ public class MainFrame extends JFrame {
         btnHistorique = createNavButton("📝 Historique", HISTORIQUE);
         sidebar.add(btnHistorique);
         
+        // Bouton Diagnostic (visible seulement pour ADMIN)
+        sidebar.add(Box.createVerticalStrut(5));
+        btnDiagnostic = createNavButton("🩺 Diagnostic", DIAGNOSTIC);
+        sidebar.add(btnDiagnostic);
+        
         // Espace flexible
         sidebar.add(Box.createVerticalGlue());
         
@@ -261,7 +322,7 @@ public class MainFrame extends JFrame {
                 JOptionPane.YES_NO_OPTION);
             if (confirm == JOptionPane.YES_OPTION) {
                 // Enregistrer la déconnexion avant de fermer la session
-                new ActionLogDAO().logDeconnexion();
+                RegistreDAO.get().getActionLogDAO().logDeconnexion();
                 Session.getInstance().deconnecter();
                 dispose();
                 new LoginFrame().setVisible(true);
@@ -333,13 +394,150 @@ public class MainFrame extends JFrame {
             case DISTRIBUTIONS:
                 distributionPanel.refreshData();
                 break;
+            case RAPPORTS:
+                rapportsPanel.chargerDonnees();
+                break;
             case UTILISATEURS:
                 utilisateurPanel.chargerDonnees();
                 break;
             case HISTORIQUE:
                 historiquePanel.chargerDonnees();
                 break;
+            case DIAGNOSTIC:
+                diagnosticPanel.chargerDonnees();
+                break;
+        }
+    }
+    
+    /**
+     * Démarre ou arrête l'enregistrement Java Flight Recorder
+     * 💡 À l'arrêt, le fichier .jfr s'ouvre avec JDK Mission Control
+     */
+    private void basculerEnregistrementJfr(JCheckBoxMenuItem item) {
+        try {
+            if (item.isSelected()) {
+                EnregistreurJfr.demarrer();
+                JOptionPane.showMessageDialog(this,
+                    "Enregistrement démarré.\nReproduisez le problème puis décochez\n"
+                    + "Administration > Enregistrement JFR pour le sauvegarder.",
+                    "Enregistrement JFR", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JFileChooser chooser = new JFileChooser();
+                chooser.setSelectedFile(EnregistreurJfr.fichierParDefaut().toFile());
+                // Annuler = sauvegarder quand même au nom proposé (rien n'est perdu)
+                File fichier = chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION
+                    ? chooser.getSelectedFile() : EnregistreurJfr.fichierParDefaut().toFile();
+                EnregistreurJfr.arreter(fichier.toPath());
+                JOptionPane.showMessageDialog(this,
+                    "✅ Enregistrement sauvegardé :\n" + fichier.getAbsolutePath(),
+                    "Enregistrement JFR", JOptionPane.INFORMATION_MESSAGE);
+            }
+        } catch (IOException | RuntimeException e) {
+            item.setSelected(EnregistreurJfr.estActif());
+            JOptionPane.showMessageDialog(this,
+                "❌ Enregistrement JFR impossible : " + e.getMessage(),
+                "Erreur", JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Sauvegarde toute la base dans un fichier (voir SauvegardeService)
+     */
+    private void sauvegarderBase() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("bloodplus-" + Dialecte.aujourdhui() + ".bpsauv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
+        File fichier = chooser.getSelectedFile();
+        executerSauvegarde("Sauvegarde", () -> new SauvegardeService().sauvegarder(fichier.toPath()),
+            "✅ Base sauvegardée dans " + fichier.getAbsolutePath());
+    }
+    
+    /**
+     * Sauvegarde seulement ce qui a changé depuis une sauvegarde précédente
+     */
+    private void sauvegarderIncrement() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Sauvegarde précédente (complète ou incrémentale)");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File precedente = chooser.getSelectedFile();
+        chooser.setDialogTitle("Nouvelle sauvegarde incrémentale");
+        chooser.setSelectedFile(new File(precedente.getParentFile(),
+            "bloodplus-" + Dialecte.aujourdhui() + "-increment.bpsauv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File fichier = chooser.getSelectedFile();
+        executerSauvegarde("Sauvegarde incrémentale",
+            () -> new SauvegardeService().sauvegarderIncrement(precedente.toPath(), fichier.toPath()),
+            "✅ Modifications sauvegardées dans " + fichier.getAbsolutePath());
+    }
+    
+    /**
+     * Remplace toute la base par le contenu d'une sauvegarde
+     * 💡 Choisir la complète ET ses incrémentales : elles sont rejouées dans l'ordre.
+     *    Tous les fichiers sont vérifiés en entier avant que la base soit touchée
+     */
+    private void restaurerBase() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setMultiSelectionEnabled(true);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        List<Path> fichiers = new ArrayList<>();
+        for (File fichier : chooser.getSelectedFiles()) {
+            fichiers.add(fichier.toPath());
+        }
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "⚠️ TOUTES les données actuelles seront remplacées par celles de\n"
+            + fichiers.size() + " fichier(s) de sauvegarde"
+            + "\n\nLes autres postes doivent être déconnectés. Continuer ?",
+            "Restauration", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+        executerSauvegarde("Restauration", () -> new SauvegardeService().restaurer(fichiers),
+            "✅ Base restaurée\nRedémarrez BloodPlus pour recharger les écrans."
+            + "\n💡 Faire maintenant une sauvegarde complète : les incrémentales repartent d'elle.");
+    }
+    
+    private interface OperationSauvegarde {
+        SauvegardeService.Bilan executer() throws Exception;
+    }
+    
+    private void executerSauvegarde(String titre, OperationSauvegarde operation, String message) {
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        menuAdministration.setEnabled(false);
+        SwingWorker<SauvegardeService.Bilan, Void> worker = new SwingWorker<SauvegardeService.Bilan, Void>() {
+            @Override
+            protected SauvegardeService.Bilan doInBackground() throws Exception {
+                return operation.executer();
+            }
+            
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                menuAdministration.setEnabled(true);
+                try {
+                    SauvegardeService.Bilan bilan = get();
+                    RegistreDAO.get().getActionLogDAO().log(ActionLog.ACTION_MODIFIER, ActionLog.ENTITE_SYSTEME,
+                        titre + " : " + bilan);
+                    JOptionPane.showMessageDialog(MainFrame.this, message + "\n(" + bilan + ")",
+                        titre, JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(MainFrame.this,
+                        "❌ " + titre + " impossible : " + cause.getMessage(),
+                        "Erreur", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
     }
     
     /**
@@ -0,0 +1,252 @@
+/*
+ * Package UI
+ */
+package ui;
+
+import dao.CumulMensuelDAO;
+import dao.DatabaseConnection;
+import dao.Dialecte;
+import dao.RegistreDAO;
+import diagnostic.RafraichissementEcranEvent;
+import service.Session;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.sql.Connection;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * RapportsPanel : rapports mensuels d'une année (dons, distributions, stock)
+ *
+ * 💡 EXPLICATION :
+ * Les chiffres sont lus dans les cumuls mensuels (voir CumulMensuelDAO) :
+ * l'écran s'ouvre aussi vite avec dix ans d'historique qu'avec un mois.
+ * Le bouton "Reconstruire" (ADMIN) recalcule les cumuls depuis les tables
+ * de départ, après une correction faite directement en base.
+ *
+ * @author dteach
+ */
+public class RapportsPanel extends JPanel {
+
+    private static final int ANNEES_PROPOSEES = 10;
+
+    private final CumulMensuelDAO cumulDAO;
+
+    private JComboBox<Integer> cmbAnnee;
+    private DefaultTableModel bilanModel;
+    private DefaultTableModel hopitauxModel;
+    private DefaultTableModel fluxModel;
+    private JButton btnReconstruire;
+
+    public RapportsPanel() {
+        cumulDAO = RegistreDAO.get().getCumulMensuelDAO();
+
+        setLayout(new BorderLayout(10, 10));
+        setBackground(new Color(248, 249, 250));
+        setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        initComponents();
+    }
+
+    private void initComponents() {
+        // ========== HEADER ==========
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setOpaque(false);
+
+        JLabel lblTitre = new JLabel("📈 Rapports mensuels");
+        lblTitre.setFont(new Font("Arial", Font.BOLD, 24));
+
+        JLabel lblInfo = new JLabel("Dons, distributions et mouvements du stock, mois par mois");
+        lblInfo.setFont(new Font("Arial", Font.ITALIC, 12));
+        lblInfo.setForeground(Color.GRAY);
+
+        JPanel titlePanel = new JPanel(new GridLayout(2, 1));
+        titlePanel.setOpaque(false);
+        titlePanel.add(lblTitre);
+        titlePanel.add(lblInfo);
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+
+        // Choix de l'année
+        JPanel anneePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        anneePanel.setOpaque(false);
+        anneePanel.add(new JLabel("Année :"));
+        cmbAnnee = new JComboBox<>();
+        int anneeCourante = Dialecte.aujourdhui().getYear();
+        for (int i = 0; i < ANNEES_PROPOSEES; i++) {
+            cmbAnnee.addItem(anneeCourante - i);
+        }
+        cmbAnnee.setPreferredSize(new Dimension(90, 30));
+        cmbAnnee.addActionListener(e -> chargerDonnees());
+        anneePanel.add(cmbAnnee);
+        headerPanel.add(anneePanel, BorderLayout.EAST);
+
+        add(headerPanel, BorderLayout.NORTH);
+
+        // ========== ONGLETS ==========
+        bilanModel = creerModele("Mois", "Dons", "Collecté (ml)", "Validés", "Rejetés",
+            "Distributions", "Distribué (ml)", "Périmé (ml)", "Flux net (ml)");
+        hopitauxModel = creerModele("Hôpital", "Ville", "Groupe", "Distributions", "Volume (ml)");
+        fluxModel = creerModele("Groupe", "Entré (ml)", "Sorti (ml)", "Périmé (ml)", "Flux net (ml)");
+
+        JTabbedPane onglets = new JTabbedPane();
+        onglets.addTab("Bilan mensuel", creerTableau(bilanModel));
+        onglets.addTab("Par hôpital", creerTableau(hopitauxModel));
+        onglets.addTab("Flux par groupe", creerTableau(fluxModel));
+        add(onglets, BorderLayout.CENTER);
+
+        // ========== BOUTONS ==========
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 15));
+        buttonPanel.setBackground(new Color(240, 240, 245));
+        buttonPanel.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createMatteBorder(1, 0, 0, 0, new Color(200, 200, 200)),
+            BorderFactory.createEmptyBorder(10, 10, 10, 10)
+        ));
+
+        JButton btnRefresh = createButton("🔄 Rafraîchir", new Color(0, 123, 255));
+        btnReconstruire = createButton("🛠️ Reconstruire", new Color(255, 193, 7));
+        btnReconstruire.setToolTipText("Recalcule tous les cumuls à partir des dons, distributions et du journal du stock");
+
+        btnRefresh.addActionListener(e -> chargerDonnees());
+        btnReconstruire.addActionListener(e -> reconstruire());
+
+        buttonPanel.add(btnRefresh);
+        buttonPanel.add(btnReconstruire);
+
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private static DefaultTableModel creerModele(String... colonnes) {
+        return new DefaultTableModel(colonnes, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private static JScrollPane creerTableau(DefaultTableModel modele) {
+        JTable table = new JTable(modele);
+        table.setRowHeight(28);
+        table.setFont(new Font("Arial", Font.PLAIN, 12));
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        table.getTableHeader().setBackground(new Color(52, 58, 64));
+        table.getTableHeader().setForeground(Color.WHITE);
+        table.setSelectionBackground(new Color(0, 123, 255, 50));
+        table.setGridColor(new Color(220, 220, 220));
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200)));
+        return scrollPane;
+    }
+
+    private JButton createButton(String text, Color bgColor) {
+        JButton btn = new JButton(text);
+        btn.setBackground(bgColor);
+        btn.setForeground(Color.WHITE);
+        btn.setFocusPainted(false);
+        btn.setBorderPainted(true);
+        btn.setBorder(BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(bgColor.darker(), 1),
+            BorderFactory.createEmptyBorder(10, 20, 10, 20)
+        ));
+        btn.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        btn.setFont(new Font("Arial", Font.BOLD, 14));
+        btn.setPreferredSize(new Dimension(170, 45));
+
+        btn.addMouseListener(new java.awt.event.MouseAdapter() {
+            public void mouseEntered(java.awt.event.MouseEvent e) {
+                btn.setBackground(bgColor.darker());
+            }
+            public void mouseExited(java.awt.event.MouseEvent e) {
+                btn.setBackground(bgColor);
+            }
+        });
+
+        return btn;
+    }
+
+    public void chargerDonnees() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Rapports");
+        btnReconstruire.setVisible(Session.getInstance().estAdmin());
+
+        int annee = (Integer) cmbAnnee.getSelectedItem();
+        int debut = annee * 100 + 1;
+        int fin = annee * 100 + 12;
+
+        bilanModel.setRowCount(0);
+        for (Object[] ligne : cumulDAO.getBilanMensuel(debut, fin)) {
+            Object[] row = ligne.clone();
+            row[0] = nomMois((Integer) ligne[0]);
+            bilanModel.addRow(row);
+        }
+
+        hopitauxModel.setRowCount(0);
+        for (Object[] ligne : cumulDAO.getDistributionsParHopital(debut, fin)) {
+            hopitauxModel.addRow(ligne);
+        }
+
+        fluxModel.setRowCount(0);
+        for (Object[] ligne : cumulDAO.getFluxParGroupe(debut, fin)) {
+            fluxModel.addRow(ligne);
+        }
+
+        evenement.terminer(bilanModel.getRowCount() + hopitauxModel.getRowCount() + fluxModel.getRowCount());
+    }
+
+    private void reconstruire() {
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "Recalculer tous les cumuls mensuels à partir des données ?\n"
+            + "(à faire après une correction faite directement en base)",
+            "Reconstruction", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        btnReconstruire.setEnabled(false);
+        SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                // 💡 SA connexion, comme l'import CSV : les écritures faites pendant ce temps
+                //    sur la connexion partagée de l'interface restent hors de sa transaction
+                try (Connection connection = DatabaseConnection.ouvrirConnexion()) {
+                    RegistreDAO.Liaison liaison = RegistreDAO.get().lier(connection);
+                    try {
+                        return cumulDAO.reconstruire();
+                    } finally {
+                        liaison.close();
+                    }
+                }
+            }
+
+            @Override
+            protected void done() {
+                btnReconstruire.setEnabled(true);
+                try {
+                    int mois = get();
+                    if (mois >= 0) {
+                        JOptionPane.showMessageDialog(RapportsPanel.this,
+                            "✅ Cumuls reconstruits : " + mois + " mois");
+                        chargerDonnees();
+                        return;
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                JOptionPane.showMessageDialog(RapportsPanel.this,
+                    "❌ Erreur lors de la reconstruction des cumuls",
+                    "Erreur", JOptionPane.ERROR_MESSAGE);
+            }
+        };
+        worker.execute();
+    }
+
+    // 202603 → "Mars 2026"
+    private static String nomMois(int mois) {
+        String nom = Month.of(mois % 100).getDisplayName(TextStyle.FULL, Locale.FRENCH);
+        return Character.toUpperCase(nom.charAt(0)) + nom.substring(1) + " " + mois / 100;
+    }
+}
@@ -3,15 +3,23 @@
  */
 package ui;
 
+import dao.RegistreDAO;
 import dao.StockSanguinDAO;
+import diagnostic.RafraichissementEcranEvent;
 import model.GroupeSanguin;
 import model.StockSanguin;
+import service.CampagneRappelService;
 import utils.DateUtils;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.File;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
 
 /**
  * StockPanel : Gestion du stock sanguin
@@ -27,7 +35,7 @@ public class StockPanel extends JPanel {
     private StockSanguinDAO stockDAO;
 
     public StockPanel() {
-        stockDAO = new StockSanguinDAO();
+        stockDAO = RegistreDAO.get().getStockSanguinDAO();
         initComponents();
     }
     
@@ -83,6 +91,7 @@ public class StockPanel extends JPanel {
         JButton btnMarquerPerimes = createButton("⚠️ Marquer périmés", new Color(255, 193, 7));
         JButton btnProchesPeremption = createButton("⏰ Proches péremption", new Color(0, 123, 255));
         JButton btnRefresh = createButton("🔄 Rafraîchir", new Color(108, 117, 125));
+        JButton btnCampagne = createButton("📞 Campagne de rappel", new Color(220, 53, 69));
         
         btnMarquerPerimes.addActionListener(e -> {
             int nb = stockDAO.marquerPerimes();
@@ -92,10 +101,12 @@ public class StockPanel extends JPanel {
         
         btnProchesPeremption.addActionListener(e -> afficherProchesPeremption());
         btnRefresh.addActionListener(e -> refreshData());
+        btnCampagne.addActionListener(e -> genererCampagne(btnCampagne));
         
         buttonPanel.add(btnMarquerPerimes);
         buttonPanel.add(btnProchesPeremption);
         buttonPanel.add(btnRefresh);
+        buttonPanel.add(btnCampagne);
         
         add(buttonPanel, BorderLayout.SOUTH);
         
@@ -181,7 +192,56 @@ public class StockPanel extends JPanel {
         }
     }
     
+    /**
+     * Génère la liste des donneurs à appeler pour les groupes en manque
+     */
+    private void genererCampagne(JButton btnCampagne) {
+        CampagneRappelService service = new CampagneRappelService();
+        Map<String, Integer> enManque = service.getGroupesEnManque();
+        if (enManque.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "✅ Aucun groupe sous le seuil d'alerte ("
+                + StockSanguin.SEUIL_ALERTE_ML + " ml)");
+            return;
+        }
+        
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Enregistrer la liste d'appel (" + enManque.keySet() + ")");
+        chooser.setSelectedFile(new File("campagne_rappel.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File fichier = chooser.getSelectedFile();
+        
+        btnCampagne.setEnabled(false);
+        SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                try (Writer sortie = Files.newBufferedWriter(fichier.toPath(), StandardCharsets.UTF_8)) {
+                    return service.generer(sortie, CampagneRappelService.LIMITE_PAR_GROUPE);
+                }
+            }
+            
+            @Override
+            protected void done() {
+                btnCampagne.setEnabled(true);
+                try {
+                    JOptionPane.showMessageDialog(StockPanel.this, 
+                        "✅ " + get() + " donneurs à contacter\n" + fichier.getAbsolutePath());
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(StockPanel.this, 
+                        "❌ Erreur lors de la génération de la campagne", 
+                        "Erreur", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
+    }
+    
     public void refreshData() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Stocks");
+        
         // Rafraîchir le résumé
         resumePanel.removeAll();
         for (String groupe : GroupeSanguin.TOUS_LES_GROUPES) {
@@ -209,5 +269,7 @@ public class StockPanel extends JPanel {
                 s.getStatut()
             });
         }
+        
+        evenement.terminer(tableModel.getRowCount());
     }
 }
@@ -3,9 +3,12 @@
  */
 package ui;
 
+import dao.RegistreDAO;
 import dao.UtilisateurDAO;
+import diagnostic.RafraichissementEcranEvent;
 import model.Utilisateur;
 import service.Session;
+import utils.DateUtils;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -27,7 +30,7 @@ public class UtilisateurPanel extends JPanel {
     private JButton btnAjouter, btnModifier, btnSupprimer, btnChangerMdp;
 
     public UtilisateurPanel() {
-        utilisateurDAO = new UtilisateurDAO();
+        utilisateurDAO = RegistreDAO.get().getUtilisateurDAO();
         setLayout(new BorderLayout(10, 10));
         setBackground(new Color(248, 249, 250));
         setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
@@ -160,6 +163,9 @@ public class UtilisateurPanel extends JPanel {
     }
     
     public void chargerDonnees() {
+        // 💡 Visible dans un enregistrement JFR (menu Administration)
+        RafraichissementEcranEvent evenement = RafraichissementEcranEvent.demarrer("Utilisateurs");
+        
         tableModel.setRowCount(0);
         
         List<Utilisateur> utilisateurs = utilisateurDAO.listerTous();
@@ -172,11 +178,13 @@ public class UtilisateurPanel extends JPanel {
                 u.getRole(),
                 u.isActif() ? "✅ Oui" : "❌ Non",
                 u.getDerniereConnexion() != null ? 
-                    new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm").format(u.getDerniereConnexion()) : 
+                    DateUtils.dateHeureToString(u.getDerniereConnexion()) : 
                     "Jamais"
             };
             tableModel.addRow(row);
         }
+        
+        evenement.terminer(tableModel.getRowCount());
     }
     
     private void ajouterUtilisateur() {
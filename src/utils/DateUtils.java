@@ -3,58 +3,90 @@
  */
 package utils;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 
 /**
  * Classe DateUtils : utilitaires pour gérer les dates
- * 
+ *
  * 💡 EXPLICATION :
  * En Java, manipuler les dates peut être compliqué
  * Cette classe regroupe les fonctions utiles pour :
  * - Formater une date en texte
  * - Convertir un texte en date
  * - Calculer des différences de dates
- * 
+ *
+ * On utilise java.time (LocalDate = un jour, LocalDateTime = un jour et
+ * une heure) : ces objets sont immuables, et les DateTimeFormatter aussi.
+ * Contrairement à SimpleDateFormat, un même formateur peut donc être
+ * partagé par l'EDT et les tâches de fond sans verrou ni copie.
+ *
  * @author dteach
  */
 public class DateUtils {
-    
+
     // Format de date standard (jour/mois/année)
     public static final String FORMAT_DATE = "dd/MM/yyyy";
     public static final String FORMAT_DATE_HEURE = "dd/MM/yyyy HH:mm";
-    
-    private static final SimpleDateFormat sdf = new SimpleDateFormat(FORMAT_DATE);
-    private static final SimpleDateFormat sdfHeure = new SimpleDateFormat(FORMAT_DATE_HEURE);
+    public static final String FORMAT_DATE_HEURE_SECONDES = "dd/MM/yyyy HH:mm:ss";
+
+    // 💡 Formateurs créés une seule fois, partagés par tous les threads
+    //    ("uuuu" + STRICT : le 31/02 est refusé au lieu de devenir le 03/03)
+    public static final DateTimeFormatter FORMATEUR_DATE =
+        DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    public static final DateTimeFormatter FORMATEUR_DATE_HEURE =
+        DateTimeFormatter.ofPattern(FORMAT_DATE_HEURE);
+    public static final DateTimeFormatter FORMATEUR_DATE_HEURE_SECONDES =
+        DateTimeFormatter.ofPattern(FORMAT_DATE_HEURE_SECONDES);
+
+    /**
+     * Convertir une date en String
+     * Ex: 2026-01-20 -> "20/01/2026"
+     */
+    public static String dateToString(LocalDate date) {
+        if (date == null) return "";
+        return FORMATEUR_DATE.format(date);
+    }
+
+    /**
+     * Convertir une date-heure en String (jour seulement)
+     * Ex: 2026-01-20T14:30 -> "20/01/2026"
+     */
+    public static String dateToString(LocalDateTime date) {
+        if (date == null) return "";
+        return FORMATEUR_DATE.format(date);
+    }
 
     /**
-     * Convertir une Date en String
-     * Ex: Date -> "20/01/2026"
+     * Convertir une date-heure en String avec l'heure
+     * Ex: 2026-01-20T14:30 -> "20/01/2026 14:30"
      */
-    public static String dateToString(Date date) {
+    public static String dateHeureToString(LocalDateTime date) {
         if (date == null) return "";
-        return sdf.format(date);
+        return FORMATEUR_DATE_HEURE.format(date);
     }
 
     /**
-     * Convertir une Date en String avec l'heure
-     * Ex: Date -> "20/01/2026 14:30"
+     * Convertir une date-heure en String avec l'heure et les secondes
+     * Ex: 2026-01-20T14:30:05 -> "20/01/2026 14:30:05"
      */
-    public static String dateHeureToString(Date date) {
+    public static String dateHeureSecondesToString(LocalDateTime date) {
         if (date == null) return "";
-        return sdfHeure.format(date);
+        return FORMATEUR_DATE_HEURE_SECONDES.format(date);
     }
 
     /**
-     * Convertir un String en Date
-     * Ex: "20/01/2026" -> Date
+     * Convertir un String en date
+     * Ex: "20/01/2026" -> 2026-01-20
      */
-    public static Date stringToDate(String dateStr) {
+    public static LocalDate stringToDate(String dateStr) {
         if (dateStr == null || dateStr.isEmpty()) return null;
         try {
-            return sdf.parse(dateStr);
-        } catch (ParseException e) {
+            return LocalDate.parse(dateStr, FORMATEUR_DATE);
+        } catch (DateTimeParseException e) {
             System.err.println("❌ Format de date invalide : " + dateStr);
             return null;
         }
@@ -62,32 +94,31 @@ public class DateUtils {
 
     /**
      * Calculer le nombre de jours entre deux dates
+     * 💡 Différence de "numéros de jour" (epoch day) : pas de souci
+     *    d'heure d'été ni d'arrondi sur les millisecondes
      */
-    public static int joursEntre(Date date1, Date date2) {
-        long diff = Math.abs(date2.getTime() - date1.getTime());
-        return (int) (diff / (24 * 60 * 60 * 1000));
+    public static int joursEntre(LocalDate date1, LocalDate date2) {
+        return (int) Math.abs(date2.toEpochDay() - date1.toEpochDay());
     }
 
     /**
      * Ajouter des jours à une date
      */
-    public static Date ajouterJours(Date date, int jours) {
-        return new Date(date.getTime() + (jours * 24L * 60L * 60L * 1000L));
+    public static LocalDate ajouterJours(LocalDate date, int jours) {
+        return date.plusDays(jours);
     }
 
     /**
      * Vérifier si une date est dans le passé
      */
-    public static boolean estPassee(Date date) {
-        return date.before(new Date());
+    public static boolean estPassee(LocalDate date) {
+        return date.isBefore(LocalDate.now());
     }
 
     /**
      * Vérifier si une date est aujourd'hui
      */
-    public static boolean estAujourdhui(Date date) {
-        String aujourdhui = dateToString(new Date());
-        String dateTest = dateToString(date);
-        return aujourdhui.equals(dateTest);
+    public static boolean estAujourdhui(LocalDate date) {
+        return date.equals(LocalDate.now());
     }
 }
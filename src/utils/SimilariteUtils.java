@@ -0,0 +1,151 @@
+/*
+ * Package UTILS : fonctions utilitaires réutilisables
+ */
+package utils;
+
+import java.text.Normalizer;
+
+/**
+ * Classe SimilariteUtils : compare des textes "à peu près égaux"
+ *
+ * 💡 EXPLICATION :
+ * Une même personne peut être saisie "Hélène Dupont", "HELENE DUPONT" ou "Helene Dupond".
+ * Pour la reconnaître, on :
+ * 1. NORMALISE les textes (minuscules, sans accents, sans ponctuation)
+ * 2. Calcule une SIMILARITÉ entre 0 (rien à voir) et 1 (identique)
+ *    avec la distance de Jaro-Winkler, adaptée aux noms propres
+ * 3. Calcule une CLÉ PHONÉTIQUE : deux noms qui se prononcent pareil
+ *    ("Dupont" / "Dupond") ont la même clé
+ *
+ * Toutes les méthodes sont sans état : utilisables depuis plusieurs threads.
+ *
+ * @author dteach
+ */
+public class SimilariteUtils {
+
+    /**
+     * Minuscules, sans accents, uniquement lettres et chiffres
+     * Ex: "  Hélène-Marie " -> "helenemarie"
+     */
+    public static String normaliser(String texte) {
+        if (texte == null) return "";
+        String sansAccents = Normalizer.normalize(texte, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(sansAccents.length());
+        for (int i = 0; i < sansAccents.length(); i++) {
+            char c = Character.toLowerCase(sansAccents.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Garde les 9 derniers chiffres d'un téléphone
+     * 💡 "06 12 34 56 78" et "+33612345678" donnent tous les deux "612345678"
+     */
+    public static String normaliserTelephone(String telephone) {
+        if (telephone == null) return "";
+        String chiffres = telephone.replaceAll("\\D", "");
+        return chiffres.length() > 9 ? chiffres.substring(chiffres.length() - 9) : chiffres;
+    }
+
+    /**
+     * Email en minuscules sans espaces
+     */
+    public static String normaliserEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase();
+    }
+
+    /**
+     * Clé phonétique simplifiée (inspirée de Soundex, adaptée au français)
+     * Ex: "dupont", "dupond", "duppont" -> "DPNT"
+     *
+     * @param normalise Un texte déjà passé par normaliser()
+     */
+    public static String clePhonetique(String normalise) {
+        if (normalise.isEmpty()) return "";
+        StringBuilder cle = new StringBuilder();
+        char precedent = 0;
+        for (int i = 0; i < normalise.length(); i++) {
+            char code = codeSon(normalise.charAt(i));
+            if (i == 0) {
+                cle.append(Character.toUpperCase(normalise.charAt(0)));
+            } else if (code != 0 && code != precedent) {
+                cle.append(code);
+            }
+            precedent = code;
+        }
+        return cle.toString();
+    }
+
+    private static char codeSon(char c) {
+        switch (c) {
+            case 'b': case 'p': return 'P';
+            case 'd': case 't': return 'T';
+            case 'c': case 'k': case 'q': case 'g': return 'K';
+            case 's': case 'z': case 'x': return 'S';
+            case 'f': case 'v': return 'F';
+            case 'm': case 'n': return 'N';
+            case 'l': return 'L';
+            case 'r': return 'R';
+            case 'j': return 'J';
+            default: return 0;   // voyelles, h, w, y, chiffres : ignorés
+        }
+    }
+
+    /**
+     * Similarité de Jaro-Winkler entre deux textes normalisés
+     *
+     * 💡 Compte les caractères communs "proches" et les inversions,
+     *    puis favorise les textes qui commencent pareil (fréquent pour les noms)
+     *
+     * @return entre 0.0 (rien en commun) et 1.0 (identiques)
+     */
+    public static double jaroWinkler(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) return 0.0;
+        if (a.equals(b)) return 1.0;
+
+        int fenetre = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] prisA = new boolean[a.length()];
+        boolean[] prisB = new boolean[b.length()];
+
+        // Caractères communs (à distance <= fenêtre)
+        int communs = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int debut = Math.max(0, i - fenetre);
+            int fin = Math.min(b.length() - 1, i + fenetre);
+            for (int j = debut; j <= fin; j++) {
+                if (!prisB[j] && a.charAt(i) == b.charAt(j)) {
+                    prisA[i] = true;
+                    prisB[j] = true;
+                    communs++;
+                    break;
+                }
+            }
+        }
+        if (communs == 0) return 0.0;
+
+        // Transpositions (caractères communs dans un ordre différent)
+        int transpositions = 0;
+        int k = 0;
+        for (int i = 0; i < a.length(); i++) {
+            if (prisA[i]) {
+                while (!prisB[k]) k++;
+                if (a.charAt(i) != b.charAt(k)) transpositions++;
+                k++;
+            }
+        }
+
+        double m = communs;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3.0;
+
+        // Bonus pour le préfixe commun (4 caractères maximum)
+        int prefixe = 0;
+        while (prefixe < 4 && prefixe < a.length() && prefixe < b.length()
+                && a.charAt(prefixe) == b.charAt(prefixe)) {
+            prefixe++;
+        }
+        return jaro + prefixe * 0.1 * (1.0 - jaro);
+    }
+}